@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.commons;
+
+/**
+ * Single JSON RPC request or response unmarshalled from a web socket message. A message may be a
+ * batch of requests and responses, so it is unmarshalled to a list of such objects.
+ */
+public class JsonRpcMessage {
+  private final JsonRpcRequest request;
+  private final JsonRpcResponse response;
+  private final JsonRpcException error;
+
+  private JsonRpcMessage(JsonRpcRequest request, JsonRpcResponse response, JsonRpcException error) {
+    this.request = request;
+    this.response = response;
+    this.error = error;
+  }
+
+  public static JsonRpcMessage request(JsonRpcRequest request) {
+    return new JsonRpcMessage(request, null, null);
+  }
+
+  public static JsonRpcMessage response(JsonRpcResponse response) {
+    return new JsonRpcMessage(null, response, null);
+  }
+
+  /** Creates a message that is a JSON RPC object, but is not a valid request. */
+  public static JsonRpcMessage invalid(JsonRpcException error) {
+    return new JsonRpcMessage(null, null, error);
+  }
+
+  /** Creates a message that is neither request nor response. */
+  public static JsonRpcMessage unknown() {
+    return new JsonRpcMessage(null, null, null);
+  }
+
+  public boolean isRequest() {
+    return request != null;
+  }
+
+  public boolean isResponse() {
+    return response != null;
+  }
+
+  public boolean isInvalid() {
+    return error != null;
+  }
+
+  public JsonRpcRequest getRequest() {
+    return request;
+  }
+
+  public JsonRpcResponse getResponse() {
+    return response;
+  }
+
+  public JsonRpcException getError() {
+    return error;
+  }
+}
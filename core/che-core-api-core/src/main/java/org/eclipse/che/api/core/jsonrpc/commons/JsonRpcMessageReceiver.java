@@ -23,8 +23,10 @@ import org.slf4j.Logger;
 /**
  * Receives and process messages coming from web socket service. Basically it validates, qualifies
  * and transforms a raw web socket message to a JSON RPC known structure and pass it further to
- * appropriate dispatchers. In case of any {@link JsonRpcException} happens during request/response
- * processing this class is also responsible for an error transmission.
+ * appropriate dispatchers. Each message is parsed once by {@link
+ * JsonRpcUnmarshaller#unmarshalMessages(String)}, parameters of requests are bound to their types
+ * only when requests are handled. In case of any {@link JsonRpcException} happens during
+ * request/response processing this class is also responsible for an error transmission.
  */
 @Singleton
 public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
@@ -33,7 +35,6 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
   private final RequestDispatcher requestDispatcher;
   private final ResponseDispatcher responseDispatcher;
   private final JsonRpcErrorTransmitter errorTransmitter;
-  private final JsonRpcQualifier jsonRpcQualifier;
   private final JsonRpcUnmarshaller jsonRpcUnmarshaller;
   private final RequestProcessor requestProcessor;
 
@@ -42,13 +43,11 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
       RequestDispatcher requestDispatcher,
       ResponseDispatcher responseDispatcher,
       JsonRpcErrorTransmitter errorTransmitter,
-      JsonRpcQualifier jsonRpcQualifier,
       JsonRpcUnmarshaller jsonRpcUnmarshaller,
       RequestProcessor requestProcessor) {
     this.requestDispatcher = requestDispatcher;
     this.responseDispatcher = responseDispatcher;
     this.errorTransmitter = errorTransmitter;
-    this.jsonRpcQualifier = jsonRpcQualifier;
     this.jsonRpcUnmarshaller = jsonRpcUnmarshaller;
     this.requestProcessor = requestProcessor;
   }
@@ -61,17 +60,21 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
     checkArgument(!message.isEmpty(), "Message must not be empty");
 
     LOGGER.debug("Receiving message: " + message + ", from endpoint: " + endpointId);
-    if (!jsonRpcQualifier.isValidJson(message)) {
-      String error = "An error occurred on the server while parsing the JSON text";
-      errorTransmitter.transmit(endpointId, new JsonRpcException(-32700, error));
+    List<JsonRpcMessage> messages;
+    try {
+      messages = jsonRpcUnmarshaller.unmarshalMessages(message);
+    } catch (JsonRpcException e) {
+      errorTransmitter.transmit(endpointId, e);
+      return;
     }
 
-    List<String> messages = jsonRpcUnmarshaller.unmarshalArray(message);
-    for (String innerMessage : messages) {
-      if (jsonRpcQualifier.isJsonRpcRequest(innerMessage)) {
-        requestProcessor.process(() -> processRequest(endpointId, innerMessage));
-      } else if (jsonRpcQualifier.isJsonRpcResponse(innerMessage)) {
-        processResponse(endpointId, innerMessage);
+    for (JsonRpcMessage innerMessage : messages) {
+      if (innerMessage.isRequest()) {
+        processRequest(endpointId, innerMessage.getRequest());
+      } else if (innerMessage.isResponse()) {
+        responseDispatcher.dispatch(endpointId, innerMessage.getResponse());
+      } else if (innerMessage.isInvalid()) {
+        errorTransmitter.transmit(endpointId, innerMessage.getError());
       } else {
         processError();
       }
@@ -85,23 +88,28 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
     throw exception;
   }
 
-  private void processResponse(String endpointId, String innerMessage) {
-    JsonRpcResponse response = jsonRpcUnmarshaller.unmarshalResponse(innerMessage);
-    responseDispatcher.dispatch(endpointId, response);
+  private void processRequest(String endpointId, JsonRpcRequest request) {
+    try {
+      requestProcessor.process(request.getMethod(), () -> dispatchRequest(endpointId, request));
+    } catch (JsonRpcException e) {
+      transmitError(endpointId, request, e);
+    }
   }
 
-  private void processRequest(String endpointId, String innerMessage) {
-    JsonRpcRequest request = null;
+  private void dispatchRequest(String endpointId, JsonRpcRequest request) {
     try {
-      request = jsonRpcUnmarshaller.unmarshalRequest(innerMessage);
       requestDispatcher.dispatch(endpointId, request);
     } catch (JsonRpcException e) {
-      if (request == null || request.getId() == null) {
-        errorTransmitter.transmit(endpointId, e);
-      } else {
-        errorTransmitter.transmit(
-            endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
-      }
+      transmitError(endpointId, request, e);
+    }
+  }
+
+  private void transmitError(String endpointId, JsonRpcRequest request, JsonRpcException e) {
+    if (request.getId() == null) {
+      errorTransmitter.transmit(endpointId, e);
+    } else {
+      errorTransmitter.transmit(
+          endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
     }
   }
 }
@@ -14,6 +14,17 @@ import java.util.List;
 
 /** Transforms plain text messages into JSON RPC structures. */
 public interface JsonRpcUnmarshaller {
+  /**
+   * Unmarshals all the requests and responses of a plain text message, the message may be a single
+   * JSON RPC structure or an array of them. Each of the structures is qualified and unmarshalled
+   * while the message is parsed, so the message is parsed once.
+   *
+   * @param message incoming message
+   * @return requests and responses in order of their appearance in the message
+   * @throws JsonRpcException if the message is not a valid JSON
+   */
+  List<JsonRpcMessage> unmarshalMessages(String message);
+
   /**
    * Creates an array of stringified JSON RPC structures, which can further be unmarshalled
    * separately.
@@ -16,6 +16,20 @@ public interface RequestProcessor {
    * Process a runnable interface
    *
    * @param runnable runnable to be called for processing of a request
+   * @throws JsonRpcException when the request can't be accepted for processing
    */
   void process(Runnable runnable);
+
+  /**
+   * Process a runnable interface that handles a request with the specified method. Implementations
+   * may use the method name to choose how the request is processed, by default the method name is
+   * ignored.
+   *
+   * @param method JSON RPC method name of the request
+   * @param runnable runnable to be called for processing of a request
+   * @throws JsonRpcException when the request can't be accepted for processing
+   */
+  default void process(String method, Runnable runnable) {
+    process(runnable);
+  }
 }
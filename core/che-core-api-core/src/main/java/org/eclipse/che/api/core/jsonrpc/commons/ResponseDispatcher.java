@@ -18,11 +18,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.slf4j.Logger;
 
-/** Dispatches JSON RPC responses */
+/**
+ * Dispatches JSON RPC responses. Promises of requests that wait for responses are registered
+ * without locking, timeouts of requests are cancelled once their responses are dispatched.
+ */
 @Singleton
 public class ResponseDispatcher {
   private static final Logger LOGGER = getLogger(ResponseDispatcher.class);
@@ -33,6 +37,9 @@ public class ResponseDispatcher {
   private final Map<String, SingleTypedPromise<?>> singleTypedPromises = new ConcurrentHashMap<>();
   private final Map<String, ListTypedPromise<?>> listTypedPromises = new ConcurrentHashMap<>();
 
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong timedOut = new AtomicLong();
+
   @Inject
   public ResponseDispatcher(JsonRpcComposer composer, TimeoutActionRunner timeoutActionRunner) {
     this.composer = composer;
@@ -74,7 +81,7 @@ public class ResponseDispatcher {
     }
   }
 
-  public synchronized <R> JsonRpcPromise<R> registerPromiseForSingleObject(
+  public <R> JsonRpcPromise<R> registerPromiseForSingleObject(
       String endpointId, String requestId, Class<R> rClass, int timeoutInMillis) {
     checkArguments(endpointId, requestId, rClass);
 
@@ -82,13 +89,14 @@ public class ResponseDispatcher {
     String key = generateKey(endpointId, requestId);
     singleTypedPromises.put(key, promise);
     if (timeoutInMillis > 0) {
-      timeoutActionRunner.schedule(
-          timeoutInMillis, () -> runTimeoutConsumer(singleTypedPromises.remove(key)));
+      promise.timeout =
+          timeoutActionRunner.schedule(
+              timeoutInMillis, () -> onTimeout(singleTypedPromises, key, promise));
     }
     return promise;
   }
 
-  public synchronized <R> JsonRpcPromise<List<R>> registerPromiseForListOfObjects(
+  public <R> JsonRpcPromise<List<R>> registerPromiseForListOfObjects(
       String endpointId, String requestId, Class<R> rClass, int timeoutInMillis) {
     checkArguments(endpointId, requestId, rClass);
 
@@ -96,20 +104,46 @@ public class ResponseDispatcher {
     String key = generateKey(endpointId, requestId);
     listTypedPromises.put(key, promise);
     if (timeoutInMillis > 0) {
-      timeoutActionRunner.schedule(
-          timeoutInMillis, () -> runTimeoutConsumer(listTypedPromises.remove(key)));
+      promise.timeout =
+          timeoutActionRunner.schedule(
+              timeoutInMillis, () -> onTimeout(listTypedPromises, key, promise));
     }
     return promise;
   }
 
-  private void runTimeoutConsumer(JsonRpcPromise<?> promise) {
-    Optional.ofNullable(promise)
-        .flatMap(JsonRpcPromise::getTimeoutRunnable)
-        .ifPresent(Runnable::run);
+  /** Returns number of requests that wait for responses. */
+  public int getPendingCount() {
+    return singleTypedPromises.size() + listTypedPromises.size();
+  }
+
+  /** Returns number of responses dispatched to the waiting requests. */
+  public long getDispatchedCount() {
+    return dispatched.get();
+  }
+
+  /** Returns number of requests that were not responded in time. */
+  public long getTimedOutCount() {
+    return timedOut.get();
+  }
+
+  private <P extends JsonRpcPromise<?>> void onTimeout(
+      Map<String, P> promises, String key, P promise) {
+    // the promise may be already responded or replaced by a request with the same id
+    if (promises.remove(key, promise)) {
+      timedOut.incrementAndGet();
+      promise.getTimeoutRunnable().ifPresent(Runnable::run);
+    }
+  }
+
+  private static void cancelTimeout(TimeoutActionRunner.ScheduledAction timeout) {
+    if (timeout != null) {
+      timeout.cancel();
+    }
   }
 
   private void dispatchResult(String endpointId, JsonRpcResponse response, String key) {
     Optional.ofNullable(listTypedPromises.remove(key))
+        .map(this::onDispatched)
         .ifPresent(
             promise ->
                 promise
@@ -125,6 +159,7 @@ public class ResponseDispatcher {
                                             composer.composeMany(response.getResult(), type)))));
 
     Optional.ofNullable(singleTypedPromises.remove(key))
+        .map(this::onDispatched)
         .ifPresent(
             promise ->
                 promise
@@ -144,11 +179,26 @@ public class ResponseDispatcher {
     SingleTypedPromise<?> singlePromise = singleTypedPromises.remove(key);
     ListTypedPromise<?> listPromise = listTypedPromises.remove(key);
     JsonRpcPromise<?> promise = singlePromise != null ? singlePromise : listPromise;
+    if (promise == null) {
+      return;
+    }
+    onDispatched(promise);
     promise.getFailureConsumer().ifPresent(it -> it.accept(endpointId, response.getError()));
   }
 
+  private <P extends JsonRpcPromise<?>> P onDispatched(P promise) {
+    dispatched.incrementAndGet();
+    if (promise instanceof SingleTypedPromise) {
+      cancelTimeout(((SingleTypedPromise<?>) promise).timeout);
+    } else if (promise instanceof ListTypedPromise) {
+      cancelTimeout(((ListTypedPromise<?>) promise).timeout);
+    }
+    return promise;
+  }
+
   private class ListTypedPromise<R> extends JsonRpcPromise<List<R>> {
     private final Class<R> type;
+    private volatile TimeoutActionRunner.ScheduledAction timeout;
 
     private ListTypedPromise(Class<R> type) {
       this.type = type;
@@ -161,6 +211,7 @@ public class ResponseDispatcher {
 
   private class SingleTypedPromise<R> extends JsonRpcPromise<R> {
     private final Class<R> type;
+    private volatile TimeoutActionRunner.ScheduledAction timeout;
 
     private SingleTypedPromise(Class<R> type) {
       this.type = type;
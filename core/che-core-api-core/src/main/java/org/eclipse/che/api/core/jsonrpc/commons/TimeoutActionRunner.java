@@ -12,5 +12,19 @@ package org.eclipse.che.api.core.jsonrpc.commons;
 
 /** Executes operation on timeout */
 public interface TimeoutActionRunner {
-  void schedule(int timeoutInMillis, Runnable runnable);
+
+  /** Operation that is scheduled to be executed on timeout. */
+  interface ScheduledAction {
+    /** Cancels the operation if it is not executed yet. */
+    void cancel();
+  }
+
+  /**
+   * Schedules the operation to be executed once the timeout elapses.
+   *
+   * @param timeoutInMillis timeout in milliseconds
+   * @param runnable operation to execute
+   * @return action that can be used to cancel the operation, e.g. when a response is received
+   */
+  ScheduledAction schedule(int timeoutInMillis, Runnable runnable);
 }
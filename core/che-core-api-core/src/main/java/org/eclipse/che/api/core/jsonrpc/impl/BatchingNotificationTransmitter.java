@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMarshaller;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+
+/**
+ * Transmits JSON RPC notifications grouped into JSON RPC batches. Notifications addressed to the
+ * same endpoint are collected during a time window (or until a batch reaches its maximal size) and
+ * are sent as a single web socket message. Notifications may be optionally coalesced by a key, in
+ * this case only the latest notification with the same method and key is sent within a batch, at
+ * the position of the first one. Notifications which order relative to the notifications with
+ * other keys matters (e.g. creation of a parent and its child) must not be coalesced.
+ *
+ * <p>Receiving side must be able to process JSON RPC batches, batches consisting of a single
+ * notification are sent as plain JSON RPC notifications.
+ */
+@Singleton
+public class BatchingNotificationTransmitter {
+  private static final Logger LOG = getLogger(BatchingNotificationTransmitter.class);
+
+  private final JsonRpcMarshaller marshaller;
+  private final WebSocketMessageTransmitter transmitter;
+  private final long windowMillis;
+  private final int maxSize;
+
+  private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  public BatchingNotificationTransmitter(
+      JsonRpcMarshaller marshaller,
+      WebSocketMessageTransmitter transmitter,
+      @Named("che.core.jsonrpc.batch.window_ms") long windowMillis,
+      @Named("che.core.jsonrpc.batch.max_size") int maxSize) {
+    this.marshaller = marshaller;
+    this.transmitter = transmitter;
+    this.windowMillis = windowMillis;
+    this.maxSize = maxSize;
+  }
+
+  @PostConstruct
+  void start() {
+    executor =
+        newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat(BatchingNotificationTransmitter.class.getSimpleName())
+                .setDaemon(true)
+                .build());
+  }
+
+  @PreDestroy
+  void stop() {
+    batches.values().forEach(Batch::flush);
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(5, SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Adds a notification to the batch of the endpoint.
+   *
+   * @param endpointId endpoint identifier
+   * @param method notification method name
+   * @param params notification params (DTO, string, boolean, double or {@code null})
+   */
+  public void transmit(String endpointId, String method, Object params) {
+    transmit(endpointId, method, params, null);
+  }
+
+  /**
+   * Adds a notification to the batch of the endpoint, if the batch already contains a notification
+   * with the same method and coalescing key it is replaced by the new one in place.
+   *
+   * @param endpointId endpoint identifier
+   * @param method notification method name
+   * @param params notification params (DTO, string, boolean, double or {@code null})
+   * @param coalescingKey coalescing key or {@code null} if notification should not be coalesced
+   */
+  public void transmit(String endpointId, String method, Object params, String coalescingKey) {
+    checkNotNull(endpointId, "Endpoint ID must not be null");
+    checkArgument(!endpointId.isEmpty(), "Endpoint ID must not be empty");
+    checkNotNull(method, "Method name must not be null");
+    checkArgument(!method.isEmpty(), "Method name must not be empty");
+
+    JsonRpcParams jsonRpcParams = params == null ? null : new JsonRpcParams(params);
+    JsonRpcRequest notification = new JsonRpcRequest(null, method, jsonRpcParams);
+    if (windowMillis <= 0 || maxSize <= 1) {
+      transmitter.transmit(endpointId, marshaller.marshall(notification));
+      return;
+    }
+
+    Object key = coalescingKey == null ? new Object() : method + '\u0000' + coalescingKey;
+    // the notification is added under the map lock, so it can't get into a batch that is being
+    // removed, see Batch#flushScheduled
+    Batch batch =
+        batches.compute(
+            endpointId,
+            (id, existing) -> {
+              Batch target = existing == null ? new Batch(id) : existing;
+              target.add(key, notification);
+              return target;
+            });
+    if (batch.isFull()) {
+      batch.flush();
+    }
+  }
+
+  /** Notifications that are pending to be sent to a single endpoint. */
+  private class Batch {
+    private final String endpointId;
+    private final Object flushLock = new Object();
+
+    private Map<Object, JsonRpcRequest> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    private Batch(String endpointId) {
+      this.endpointId = endpointId;
+    }
+
+    private synchronized void add(Object key, JsonRpcRequest notification) {
+      // coalesced notification keeps the position of the first one, so notifications added after
+      // it are not moved before it
+      pending.put(key, notification);
+
+      if (!isFull() && !scheduled) {
+        scheduled = true;
+        executor.schedule(this::flushScheduled, windowMillis, MILLISECONDS);
+      }
+    }
+
+    private synchronized boolean isFull() {
+      return pending.size() >= maxSize;
+    }
+
+    /**
+     * Flushes the batch on timer. If there was something to flush the timer is rescheduled, so the
+     * batch is removed only after it stays empty for the whole window.
+     *
+     * <p>The batch is removed under the flush lock and the map lock, so the next batch of the
+     * endpoint can neither receive notifications nor be sent before this one is completely sent.
+     */
+    private void flushScheduled() {
+      synchronized (flushLock) {
+        Batch current =
+            batches.computeIfPresent(
+                endpointId, (id, batch) -> batch == this ? retainIfNotEmpty() : batch);
+        if (current != this) {
+          return;
+        }
+        executor.schedule(this::flushScheduled, windowMillis, MILLISECONDS);
+        flush();
+      }
+    }
+
+    /** Returns this batch if it has pending notifications, otherwise resets the timer flag. */
+    private synchronized Batch retainIfNotEmpty() {
+      if (pending.isEmpty()) {
+        scheduled = false;
+        return null;
+      }
+      return this;
+    }
+
+    private void flush() {
+      // the lock keeps batches of the endpoint in order when flushed from different threads
+      synchronized (flushLock) {
+        List<JsonRpcRequest> notifications;
+        synchronized (this) {
+          if (pending.isEmpty()) {
+            return;
+          }
+          notifications = new ArrayList<>(pending.values());
+          pending = new LinkedHashMap<>();
+        }
+
+        try {
+          transmitter.transmit(endpointId, marshall(notifications));
+        } catch (RuntimeException e) {
+          LOG.error("Error while transmitting notifications batch to '{}'", endpointId, e);
+        }
+      }
+    }
+
+    private String marshall(List<JsonRpcRequest> notifications) {
+      if (notifications.size() == 1) {
+        return marshaller.marshall(notifications.get(0));
+      }
+
+      StringBuilder builder = new StringBuilder().append('[');
+      for (JsonRpcRequest notification : notifications) {
+        if (builder.length() > 1) {
+          builder.append(',');
+        }
+        builder.append(marshaller.marshall(notification));
+      }
+      return builder.append(']').toString();
+    }
+  }
+}
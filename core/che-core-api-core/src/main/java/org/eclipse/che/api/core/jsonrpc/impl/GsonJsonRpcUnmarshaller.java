@@ -17,13 +17,21 @@ import static java.util.Collections.singletonList;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessage;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
@@ -44,6 +52,34 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return getArray(message, jsonParser.parse(message).isJsonArray());
   }
 
+  @Override
+  public List<JsonRpcMessage> unmarshalMessages(String message) {
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    try (JsonReader reader = new JsonReader(new StringReader(message))) {
+      reader.setLenient(true);
+      List<JsonRpcMessage> messages;
+      if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+        messages = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          messages.add(readMessage(reader));
+        }
+        reader.endArray();
+      } else {
+        messages = singletonList(readMessage(reader));
+      }
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new MalformedJsonException("Did not consume the entire document");
+      }
+      return messages;
+    } catch (IOException | JsonParseException | IllegalStateException | NumberFormatException e) {
+      throw new JsonRpcException(
+          -32700, "An error occurred on the server while parsing the JSON text");
+    }
+  }
+
   @Override
   public JsonRpcRequest unmarshalRequest(String message) {
     checkNotNull(message, "Message must not be null");
@@ -72,13 +108,83 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return new JsonRpcResponse(id, result, error);
   }
 
+  /**
+   * Reads a single JSON RPC structure, only values of params and result are parsed to JSON
+   * elements, they are bound to the target types by {@link
+   * org.eclipse.che.api.core.jsonrpc.commons.JsonRpcComposer} later.
+   */
+  private JsonRpcMessage readMessage(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
+      return JsonRpcMessage.unknown();
+    }
+    String id = null;
+    String method = null;
+    JsonElement params = null;
+    JsonElement result = null;
+    JsonElement error = null;
+    boolean invalid = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "id":
+          id = readString(reader);
+          break;
+        case "method":
+          if (reader.peek() == JsonToken.STRING) {
+            method = reader.nextString();
+          } else {
+            reader.skipValue();
+            invalid = true;
+          }
+          break;
+        case "params":
+          params = jsonParser.parse(reader);
+          break;
+        case "result":
+          result = jsonParser.parse(reader);
+          break;
+        case "error":
+          error = jsonParser.parse(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (invalid) {
+      return JsonRpcMessage.invalid(new JsonRpcException(-32600, "Invalid JSON RPC request"));
+    }
+    if (method != null) {
+      return JsonRpcMessage.request(new JsonRpcRequest(id, method, toParams(params)));
+    }
+    if ((result == null) != (error == null)) {
+      JsonRpcError jsonRpcError = error == null ? null : toError(error.getAsJsonObject());
+      return JsonRpcMessage.response(new JsonRpcResponse(id, toResult(result), jsonRpcError));
+    }
+    return JsonRpcMessage.unknown();
+  }
+
+  private static String readString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+
   private JsonRpcError getError(JsonObject response) {
     if (!response.has("error")) {
       return null;
     }
 
-    int code = response.get("error").getAsJsonObject().get("code").getAsInt();
-    String errorMessage = response.get("error").getAsJsonObject().get("message").getAsString();
+    return toError(response.get("error").getAsJsonObject());
+  }
+
+  private JsonRpcError toError(JsonObject error) {
+    int code = error.get("code").getAsInt();
+    String errorMessage = error.get("message").getAsString();
     return new JsonRpcError(code, errorMessage);
   }
 
@@ -87,7 +193,14 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
       return null;
     }
 
-    JsonElement jsonElement = response.get("result");
+    return toResult(response.get("result"));
+  }
+
+  private JsonRpcResult toResult(JsonElement jsonElement) {
+    if (jsonElement == null) {
+      return null;
+    }
+
     if (!jsonElement.isJsonArray()) {
       return new JsonRpcResult(getInnerItem(jsonElement));
     }
@@ -108,7 +221,14 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
       return null;
     }
 
-    JsonElement jsonElement = jsonObject.get("params");
+    return toParams(jsonObject.get("params"));
+  }
+
+  private JsonRpcParams toParams(JsonElement jsonElement) {
+    if (jsonElement == null) {
+      return null;
+    }
+
     if (!jsonElement.isJsonArray()) {
       return new JsonRpcParams(getInnerItem(jsonElement));
     }
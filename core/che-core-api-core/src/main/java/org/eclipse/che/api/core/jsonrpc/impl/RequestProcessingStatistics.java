@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Statistics of processing of JSON RPC requests with the same method. */
+public class RequestProcessingStatistics {
+  private final String method;
+
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong active = new AtomicLong();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder overflowed = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAdder totalProcessingNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final AtomicLong maxProcessingNanos = new AtomicLong();
+
+  RequestProcessingStatistics(String method) {
+    this.method = method;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  /** Returns number of requests that are waiting in a queue to be processed. */
+  public long getQueueLength() {
+    return queued.get();
+  }
+
+  /** Returns number of requests that are being processed at the moment. */
+  public long getActiveCount() {
+    return active.get();
+  }
+
+  /** Returns number of requests that are processed. */
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  /**
+   * Returns number of requests that were rejected with a JSON RPC error as the executor queue was
+   * full.
+   */
+  public long getOverflowCount() {
+    return overflowed.sum();
+  }
+
+  /** Returns average time in milliseconds that requests spent in a queue. */
+  public double getAverageWaitMillis() {
+    return average(totalWaitNanos);
+  }
+
+  /** Returns maximal time in milliseconds that a request spent in a queue. */
+  public long getMaxWaitMillis() {
+    return NANOSECONDS.toMillis(maxWaitNanos.get());
+  }
+
+  /** Returns average time in milliseconds that requests were processed. */
+  public double getAverageProcessingMillis() {
+    return average(totalProcessingNanos);
+  }
+
+  /** Returns maximal time in milliseconds that a request was processed. */
+  public long getMaxProcessingMillis() {
+    return NANOSECONDS.toMillis(maxProcessingNanos.get());
+  }
+
+  void onQueued() {
+    queued.incrementAndGet();
+  }
+
+  /** Called instead of {@link #onStarted(long)} when a queued request is rejected. */
+  void onOverflow() {
+    queued.decrementAndGet();
+    overflowed.increment();
+  }
+
+  void onStarted(long waitNanos) {
+    queued.decrementAndGet();
+    active.incrementAndGet();
+    totalWaitNanos.add(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+  }
+
+  void onCompleted(long processingNanos) {
+    active.decrementAndGet();
+    completed.increment();
+    totalProcessingNanos.add(processingNanos);
+    maxProcessingNanos.accumulateAndGet(processingNanos, Math::max);
+  }
+
+  private double average(LongAdder totalNanos) {
+    long count = completed.sum();
+    return count == 0 ? 0 : (double) NANOSECONDS.toMicros(totalNanos.sum()) / count / 1000;
+  }
+}
@@ -10,50 +10,199 @@
  */
 package org.eclipse.che.api.core.jsonrpc.impl;
 
-import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.Collections.unmodifiableCollection;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
 
+import com.google.common.base.Splitter;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Singleton;
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerManager;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
 
+/**
+ * Processes incoming JSON RPC requests on bounded thread pools. Requests are processed on the
+ * default pool unless their method belongs to a configured method group (bulkhead), in this case
+ * they are processed on the pool of the group, so slow methods of one group do not starve methods
+ * of other groups. Requests are never processed on the receiving thread, which is a web socket
+ * container thread shared by many sessions. When a pool queue is full the request is rejected with
+ * a JSON RPC error, so the sender may retry it later.
+ *
+ * <p>Method groups are configured as comma separated list of {@code <pattern>=<pool size>} pairs,
+ * where pattern is either an exact method name or a method name prefix followed by {@code *}, e.g.
+ * {@code project/*=10,workspace/*=5}.
+ */
 @Singleton
 public class ServerSideRequestProcessor implements RequestProcessor {
-  private ExecutorService executorService;
+  private static final Logger LOG = getLogger(ServerSideRequestProcessor.class);
 
-  @PostConstruct
-  private void postConstruct() {
-    ThreadFactory factory =
-        new ThreadFactoryBuilder()
-            .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
-            .setNameFormat(ServerSideRequestProcessor.class.getSimpleName())
-            .setDaemon(true)
-            .build();
+  private static final String DEFAULT_GROUP = "default";
+
+  /** Statistics key of methods that have no registered handlers. */
+  static final String UNKNOWN_METHOD = "unknown";
+
+  /** JSON RPC error code of requests rejected because of processor overload. */
+  static final int OVERLOADED_ERROR_CODE = -32000;
+
+  private final int poolSize;
+  private final int queueCapacity;
+  private final Map<String, Integer> groupPoolSizes;
+  private final RequestHandlerManager requestHandlerManager;
+
+  private final Map<String, ThreadPoolExecutor> executors = new LinkedHashMap<>();
+  private final Map<String, RequestProcessingStatistics> statistics = new ConcurrentHashMap<>();
 
-    executorService = newCachedThreadPool(factory);
+  @Inject
+  public ServerSideRequestProcessor(
+      @Named("che.core.jsonrpc.processor.max_pool_size") int poolSize,
+      @Named("che.core.jsonrpc.processor.queue_capacity") int queueCapacity,
+      @Named("che.core.jsonrpc.processor.method_groups") @Nullable String methodGroups,
+      RequestHandlerManager requestHandlerManager) {
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+    this.groupPoolSizes = parseMethodGroups(methodGroups);
+    this.requestHandlerManager = requestHandlerManager;
+  }
+
+  @PostConstruct
+  void postConstruct() {
+    executors.put(DEFAULT_GROUP, newExecutor(DEFAULT_GROUP, poolSize));
+    groupPoolSizes.forEach((group, size) -> executors.put(group, newExecutor(group, size)));
   }
 
   @PreDestroy
-  private void preDestroy() {
-    executorService.shutdown();
+  void preDestroy() {
+    executors.values().forEach(ThreadPoolExecutor::shutdown);
     try {
-      if (executorService.awaitTermination(5, SECONDS)) {
-        executorService.shutdownNow();
-        executorService.awaitTermination(5, SECONDS);
+      for (ThreadPoolExecutor executor : executors.values()) {
+        if (!executor.awaitTermination(5, SECONDS)) {
+          executor.shutdownNow();
+          executor.awaitTermination(5, SECONDS);
+        }
       }
     } catch (InterruptedException ie) {
-      executorService.shutdownNow();
+      executors.values().forEach(ThreadPoolExecutor::shutdownNow);
       Thread.currentThread().interrupt();
     }
   }
 
   @Override
   public void process(Runnable runnable) {
-    executorService.execute(runnable);
+    try {
+      executors.get(DEFAULT_GROUP).execute(runnable);
+    } catch (RejectedExecutionException e) {
+      throw new JsonRpcException(OVERLOADED_ERROR_CODE, "Request processor queue is full");
+    }
+  }
+
+  @Override
+  public void process(String method, Runnable runnable) {
+    // method name is client supplied, so statistics of methods without handlers are accumulated
+    // under a single key to keep the number of statistics entries bounded
+    String statisticsKey = requestHandlerManager.isRegistered(method) ? method : UNKNOWN_METHOD;
+    RequestProcessingStatistics methodStatistics =
+        statistics.computeIfAbsent(statisticsKey, RequestProcessingStatistics::new);
+    long queuedAt = System.nanoTime();
+    methodStatistics.onQueued();
+
+    Runnable task =
+        () -> {
+          long startedAt = System.nanoTime();
+          methodStatistics.onStarted(startedAt - queuedAt);
+          try {
+            runnable.run();
+          } finally {
+            methodStatistics.onCompleted(System.nanoTime() - startedAt);
+          }
+        };
+
+    try {
+      executors.get(getGroup(method)).execute(task);
+    } catch (RejectedExecutionException e) {
+      methodStatistics.onOverflow();
+      LOG.debug("Request processor queue is full, rejecting request with method '{}'", method);
+      throw new JsonRpcException(
+          OVERLOADED_ERROR_CODE,
+          "Request processor queue is full, request with method '" + method + "' is rejected");
+    }
+  }
+
+  /** Returns processing statistics of each JSON RPC method that was processed so far. */
+  public Collection<RequestProcessingStatistics> getStatistics() {
+    return unmodifiableCollection(statistics.values());
+  }
+
+  /**
+   * Returns name of method group which executor processes requests with the method.
+   *
+   * @param method JSON RPC method name
+   * @return method group name or default group name
+   */
+  String getGroup(String method) {
+    if (groupPoolSizes.containsKey(method)) {
+      return method;
+    }
+
+    for (String group : groupPoolSizes.keySet()) {
+      if (group.endsWith("*") && method.startsWith(group.substring(0, group.length() - 1))) {
+        return group;
+      }
+    }
+
+    return DEFAULT_GROUP;
+  }
+
+  private ThreadPoolExecutor newExecutor(String group, int size) {
+    ThreadFactory factory =
+        new ThreadFactoryBuilder()
+            .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+            .setNameFormat(ServerSideRequestProcessor.class.getSimpleName() + "-" + group + "-%d")
+            .setDaemon(true)
+            .build();
+
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            size, size, 60, SECONDS, new LinkedBlockingQueue<>(queueCapacity), factory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static Map<String, Integer> parseMethodGroups(String methodGroups) {
+    Map<String, Integer> groups = new LinkedHashMap<>();
+    for (String group : split(methodGroups)) {
+      int separator = group.lastIndexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Illegal JSON RPC method group definition: " + group);
+      }
+      groups.put(
+          group.substring(0, separator).trim(),
+          Integer.parseInt(group.substring(separator + 1).trim()));
+    }
+    return groups;
+  }
+
+  private static List<String> split(String value) {
+    if (value == null) {
+      return new ArrayList<>();
+    }
+    return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(value);
   }
 }
@@ -10,24 +10,54 @@
  */
 package org.eclipse.che.api.core.jsonrpc.impl;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.Timer;
-import java.util.TimerTask;
+import javax.annotation.PreDestroy;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
 import org.eclipse.che.api.core.jsonrpc.commons.TimeoutActionRunner;
+import org.eclipse.che.commons.lang.concurrent.HashedWheelTimer;
 
+/**
+ * Schedules timeouts of all the JSON RPC requests in a single shared {@link HashedWheelTimer}, so
+ * timeouts don't need a thread each and are cheaply cancelled when responses are received. Expired
+ * operations are passed to the {@link RequestProcessor}, so they don't delay the timer.
+ */
 @Singleton
 public class ServerSideTimeoutActionRunner implements TimeoutActionRunner {
+  private static final long TICK_MILLIS = 10;
+  private static final int WHEEL_SIZE = 4096;
+
+  private final RequestProcessor requestProcessor;
+  private final HashedWheelTimer timer;
+
+  @Inject
+  public ServerSideTimeoutActionRunner(RequestProcessor requestProcessor) {
+    this.requestProcessor = requestProcessor;
+    this.timer = new HashedWheelTimer("JsonRpcTimeouts", TICK_MILLIS, MILLISECONDS, WHEEL_SIZE);
+  }
 
   @Override
-  public void schedule(int timeoutInMillis, Runnable runnable) {
-    new Timer()
-        .schedule(
-            new TimerTask() {
-              @Override
-              public void run() {
-                runnable.run();
-              }
-            },
-            timeoutInMillis);
+  public ScheduledAction schedule(int timeoutInMillis, Runnable runnable) {
+    HashedWheelTimer.Timeout timeout =
+        timer.schedule(() -> process(runnable), timeoutInMillis, MILLISECONDS);
+    return timeout::cancel;
+  }
+
+  private void process(Runnable runnable) {
+    try {
+      requestProcessor.process(runnable);
+    } catch (JsonRpcException e) {
+      // timeout actions only complete pending requests, so when the processor is overloaded
+      // it's cheaper to run them on the timer thread than to leave the requests pending forever
+      runnable.run();
+    }
+  }
+
+  @PreDestroy
+  void preDestroy() {
+    timer.close();
   }
 }
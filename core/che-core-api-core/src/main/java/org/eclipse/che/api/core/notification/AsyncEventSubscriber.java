@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.notification;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Subscriber that receives events asynchronously, so it doesn't delay the thread that publishes
+ * them. Events with the same ordering key are delivered in the order they were published, one batch
+ * at a time, events with different keys may be delivered concurrently.
+ *
+ * @see EventService
+ */
+public interface AsyncEventSubscriber<T> extends EventSubscriber<T> {
+
+  /**
+   * Returns key that defines the order of delivery of the event. Returns {@code null} by default,
+   * that means all the events are delivered in the order they were published.
+   */
+  default Object getOrderingKey(T event) {
+    return null;
+  }
+
+  /**
+   * Returns executor that delivers events to this subscriber. Returns {@code null} by default, that
+   * means events are delivered by the executor of {@link EventService}.
+   */
+  default Executor getExecutor() {
+    return null;
+  }
+
+  /**
+   * Receives events that were published since the previous batch. Calls {@link #onEvent(Object)}
+   * for each event by default. If the method throws an unchecked exception it is ignored.
+   */
+  default void onEvents(List<T> events) {
+    for (T event : events) {
+      onEvent(event);
+    }
+  }
+}
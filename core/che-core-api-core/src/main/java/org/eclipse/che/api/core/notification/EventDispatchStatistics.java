@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.notification;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Statistics of asynchronous delivery of events of the same type. */
+public class EventDispatchStatistics {
+  private final Class<?> eventType;
+
+  private final AtomicLong backlog = new AtomicLong();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder totalLatencyNanos = new LongAdder();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  EventDispatchStatistics(Class<?> eventType) {
+    this.eventType = eventType;
+  }
+
+  public Class<?> getEventType() {
+    return eventType;
+  }
+
+  /** Returns number of deliveries of events to subscribers that are waiting in queues. */
+  public long getBacklog() {
+    return backlog.get();
+  }
+
+  /** Returns number of deliveries of events to subscribers. */
+  public long getDeliveredCount() {
+    return delivered.sum();
+  }
+
+  /**
+   * Returns average time in milliseconds between publishing of an event and its delivery to a
+   * subscriber.
+   */
+  public double getAverageLatencyMillis() {
+    long count = delivered.sum();
+    return count == 0 ? 0 : (double) NANOSECONDS.toMicros(totalLatencyNanos.sum()) / count / 1000;
+  }
+
+  /**
+   * Returns maximal time in milliseconds between publishing of an event and its delivery to a
+   * subscriber.
+   */
+  public long getMaxLatencyMillis() {
+    return NANOSECONDS.toMillis(maxLatencyNanos.get());
+  }
+
+  void onQueued() {
+    backlog.incrementAndGet();
+  }
+
+  void onDelivered(long latencyNanos) {
+    backlog.decrementAndGet();
+    delivered.increment();
+    totalLatencyNanos.add(latencyNanos);
+    maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+  }
+}
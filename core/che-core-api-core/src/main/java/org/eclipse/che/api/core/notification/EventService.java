@@ -10,19 +10,30 @@
  */
 package org.eclipse.che.api.core.notification;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,50 +51,43 @@ import org.slf4j.LoggerFactory;
  *     bus.publish(new MyEvent());
  * </pre>
  *
+ * <p>Subscribers are called on the publishing thread, except {@link AsyncEventSubscriber}s that
+ * receive events in batches from an executor. Events can also be published with {@link
+ * #publishAsync(Object)}, then all the subscribers receive them asynchronously.
+ *
  * @author andrew00x
  */
 @Singleton
 public class EventService {
   private static final Logger LOG = LoggerFactory.getLogger(EventService.class);
 
-  private static final int CACHE_NUM = 1 << 2;
-  private static final int CACHE_MASK = CACHE_NUM - 1;
-  private static final int SEG_SIZE = 32;
+  private static final int MAX_BATCH_SIZE = 100;
+  private static final Object NO_ORDERING_KEY = new Object();
 
-  private final LoadingCache<Class<?>, Set<Class<?>>>[] typeCache;
   private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+  /** Subscribers of each published event class, built on the first publishing of the class. */
+  private final ConcurrentMap<Class<?>, DispatchPlan> dispatchPlans;
+  /** Incremented on each change of subscriptions, plans built before the change are rebuilt. */
+  private final AtomicInteger subscriptionsVersion;
+
+  /**
+   * Dispatchers of subscribers that received events asynchronously. A dispatcher is created and
+   * removed under the subscriptions lock, so it never exists for an unsubscribed subscriber.
+   */
+  private final ConcurrentMap<EventSubscriber, AsyncDispatcher> asyncDispatchers;
+
+  private final Object subscriptionsLock = new Object();
+  private final ConcurrentMap<Class<?>, EventDispatchStatistics> statistics;
+
+  /** Created on the first asynchronous delivery. */
+  private volatile ExecutorService asyncExecutor;
 
-  @SuppressWarnings("unchecked")
   public EventService() {
     subscribersByEventType = new ConcurrentHashMap<>();
-    typeCache = new LoadingCache[CACHE_NUM];
-    for (int i = 0; i < CACHE_NUM; i++) {
-      typeCache[i] =
-          CacheBuilder.newBuilder()
-              .concurrencyLevel(SEG_SIZE)
-              .build(
-                  new CacheLoader<Class<?>, Set<Class<?>>>() {
-                    @Override
-                    public Set<Class<?>> load(Class<?> eventClass) {
-                      LinkedList<Class<?>> parents = new LinkedList<>();
-                      Set<Class<?>> classes = new HashSet<>();
-                      parents.add(eventClass);
-                      while (!parents.isEmpty()) {
-                        Class<?> clazz = parents.pop();
-                        classes.add(clazz);
-                        Class<?> parent = clazz.getSuperclass();
-                        if (parent != null) {
-                          parents.add(parent);
-                        }
-                        Class<?>[] interfaces = clazz.getInterfaces();
-                        if (interfaces.length > 0) {
-                          Collections.addAll(parents, interfaces);
-                        }
-                      }
-                      return classes;
-                    }
-                  });
-    }
+    dispatchPlans = new ConcurrentHashMap<>();
+    subscriptionsVersion = new AtomicInteger();
+    asyncDispatchers = new ConcurrentHashMap<>();
+    statistics = new ConcurrentHashMap<>();
   }
 
   /**
@@ -92,28 +96,130 @@ public class EventService {
    * @param event event
    * @return published event
    */
-  @SuppressWarnings("unchecked")
   public <T> T publish(T event) {
+    return doPublish(event, false);
+  }
+
+  /**
+   * Publish event {@code event} asynchronously. Method returns without waiting for subscribers,
+   * each subscriber receives events in the order they were published.
+   *
+   * @param event event
+   * @return published event
+   */
+  public <T> T publishAsync(T event) {
+    return doPublish(event, true);
+  }
+
+  /** Returns statistics of asynchronous delivery of events for each type of published events. */
+  public Collection<EventDispatchStatistics> getDispatchStatistics() {
+    return Collections.unmodifiableCollection(statistics.values());
+  }
+
+  /**
+   * Stops the executor of asynchronous deliveries, events that are already published are delivered.
+   */
+  @PreDestroy
+  public void shutdown() {
+    ExecutorService executor = asyncExecutor;
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+          LOG.warn("Not all the events were delivered to asynchronous subscribers");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T doPublish(T event, boolean async) {
     if (event == null) {
       throw new IllegalArgumentException("Null event.");
     }
-    final Class<?> eventClass = event.getClass();
-    for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].getUnchecked(eventClass)) {
-      final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
-      if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
-        for (EventSubscriber eventSubscriber : eventSubscribers) {
-          try {
-            LOG.debug("Publish event {} for {}", event, eventSubscriber);
-            eventSubscriber.onEvent(event);
-          } catch (RuntimeException e) {
-            LOG.error(e.getMessage(), e);
-          }
+    for (EventSubscriber eventSubscriber : getDispatchPlan(event.getClass()).subscribers) {
+      if (async || eventSubscriber instanceof AsyncEventSubscriber) {
+        LOG.debug("Publish event {} asynchronously for {}", event, eventSubscriber);
+        AsyncDispatcher dispatcher = getAsyncDispatcher(eventSubscriber);
+        if (dispatcher != null) {
+          dispatcher.dispatch(event);
         }
+        continue;
+      }
+      try {
+        LOG.debug("Publish event {} for {}", event, eventSubscriber);
+        eventSubscriber.onEvent(event);
+      } catch (RuntimeException e) {
+        LOG.error(e.getMessage(), e);
       }
     }
     return event;
   }
 
+  /** Returns dispatcher of the subscriber or {@code null} if it is already unsubscribed. */
+  private AsyncDispatcher getAsyncDispatcher(EventSubscriber subscriber) {
+    AsyncDispatcher dispatcher = asyncDispatchers.get(subscriber);
+    if (dispatcher == null) {
+      synchronized (subscriptionsLock) {
+        if (!isSubscribed(subscriber)) {
+          return null;
+        }
+        dispatcher = asyncDispatchers.computeIfAbsent(subscriber, AsyncDispatcher::new);
+      }
+    }
+    return dispatcher;
+  }
+
+  private boolean isSubscribed(EventSubscriber subscriber) {
+    for (Set<EventSubscriber> subscribers : subscribersByEventType.values()) {
+      if (subscribers.contains(subscriber)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private DispatchPlan getDispatchPlan(Class<?> eventClass) {
+    DispatchPlan plan = dispatchPlans.get(eventClass);
+    // version is read before subscribers, so a plan built while subscriptions are changed is
+    // outdated as soon as the change is done
+    int version = subscriptionsVersion.get();
+    if (plan == null || plan.version != version) {
+      List<EventSubscriber> subscribers = new ArrayList<>();
+      for (Class<?> clazz : getEventTypes(eventClass)) {
+        Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
+        if (eventSubscribers != null) {
+          subscribers.addAll(eventSubscribers);
+        }
+      }
+      plan = new DispatchPlan(version, subscribers.toArray(new EventSubscriber[0]));
+      dispatchPlans.put(eventClass, plan);
+    }
+    return plan;
+  }
+
+  /** Returns the class, all its superclasses and all the interfaces it implements. */
+  private static Set<Class<?>> getEventTypes(Class<?> eventClass) {
+    LinkedList<Class<?>> parents = new LinkedList<>();
+    Set<Class<?>> classes = new LinkedHashSet<>();
+    parents.add(eventClass);
+    while (!parents.isEmpty()) {
+      Class<?> clazz = parents.pop();
+      classes.add(clazz);
+      Class<?> parent = clazz.getSuperclass();
+      if (parent != null) {
+        parents.add(parent);
+      }
+      Class<?>[] interfaces = clazz.getInterfaces();
+      if (interfaces.length > 0) {
+        Collections.addAll(parents, interfaces);
+      }
+    }
+    return classes;
+  }
+
   /**
    * Subscribe event listener. The event to subscribe to is inferred by checking the generic type
    * arguments of the given subscriber.
@@ -137,15 +243,13 @@ public class EventService {
   }
 
   private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
-    Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-    if (entries == null) {
-      Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
-      entries = subscribersByEventType.putIfAbsent(eventType, newEntries);
-      if (entries == null) {
-        entries = newEntries;
+    synchronized (subscriptionsLock) {
+      Set<EventSubscriber> entries =
+          subscribersByEventType.computeIfAbsent(eventType, type -> new CopyOnWriteArraySet<>());
+      if (entries.add(subscriber)) {
+        subscriptionsVersion.incrementAndGet();
       }
     }
-    entries.add(subscriber);
   }
 
   /**
@@ -163,13 +267,17 @@ public class EventService {
   }
 
   private void doUnsubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
-    final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-    if (entries != null && !entries.isEmpty()) {
-      boolean changed = entries.remove(subscriber);
-      if (changed) {
+    synchronized (subscriptionsLock) {
+      final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
+      if (entries != null && entries.remove(subscriber)) {
+        subscriptionsVersion.incrementAndGet();
         if (entries.isEmpty()) {
           subscribersByEventType.remove(eventType);
         }
+        // events that are already queued for the subscriber are still delivered
+        if (!isSubscribed(subscriber)) {
+          asyncDispatchers.remove(subscriber);
+        }
       }
     }
   }
@@ -182,7 +290,7 @@ public class EventService {
         if (type instanceof ParameterizedType) {
           final ParameterizedType parameterizedType = (ParameterizedType) type;
           final Type rawType = parameterizedType.getRawType();
-          if (EventSubscriber.class == rawType) {
+          if (EventSubscriber.class == rawType || AsyncEventSubscriber.class == rawType) {
             final Type[] typeArguments = parameterizedType.getActualTypeArguments();
             if (typeArguments.length == 1) {
               if (typeArguments[0] instanceof Class) {
@@ -200,4 +308,153 @@ public class EventService {
     }
     return eventType;
   }
+
+  private Executor getAsyncExecutor() {
+    ExecutorService executor = asyncExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        executor = asyncExecutor;
+        if (executor == null) {
+          asyncExecutor =
+              executor =
+                  Executors.newFixedThreadPool(
+                      Runtime.getRuntime().availableProcessors(),
+                      new ThreadFactoryBuilder()
+                          .setUncaughtExceptionHandler(
+                              LoggingUncaughtExceptionHandler.getInstance())
+                          .setNameFormat("EventService-%d")
+                          .setDaemon(true)
+                          .build());
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Delivers events to a single subscriber asynchronously. Events of each ordering key are kept in
+   * a separate queue, the queue exists while there is a task that delivers its events, so events of
+   * the same key are never delivered concurrently.
+   */
+  private class AsyncDispatcher {
+    private final EventSubscriber subscriber;
+    private final Executor executor;
+    private final ConcurrentMap<Object, Deque<QueuedEvent>> queues = new ConcurrentHashMap<>();
+
+    private AsyncDispatcher(EventSubscriber subscriber) {
+      this.subscriber = subscriber;
+      Executor executor = null;
+      if (subscriber instanceof AsyncEventSubscriber) {
+        executor = ((AsyncEventSubscriber) subscriber).getExecutor();
+      }
+      this.executor = executor != null ? executor : getAsyncExecutor();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(Object event) {
+      Object key = null;
+      if (subscriber instanceof AsyncEventSubscriber) {
+        key = ((AsyncEventSubscriber) subscriber).getOrderingKey(event);
+      }
+      if (key == null) {
+        key = NO_ORDERING_KEY;
+      }
+      QueuedEvent queued =
+          new QueuedEvent(
+              event, statistics.computeIfAbsent(event.getClass(), EventDispatchStatistics::new));
+      queued.statistics.onQueued();
+
+      boolean[] created = new boolean[1];
+      queues.compute(
+          key,
+          (k, queue) -> {
+            if (queue == null) {
+              queue = new ArrayDeque<>();
+              created[0] = true;
+            }
+            queue.add(queued);
+            return queue;
+          });
+      if (created[0]) {
+        schedule(key);
+      }
+    }
+
+    private void schedule(Object key) {
+      try {
+        executor.execute(() -> deliverNextBatch(key));
+      } catch (RejectedExecutionException e) {
+        // executor is stopped, deliver the rest of events on the current thread
+        deliverNextBatch(key);
+      }
+    }
+
+    private void deliverNextBatch(Object key) {
+      List<QueuedEvent> batch = new ArrayList<>();
+      queues.computeIfPresent(
+          key,
+          (k, queue) -> {
+            while (batch.size() < MAX_BATCH_SIZE && !queue.isEmpty()) {
+              batch.add(queue.poll());
+            }
+            // the queue is removed when all its events are delivered
+            return batch.isEmpty() ? null : queue;
+          });
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      long now = System.nanoTime();
+      List<Object> events = new ArrayList<>(batch.size());
+      for (QueuedEvent queued : batch) {
+        queued.statistics.onDelivered(now - queued.publishedNanos);
+        events.add(queued.event);
+      }
+      deliver(events);
+      // events of other keys are delivered before the next batch of this key
+      schedule(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(List<Object> events) {
+      if (subscriber instanceof AsyncEventSubscriber) {
+        try {
+          ((AsyncEventSubscriber) subscriber).onEvents(events);
+        } catch (RuntimeException e) {
+          LOG.error(e.getMessage(), e);
+        }
+        return;
+      }
+      for (Object event : events) {
+        try {
+          subscriber.onEvent(event);
+        } catch (RuntimeException e) {
+          LOG.error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+
+  /** Subscribers that receive events of a class, in the order they are called. */
+  private static class DispatchPlan {
+    private final int version;
+    private final EventSubscriber[] subscribers;
+
+    private DispatchPlan(int version, EventSubscriber[] subscribers) {
+      this.version = version;
+      this.subscribers = subscribers;
+    }
+  }
+
+  private static class QueuedEvent {
+    private final Object event;
+    private final EventDispatchStatistics statistics;
+    private final long publishedNanos;
+
+    private QueuedEvent(Object event, EventDispatchStatistics statistics) {
+      this.event = event;
+      this.statistics = statistics;
+      this.publishedNanos = System.nanoTime();
+    }
+  }
 }
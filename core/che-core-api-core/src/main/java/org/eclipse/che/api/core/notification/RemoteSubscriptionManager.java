@@ -17,6 +17,7 @@ import java.util.Objects;
 import java.util.function.BiPredicate;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.jsonrpc.impl.BatchingNotificationTransmitter;
 import org.eclipse.che.api.core.notification.dto.EventSubscription;
 
 @Singleton
@@ -25,15 +26,18 @@ public class RemoteSubscriptionManager {
   private final EventService eventService;
   private final RequestTransmitter requestTransmitter;
   private final RemoteSubscriptionStorage remoteSubscriptionStorage;
+  private final BatchingNotificationTransmitter batchingTransmitter;
 
   @Inject
   public RemoteSubscriptionManager(
       EventService eventService,
       RequestTransmitter requestTransmitter,
-      RemoteSubscriptionStorage remoteSubscriptionStorage) {
+      RemoteSubscriptionStorage remoteSubscriptionStorage,
+      BatchingNotificationTransmitter batchingTransmitter) {
     this.eventService = eventService;
     this.requestTransmitter = requestTransmitter;
     this.remoteSubscriptionStorage = remoteSubscriptionStorage;
+    this.batchingTransmitter = batchingTransmitter;
   }
 
   @Inject
@@ -65,6 +69,24 @@ public class RemoteSubscriptionManager {
         eventType);
   }
 
+  /**
+   * Same as {@link #register(String, Class, BiPredicate)} but events are transmitted to subscribers
+   * in JSON RPC batches, which is suitable for high rate events like logs.
+   */
+  public <T> void registerBatched(
+      String method, Class<T> eventType, BiPredicate<T, Map<String, String>> biPredicate) {
+    eventService.subscribe(
+        event ->
+            remoteSubscriptionStorage
+                .getByMethod(method)
+                .stream()
+                .filter(context -> biPredicate.test(event, context.getScope()))
+                .forEach(
+                    context ->
+                        batchingTransmitter.transmit(context.getEndpointId(), method, event)),
+        eventType);
+  }
+
   private void consumeSubscriptionRequest(String endpointId, EventSubscription eventSubscription) {
     remoteSubscriptionStorage.addSubscription(
         eventSubscription.getMethod(),
@@ -10,14 +10,21 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static java.util.Collections.unmodifiableCollection;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.websocket.Session;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.impl.SessionOutboundQueue.OverflowPolicy;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
 import org.slf4j.Logger;
 
 /**
@@ -25,6 +32,10 @@ import org.slf4j.Logger;
  * session is not opened adds messages to re-sender to try to send them when session will be opened
  * again.
  *
+ * <p>Messages are not sent on the caller thread, instead each session has its own bounded {@link
+ * SessionOutboundQueue} that is drained by asynchronous sends, so transmission to a slow endpoint
+ * never blocks transmission to other endpoints.
+ *
  * @author Dmitry Kuleshov
  */
 @Singleton
@@ -33,16 +44,25 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
 
   private final WebSocketSessionRegistry registry;
   private final MessagesReSender reSender;
+  private final int queueCapacity;
+  private final OverflowPolicy overflowPolicy;
+
+  private final Map<Session, SessionOutboundQueue> queues = new ConcurrentHashMap<>();
 
   @Inject
   public BasicWebSocketMessageTransmitter(
-      WebSocketSessionRegistry registry, MessagesReSender reSender) {
+      WebSocketSessionRegistry registry,
+      MessagesReSender reSender,
+      @Named("che.websocket.outbound_queue.capacity") int queueCapacity,
+      @Named("che.websocket.outbound_queue.overflow_policy") String overflowPolicy) {
     this.registry = registry;
     this.reSender = reSender;
+    this.queueCapacity = queueCapacity;
+    this.overflowPolicy = OverflowPolicy.fromString(overflowPolicy);
   }
 
   @Override
-  public synchronized void transmit(String endpointId, String message) {
+  public void transmit(String endpointId, String message) {
     Optional<Session> sessionOptional = registry.get(endpointId);
 
     if (!sessionOptional.isPresent()) {
@@ -54,13 +74,35 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
 
       reSender.add(endpointId, message);
     } else {
-      LOG.debug("Session registered and open, sending message");
+      LOG.debug("Session registered and open, adding message to outbound queue");
 
-      try {
-        sessionOptional.get().getBasicRemote().sendText(message);
-      } catch (IOException e) {
-        LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
-      }
+      Session session = sessionOptional.get();
+      queues
+          .computeIfAbsent(
+              session,
+              it -> new SessionOutboundQueue(endpointId, it, queueCapacity, overflowPolicy))
+          .offer(message);
     }
   }
+
+  /** Returns outbound queues of currently known sessions, e.g. to collect their statistics. */
+  public Collection<SessionOutboundQueue> getOutboundQueues() {
+    return unmodifiableCollection(queues.values());
+  }
+
+  @ScheduleDelay(initialDelay = 60, delay = 60)
+  void cleanClosedSessionQueues() {
+    queues
+        .values()
+        .removeIf(
+            queue -> {
+              if (queue.getSession().isOpen()) {
+                return false;
+              }
+
+              List<String> pending = queue.close();
+              pending.forEach(message -> reSender.add(queue.getEndpointId(), message));
+              return true;
+            });
+  }
 }
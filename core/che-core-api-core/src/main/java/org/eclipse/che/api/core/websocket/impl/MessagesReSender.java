@@ -16,14 +16,17 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 import org.eclipse.che.commons.schedule.ScheduleDelay;
 
 /**
  * Instance is responsible for re-sending messages that were not sent during the period when WEB
  * SOCKET session was closed. If session is closed during re-send process it stops and left messages
- * will be re-sent as WEB SOCKET session becomes open again.
+ * will be re-sent as WEB SOCKET session becomes open again. Messages are re-sent through the {@link
+ * WebSocketMessageTransmitter}, so they are queued together with other outgoing messages.
  *
  * @author Dmitry Kuleshov
  */
@@ -33,13 +36,17 @@ public class MessagesReSender {
   private static final int MAX_MESSAGES = 100;
 
   private final WebSocketSessionRegistry registry;
+  private final Provider<WebSocketMessageTransmitter> transmitterProvider;
 
   private final Map<String, Queue<DelayedMessage>> delayedMessageRegistry =
       new ConcurrentHashMap<>();
 
   @Inject
-  public MessagesReSender(WebSocketSessionRegistry registry) {
+  public MessagesReSender(
+      WebSocketSessionRegistry registry,
+      Provider<WebSocketMessageTransmitter> transmitterProvider) {
     this.registry = registry;
+    this.transmitterProvider = transmitterProvider;
   }
 
   @ScheduleDelay(initialDelay = 60, delay = 60)
@@ -73,22 +80,16 @@ public class MessagesReSender {
       return;
     }
 
-    Queue<DelayedMessage> backingQueue = EvictingQueue.create(delayedMessages.size());
-    while (!delayedMessages.isEmpty()) {
-      backingQueue.offer(delayedMessages.poll());
-    }
-
-    Session session = sessionOptional.get();
-    for (DelayedMessage delayedMessage : backingQueue) {
-      if (session.isOpen()) {
-        session.getAsyncRemote().sendText(delayedMessage.message);
-      } else {
-        delayedMessages.add(delayedMessage);
-      }
+    if (!sessionOptional.get().isOpen()) {
+      delayedMessageRegistry.put(endpointId, delayedMessages);
+      return;
     }
 
-    if (!delayedMessages.isEmpty()) {
-      delayedMessageRegistry.put(endpointId, delayedMessages);
+    // messages are passed to the session outbound queue, so they never overlap with other sends,
+    // if the session gets closed meanwhile the transmitter adds them back to this re-sender
+    WebSocketMessageTransmitter transmitter = transmitterProvider.get();
+    for (DelayedMessage delayedMessage : delayedMessages) {
+      transmitter.transmit(endpointId, delayedMessage.message);
     }
   }
 
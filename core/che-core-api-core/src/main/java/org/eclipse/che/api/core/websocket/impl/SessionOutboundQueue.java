@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.slf4j.Logger;
+
+/**
+ * Bounded queue of messages that are pending to be sent to a single WEB SOCKET session. Messages
+ * are sent asynchronously one at a time in the order they are offered, so a slow session affects
+ * only its own queue. When the queue is full the configured {@link OverflowPolicy} is applied.
+ * Policies that drop messages drop only JSON-RPC notifications, responses and requests which carry
+ * an {@code id} are never dropped as the other side waits for them. If there is no notification to
+ * drop, the session is closed, so the client can reconnect and synchronize its state.
+ *
+ * <p>Messages are classified as notifications before the queue is locked, so the lock covers only
+ * queue manipulation.
+ */
+public class SessionOutboundQueue {
+  private static final Logger LOG = getLogger(SessionOutboundQueue.class);
+
+  /** Defines what happens when a message is offered to a full queue. */
+  public enum OverflowPolicy {
+    /** The oldest pending notification is dropped to free space for the new message. */
+    DROP_OLDEST,
+    /**
+     * A notification that is equal to an already pending one is not queued again, otherwise the
+     * oldest pending notification is dropped to free space for the new message.
+     */
+    COALESCE,
+    /** Pending messages are dropped and the session is closed, so the client can reconnect. */
+    DISCONNECT;
+
+    public static OverflowPolicy fromString(String value) {
+      return valueOf(value.trim().toUpperCase());
+    }
+  }
+
+  private final String endpointId;
+  private final Session session;
+  private final int capacity;
+  private final OverflowPolicy policy;
+
+  private final Deque<PendingMessage> messages = new ArrayDeque<>();
+  // numbers of pending notifications by message, maintained only by the coalescing policy
+  private final Map<String, Integer> pendingNotifications = new HashMap<>();
+
+  private boolean sending;
+  private boolean closed;
+
+  private long sentCount;
+  private long failedCount;
+  private long droppedCount;
+  private long coalescedCount;
+  private long totalSendNanos;
+  private long maxSendNanos;
+
+  /**
+   * @param endpointId identifier of the session endpoint
+   * @param session session to send messages to
+   * @param capacity maximal number of pending messages
+   * @param policy policy that is applied when the queue is full
+   */
+  SessionOutboundQueue(String endpointId, Session session, int capacity, OverflowPolicy policy) {
+    this.endpointId = endpointId;
+    this.session = session;
+    this.capacity = capacity;
+    this.policy = policy;
+  }
+
+  /**
+   * Adds a message to the queue and starts sending if there is no send in progress.
+   *
+   * @param message message to send
+   */
+  void offer(String message) {
+    // the disconnect policy never drops single messages, so it doesn't need to classify them
+    PendingMessage pending =
+        new PendingMessage(message, policy != OverflowPolicy.DISCONNECT && isNotification(message));
+    boolean overflow = false;
+    synchronized (this) {
+      if (closed) {
+        droppedCount++;
+        return;
+      }
+
+      if (messages.size() >= capacity) {
+        if (policy == OverflowPolicy.COALESCE
+            && pending.notification
+            && pendingNotifications.containsKey(message)) {
+          coalescedCount++;
+          return;
+        }
+        if (policy != OverflowPolicy.DISCONNECT
+            && !dropOldestNotification()
+            && pending.notification) {
+          // only responses and requests are pending, so the new notification is dropped
+          droppedCount++;
+          return;
+        }
+        if (messages.size() >= capacity) {
+          droppedCount += messages.size() + 1;
+          messages.clear();
+          pendingNotifications.clear();
+          closed = true;
+          overflow = true;
+        }
+      }
+
+      if (!overflow) {
+        messages.offer(pending);
+        if (policy == OverflowPolicy.COALESCE && pending.notification) {
+          pendingNotifications.merge(message, 1, Integer::sum);
+        }
+        if (sending) {
+          return;
+        }
+        sending = true;
+      }
+    }
+
+    if (overflow) {
+      LOG.warn("Outbound queue of endpoint '{}' is overflowed, closing session", endpointId);
+      try {
+        session.close(
+            new CloseReason(CloseCodes.TRY_AGAIN_LATER, "Outbound message queue overflow"));
+      } catch (IOException e) {
+        LOG.error("Error while trying to close websocket session of endpoint '{}'", endpointId, e);
+      }
+    } else {
+      sendNext();
+    }
+  }
+
+  /** Drops the oldest pending notification, returns false if there is no such notification. */
+  private boolean dropOldestNotification() {
+    for (Iterator<PendingMessage> it = messages.iterator(); it.hasNext(); ) {
+      PendingMessage pending = it.next();
+      if (pending.notification) {
+        it.remove();
+        onRemoved(pending);
+        droppedCount++;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Updates the index of pending notifications when the message leaves the queue. */
+  private void onRemoved(PendingMessage pending) {
+    if (policy == OverflowPolicy.COALESCE && pending.notification) {
+      pendingNotifications.computeIfPresent(
+          pending.message, (message, count) -> count == 1 ? null : count - 1);
+    }
+  }
+
+  /**
+   * Marks queue as closed and returns messages that have not been sent yet.
+   *
+   * @return pending messages in the order they were offered
+   */
+  synchronized List<String> close() {
+    closed = true;
+    List<String> pending = new ArrayList<>(messages.size());
+    for (PendingMessage message : messages) {
+      pending.add(message.message);
+    }
+    messages.clear();
+    pendingNotifications.clear();
+    return pending;
+  }
+
+  Session getSession() {
+    return session;
+  }
+
+  public String getEndpointId() {
+    return endpointId;
+  }
+
+  /** Returns number of messages that are pending to be sent. */
+  public synchronized int getDepth() {
+    return messages.size();
+  }
+
+  /** Returns number of messages that were successfully sent. */
+  public synchronized long getSentCount() {
+    return sentCount;
+  }
+
+  /** Returns number of messages that failed to be sent. */
+  public synchronized long getFailedCount() {
+    return failedCount;
+  }
+
+  /** Returns number of messages that were dropped because of queue overflow. */
+  public synchronized long getDroppedCount() {
+    return droppedCount;
+  }
+
+  /** Returns number of messages that were not queued as equal messages were pending. */
+  public synchronized long getCoalescedCount() {
+    return coalescedCount;
+  }
+
+  /** Returns average send latency in milliseconds. */
+  public synchronized double getAverageSendLatencyMillis() {
+    long count = sentCount + failedCount;
+    return count == 0 ? 0 : (double) NANOSECONDS.toMicros(totalSendNanos) / count / 1000;
+  }
+
+  /** Returns maximal send latency in milliseconds. */
+  public synchronized long getMaxSendLatencyMillis() {
+    return NANOSECONDS.toMillis(maxSendNanos);
+  }
+
+  private void sendNext() {
+    while (true) {
+      String message;
+      Send send;
+      synchronized (this) {
+        PendingMessage pending = messages.poll();
+        if (pending == null || closed) {
+          sending = false;
+          return;
+        }
+        onRemoved(pending);
+        message = pending.message;
+        send = new Send();
+      }
+
+      try {
+        session.getAsyncRemote().sendText(message, send);
+      } catch (RuntimeException e) {
+        send.onResult(new SendResult(e));
+      }
+
+      synchronized (this) {
+        send.returned = true;
+        if (!send.completed) {
+          // completion handler continues sending when the message is written
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns true if the message is a JSON-RPC notification or a batch of notifications, i.e. the
+   * other side doesn't wait for it. The message is scanned without building its JSON tree.
+   */
+  static boolean isNotification(String message) {
+    try (JsonReader reader = new JsonReader(new StringReader(message))) {
+      if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+        return isNotification(reader);
+      }
+      reader.beginArray();
+      boolean empty = true;
+      while (reader.hasNext()) {
+        if (!isNotification(reader)) {
+          return false;
+        }
+        empty = false;
+      }
+      return !empty;
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static boolean isNotification(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      return false;
+    }
+    boolean hasMethod = false;
+    boolean hasId = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if ("method".equals(name)) {
+        hasMethod = true;
+      } else if ("id".equals(name) && reader.peek() != JsonToken.NULL) {
+        hasId = true;
+      }
+      reader.skipValue();
+    }
+    reader.endObject();
+    return hasMethod && !hasId;
+  }
+
+  /** Message pending to be sent. */
+  private static class PendingMessage {
+    private final String message;
+    private final boolean notification;
+
+    private PendingMessage(String message, boolean notification) {
+      this.message = message;
+      this.notification = notification;
+    }
+  }
+
+  /**
+   * Completion handler of a single message. Sending of the next message is continued by the handler
+   * only if it is called after the send method returns, otherwise it is continued by the sending
+   * loop to avoid deep recursion when messages are written synchronously.
+   */
+  private class Send implements SendHandler {
+    private final long startNanos = System.nanoTime();
+
+    private boolean returned;
+    private boolean completed;
+
+    @Override
+    public void onResult(SendResult result) {
+      long latency = System.nanoTime() - startNanos;
+      if (!result.isOK()) {
+        LOG.error(
+            "Error while trying to send a message to a websocket remote endpoint",
+            result.getException());
+      }
+
+      synchronized (SessionOutboundQueue.this) {
+        if (result.isOK()) {
+          sentCount++;
+        } else {
+          failedCount++;
+        }
+        totalSendNanos += latency;
+        maxSendNanos = Math.max(maxSendNanos, latency);
+
+        completed = true;
+        if (!returned) {
+          return;
+        }
+      }
+
+      sendNext();
+    }
+  }
+}
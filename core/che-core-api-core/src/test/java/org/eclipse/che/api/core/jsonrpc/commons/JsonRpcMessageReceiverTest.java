@@ -10,13 +10,18 @@
  */
 package org.eclipse.che.api.core.jsonrpc.commons;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -34,30 +39,31 @@ public class JsonRpcMessageReceiverTest {
   @Mock RequestDispatcher requestDispatcher;
   @Mock ResponseDispatcher responseDispatcher;
   @Mock JsonRpcErrorTransmitter errorTransmitter;
-  @Mock JsonRpcQualifier jsonRpcQualifier;
   @Mock JsonRpcUnmarshaller jsonRpcUnmarshaller;
   @Mock RequestProcessor requestProcessor;
   @InjectMocks JsonRpcMessageReceiver jsonRpcMessageReceiver;
 
   @Test
-  public void shouldValidateMessage() throws Exception {
+  public void shouldUnmarshalMessage() throws Exception {
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(jsonRpcQualifier).isValidJson(MESSAGE);
+    verify(jsonRpcUnmarshaller).unmarshalMessages(MESSAGE);
   }
 
   @Test
-  public void shouldTransmitErrorWhenValidationFailed() throws Exception {
-    when(jsonRpcQualifier.isValidJson(MESSAGE)).thenReturn(false);
+  public void shouldTransmitErrorWhenParsingFailed() throws Exception {
+    JsonRpcException error = new JsonRpcException(-32700, "parse error");
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE)).thenThrow(error);
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(errorTransmitter).transmit(eq(ENDPOINT_ID), any(JsonRpcException.class));
+    verify(errorTransmitter).transmit(ENDPOINT_ID, error);
+    verify(requestProcessor, never()).process(any(), any());
   }
 
   @Test
-  public void shouldNotTransmitErrorWhenValidationSucceeded() throws Exception {
-    when(jsonRpcQualifier.isValidJson(MESSAGE)).thenReturn(true);
+  public void shouldNotTransmitErrorWhenParsingSucceeded() throws Exception {
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE)).thenReturn(emptyList());
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
@@ -65,33 +71,66 @@ public class JsonRpcMessageReceiverTest {
   }
 
   @Test
-  public void shouldUnmarshalArray() throws Exception {
+  public void shouldDispatchResponseIfResponseReceived() throws Exception {
+    JsonRpcResponse jsonRpcResponse = Mockito.mock(JsonRpcResponse.class);
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE))
+        .thenReturn(singletonList(JsonRpcMessage.response(jsonRpcResponse)));
+
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(jsonRpcUnmarshaller).unmarshalArray(MESSAGE);
+    verify(responseDispatcher).dispatch(ENDPOINT_ID, jsonRpcResponse);
   }
 
   @Test
-  public void shouldDispatchResponseIfResponseReceived() throws Exception {
-    when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(true);
-    when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(false);
-    when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
-    JsonRpcResponse jsonRpcResponse = Mockito.mock(JsonRpcResponse.class);
-    when(jsonRpcUnmarshaller.unmarshalResponse(any())).thenReturn(jsonRpcResponse);
+  public void shouldDispatchRequestIfRequestReceived() throws Exception {
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE))
+        .thenReturn(
+            singletonList(JsonRpcMessage.request(new JsonRpcRequest(null, "method", null))));
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(responseDispatcher).dispatch(eq(ENDPOINT_ID), any(JsonRpcResponse.class));
+    verify(requestProcessor).process(eq("method"), any());
   }
 
   @Test
-  public void shouldDispatchRequestIfRequestReceived() throws Exception {
-    when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(true);
-    when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(false);
-    when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
+  public void shouldTransmitErrorWithRequestIdWhenRequestIsRejected() throws Exception {
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE))
+        .thenReturn(singletonList(JsonRpcMessage.request(new JsonRpcRequest("1", "method", null))));
+    doThrow(new JsonRpcException(-32000, "overloaded"))
+        .when(requestProcessor)
+        .process(eq("method"), any());
+    ArgumentCaptor<JsonRpcException> errorCaptor = ArgumentCaptor.forClass(JsonRpcException.class);
+
+    jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
+
+    verify(errorTransmitter).transmit(eq(ENDPOINT_ID), errorCaptor.capture());
+    assertEquals(errorCaptor.getValue().getCode(), -32000);
+    assertEquals(errorCaptor.getValue().getId(), "1");
+  }
+
+  @Test
+  public void shouldProcessAllMessagesOfBatch() throws Exception {
+    JsonRpcResponse jsonRpcResponse = Mockito.mock(JsonRpcResponse.class);
+    JsonRpcException error = new JsonRpcException(-32600, "invalid request");
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE))
+        .thenReturn(
+            asList(
+                JsonRpcMessage.request(new JsonRpcRequest("1", "method", null)),
+                JsonRpcMessage.invalid(error),
+                JsonRpcMessage.response(jsonRpcResponse)));
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(requestProcessor).process(any());
+    verify(requestProcessor).process(eq("method"), any());
+    verify(errorTransmitter).transmit(ENDPOINT_ID, error);
+    verify(responseDispatcher).dispatch(ENDPOINT_ID, jsonRpcResponse);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldThrowExceptionIfMessageIsNeitherRequestNorResponse() throws Exception {
+    when(jsonRpcUnmarshaller.unmarshalMessages(MESSAGE))
+        .thenReturn(singletonList(JsonRpcMessage.unknown()));
+
+    jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
   }
 }
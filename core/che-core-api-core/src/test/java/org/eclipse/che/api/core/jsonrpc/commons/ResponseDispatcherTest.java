@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.commons;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.util.function.Consumer;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ResponseDispatcher} */
+@Listeners(MockitoTestNGListener.class)
+public class ResponseDispatcherTest {
+  static final String ENDPOINT_ID = "endpoint-id";
+  static final String REQUEST_ID = "request-id";
+  static final int TIMEOUT = 1000;
+
+  @Mock JsonRpcComposer composer;
+  @Mock TimeoutActionRunner timeoutActionRunner;
+  @Mock TimeoutActionRunner.ScheduledAction scheduledAction;
+  @Mock Runnable timeoutRunnable;
+  @Mock JsonRpcResponse errorResponse;
+  @Mock JsonRpcError error;
+
+  ResponseDispatcher responseDispatcher;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(timeoutActionRunner.schedule(anyInt(), any())).thenReturn(scheduledAction);
+    when(errorResponse.getId()).thenReturn(REQUEST_ID);
+    when(errorResponse.hasError()).thenReturn(true);
+    when(errorResponse.getError()).thenReturn(error);
+
+    responseDispatcher = new ResponseDispatcher(composer, timeoutActionRunner);
+  }
+
+  @Test
+  public void shouldRunTimeoutRunnableWhenRequestIsTimedOut() {
+    responseDispatcher
+        .registerPromiseForSingleObject(ENDPOINT_ID, REQUEST_ID, String.class, TIMEOUT)
+        .onTimeout(timeoutRunnable);
+
+    captureTimeoutAction().run();
+
+    verify(timeoutRunnable).run();
+    assertEquals(responseDispatcher.getPendingCount(), 0);
+    assertEquals(responseDispatcher.getTimedOutCount(), 1);
+  }
+
+  @Test
+  public void shouldCancelTimeoutWhenResponseIsDispatched() {
+    JsonRpcPromise<String> promise =
+        responseDispatcher.registerPromiseForSingleObject(
+            ENDPOINT_ID, REQUEST_ID, String.class, TIMEOUT);
+    @SuppressWarnings("unchecked")
+    Consumer<JsonRpcError> failureConsumer = mock(Consumer.class);
+    promise.onFailure(failureConsumer);
+    assertEquals(responseDispatcher.getPendingCount(), 1);
+
+    responseDispatcher.dispatch(ENDPOINT_ID, errorResponse);
+
+    verify(failureConsumer).accept(error);
+    verify(scheduledAction).cancel();
+    assertEquals(responseDispatcher.getPendingCount(), 0);
+    assertEquals(responseDispatcher.getDispatchedCount(), 1);
+  }
+
+  @Test
+  public void shouldNotRunTimeoutRunnableOfRespondedRequest() {
+    responseDispatcher
+        .registerPromiseForListOfObjects(ENDPOINT_ID, REQUEST_ID, String.class, TIMEOUT)
+        .onTimeout(timeoutRunnable);
+    Runnable timeoutAction = captureTimeoutAction();
+    responseDispatcher.dispatch(ENDPOINT_ID, errorResponse);
+
+    timeoutAction.run();
+
+    verify(timeoutRunnable, never()).run();
+    assertEquals(responseDispatcher.getTimedOutCount(), 0);
+  }
+
+  @Test
+  public void shouldNotScheduleTimeoutWhenItIsNotSet() {
+    responseDispatcher.registerPromiseForSingleObject(ENDPOINT_ID, REQUEST_ID, String.class, 0);
+
+    verify(timeoutActionRunner, never()).schedule(anyInt(), any());
+  }
+
+  @Test
+  public void shouldIgnoreErrorResponseOfUnknownRequest() {
+    responseDispatcher.dispatch(ENDPOINT_ID, errorResponse);
+
+    assertEquals(responseDispatcher.getDispatchedCount(), 0);
+  }
+
+  private Runnable captureTimeoutAction() {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(timeoutActionRunner).schedule(eq(TIMEOUT), captor.capture());
+    return captor.getValue();
+  }
+}
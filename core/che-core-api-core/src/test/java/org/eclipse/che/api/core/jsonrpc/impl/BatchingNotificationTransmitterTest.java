@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMarshaller;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link BatchingNotificationTransmitter} */
+@Listeners(MockitoTestNGListener.class)
+public class BatchingNotificationTransmitterTest {
+  private static final String ENDPOINT_ID = "endpoint-id";
+  private static final String METHOD = "method";
+
+  @Mock private JsonRpcMarshaller marshaller;
+  @Mock private WebSocketMessageTransmitter webSocketTransmitter;
+
+  private BatchingNotificationTransmitter transmitter;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(marshaller.marshall(any(JsonRpcRequest.class)))
+        .thenAnswer(
+            invocation ->
+                invocation.<JsonRpcRequest>getArgument(0).getParams().getOne().toString());
+
+    transmitter = new BatchingNotificationTransmitter(marshaller, webSocketTransmitter, 100, 3);
+    transmitter.start();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    transmitter.stop();
+  }
+
+  @Test
+  public void shouldSendNotificationsCollectedWithinWindowAsBatch() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, METHOD, "first");
+    transmitter.transmit(ENDPOINT_ID, METHOD, "second");
+
+    verify(webSocketTransmitter, timeout(1_000)).transmit(ENDPOINT_ID, "[first,second]");
+  }
+
+  @Test
+  public void shouldSendSingleNotificationWithoutBatchArray() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, METHOD, "first");
+
+    verify(webSocketTransmitter, timeout(1_000)).transmit(ENDPOINT_ID, "first");
+  }
+
+  @Test
+  public void shouldSendBatchImmediatelyWhenMaxSizeIsReached() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, METHOD, "first");
+    transmitter.transmit(ENDPOINT_ID, METHOD, "second");
+    transmitter.transmit(ENDPOINT_ID, METHOD, "third");
+
+    verify(webSocketTransmitter).transmit(ENDPOINT_ID, "[first,second,third]");
+  }
+
+  @Test
+  public void shouldCoalesceNotificationsWithTheSameKeyAtPositionOfTheFirstOne() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, METHOD, "first", "key");
+    transmitter.transmit(ENDPOINT_ID, METHOD, "second");
+    transmitter.transmit(ENDPOINT_ID, METHOD, "third", "key");
+
+    verify(webSocketTransmitter, timeout(1_000)).transmit(ENDPOINT_ID, "[third,second]");
+    verify(webSocketTransmitter, never()).transmit(anyString(), eq("[first,second,third]"));
+  }
+
+  @Test
+  public void shouldSendNotificationsImmediatelyWhenBatchingIsDisabled() throws Exception {
+    BatchingNotificationTransmitter nonBatchingTransmitter =
+        new BatchingNotificationTransmitter(marshaller, webSocketTransmitter, 0, 3);
+
+    nonBatchingTransmitter.transmit(ENDPOINT_ID, METHOD, "first");
+
+    verify(webSocketTransmitter).transmit(ENDPOINT_ID, "first");
+  }
+
+  @Test
+  public void shouldKeepOrderOfNotificationsAcrossBatches() throws Exception {
+    List<String> sent = synchronizedList(new ArrayList<>());
+    doAnswer(
+            invocation -> {
+              String message = invocation.getArgument(1);
+              sent.addAll(asList(message.replaceAll("[\\[\\]]", "").split(",")));
+              return null;
+            })
+        .when(webSocketTransmitter)
+        .transmit(eq(ENDPOINT_ID), anyString());
+    BatchingNotificationTransmitter shortWindowTransmitter =
+        new BatchingNotificationTransmitter(marshaller, webSocketTransmitter, 1, 3);
+    shortWindowTransmitter.start();
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      expected.add(String.valueOf(i));
+      shortWindowTransmitter.transmit(ENDPOINT_ID, METHOD, String.valueOf(i));
+      if (i % 100 == 0) {
+        Thread.sleep(2);
+      }
+    }
+    shortWindowTransmitter.stop();
+
+    assertEquals(sent, expected);
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessage;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests {@link GsonJsonRpcUnmarshaller}. */
+public class GsonJsonRpcUnmarshallerTest {
+
+  private final GsonJsonRpcUnmarshaller unmarshaller =
+      new GsonJsonRpcUnmarshaller(new JsonParser());
+
+  @Test
+  public void shouldUnmarshalRequestWithSingleParam() {
+    List<JsonRpcMessage> messages =
+        unmarshaller.unmarshalMessages(
+            "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"method\":\"do\",\"params\":{\"name\":\"value\"}}");
+
+    assertEquals(messages.size(), 1);
+    assertTrue(messages.get(0).isRequest());
+    JsonRpcRequest request = messages.get(0).getRequest();
+    assertEquals(request.getId(), "1");
+    assertEquals(request.getMethod(), "do");
+    assertTrue(request.getParams().isSingle());
+    assertEquals(((JsonObject) request.getParams().getOne()).get("name").getAsString(), "value");
+  }
+
+  @Test
+  public void shouldUnmarshalNotificationWithManyParams() {
+    List<JsonRpcMessage> messages =
+        unmarshaller.unmarshalMessages(
+            "{\"method\":\"notify\",\"params\":[{\"a\":1},\"text\",2,true,null]}");
+
+    JsonRpcRequest request = messages.get(0).getRequest();
+    assertFalse(request.hasId());
+    assertFalse(request.getParams().isSingle());
+    List<?> params = request.getParams().getMany();
+    assertEquals(((JsonObject) params.get(0)).get("a").getAsInt(), 1);
+    assertEquals(params.get(1), "text");
+    assertEquals(params.get(2), 2D);
+    assertEquals(params.get(3), true);
+    assertNull(params.get(4));
+  }
+
+  @Test
+  public void shouldUnmarshalResponses() {
+    List<JsonRpcMessage> messages =
+        unmarshaller.unmarshalMessages(
+            "[{\"id\":2,\"result\":[\"a\",\"b\"]},"
+                + "{\"id\":\"3\",\"error\":{\"code\":-32601,\"message\":\"Not found\"}}]");
+
+    assertEquals(messages.size(), 2);
+    JsonRpcResponse result = messages.get(0).getResponse();
+    assertEquals(result.getId(), "2");
+    assertFalse(result.hasError());
+    assertEquals(result.getResult().getMany().size(), 2);
+    JsonRpcResponse error = messages.get(1).getResponse();
+    assertEquals(error.getId(), "3");
+    assertFalse(error.hasResult());
+    assertEquals(error.getError().getCode(), -32601);
+    assertEquals(error.getError().getMessage(), "Not found");
+  }
+
+  @Test
+  public void shouldKeepOrderOfMessagesInBatch() {
+    List<JsonRpcMessage> messages =
+        unmarshaller.unmarshalMessages(
+            "[{\"method\":\"first\"},{\"id\":\"1\",\"result\":null},{\"method\":\"second\"}]");
+
+    assertEquals(messages.size(), 3);
+    assertEquals(messages.get(0).getRequest().getMethod(), "first");
+    assertTrue(messages.get(1).isResponse());
+    assertEquals(messages.get(2).getRequest().getMethod(), "second");
+  }
+
+  @DataProvider
+  public Object[][] unknownMessages() {
+    return new Object[][] {
+      {"{\"id\":\"1\"}"}, {"{\"id\":\"1\",\"result\":1,\"error\":{}}"}, {"[1]"}, {"\"text\""}
+    };
+  }
+
+  @Test(dataProvider = "unknownMessages")
+  public void shouldUnmarshalNeitherRequestNorResponseAsUnknown(String message) {
+    JsonRpcMessage unmarshalled = unmarshaller.unmarshalMessages(message).get(0);
+
+    assertFalse(unmarshalled.isRequest());
+    assertFalse(unmarshalled.isResponse());
+    assertFalse(unmarshalled.isInvalid());
+  }
+
+  @Test
+  public void shouldUnmarshalRequestWithNotStringMethodAsInvalid() {
+    JsonRpcMessage unmarshalled =
+        unmarshaller.unmarshalMessages("{\"id\":\"1\",\"method\":{}}").get(0);
+
+    assertTrue(unmarshalled.isInvalid());
+    assertEquals(unmarshalled.getError().getCode(), -32600);
+  }
+
+  @DataProvider
+  public Object[][] notValidJson() {
+    return new Object[][] {{"{\"method\":"}, {"[{\"method\":\"a\"}"}, {"{\"method\":\"a\"} {}"}};
+  }
+
+  @Test(dataProvider = "notValidJson")
+  public void shouldThrowParseErrorWhenMessageIsNotValidJson(String message) {
+    try {
+      unmarshaller.unmarshalMessages(message);
+      fail("Parse error is expected");
+    } catch (JsonRpcException e) {
+      assertEquals(e.getCode(), -32700);
+    }
+  }
+}
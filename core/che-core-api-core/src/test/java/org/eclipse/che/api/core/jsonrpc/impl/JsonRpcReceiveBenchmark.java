@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessage;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of decoding of incoming JSON RPC messages and binding of their params, compares the
+ * previous receive path, which qualified and unmarshalled a message by parsing it several times,
+ * with the single pass {@link GsonJsonRpcUnmarshaller#unmarshalMessages(String)}. Run it with
+ * {@link #main(String[])} from test classpath, add {@code -prof gc} to the options to see
+ * allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonRpcReceiveBenchmark {
+
+  /** Number of requests in a message, 1 means a single not batched request. */
+  @Param({"1", "10"})
+  public int requests;
+
+  /** Number of lines of the text passed in params of each request. */
+  @Param({"1", "100"})
+  public int lines;
+
+  private String message;
+  private Gson gson;
+  private GsonJsonRpcQualifier qualifier;
+  private GsonJsonRpcUnmarshaller unmarshaller;
+
+  @Setup
+  public void setUp() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      text.append("    public void method").append(i).append("() { return; }\\n");
+    }
+    List<String> items = new ArrayList<>(requests);
+    for (int i = 0; i < requests; i++) {
+      items.add(
+          "{\"jsonrpc\":\"2.0\",\"id\":\""
+              + i
+              + "\",\"method\":\"textDocument/didChange\",\"params\":{\"uri\":\"file:///projects/"
+              + "app/src/Main.java\",\"version\":"
+              + i
+              + ",\"text\":\""
+              + text
+              + "\"}}");
+    }
+    message = requests == 1 ? items.get(0) : "[" + String.join(",", items) + "]";
+    gson = new Gson();
+    JsonParser parser = new JsonParser();
+    qualifier = new GsonJsonRpcQualifier(parser);
+    unmarshaller = new GsonJsonRpcUnmarshaller(parser);
+  }
+
+  /** Validates, splits, qualifies and unmarshals the message separately, binds params from text. */
+  @Benchmark
+  public int multiPass() {
+    int bound = 0;
+    if (!qualifier.isValidJson(message)) {
+      throw new IllegalStateException();
+    }
+    for (String innerMessage : unmarshaller.unmarshalArray(message)) {
+      if (qualifier.isJsonRpcRequest(innerMessage)) {
+        JsonRpcRequest request = unmarshaller.unmarshalRequest(innerMessage);
+        JsonElement params = (JsonElement) request.getParams().getOne();
+        bound += gson.fromJson(params.toString(), DidChangeParams.class).version;
+      } else if (qualifier.isJsonRpcResponse(innerMessage)) {
+        unmarshaller.unmarshalResponse(innerMessage);
+      }
+    }
+    return bound;
+  }
+
+  /** Parses the message once, binds params from the parsed elements. */
+  @Benchmark
+  public int singlePass() {
+    int bound = 0;
+    for (JsonRpcMessage innerMessage : unmarshaller.unmarshalMessages(message)) {
+      if (innerMessage.isRequest()) {
+        JsonElement params = (JsonElement) innerMessage.getRequest().getParams().getOne();
+        bound += gson.fromJson(params, DidChangeParams.class).version;
+      }
+    }
+    return bound;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JsonRpcReceiveBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  static class DidChangeParams {
+    String uri;
+    int version;
+    String text;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerManager;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ServerSideRequestProcessor} */
+@Listeners(MockitoTestNGListener.class)
+public class ServerSideRequestProcessorTest {
+  @Mock private RequestHandlerManager requestHandlerManager;
+
+  private ServerSideRequestProcessor processor;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(requestHandlerManager.isRegistered(anyString())).thenReturn(true);
+    processor =
+        new ServerSideRequestProcessor(1, 1, "project/*=1, exact/method=1", requestHandlerManager);
+    processor.postConstruct();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    processor.preDestroy();
+  }
+
+  @Test
+  public void shouldFindMethodGroup() throws Exception {
+    assertEquals(processor.getGroup("project/get"), "project/*");
+    assertEquals(processor.getGroup("exact/method"), "exact/method");
+    assertEquals(processor.getGroup("exact/other"), "default");
+    assertEquals(processor.getGroup("other"), "default");
+  }
+
+  @Test
+  public void shouldNeverProcessRequestOnCallerThread() throws Exception {
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    CountDownLatch processed = new CountDownLatch(1);
+
+    processor.process(
+        "other",
+        () -> {
+          thread.set(Thread.currentThread());
+          processed.countDown();
+        });
+
+    assertTrue(processed.await(1, SECONDS));
+    assertNotEquals(thread.get(), Thread.currentThread());
+  }
+
+  @Test
+  public void shouldProcessMethodsOfDifferentGroupsIndependently() throws Exception {
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch processed = new CountDownLatch(1);
+
+    processor.process("project/get", () -> await(blocker));
+    processor.process("other", processed::countDown);
+
+    try {
+      assertTrue(processed.await(1, SECONDS));
+    } finally {
+      blocker.countDown();
+    }
+  }
+
+  @Test
+  public void shouldRejectRequestWhenQueueIsFull() throws Exception {
+    CountDownLatch blocker = new CountDownLatch(1);
+    AtomicBoolean processed = new AtomicBoolean();
+
+    try {
+      // one request is being processed and one waits in the queue
+      processor.process("other", () -> await(blocker));
+      processor.process("other", () -> {});
+      processor.process("other", () -> processed.set(true));
+      fail("Request must be rejected");
+    } catch (JsonRpcException e) {
+      assertEquals(e.getCode(), ServerSideRequestProcessor.OVERLOADED_ERROR_CODE);
+    } finally {
+      blocker.countDown();
+    }
+
+    assertFalse(processed.get());
+    RequestProcessingStatistics statistics = processor.getStatistics().iterator().next();
+    assertEquals(statistics.getMethod(), "other");
+    assertEquals(statistics.getOverflowCount(), 1);
+    for (int i = 0; i < 100 && statistics.getCompletedCount() < 2; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(statistics.getCompletedCount(), 2);
+    assertEquals(statistics.getQueueLength(), 0);
+  }
+
+  @Test
+  public void shouldCollectStatistics() throws Exception {
+    CountDownLatch processed = new CountDownLatch(1);
+
+    processor.process("other", processed::countDown);
+
+    assertTrue(processed.await(1, SECONDS));
+    RequestProcessingStatistics statistics = processor.getStatistics().iterator().next();
+    for (int i = 0; i < 100 && statistics.getCompletedCount() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(statistics.getCompletedCount(), 1);
+    assertEquals(statistics.getQueueLength(), 0);
+    assertEquals(statistics.getActiveCount(), 0);
+  }
+
+  @Test
+  public void shouldCollectStatisticsOfUnknownMethodsUnderSingleKey() throws Exception {
+    when(requestHandlerManager.isRegistered(anyString())).thenReturn(false);
+    CountDownLatch processed = new CountDownLatch(2);
+
+    processor.process("first", processed::countDown);
+    processor.process("second", processed::countDown);
+
+    assertTrue(processed.await(1, SECONDS));
+    assertEquals(processor.getStatistics().size(), 1);
+    RequestProcessingStatistics statistics = processor.getStatistics().iterator().next();
+    assertEquals(statistics.getMethod(), ServerSideRequestProcessor.UNKNOWN_METHOD);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
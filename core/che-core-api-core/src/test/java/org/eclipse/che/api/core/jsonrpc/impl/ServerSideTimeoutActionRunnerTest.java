@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
+import org.eclipse.che.api.core.jsonrpc.commons.TimeoutActionRunner.ScheduledAction;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ServerSideTimeoutActionRunner} */
+public class ServerSideTimeoutActionRunnerTest {
+  private ServerSideTimeoutActionRunner timeoutActionRunner;
+
+  @BeforeMethod
+  public void setUp() {
+    RequestProcessor requestProcessor = Runnable::run;
+    timeoutActionRunner = new ServerSideTimeoutActionRunner(requestProcessor);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    timeoutActionRunner.preDestroy();
+  }
+
+  @Test
+  public void runsActionAfterTimeout() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    timeoutActionRunner.schedule(20, latch::countDown);
+
+    assertTrue(latch.await(5, SECONDS));
+  }
+
+  @Test
+  public void doesNotRunCancelledAction() throws Exception {
+    CountDownLatch cancelled = new CountDownLatch(1);
+    CountDownLatch other = new CountDownLatch(1);
+
+    ScheduledAction action = timeoutActionRunner.schedule(50, cancelled::countDown);
+    action.cancel();
+    timeoutActionRunner.schedule(100, other::countDown);
+
+    assertTrue(other.await(5, SECONDS));
+    assertFalse(cancelled.await(0, SECONDS));
+  }
+}
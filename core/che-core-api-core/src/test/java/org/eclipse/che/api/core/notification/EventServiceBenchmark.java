@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.notification;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of synchronous publishing of events to subscribers of the event class and of its
+ * supertypes. Run it with {@link #main(String[])} from test classpath, add {@code -prof gc} to the
+ * options to see allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventServiceBenchmark {
+
+  /** Number of subscribers of each of the event types. */
+  @Param({"1", "5"})
+  public int subscribers;
+
+  private EventService eventService;
+  private FileEvent event;
+
+  @Setup
+  public void setUp() {
+    eventService = new EventService();
+    for (int i = 0; i < subscribers; i++) {
+      eventService.subscribe(new FileEventSubscriber());
+      eventService.subscribe(new WorkspaceEventSubscriber());
+    }
+    // subscribers of not published events make lookups of supertypes miss
+    eventService.subscribe(
+        new EventSubscriber<String>() {
+          @Override
+          public void onEvent(String event) {}
+        });
+    event = new FileEvent();
+  }
+
+  @Benchmark
+  public Object publish() {
+    return eventService.publish(event);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Object publishConcurrently() {
+    return eventService.publish(event);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(EventServiceBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  interface WorkspaceEvent {}
+
+  abstract static class AbstractWorkspaceEvent implements WorkspaceEvent {}
+
+  static class FileEvent extends AbstractWorkspaceEvent {}
+
+  static class FileEventSubscriber implements EventSubscriber<FileEvent> {
+    @Override
+    public void onEvent(FileEvent event) {}
+  }
+
+  static class WorkspaceEventSubscriber implements EventSubscriber<WorkspaceEvent> {
+    @Override
+    public void onEvent(WorkspaceEvent event) {}
+  }
+}
@@ -10,10 +10,22 @@
  */
 package org.eclipse.che.api.core.notification;
 
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -26,6 +38,11 @@ public class EventServiceTest {
     bus = new EventService();
   }
 
+  @AfterMethod
+  public void tearDown() {
+    bus.shutdown();
+  }
+
   @Test
   public void testSimpleEvent() {
     final List<Object> events = new ArrayList<>();
@@ -159,6 +176,26 @@ public class EventServiceTest {
     Assert.assertEquals(events.size(), 0);
   }
 
+  @Test
+  public void shouldDeliverEventsToSubscriberOfSupertypeSubscribedAfterPublishing() {
+    final Listener listener = new Listener();
+    bus.subscribe(listener);
+    bus.publish("first");
+    final List<Object> events = new ArrayList<>();
+    bus.subscribe(
+        new EventSubscriber<CharSequence>() {
+          @Override
+          public void onEvent(CharSequence event) {
+            events.add(event);
+          }
+        });
+
+    bus.publish("second");
+
+    Assert.assertEquals(listener.events, asList("first", "second"));
+    Assert.assertEquals(events, Collections.singletonList("second"));
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void shouldNotDetermineTheTypeOfEventOnSubscribe() {
     bus.subscribe(new CustomEventSubscriber<>());
@@ -192,6 +229,157 @@ public class EventServiceTest {
     bus.unsubscribe(sb, CustomEventImpl.class);
   }
 
+  @Test
+  public void shouldDeliverEventsWithSameOrderingKeyInOrderOfPublishing() throws Exception {
+    final Map<Integer, List<Integer>> eventsByKey = new ConcurrentHashMap<>();
+    final CountDownLatch delivered = new CountDownLatch(1000);
+    bus.subscribe(
+        new AsyncEventSubscriber<Integer>() {
+          @Override
+          public Object getOrderingKey(Integer event) {
+            return event % 4;
+          }
+
+          @Override
+          public void onEvent(Integer event) {
+            eventsByKey
+                .computeIfAbsent(event % 4, k -> Collections.synchronizedList(new ArrayList<>()))
+                .add(event);
+            delivered.countDown();
+          }
+        });
+
+    for (int i = 0; i < 1000; i++) {
+      bus.publish(i);
+    }
+
+    Assert.assertTrue(delivered.await(10, SECONDS));
+    for (List<Integer> events : eventsByKey.values()) {
+      Assert.assertEquals(events.size(), 250);
+      for (int i = 1; i < events.size(); i++) {
+        Assert.assertTrue(events.get(i - 1) < events.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void shouldDeliverEventsPublishedWhileSubscriberIsBusyInSingleBatch() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CountDownLatch firstDelivered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch allDelivered = new CountDownLatch(6);
+    final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    bus.subscribe(
+        new AsyncEventSubscriber<String>() {
+          @Override
+          public Executor getExecutor() {
+            return executor;
+          }
+
+          @Override
+          public void onEvents(List<String> events) {
+            batches.add(new ArrayList<>(events));
+            firstDelivered.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            events.forEach(e -> allDelivered.countDown());
+          }
+
+          @Override
+          public void onEvent(String event) {}
+        });
+
+    bus.publish("a");
+    Assert.assertTrue(firstDelivered.await(10, SECONDS));
+    for (String event : new String[] {"b", "c", "d", "e", "f"}) {
+      bus.publish(event);
+    }
+    release.countDown();
+
+    Assert.assertTrue(allDelivered.await(10, SECONDS));
+    executor.shutdown();
+    Assert.assertEquals(batches.size(), 2);
+    Assert.assertEquals(batches.get(0), Collections.singletonList("a"));
+    Assert.assertEquals(batches.get(1), asList("b", "c", "d", "e", "f"));
+  }
+
+  @Test
+  public void shouldNotWaitForSubscribersWhenEventIsPublishedAsynchronously() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch delivered = new CountDownLatch(1);
+    bus.subscribe(
+        new EventSubscriber<String>() {
+          @Override
+          public void onEvent(String event) {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            delivered.countDown();
+          }
+        });
+
+    bus.publishAsync("event");
+
+    Assert.assertEquals(delivered.getCount(), 1);
+    release.countDown();
+    Assert.assertTrue(delivered.await(10, SECONDS));
+  }
+
+  @Test
+  public void shouldCollectStatisticsOfAsynchronousDelivery() throws Exception {
+    final CountDownLatch delivered = new CountDownLatch(10);
+    bus.subscribe(
+        new EventSubscriber<Long>() {
+          @Override
+          public void onEvent(Long event) {
+            delivered.countDown();
+          }
+        });
+
+    for (long i = 0; i < 10; i++) {
+      bus.publishAsync(i);
+    }
+
+    Assert.assertTrue(delivered.await(10, SECONDS));
+    Assert.assertEquals(bus.getDispatchStatistics().size(), 1);
+    EventDispatchStatistics statistics = bus.getDispatchStatistics().iterator().next();
+    Assert.assertEquals(statistics.getEventType(), Long.class);
+    Assert.assertEquals(statistics.getDeliveredCount(), 10);
+    Assert.assertEquals(statistics.getBacklog(), 0);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldKeepDeliveringAsynchronouslyEventsOfTypesSubscriberIsStillSubscribedTo()
+      throws Exception {
+    final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch delivered = new CountDownLatch(2);
+    // subscribed to several types of events, so the raw type is used
+    EventSubscriber subscriber =
+        event -> {
+          events.add(event);
+          delivered.countDown();
+        };
+    bus.subscribe(subscriber, String.class);
+    bus.subscribe(subscriber, Long.class);
+
+    bus.publishAsync("first");
+    bus.unsubscribe(subscriber, String.class);
+    bus.publishAsync("second");
+    bus.publishAsync(1L);
+
+    Assert.assertTrue(delivered.await(10, SECONDS));
+    bus.unsubscribe(subscriber, Long.class);
+    bus.publishAsync(2L);
+    bus.shutdown();
+    Assert.assertEquals(events, asList("first", 1L));
+  }
+
   static class CustomEventSubscriber<T extends CustomEvent> implements EventSubscriber<T> {
     final List<String> events = new ArrayList<>();
 
@@ -11,17 +11,27 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import static java.util.Collections.emptySet;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Optional;
+import javax.websocket.CloseReason;
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -40,14 +50,23 @@ public class BasicWebSocketMessageTransmitterTest {
 
   @Mock private WebSocketSessionRegistry registry;
   @Mock private MessagesReSender reSender;
-  @InjectMocks private BasicWebSocketMessageTransmitter transmitter;
+  private BasicWebSocketMessageTransmitter transmitter;
 
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Basic remote;
+  @Mock private RemoteEndpoint.Async remote;
 
   @BeforeMethod
   public void setUp() throws Exception {
-    when(session.getBasicRemote()).thenReturn(remote);
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 2, "drop_oldest");
+
+    doAnswer(
+            invocation -> {
+              invocation.<SendHandler>getArgument(1).onResult(new SendResult());
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+    when(session.getAsyncRemote()).thenReturn(remote);
     when(session.isOpen()).thenReturn(true);
 
     when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
@@ -58,8 +77,8 @@ public class BasicWebSocketMessageTransmitterTest {
   public void shouldSendDirectMessageIfSessionIsOpenAndEndpointIsSet() throws IOException {
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session).getBasicRemote();
-    verify(remote).sendText(MESSAGE);
+    verify(session).getAsyncRemote();
+    verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
   }
 
@@ -69,8 +88,141 @@ public class BasicWebSocketMessageTransmitterTest {
 
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session, never()).getBasicRemote();
-    verify(remote, never()).sendText(MESSAGE);
+    verify(session, never()).getAsyncRemote();
+    verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender).add(ENDPOINT_ID, MESSAGE);
   }
+
+  @Test
+  public void shouldSendNextMessageOnlyWhenPreviousIsCompleted() {
+    ArgumentCaptor<SendHandler> handlerCaptor = ArgumentCaptor.forClass(SendHandler.class);
+    doNothing().when(remote).sendText(anyString(), handlerCaptor.capture());
+
+    transmitter.transmit(ENDPOINT_ID, "first");
+    transmitter.transmit(ENDPOINT_ID, "second");
+
+    verify(remote).sendText(eq("first"), any(SendHandler.class));
+    verify(remote, never()).sendText(eq("second"), any(SendHandler.class));
+
+    handlerCaptor.getValue().onResult(new SendResult());
+
+    verify(remote).sendText(eq("second"), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldDropOldestPendingNotificationWhenQueueIsFull() {
+    ArgumentCaptor<SendHandler> handlerCaptor = ArgumentCaptor.forClass(SendHandler.class);
+    doNothing().when(remote).sendText(anyString(), handlerCaptor.capture());
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, response(1));
+    transmitter.transmit(ENDPOINT_ID, notification("first"));
+    transmitter.transmit(ENDPOINT_ID, notification("second"));
+
+    SessionOutboundQueue queue = transmitter.getOutboundQueues().iterator().next();
+    assertEquals(queue.getDepth(), 2);
+    assertEquals(queue.getDroppedCount(), 1);
+
+    handlerCaptor.getValue().onResult(new SendResult());
+    handlerCaptor.getValue().onResult(new SendResult());
+
+    verify(remote).sendText(eq(response(1)), any(SendHandler.class));
+    verify(remote, never()).sendText(eq(notification("first")), any(SendHandler.class));
+    verify(remote).sendText(eq(notification("second")), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldDropNewNotificationWhenOnlyResponsesArePendingAndQueueIsFull()
+      throws IOException {
+    doNothing().when(remote).sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, response(1));
+    transmitter.transmit(ENDPOINT_ID, request(2));
+    transmitter.transmit(ENDPOINT_ID, notification("first"));
+
+    SessionOutboundQueue queue = transmitter.getOutboundQueues().iterator().next();
+    assertEquals(queue.getDepth(), 2);
+    assertEquals(queue.getDroppedCount(), 1);
+    verify(session, never()).close(any(CloseReason.class));
+  }
+
+  @Test
+  public void shouldCloseSessionInsteadOfDroppingResponseWhenQueueIsFull() throws IOException {
+    doNothing().when(remote).sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, response(1));
+    transmitter.transmit(ENDPOINT_ID, response(2));
+    transmitter.transmit(ENDPOINT_ID, response(3));
+
+    verify(session).close(any(CloseReason.class));
+  }
+
+  @Test
+  public void shouldQualifyJsonRpcNotifications() {
+    assertTrue(SessionOutboundQueue.isNotification(notification("first")));
+    assertTrue(
+        SessionOutboundQueue.isNotification(
+            "[" + notification("first") + "," + notification("second") + "]"));
+    assertFalse(SessionOutboundQueue.isNotification(request(1)));
+    assertFalse(SessionOutboundQueue.isNotification(response(1)));
+    assertFalse(
+        SessionOutboundQueue.isNotification("[" + notification("first") + "," + request(1) + "]"));
+    assertFalse(SessionOutboundQueue.isNotification("{not json"));
+  }
+
+  @Test
+  public void shouldCloseSessionWhenQueueIsFullAndPolicyIsDisconnect() throws IOException {
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 1, "disconnect");
+    doNothing().when(remote).sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, "first");
+    transmitter.transmit(ENDPOINT_ID, "second");
+
+    verify(session).close(any(CloseReason.class));
+    verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldQueueEqualMessagesWhenPolicyIsCoalesceAndQueueIsNotFull() {
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 10, "coalesce");
+    doNothing().when(remote).sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+    SessionOutboundQueue queue = transmitter.getOutboundQueues().iterator().next();
+    assertEquals(queue.getDepth(), 2);
+    assertEquals(queue.getCoalescedCount(), 0);
+  }
+
+  @Test
+  public void shouldNotQueueEqualMessagesWhenPolicyIsCoalesceAndQueueIsFull() {
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 1, "coalesce");
+    ArgumentCaptor<SendHandler> handlerCaptor = ArgumentCaptor.forClass(SendHandler.class);
+    doNothing().when(remote).sendText(anyString(), handlerCaptor.capture());
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, notification("first"));
+    transmitter.transmit(ENDPOINT_ID, notification("first"));
+
+    SessionOutboundQueue queue = transmitter.getOutboundQueues().iterator().next();
+    assertEquals(queue.getDepth(), 1);
+    assertEquals(queue.getCoalescedCount(), 1);
+  }
+
+  private static String notification(String method) {
+    return "{\"jsonrpc\":\"2.0\",\"method\":\"" + method + "\",\"params\":{}}";
+  }
+
+  private static String request(int id) {
+    return "{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"method\":\"request\"}";
+  }
+
+  private static String response(int id) {
+    return "{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"result\":{}}";
+  }
 }
@@ -10,7 +10,6 @@
 package org.eclipse.che.dto.generator;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.io.StringWriter;
@@ -18,6 +17,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -44,7 +45,8 @@ abstract class DtoImpl {
     this.dtoInterface = dtoInterface;
     this.implClassName = dtoInterface.getSimpleName() + "Impl";
     this.compactJson = DtoTemplate.implementsInterface(dtoInterface, CompactJsonDto.class);
-    this.dtoMethods = ImmutableList.copyOf(calcDtoMethods());
+    // gaps of serialization indexes are filled with nulls
+    this.dtoMethods = Collections.unmodifiableList(Arrays.asList(calcDtoMethods()));
   }
 
   protected boolean isCompactJson() {
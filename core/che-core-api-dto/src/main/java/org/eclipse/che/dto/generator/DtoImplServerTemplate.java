@@ -10,28 +10,40 @@
 package org.eclipse.che.dto.generator;
 
 import com.google.common.primitives.Primitives;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.eclipse.che.dto.server.DtoJsonSupport;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
+import org.eclipse.che.dto.server.StreamingJsonSerializable;
+import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.DTOImpl;
 import org.eclipse.che.dto.shared.DelegateRule;
 import org.eclipse.che.dto.shared.DelegateTo;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
+import org.eclipse.che.dto.shared.SerializationIndex;
 
 /** Generates the source code for a generated Server DTO impl. */
 public class DtoImplServerTemplate extends DtoImpl {
   private static final String JSON_ARRAY_IMPL = JsonArrayImpl.class.getCanonicalName();
   private static final String JSON_MAP_IMPL = JsonStringMapImpl.class.getCanonicalName();
+  private static final String JSON_SUPPORT = DtoJsonSupport.class.getCanonicalName();
+  private static final String JSON_READER = JsonReader.class.getCanonicalName();
+  private static final String JSON_TOKEN = JsonToken.class.getCanonicalName();
+  private static final String JSON_WRITER = JsonWriter.class.getCanonicalName();
   private static final String SERVER_DTO_MARKER =
       "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
 
@@ -332,35 +344,392 @@ public class DtoImplServerTemplate extends DtoImpl {
   private void emitSerializer(List<Method> getters, StringBuilder builder) {
     builder.append("    @Override\n");
     builder.append("    public JsonElement toJsonElement() {\n");
-    builder.append("        return gson.toJsonTree(this);\n");
+    builder.append("        return ").append(JSON_SUPPORT).append(".toJsonElement(this);\n");
     builder.append("    }\n");
     builder.append("    @Override\n");
     builder.append("    public void toJson(java.io.Writer w) {\n");
-    builder.append("        gson.toJson(this, w);\n");
+    builder.append("        ").append(JSON_SUPPORT).append(".toJson(this, w);\n");
     builder.append("    }\n");
     builder.append("    @Override\n");
     builder.append("    public String toJson() {\n");
-    builder.append("      return gson.toJson(this);\n");
+    builder.append("      return ").append(JSON_SUPPORT).append(".toJson(this);\n");
     builder.append("    }\n");
     builder.append("\n");
     builder.append("    @Override\n");
     builder.append("    public String toString() {\n");
     builder.append("      return toJson();\n");
     builder.append("    }\n\n");
+    emitStreamingSerializer(getters, builder);
+  }
+
+  /**
+   * Emits a method that writes fields of DTO to JSON stream without reflection. Compact DTOs are
+   * written as arrays of values ordered by {@link SerializationIndex} in the same way as client DTO
+   * implementations write them.
+   */
+  private void emitStreamingSerializer(List<Method> getters, StringBuilder builder) {
+    builder.append("    @Override\n");
+    builder.append("    public void writeJson(").append(JSON_WRITER).append(" out)");
+    builder.append(" throws java.io.IOException {\n");
+    if (isCompactJson()) {
+      builder.append("      out.beginArray();\n");
+      for (Method method : getDtoMethods()) {
+        if (method == null || !isDtoGetter(method)) {
+          builder.append("      out.nullValue();\n");
+          continue;
+        }
+        String fieldName = "this." + getJavaFieldName(method.getName());
+        if (isLastMethod(method) && isList(method.getReturnType())) {
+          // trailing empty list is omitted
+          builder
+              .append("      if (")
+              .append(fieldName)
+              .append(" != null && !")
+              .append(fieldName)
+              .append(".isEmpty()) {\n");
+          emitWriteValue(method.getGenericReturnType(), fieldName, 0, "        ", builder);
+          builder.append("      }\n");
+        } else {
+          emitWriteValue(method.getGenericReturnType(), fieldName, 0, "      ", builder);
+        }
+      }
+      builder.append("      out.endArray();\n");
+    } else {
+      builder.append("      out.beginObject();\n");
+      for (Method getter : getters) {
+        builder
+            .append("      out.name(")
+            .append(quoteStringLiteral(getJsonFieldName(getter)))
+            .append(");\n");
+        emitWriteValue(
+            getter.getGenericReturnType(),
+            "this." + getJavaFieldName(getter.getName()),
+            0,
+            "      ",
+            builder);
+      }
+      builder.append("      out.endObject();\n");
+    }
+    builder.append("    }\n\n");
+  }
+
+  /**
+   * Emits code that writes value of the given type to JSON stream 'out'. Null values are written as
+   * nulls, so they are skipped in objects, null lists and maps are written as empty ones in the
+   * same way as DTO Gson writes them.
+   */
+  private void emitWriteValue(Type type, String value, int depth, String i, StringBuilder builder) {
+    Class<?> rawClass = getRawClass(type);
+    if (rawClass == char.class || rawClass == Character.class) {
+      builder.append(i).append("out.value(");
+      if (rawClass == Character.class) {
+        builder.append(value).append(" == null ? null : ").append(value).append(".toString());\n");
+      } else {
+        builder.append("String.valueOf(").append(value).append("));\n");
+      }
+    } else if (rawClass == float.class) {
+      builder.append(i).append("out.value(Float.valueOf(").append(value).append("));\n");
+    } else if (rawClass.isPrimitive()
+        || rawClass == String.class
+        || rawClass == Boolean.class
+        || isBoxedNumber(rawClass)) {
+      builder.append(i).append("out.value(").append(value).append(");\n");
+    } else if (isList(rawClass)) {
+      Type itemType = ((ParameterizedType) type).getActualTypeArguments()[0];
+      String item = "item" + depth;
+      builder.append(i).append("out.beginArray();\n");
+      builder.append(i).append("if (").append(value).append(" != null) {\n");
+      builder
+          .append(i)
+          .append("  for (")
+          .append(getImplName(itemType, false))
+          .append(" ")
+          .append(item)
+          .append(" : ")
+          .append(value)
+          .append(") {\n");
+      emitWriteValue(itemType, item, depth + 1, i + "    ", builder);
+      builder.append(i).append("  }\n");
+      builder.append(i).append("}\n");
+      builder.append(i).append("out.endArray();\n");
+    } else if (isMap(rawClass)) {
+      Type valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+      String entry = "entry" + depth;
+      builder.append(i).append("out.beginObject();\n");
+      builder.append(i).append("if (").append(value).append(" != null) {\n");
+      builder
+          .append(i)
+          .append("  for (java.util.Map.Entry<String, ")
+          .append(getImplName(valueType, false))
+          .append("> ")
+          .append(entry)
+          .append(" : ")
+          .append(value)
+          .append(".entrySet()) {\n");
+      builder
+          .append(i)
+          .append("    out.name(String.valueOf(")
+          .append(entry)
+          .append(".getKey()));\n");
+      emitWriteValue(valueType, entry + ".getValue()", depth + 1, i + "    ", builder);
+      builder.append(i).append("  }\n");
+      builder.append(i).append("}\n");
+      builder.append(i).append("out.endObject();\n");
+    } else if (isDto(rawClass)) {
+      builder.append(i).append(JSON_SUPPORT).append(".writeDto(out, ").append(value).append(");\n");
+    } else {
+      builder
+          .append(i)
+          .append(JSON_SUPPORT)
+          .append(".writeValue(out, ")
+          .append(value)
+          .append(", ")
+          .append(getTypeExpression(type))
+          .append(");\n");
+    }
+  }
+
+  /** Generates a static method that reads a new instance from JSON stream without reflection. */
+  private void emitStreamingDeserializer(List<Method> getters, StringBuilder builder) {
+    builder
+        .append("    public static ")
+        .append(getImplClassName())
+        .append(" readJson(")
+        .append(JSON_READER)
+        .append(" in) throws java.io.IOException {\n");
+    builder.append("      if (in.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+    builder.append("        in.nextNull();\n");
+    builder.append("        return null;\n");
+    builder.append("      }\n");
+    builder
+        .append("      ")
+        .append(getImplClassName())
+        .append(" dto = new ")
+        .append(getImplClassName())
+        .append("();\n");
+    if (isCompactJson()) {
+      builder.append("      in.beginArray();\n");
+      builder.append("      for (int index = 0; in.hasNext(); index++) {\n");
+      builder.append("        switch (index) {\n");
+      List<Method> methods = getDtoMethods();
+      for (int index = 0; index < methods.size(); index++) {
+        Method method = methods.get(index);
+        if (method != null && isDtoGetter(method)) {
+          builder.append("          case ").append(index).append(": {\n");
+          emitReadField(method, builder);
+          builder.append("            break;\n");
+          builder.append("          }\n");
+        }
+      }
+      builder.append("          default:\n");
+      builder.append("            in.skipValue();\n");
+      builder.append("        }\n");
+      builder.append("      }\n");
+      builder.append("      in.endArray();\n");
+    } else {
+      builder.append("      in.beginObject();\n");
+      builder.append("      while (in.hasNext()) {\n");
+      builder.append("        switch (in.nextName()) {\n");
+      for (Method getter : getters) {
+        builder
+            .append("          case ")
+            .append(quoteStringLiteral(getJsonFieldName(getter)))
+            .append(": {\n");
+        emitReadField(getter, builder);
+        builder.append("            break;\n");
+        builder.append("          }\n");
+      }
+      builder.append("          default:\n");
+      builder.append("            in.skipValue();\n");
+      builder.append("        }\n");
+      builder.append("      }\n");
+      builder.append("      in.endObject();\n");
+    }
+    builder.append("      return dto;\n");
+    builder.append("    }\n\n");
+  }
+
+  private void emitReadField(Method getter, StringBuilder builder) {
+    String field = "dto." + getJavaFieldName(getter.getName());
+    Class<?> returnType = getter.getReturnType();
+    if (returnType.isPrimitive()) {
+      // nulls leave primitive fields untouched
+      String boxed = Primitives.wrap(returnType).getCanonicalName();
+      builder
+          .append("            ")
+          .append(boxed)
+          .append(" value = ")
+          .append(JSON_SUPPORT)
+          .append(".read")
+          .append(getReadMethodSuffix(Primitives.wrap(returnType)))
+          .append("(in);\n");
+      builder.append("            if (value != null) {\n");
+      builder.append("              ").append(field).append(" = value;\n");
+      builder.append("            }\n");
+    } else {
+      emitReadValue(getter.getGenericReturnType(), field, 0, "            ", builder);
+    }
+  }
+
+  /** Emits code that reads value of the given type from JSON stream 'in' and assigns it. */
+  private void emitReadValue(Type type, String target, int depth, String i, StringBuilder builder) {
+    Class<?> rawClass = getRawClass(type);
+    if (rawClass == String.class
+        || rawClass == Boolean.class
+        || isBoxedNumber(rawClass)
+        || rawClass == Character.class) {
+      builder
+          .append(i)
+          .append(target)
+          .append(" = ")
+          .append(JSON_SUPPORT)
+          .append(".read")
+          .append(getReadMethodSuffix(rawClass))
+          .append("(in);\n");
+    } else if (isList(rawClass) || isMap(rawClass)) {
+      String collection = (isList(rawClass) ? "list" : "map") + depth;
+      builder.append(i).append("if (in.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+      builder.append(i).append("  in.nextNull();\n");
+      builder.append(i).append("  ").append(target).append(" = null;\n");
+      builder.append(i).append("} else {\n");
+      if (isList(rawClass)) {
+        Type itemType = ((ParameterizedType) type).getActualTypeArguments()[0];
+        String item = "item" + depth;
+        builder
+            .append(i)
+            .append("  ")
+            .append(getImplName(type, true))
+            .append(" ")
+            .append(collection)
+            .append(" = new ")
+            .append(getImplName(type, true))
+            .append("();\n");
+        builder.append(i).append("  in.beginArray();\n");
+        builder.append(i).append("  while (in.hasNext()) {\n");
+        builder
+            .append(i)
+            .append("    ")
+            .append(getImplName(itemType, false))
+            .append(" ")
+            .append(item)
+            .append(";\n");
+        emitReadValue(itemType, item, depth + 1, i + "    ", builder);
+        builder.append(i).append("    ").append(collection).append(".add(").append(item);
+        builder.append(");\n");
+        builder.append(i).append("  }\n");
+        builder.append(i).append("  in.endArray();\n");
+      } else {
+        Type valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+        String key = "key" + depth;
+        String value = "value" + depth;
+        // keeps the order of entries as Gson does
+        String mapType =
+            getImplName(type, true)
+                .replaceFirst(
+                    HashMap.class.getCanonicalName(), LinkedHashMap.class.getCanonicalName());
+        builder
+            .append(i)
+            .append("  ")
+            .append(mapType)
+            .append(" ")
+            .append(collection)
+            .append(" = new ")
+            .append(mapType)
+            .append("();\n");
+        builder.append(i).append("  in.beginObject();\n");
+        builder.append(i).append("  while (in.hasNext()) {\n");
+        builder.append(i).append("    String ").append(key).append(" = in.nextName();\n");
+        builder
+            .append(i)
+            .append("    ")
+            .append(getImplName(valueType, false))
+            .append(" ")
+            .append(value)
+            .append(";\n");
+        emitReadValue(valueType, value, depth + 1, i + "    ", builder);
+        builder
+            .append(i)
+            .append("    ")
+            .append(collection)
+            .append(".put(")
+            .append(key)
+            .append(", ")
+            .append(value)
+            .append(");\n");
+        builder.append(i).append("  }\n");
+        builder.append(i).append("  in.endObject();\n");
+      }
+      builder.append(i).append("  ").append(target).append(" = ").append(collection);
+      builder.append(";\n");
+      builder.append(i).append("}\n");
+    } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+      builder
+          .append(i)
+          .append(target)
+          .append(" = ")
+          .append(getImplNameForDto(rawClass))
+          .append(".readJson(in);\n");
+    } else if (isDto(rawClass)) {
+      builder
+          .append(i)
+          .append(target)
+          .append(" = ")
+          .append(JSON_SUPPORT)
+          .append(".readDto(in, ")
+          .append(rawClass.getCanonicalName())
+          .append(".class);\n");
+    } else {
+      builder
+          .append(i)
+          .append(target)
+          .append(" = ")
+          .append(JSON_SUPPORT)
+          .append(".readValue(in, ")
+          .append(getTypeExpression(type))
+          .append(");\n");
+    }
+  }
+
+  private static boolean isBoxedNumber(Class<?> type) {
+    return type == Integer.class
+        || type == Long.class
+        || type == Short.class
+        || type == Byte.class
+        || type == Double.class
+        || type == Float.class;
+  }
+
+  private static String getReadMethodSuffix(Class<?> boxedType) {
+    return boxedType.getSimpleName();
+  }
+
+  /** Tests whether or not a given type is DTO interface, possibly generated in another module. */
+  private boolean isDto(Class<?> type) {
+    return getEnclosingTemplate().isDtoInterface(type)
+        || (type.isInterface() && type.isAnnotationPresent(DTO.class));
+  }
+
+  /** Returns expression of {@link Type} that is passed to DTO Gson adapters. */
+  private String getTypeExpression(Type type) {
+    if (type instanceof Class<?>) {
+      return ((Class<?>) type).getCanonicalName() + ".class";
+    }
+    return "new com.google.gson.reflect.TypeToken<" + getImplName(type, false) + ">() {}.getType()";
   }
 
   /** Generates a static factory method that creates a new instance based on a JsonElement. */
   private void emitDeserializer(List<Method> getters, StringBuilder builder) {
-    // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any'
-    // properties
+    emitStreamingDeserializer(getters, builder);
     builder
         .append("    public static ")
         .append(getImplClassName())
         .append(" fromJsonElement(JsonElement jsonElem) {\n");
     builder
-        .append("      return gson.fromJson(jsonElem, ")
+        .append("      return ")
+        .append(JSON_SUPPORT)
+        .append(".fromJson(jsonElem, ")
         .append(getImplClassName())
-        .append(".class);\n");
+        .append("::readJson);\n");
     builder.append("    }\n");
   }
 
@@ -369,9 +738,11 @@ public class DtoImplServerTemplate extends DtoImpl {
     builder.append(getImplClassName());
     builder.append(" fromJsonString(String jsonString) {\n");
     builder
-        .append("      return gson.fromJson(jsonString, ")
+        .append("      return ")
+        .append(JSON_SUPPORT)
+        .append(".fromJson(jsonString, ")
         .append(getImplClassName())
-        .append(".class);\n");
+        .append("::readJson);\n");
     builder.append("    }\n\n");
   }
 
@@ -404,7 +775,7 @@ public class DtoImplServerTemplate extends DtoImpl {
     }
     builder.append(" implements ");
     builder.append(dtoInterface.getCanonicalName());
-    builder.append(", JsonSerializable ");
+    builder.append(", ").append(StreamingJsonSerializable.class.getCanonicalName());
     builder.append(" {\n\n");
     emitFactoryMethod(builder);
     emitDefaultConstructor(builder);
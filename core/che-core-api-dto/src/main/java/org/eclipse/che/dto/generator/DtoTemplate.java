@@ -280,6 +280,15 @@ public class DtoTemplate {
             .append(dto.getImplClassName())
             .append(".fromJsonElement(json);\n");
         builder.append("        }\n\n");
+        builder
+            .append("        public ")
+            .append(dtoInterface)
+            .append(" fromJson(com.google.gson.stream.JsonReader json)")
+            .append(" throws java.io.IOException {\n")
+            .append("            return ")
+            .append(dto.getImplClassName())
+            .append(".readJson(json);\n");
+        builder.append("        }\n\n");
         builder
             .append("        public ")
             .append(dtoInterface)
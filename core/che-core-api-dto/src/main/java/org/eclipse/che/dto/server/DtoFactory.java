@@ -215,6 +215,20 @@ public final class DtoFactory {
     return getDtoProvider(dtoInterface).fromJson(json);
   }
 
+  /**
+   * Creates new instance of class which implements specified DTO interface, reads the next value of
+   * the JSON stream and uses it for initializing fields of DTO object. Returns {@code null} if the
+   * next value is {@code null}.
+   *
+   * @param json JSON stream
+   * @param dtoInterface DTO interface
+   * @throws IllegalArgumentException if can't provide any implementation for specified interface
+   * @throws IOException if an i/o error occurs
+   */
+  public <T> T createDtoFromJson(JsonReader json, Class<T> dtoInterface) throws IOException {
+    return getDtoProvider(dtoInterface).fromJson(json);
+  }
+
   /**
    * Creates new instance of class which implements specified DTO interface, parses specified JSON
    * data and uses parsed data for initializing fields of DTO object.
@@ -431,7 +445,8 @@ public final class DtoFactory {
   /**
    * A specialization of Gson's {@link ReflectiveTypeAdapterFactory} delegates operation on DTO
    * interfaces to the corresponding implementation classes. The implementation classes generated
-   * correctly by the DTO Gson.
+   * correctly by the DTO Gson. Implementations that have generated streaming serializers are read
+   * and written with them, other implementations are handled by reflection.
    *
    * @author tareq.sha@gmail.com
    */
@@ -443,10 +458,33 @@ public final class DtoFactory {
       if (prov != null) {
         return (TypeAdapter<T>) gson.getAdapter(prov.getImplClass());
       }
+      prov = dtoImpl2Providers.get(type.getRawType());
+      if (prov != null && StreamingJsonSerializable.class.isAssignableFrom(prov.getImplClass())) {
+        return (TypeAdapter<T>) new StreamingDtoTypeAdapter<>(prov);
+      }
       return null;
     }
   }
 
+  /** Reads and writes DTO implementation with its generated streaming serializer. */
+  private static class StreamingDtoTypeAdapter<T> extends TypeAdapter<T> {
+    final DtoProvider<T> provider;
+
+    StreamingDtoTypeAdapter(DtoProvider<T> provider) {
+      this.provider = provider;
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+      DtoJsonSupport.writeDto(out, value);
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+      return provider.fromJson(in);
+    }
+  }
+
   /**
    * Wraps Gson's default List/Map adapter factories serialize null List/Map fields as empty
    * instead.
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+
+/**
+ * Support of the streaming JSON serializers generated for server DTO implementations.
+ *
+ * <p>Generated serializers read and write fields of DTO directly, values of other types (enums,
+ * 'any' values) are passed to the adapters of {@link DtoFactory#getGson() DTO Gson}. Values are
+ * read and written in the same way as Gson does it, so the produced JSON is the same as the one
+ * produced by reflective Gson serialization.
+ */
+public final class DtoJsonSupport {
+
+  /** Reads an object from a JSON stream. */
+  public interface JsonReadFunction<T> {
+    T read(JsonReader in) throws IOException;
+  }
+
+  /** Creates JSON writer configured in the same way as the writers of DTO Gson. */
+  public static JsonWriter newJsonWriter(Writer writer) {
+    JsonWriter out = new JsonWriter(writer);
+    out.setHtmlSafe(true);
+    out.setSerializeNulls(false);
+    return out;
+  }
+
+  /** Serializes DTO to JSON string. */
+  public static String toJson(StreamingJsonSerializable dto) {
+    StringWriter writer = new StringWriter();
+    toJson(dto, writer);
+    return writer.toString();
+  }
+
+  /** Serializes DTO to JSON text through the given writer. */
+  public static void toJson(StreamingJsonSerializable dto, Writer writer) {
+    try {
+      dto.writeJson(newJsonWriter(writer));
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  /** Serializes DTO to JSON tree, the tree is parsed from the serialized JSON text. */
+  public static JsonElement toJsonElement(StreamingJsonSerializable dto) {
+    return new JsonParser().parse(toJson(dto));
+  }
+
+  /**
+   * Reads object from JSON string, returns {@code null} if the string is {@code null} or empty.
+   *
+   * @throws JsonSyntaxException if the string is not a valid JSON of the object
+   */
+  public static <T> T fromJson(String json, JsonReadFunction<T> reader) {
+    if (json == null) {
+      return null;
+    }
+    JsonReader in = new JsonReader(new StringReader(json));
+    T result = read(in, reader);
+    try {
+      if (result != null && in.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+    } catch (MalformedJsonException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+    return result;
+  }
+
+  /**
+   * Reads object from JSON tree, returns {@code null} if the tree is {@code null}. The object is
+   * read from the JSON text of the tree.
+   *
+   * @throws JsonSyntaxException if the tree is not a valid JSON of the object
+   */
+  public static <T> T fromJson(JsonElement json, JsonReadFunction<T> reader) {
+    if (json == null) {
+      return null;
+    }
+    return fromJson(json.toString(), reader);
+  }
+
+  private static <T> T read(JsonReader in, JsonReadFunction<T> reader) {
+    boolean empty = true;
+    boolean lenient = in.isLenient();
+    // DTO Gson reads leniently as well
+    in.setLenient(true);
+    try {
+      in.peek();
+      empty = false;
+      return reader.read(in);
+    } catch (EOFException e) {
+      if (empty) {
+        return null;
+      }
+      throw new JsonSyntaxException(e);
+    } catch (IllegalStateException | IOException e) {
+      throw new JsonSyntaxException(e);
+    } finally {
+      in.setLenient(lenient);
+    }
+  }
+
+  /** Writes DTO, DTOs that have no generated serializer are written by DTO Gson. */
+  public static void writeDto(JsonWriter out, Object dto) throws IOException {
+    if (dto == null) {
+      out.nullValue();
+    } else if (dto instanceof StreamingJsonSerializable) {
+      ((StreamingJsonSerializable) dto).writeJson(out);
+    } else {
+      writeValue(out, dto, dto.getClass());
+    }
+  }
+
+  /** Writes value with DTO Gson adapter of the given type. */
+  @SuppressWarnings("unchecked")
+  public static void writeValue(JsonWriter out, Object value, Type type) throws IOException {
+    ((TypeAdapter<Object>) getAdapter(type)).write(out, value);
+  }
+
+  /** Reads DTO of the given interface, see {@link DtoProvider#fromJson(JsonReader)}. */
+  public static <T> T readDto(JsonReader in, Class<T> dtoInterface) throws IOException {
+    return DtoFactory.getInstance().createDtoFromJson(in, dtoInterface);
+  }
+
+  /** Reads value with DTO Gson adapter of the given type. */
+  @SuppressWarnings("unchecked")
+  public static <T> T readValue(JsonReader in, Type type) throws IOException {
+    return (T) getAdapter(type).read(in);
+  }
+
+  public static String readString(JsonReader in) throws IOException {
+    JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+    return in.nextString();
+  }
+
+  public static Boolean readBoolean(JsonReader in) throws IOException {
+    JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.STRING) {
+      return Boolean.parseBoolean(in.nextString());
+    }
+    return in.nextBoolean();
+  }
+
+  public static Integer readInteger(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  public static Long readLong(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  public static Short readShort(JsonReader in) throws IOException {
+    Integer value = readInteger(in);
+    return value != null ? value.shortValue() : null;
+  }
+
+  public static Byte readByte(JsonReader in) throws IOException {
+    Integer value = readInteger(in);
+    return value != null ? value.byteValue() : null;
+  }
+
+  public static Double readDouble(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    return in.nextDouble();
+  }
+
+  public static Float readFloat(JsonReader in) throws IOException {
+    Double value = readDouble(in);
+    return value != null ? value.floatValue() : null;
+  }
+
+  public static Character readCharacter(JsonReader in) throws IOException {
+    String value = readString(in);
+    if (value == null) {
+      return null;
+    }
+    if (value.length() != 1) {
+      throw new JsonSyntaxException("Expecting character, got: " + value);
+    }
+    return value.charAt(0);
+  }
+
+  private static TypeAdapter<?> getAdapter(Type type) {
+    return DtoFactory.getInstance().getGson().getAdapter(TypeToken.get(type));
+  }
+
+  private DtoJsonSupport() {}
+}
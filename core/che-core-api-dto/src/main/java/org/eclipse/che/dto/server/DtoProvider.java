@@ -11,6 +11,9 @@
 package org.eclipse.che.dto.server;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
 
 /**
  * Provides implementation of DTO interface.
@@ -24,6 +27,16 @@ public interface DtoProvider<DTO> {
 
   DTO fromJson(JsonElement json);
 
+  /**
+   * Reads DTO from JSON stream, returns {@code null} if the next value of the stream is {@code
+   * null}. Providers of generated DTO implementations read the stream directly, by default the
+   * value is parsed to JSON tree first.
+   */
+  default DTO fromJson(JsonReader json) throws IOException {
+    JsonElement element = new JsonParser().parse(json);
+    return element.isJsonNull() ? null : fromJson(element);
+  }
+
   DTO newInstance();
 
   DTO clone(DTO origin);
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * DTO that writes itself to a JSON stream without reflection. Server implementations of DTO
+ * interfaces are generated with such serializers, see {@link DtoJsonSupport}.
+ */
+public interface StreamingJsonSerializable extends JsonSerializable {
+
+  /** Writes DTO to the given JSON stream. */
+  void writeJson(JsonWriter out) throws IOException;
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto;
+
+import static java.util.Arrays.asList;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.ComplicatedDto.SimpleEnum;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.shared.DTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of JSON serialization of server DTOs, compares the generated streaming serializers used
+ * by {@link DtoFactory} with reflective serialization of the same implementation classes by Gson.
+ * Run it with {@link #main(String[])} from test classpath, add {@code -prof gc} to the options to
+ * see allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+  /** Number of nested DTOs in the list and in the map of the serialized DTO. */
+  @Param({"1", "100"})
+  public int nested;
+
+  private DtoFactory dtoFactory;
+  private Gson reflectiveGson;
+  private ComplicatedDto dto;
+  private String json;
+
+  @Setup
+  public void setUp() {
+    dtoFactory = DtoFactory.getInstance();
+    reflectiveGson =
+        new GsonBuilder().registerTypeAdapterFactory(new DtoImplTypeAdapterFactory()).create();
+    List<SimpleDto> simpleDtos = new ArrayList<>(nested);
+    Map<String, SimpleDto> map = new HashMap<>();
+    for (int i = 0; i < nested; i++) {
+      SimpleDto simpleDto =
+          dtoFactory.createDto(SimpleDto.class).withId(i).withName("name-" + i).withDefault("d");
+      simpleDtos.add(simpleDto);
+      map.put("key-" + i, simpleDto);
+    }
+    List<List<SimpleEnum>> enums = new ArrayList<>();
+    enums.add(asList(SimpleEnum.ONE, SimpleEnum.TWO));
+    dto =
+        dtoFactory
+            .createDto(ComplicatedDto.class)
+            .withStrings(asList("first", "second"))
+            .withSimpleEnum(SimpleEnum.THREE)
+            .withSimpleDtos(simpleDtos)
+            .withMap(map)
+            .withArrayOfArrayOfEnum(enums);
+    json = dtoFactory.toJson(dto);
+  }
+
+  @Benchmark
+  public String writeStreaming() {
+    return dtoFactory.toJson(dto);
+  }
+
+  @Benchmark
+  public String writeReflective() {
+    return reflectiveGson.toJson(dto, ComplicatedDto.class);
+  }
+
+  @Benchmark
+  public ComplicatedDto readStreaming() {
+    return dtoFactory.createDtoFromJson(json, ComplicatedDto.class);
+  }
+
+  @Benchmark
+  public ComplicatedDto readReflective() {
+    return reflectiveGson.fromJson(json, ComplicatedDto.class);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(DtoSerializationBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  /** Serializes DTO interfaces reflectively, as their implementation classes. */
+  private static class DtoImplTypeAdapterFactory implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      Class<? super T> rawType = type.getRawType();
+      if (!rawType.isInterface() || !rawType.isAnnotationPresent(DTO.class)) {
+        return null;
+      }
+      Class<?> implClass = DtoFactory.getInstance().createDto(rawType).getClass();
+      return (TypeAdapter<T>) gson.getAdapter(implClass);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.util.List;
+import org.eclipse.che.dto.definitions.CompactDto;
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.ComplicatedDto.SimpleEnum;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.annotations.Test;
+
+/** Tests generated streaming serializers of server DTO implementations. */
+public class StreamingDtoSerializationTest {
+
+  private static final DtoFactory dtoFactory = DtoFactory.getInstance();
+
+  @Test
+  public void shouldWriteSameJsonAsReflectiveGson() {
+    ComplicatedDto dto = createComplicatedDto();
+
+    JsonElement expected = new GsonBuilder().create().toJsonTree(dto);
+
+    assertEquals(new JsonParser().parse(dto.toString()), expected);
+    assertEquals(dtoFactory.toJsonElement(dto), expected);
+  }
+
+  @Test
+  public void shouldWriteNullListsAndMapsAsEmptyOnes() {
+    ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class);
+
+    assertEquals(
+        new JsonParser().parse(dtoFactory.toJson(dto)),
+        new JsonParser()
+            .parse("{\"strings\":[],\"map\":{},\"simpleDtos\":[],\"arrayOfArrayOfEnum\":[]}"));
+  }
+
+  @Test
+  public void shouldReadWrittenDto() {
+    ComplicatedDto dto = createComplicatedDto();
+
+    assertEquals(dtoFactory.createDtoFromJson(dtoFactory.toJson(dto), ComplicatedDto.class), dto);
+    assertEquals(
+        dtoFactory.createDtoFromJson(dtoFactory.toJsonElement(dto), ComplicatedDto.class), dto);
+  }
+
+  @Test
+  public void shouldSkipUnknownFieldsAndNullPrimitives() {
+    SimpleDto dto =
+        dtoFactory.createDtoFromJson(
+            "{\"id\":null,\"unknown\":{\"values\":[1,2]},\"name\":\"test\"}", SimpleDto.class);
+
+    assertEquals(dto.getId(), 0);
+    assertEquals(dto.getName(), "test");
+    assertNull(dto.getDefault());
+  }
+
+  @Test
+  public void shouldEscapeHtmlAsDtoGson() {
+    SimpleDto dto = dtoFactory.createDto(SimpleDto.class).withName("<a href='x'>");
+
+    assertTrue(dtoFactory.toJson(dto).contains("\"\\u003ca href\\u003d\\u0027x\\u0027\\u003e\""));
+  }
+
+  @Test
+  public void shouldUseStreamingSerializersForDtosInsideOtherValues() throws Exception {
+    List<SimpleDto> dtos =
+        asList(
+            dtoFactory.createDto(SimpleDto.class).withId(1).withName("first"),
+            dtoFactory.createDto(SimpleDto.class).withId(2).withName("second"));
+
+    String json = dtoFactory.getGson().toJson(dtos);
+
+    assertEquals(
+        new JsonParser().parse(json),
+        new JsonParser().parse("[{\"id\":1,\"name\":\"first\"},{\"id\":2,\"name\":\"second\"}]"));
+    assertEquals(dtoFactory.createListDtoFromJson(json, SimpleDto.class), dtos);
+  }
+
+  @Test
+  public void shouldWriteCompactDtoAsArrayOrderedBySerializationIndex() {
+    CompactDto dto =
+        dtoFactory.createDtoFromJson("[\"name\",null,3,[\"a\",\"b\"]]", CompactDto.class);
+
+    assertEquals(dto.getName(), "name");
+    assertEquals(dto.getSize(), 3);
+    assertEquals(dto.getTags(), asList("a", "b"));
+    assertEquals(dtoFactory.toJson(dto), "[\"name\",null,3,[\"a\",\"b\"]]");
+  }
+
+  @Test
+  public void shouldOmitTrailingEmptyListOfCompactDto() {
+    CompactDto dto = dtoFactory.createDtoFromJson("[\"name\",null,3]", CompactDto.class);
+
+    assertEquals(dto.getTags(), emptyList());
+    assertEquals(dtoFactory.toJson(dto), "[\"name\",null,3]");
+  }
+
+  private static ComplicatedDto createComplicatedDto() {
+    return dtoFactory
+        .createDto(ComplicatedDto.class)
+        .withStrings(asList("first", "second"))
+        .withSimpleEnum(SimpleEnum.TWO)
+        .withMap(singletonMap("key", dtoFactory.createDto(SimpleDto.class).withId(1)))
+        .withSimpleDtos(
+            singletonList(dtoFactory.createDto(SimpleDto.class).withId(2).withName("name")))
+        .withArrayOfArrayOfEnum(
+            asList(singletonList(SimpleEnum.ONE), asList(SimpleEnum.TWO, SimpleEnum.THREE)));
+  }
+}
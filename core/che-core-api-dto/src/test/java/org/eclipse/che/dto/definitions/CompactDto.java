@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.definitions;
+
+import java.util.List;
+import org.eclipse.che.dto.shared.CompactJsonDto;
+import org.eclipse.che.dto.shared.DTO;
+import org.eclipse.che.dto.shared.SerializationIndex;
+
+/**
+ * DTO for testing that the {@link org.eclipse.che.dto.generator.DtoGenerator} correctly generates
+ * server implementations for compact DTO interface, value with index 2 is intentionally missing.
+ */
+@DTO
+public interface CompactDto extends CompactJsonDto {
+  @SerializationIndex(1)
+  String getName();
+
+  @SerializationIndex(3)
+  int getSize();
+
+  @SerializationIndex(4)
+  List<String> getTags();
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.lang.concurrent;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timer that is optimized for a big amount of short tasks that are usually cancelled before they
+ * run, e.g. timeouts. Tasks are kept in a ring of buckets, each bucket corresponds to a tick of the
+ * timer. A single thread moves through the ring once per tick and runs expired tasks of the current
+ * bucket, so scheduling and cancellation take constant time regardless of the amount of scheduled
+ * tasks, and tasks run with a precision of one tick.
+ *
+ * <p>Tasks are run in the thread of the timer, so they must be quick and must not block, longer
+ * work should be passed to an executor.
+ *
+ * <p>Usage example:
+ *
+ * <pre>{@code
+ * HashedWheelTimer timer = new HashedWheelTimer("Timeouts", 100, TimeUnit.MILLISECONDS, 512);
+ * HashedWheelTimer.Timeout timeout = timer.schedule(request::cancel, 30, TimeUnit.SECONDS);
+ * ...
+ * timeout.cancel();
+ * }</pre>
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+  /** Task scheduled in the timer. */
+  public interface Timeout {
+    /**
+     * Cancels the task if it is not run yet.
+     *
+     * @return {@code true} if the task won't run, {@code false} if it is already run
+     */
+    boolean cancel();
+
+    /** Returns {@code true} if the task is cancelled before it is run. */
+    boolean isCancelled();
+  }
+
+  private final long tickNanos;
+  private final int mask;
+  private final Queue<WheelTimeout>[] wheel;
+  private final Queue<WheelTimeout> scheduled = new ConcurrentLinkedQueue<>();
+  private final long startTime;
+  private final Thread worker;
+
+  private volatile boolean closed;
+
+  /**
+   * Creates and starts the timer.
+   *
+   * @param name name of the thread of the timer
+   * @param tickDuration duration of a tick, tasks run with this precision
+   * @param unit unit of the tick duration
+   * @param wheelSize number of buckets, rounded up to the power of two. Tasks that are scheduled
+   *     further than {@code tickDuration * wheelSize} are skipped by the timer several times, so
+   *     the size should cover the most usual delay.
+   */
+  @SuppressWarnings("unchecked")
+  public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("Tick duration must be positive");
+    }
+    if (wheelSize <= 0 || wheelSize > 1 << 30) {
+      throw new IllegalArgumentException("Wheel size must be in range [1, 2^30]");
+    }
+    int size = Integer.highestOneBit(wheelSize);
+    if (size < wheelSize) {
+      size <<= 1;
+    }
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.mask = size - 1;
+    this.wheel = new Queue[size];
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new ArrayDeque<>();
+    }
+    this.startTime = System.nanoTime();
+    this.worker =
+        new ThreadFactoryBuilder()
+            .setNameFormat(name)
+            .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+            .setDaemon(true)
+            .build()
+            .newThread(this::work);
+    worker.start();
+  }
+
+  /**
+   * Schedules the task to be run once after the delay.
+   *
+   * @param task task to run, it is run in the thread of the timer
+   * @param delay delay before the task is run
+   * @param unit unit of the delay
+   * @return timeout that can be used to cancel the task
+   * @throws IllegalStateException if the timer is closed
+   */
+  public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+    if (closed) {
+      throw new IllegalStateException("Timer is closed");
+    }
+    WheelTimeout timeout =
+        new WheelTimeout(task, System.nanoTime() - startTime + Math.max(unit.toNanos(delay), 0));
+    scheduled.add(timeout);
+    return timeout;
+  }
+
+  /** Stops the timer, tasks that are not run yet are discarded. */
+  @Override
+  public void close() {
+    closed = true;
+    worker.interrupt();
+  }
+
+  private void work() {
+    long tick = 0;
+    while (!closed) {
+      long sleepNanos = (tick + 1) * tickNanos - (System.nanoTime() - startTime);
+      if (sleepNanos > 0) {
+        try {
+          NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException e) {
+          // closed
+          return;
+        }
+      }
+      transferScheduled(tick);
+      expire(wheel[(int) (tick & mask)], System.nanoTime() - startTime);
+      tick++;
+    }
+  }
+
+  /** Moves newly scheduled tasks to buckets of the wheel. */
+  private void transferScheduled(long tick) {
+    for (WheelTimeout timeout = scheduled.poll(); timeout != null; timeout = scheduled.poll()) {
+      if (timeout.isCancelled()) {
+        continue;
+      }
+      long deadlineTick = Math.max(timeout.deadline / tickNanos, tick);
+      timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+      wheel[(int) (deadlineTick & mask)].add(timeout);
+    }
+  }
+
+  private void expire(Queue<WheelTimeout> bucket, long now) {
+    for (Iterator<WheelTimeout> it = bucket.iterator(); it.hasNext(); ) {
+      WheelTimeout timeout = it.next();
+      if (timeout.isCancelled()) {
+        it.remove();
+      } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+        it.remove();
+        timeout.expire();
+      } else {
+        timeout.remainingRounds--;
+      }
+    }
+  }
+
+  private static class WheelTimeout implements Timeout {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    /** Accessed only by the thread of the timer. */
+    private long remainingRounds;
+
+    private WheelTimeout(Runnable task, long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public boolean cancel() {
+      return state.compareAndSet(PENDING, CANCELLED) || state.get() == CANCELLED;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(PENDING, EXPIRED)) {
+        return;
+      }
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOG.error("Timer task failed. Cause: " + e.getMessage(), e);
+      }
+    }
+  }
+}
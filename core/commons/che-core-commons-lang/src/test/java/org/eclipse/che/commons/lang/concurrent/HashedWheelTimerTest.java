@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.commons.lang.concurrent;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.eclipse.che.commons.lang.concurrent.HashedWheelTimer.Timeout;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link HashedWheelTimer}. */
+public class HashedWheelTimerTest {
+
+  private HashedWheelTimer timer;
+
+  @BeforeMethod
+  public void setUp() {
+    timer = new HashedWheelTimer("TestTimer", 10, MILLISECONDS, 8);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    timer.close();
+  }
+
+  @Test
+  public void shouldRunTaskAfterDelay() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    timer.schedule(latch::countDown, 50, MILLISECONDS);
+
+    assertTrue(latch.await(5, SECONDS));
+    assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void shouldRunTaskThatIsScheduledFurtherThanWheelSize() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    // wheel covers only 80ms
+    timer.schedule(latch::countDown, 250, MILLISECONDS);
+
+    assertTrue(latch.await(5, SECONDS));
+    assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(250));
+  }
+
+  @Test
+  public void shouldRunTasksInOrderOfDelays() throws Exception {
+    List<Integer> order = new CopyOnWriteArrayList<>();
+    CountDownLatch latch = new CountDownLatch(3);
+
+    timer.schedule(() -> add(order, 3, latch), 150, MILLISECONDS);
+    timer.schedule(() -> add(order, 1, latch), 10, MILLISECONDS);
+    timer.schedule(() -> add(order, 2, latch), 70, MILLISECONDS);
+
+    assertTrue(latch.await(5, SECONDS));
+    assertEquals(order.toString(), "[1, 2, 3]");
+  }
+
+  @Test
+  public void shouldNotRunCancelledTask() throws Exception {
+    CountDownLatch cancelledRun = new CountDownLatch(1);
+    CountDownLatch laterRun = new CountDownLatch(1);
+
+    Timeout timeout = timer.schedule(cancelledRun::countDown, 30, MILLISECONDS);
+    assertTrue(timeout.cancel());
+    timer.schedule(laterRun::countDown, 60, MILLISECONDS);
+
+    assertTrue(laterRun.await(5, SECONDS));
+    assertEquals(cancelledRun.getCount(), 1);
+    assertTrue(timeout.isCancelled());
+  }
+
+  @Test
+  public void shouldNotCancelTaskThatIsAlreadyRun() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    Timeout timeout = timer.schedule(latch::countDown, 0, MILLISECONDS);
+
+    assertTrue(latch.await(5, SECONDS));
+    assertFalse(timeout.cancel());
+    assertFalse(timeout.isCancelled());
+  }
+
+  @Test
+  public void shouldContinueRunningTasksWhenOneOfThemFails() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    timer.schedule(
+        () -> {
+          throw new IllegalStateException("test");
+        },
+        0,
+        MILLISECONDS);
+    timer.schedule(latch::countDown, 20, MILLISECONDS);
+
+    assertTrue(latch.await(5, SECONDS));
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldNotScheduleTaskWhenClosed() {
+    timer.close();
+
+    timer.schedule(() -> {}, 0, MILLISECONDS);
+  }
+
+  private static void add(List<Integer> order, int value, CountDownLatch latch) {
+    order.add(value);
+    latch.countDown();
+  }
+}
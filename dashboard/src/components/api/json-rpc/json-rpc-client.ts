@@ -181,10 +181,17 @@ export class JsonRpcClient {
 
   /**
    * Processes response - detects whether it is JSON RPC response or notification.
+   * JSON RPC batches are processed message by message.
    *
    * @param message
    */
   private processResponse(message: any): void {
+    if (Array.isArray(message)) {
+      message.forEach((innerMessage: any) => {
+        this.processResponse(innerMessage);
+      });
+      return;
+    }
     if (message.id && this.pendingRequests.has(message.id)) {
       this.processResponseMessage(message);
     } else {
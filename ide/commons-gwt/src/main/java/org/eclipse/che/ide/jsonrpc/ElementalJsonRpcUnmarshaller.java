@@ -15,10 +15,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static elemental.json.JsonType.ARRAY;
 import static elemental.json.JsonType.BOOLEAN;
 import static elemental.json.JsonType.NUMBER;
+import static elemental.json.JsonType.OBJECT;
 import static elemental.json.JsonType.STRING;
 import static java.util.Collections.singletonList;
 
 import elemental.json.JsonArray;
+import elemental.json.JsonException;
 import elemental.json.JsonFactory;
 import elemental.json.JsonObject;
 import elemental.json.JsonType;
@@ -28,6 +30,8 @@ import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessage;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
@@ -48,6 +52,30 @@ public class ElementalJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return getArray(message, jsonFactory.parse(message));
   }
 
+  @Override
+  public List<JsonRpcMessage> unmarshalMessages(String message) {
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    JsonValue jsonValue;
+    try {
+      jsonValue = jsonFactory.parse(message);
+    } catch (JsonException e) {
+      throw new JsonRpcException(-32700, "An error occurred while parsing the JSON text");
+    }
+    if (!ARRAY.equals(jsonValue.getType())) {
+      return singletonList(toMessage(jsonValue));
+    }
+
+    JsonArray jsonArray = (JsonArray) jsonValue;
+    int size = jsonArray.length();
+    List<JsonRpcMessage> messages = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      messages.add(toMessage(jsonArray.get(i)));
+    }
+    return messages;
+  }
+
   @Override
   public JsonRpcRequest unmarshalRequest(String message) {
     checkNotNull(message, "Message must not be null");
@@ -76,6 +104,20 @@ public class ElementalJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return new JsonRpcResponse(id, result, error);
   }
 
+  private JsonRpcMessage toMessage(JsonValue jsonValue) {
+    if (!OBJECT.equals(jsonValue.getType())) {
+      return JsonRpcMessage.unknown();
+    }
+
+    JsonObject jsonObject = (JsonObject) jsonValue;
+    if (jsonObject.hasKey("method")) {
+      return JsonRpcMessage.request(
+          new JsonRpcRequest(getId(jsonObject), getMethod(jsonObject), getParams(jsonObject)));
+    }
+    return JsonRpcMessage.response(
+        new JsonRpcResponse(getId(jsonObject), getResult(jsonObject), getError(jsonObject)));
+  }
+
   private JsonRpcError getError(JsonObject response) {
     if (response.hasKey("error")) {
       JsonObject errorJsonValue = response.get("error");
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client;
+
+import static java.util.Collections.singletonList;
+
+import java.util.List;
+
+/**
+ * Processor that receives messages in batches, e.g. all the log lines decoded from a single chunk
+ * of a stream, so it can handle them at once.
+ */
+public interface BatchMessageProcessor<T> extends MessageProcessor<T> {
+
+  /** Processes messages in the order they were received, the list must not be retained. */
+  void process(List<T> messages);
+
+  /** Called when the source of messages is exhausted and no more messages will be processed. */
+  default void flush() {}
+
+  @Override
+  default void process(T message) {
+    process(singletonList(message));
+  }
+}
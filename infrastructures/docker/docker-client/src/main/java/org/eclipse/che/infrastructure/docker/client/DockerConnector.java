@@ -788,8 +788,10 @@ public class DockerConnector {
       }
 
       try (InputStream responseStream = response.getInputStream()) {
-        new MessagePumper<>(new JsonMessageReader<>(responseStream, Event.class), messageProcessor)
-            .start();
+        final EventMessageReader eventReader = new EventMessageReader(responseStream);
+        for (Event event; (event = eventReader.next()) != null; ) {
+          messageProcessor.process(event);
+        }
       }
     }
   }
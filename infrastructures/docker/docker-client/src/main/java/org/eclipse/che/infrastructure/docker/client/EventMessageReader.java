@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.che.infrastructure.docker.client.json.Actor;
+import org.eclipse.che.infrastructure.docker.client.json.Event;
+
+/**
+ * Reads docker events from a stream of JSON objects.
+ *
+ * <p>Unlike {@link JsonMessageReader} events are read field by field right from the stream without
+ * building intermediate JSON trees, fields that are not part of {@link Event} are skipped.
+ */
+class EventMessageReader {
+  private final JsonReader reader;
+
+  EventMessageReader(InputStream source) {
+    this.reader = new JsonReader(new InputStreamReader(source, UTF_8));
+    // stream contains a sequence of top level objects
+    this.reader.setLenient(true);
+  }
+
+  /**
+   * Returns next event of the stream.
+   *
+   * @return next event or null if stream is ended or contains malformed JSON
+   * @throws IOException if error occurs on reading stream
+   */
+  Event next() throws IOException {
+    try {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        return null;
+      }
+      return readEvent();
+    } catch (EOFException e) {
+      // stream is ended
+      return null;
+    } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private Event readEvent() throws IOException {
+    final Event event = new Event();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "status":
+          event.withStatus(reader.nextString());
+          break;
+        case "id":
+          event.withId(reader.nextString());
+          break;
+        case "from":
+          event.withFrom(reader.nextString());
+          break;
+        case "Type":
+          event.withType(reader.nextString());
+          break;
+        case "Action":
+          event.withAction(reader.nextString());
+          break;
+        case "Actor":
+          event.withActor(readActor());
+          break;
+        case "time":
+          event.withTime(reader.nextLong());
+          break;
+        case "timeNano":
+          event.withTimeNano(reader.nextLong());
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return event;
+  }
+
+  private Actor readActor() throws IOException {
+    final Actor actor = new Actor();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String name = reader.nextName();
+      if ("ID".equals(name) && reader.peek() == JsonToken.STRING) {
+        actor.withId(reader.nextString());
+      } else if ("Attributes".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+        final Map<String, String> attributes = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          final String key = reader.nextName();
+          if (reader.peek() == JsonToken.STRING) {
+            attributes.put(key, reader.nextString());
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+        actor.withAttributes(attributes);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return actor;
+  }
+}
@@ -10,91 +10,186 @@
  */
 package org.eclipse.che.infrastructure.docker.client;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.io.ByteStreams;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** @author andrew00x */
+/**
+ * Demultiplexes docker log stream into lines.
+ *
+ * <p>Payload of frames is read into a reusable byte buffer and is decoded as UTF-8 into a reusable
+ * char buffer, so multi-byte characters split between reads or frames are decoded correctly and the
+ * only copy of the data is the string of each line. Lines decoded from a single read are delivered
+ * at once if the target is a {@link BatchMessageProcessor}.
+ *
+ * @author andrew00x
+ */
 class LogMessagePumper extends MessagePumper<LogMessage> {
   private static final Logger LOG = LoggerFactory.getLogger(LogMessagePumper.class);
 
   private static final int STREAM_HEADER_LENGTH = 8;
   private static final int MAX_LINE_LENGTH = 1024;
+  private static final int BUFFER_SIZE = 8192;
 
   private final InputStream source;
   private final MessageProcessor<LogMessage> target;
+  private final ByteBuffer bytes;
+  private final CharBuffer chars;
+  private final CharsetDecoder decoder;
+
+  private List<LogMessage> batch;
 
   LogMessagePumper(InputStream source, MessageProcessor<LogMessage> target) {
     super(null, null);
     this.source = source;
     this.target = target;
+    this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    // holds the rest of an unfinished line together with the chars decoded from a full buffer
+    this.chars = CharBuffer.allocate(BUFFER_SIZE + MAX_LINE_LENGTH + 1);
+    this.decoder =
+        UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.batch = new ArrayList<>();
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   void start() throws IOException {
-    final byte[] buf = new byte[MAX_LINE_LENGTH];
-    StringBuilder lineBuf = null;
-    boolean endOfLine = false;
+    final byte[] header = new byte[STREAM_HEADER_LENGTH];
     LogMessage.Type logMessageType = LogMessage.Type.DOCKER;
-    for (; ; ) {
-      int r = ByteStreams.read(source, buf, 0, STREAM_HEADER_LENGTH);
-      if (r != 8) {
-        if (r != -1) {
-          LOG.debug(
-              "Invalid stream, can't read header. Header of each frame must contain 8 bytes but got {}",
-              r);
+    try {
+      for (; ; ) {
+        int r = ByteStreams.read(source, header, 0, STREAM_HEADER_LENGTH);
+        if (r != STREAM_HEADER_LENGTH) {
+          if (r != 0) {
+            LOG.debug(
+                "Invalid stream, can't read header. Header of each frame must contain 8 bytes but got {}",
+                r);
+          }
+          break;
         }
-        if (lineBuf != null && lineBuf.length() > 0) {
-          target.process(new LogMessage(logMessageType, lineBuf.toString()));
-          lineBuf.setLength(0);
+        final LogMessage.Type frameType = getLogMessageType(header);
+        if (frameType != logMessageType) {
+          // unfinished line and char of another stream must not be continued by this frame
+          decode(true);
+          splitLines(logMessageType, true);
+          emitRest(logMessageType);
+          logMessageType = frameType;
         }
-        break;
-      }
-      logMessageType = getLogMessageType(buf);
-      int remaining = getPayloadLength(buf);
-      while (remaining > 0) {
-        r = source.read(buf, 0, Math.min(remaining, buf.length));
-        int offset = 0;
-        int lineLength = lineBuf != null ? lineBuf.length() : 0;
-        for (int i = 0; i < r; i++, lineLength++) {
-          endOfLine = false;
-          if (buf[i] == '\n' || buf[i] == '\r' || lineLength > MAX_LINE_LENGTH) {
-            int length = i - offset;
-            boolean isLineFeedFollowed = false;
-            if (buf[i] == '\r') {
-              int nextIndex = i + 1;
-              isLineFeedFollowed =
-                  nextIndex < MAX_LINE_LENGTH && nextIndex < r && buf[nextIndex] == '\n';
-              if (!isLineFeedFollowed) {
-                length += 1; // include <CR> char in log message
-              }
-            }
-            if (lineBuf != null && lineBuf.length() > 0) {
-              lineBuf.append(new String(buf, offset, length));
-              target.process(new LogMessage(logMessageType, lineBuf.toString()));
-              lineBuf.setLength(0);
-            } else {
-              target.process(new LogMessage(logMessageType, new String(buf, offset, length)));
-            }
-
-            if (isLineFeedFollowed) {
-              i++;
-            }
-            offset = i + 1;
-            lineLength = 0;
-            endOfLine = true;
+        int remaining = getPayloadLength(header);
+        while (remaining > 0) {
+          r = source.read(bytes.array(), bytes.position(), Math.min(remaining, bytes.remaining()));
+          if (r == -1) {
+            return;
           }
+          bytes.position(bytes.position() + r);
+          remaining -= r;
+          decode(false);
+          splitLines(logMessageType, false);
+          deliver();
         }
-        if (!endOfLine) {
-          if (lineBuf == null) {
-            lineBuf = new StringBuilder(MAX_LINE_LENGTH);
+      }
+    } finally {
+      decode(true);
+      splitLines(logMessageType, true);
+      emitRest(logMessageType);
+      deliver();
+      if (target instanceof BatchMessageProcessor) {
+        ((BatchMessageProcessor<LogMessage>) target).flush();
+      }
+    }
+  }
+
+  /** Decodes the bytes read so far, incomplete character is left in the byte buffer. */
+  private void decode(boolean endOfInput) {
+    bytes.flip();
+    decoder.decode(bytes, chars, endOfInput);
+    if (endOfInput) {
+      decoder.flush(chars);
+      decoder.reset();
+    }
+    bytes.compact();
+  }
+
+  /**
+   * Adds decoded lines to the batch, the rest of unfinished line is left in the char buffer.
+   *
+   * @param type type of the decoded messages
+   * @param endOfInput whether the whole stream is decoded, if so carriage return at the end of the
+   *     decoded chars ends the line, otherwise the next char is needed to find out whether it is
+   *     followed by line feed
+   */
+  private void splitLines(LogMessage.Type type, boolean endOfInput) {
+    final char[] buf = chars.array();
+    final int limit = chars.position();
+    int start = 0;
+    for (int i = 0; i < limit; i++) {
+      final char c = buf[i];
+      if (c == '\n') {
+        emit(type, start, i);
+        start = i + 1;
+      } else if (c == '\r') {
+        if (i + 1 < limit) {
+          if (buf[i + 1] == '\n') {
+            emit(type, start, i);
+            i++;
+          } else {
+            // include <CR> char in log message
+            emit(type, start, i + 1);
           }
-          lineBuf.append(new String(buf, offset, r - offset));
+          start = i + 1;
+        } else if (endOfInput) {
+          emit(type, start, i + 1);
+          start = i + 1;
         }
-        remaining -= r;
+      } else if (i - start >= MAX_LINE_LENGTH) {
+        emit(type, start, i);
+        start = i;
+      }
+    }
+    chars.flip();
+    chars.position(start);
+    chars.compact();
+  }
+
+  /** Adds the rest of unfinished line to the batch. */
+  private void emitRest(LogMessage.Type type) {
+    if (chars.position() > 0) {
+      emit(type, 0, chars.position());
+      chars.clear();
+    }
+  }
+
+  private void emit(LogMessage.Type type, int start, int end) {
+    batch.add(new LogMessage(type, new String(chars.array(), start, end - start)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void deliver() {
+    if (batch.isEmpty()) {
+      return;
+    }
+    if (target instanceof BatchMessageProcessor) {
+      final List<LogMessage> messages = batch;
+      batch = new ArrayList<>();
+      ((BatchMessageProcessor<LogMessage>) target).process(messages);
+    } else {
+      for (LogMessage message : batch) {
+        target.process(message);
       }
+      batch.clear();
     }
   }
 
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Open connection to docker daemon, that can be used for several HTTP requests one after another.
+ */
+interface DockerChannel extends Closeable {
+
+  InputStream getInputStream() throws IOException;
+
+  OutputStream getOutputStream() throws IOException;
+
+  /**
+   * Returns {@code true} if the channel is not closed by the daemon and there is no unread data in
+   * it, so the channel can be used for the next request.
+   */
+  boolean isAlive();
+
+  @Override
+  void close();
+}
@@ -12,22 +12,31 @@ package org.eclipse.che.infrastructure.docker.client.connection;
 
 import com.google.inject.Inject;
 import java.net.URI;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import org.eclipse.che.infrastructure.docker.client.DockerCertificates;
 import org.eclipse.che.infrastructure.docker.client.DockerConnectorConfiguration;
 
 /**
  * Factory for connections to docker API.
  *
- * <p>Detects connection implementation by checking docker daemon URI.
+ * <p>Detects connection implementation by checking docker daemon URI. Connections are kept open
+ * between requests in {@link DockerConnectionPool} unless pooling is disabled by setting max number
+ * of idle connections to 0.
  *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
   public static final String CONNECTION_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_timeout_ms";
   public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_read_timeout_ms";
+  public static final String POOL_MAX_IDLE_PER_DAEMON_PROPERTY =
+      "che.docker.connection_pool.max_idle_per_daemon";
+  public static final String POOL_IDLE_TIMEOUT_MS_PROPERTY =
+      "che.docker.connection_pool.idle_timeout_ms";
 
   @Inject(optional = true)
   @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -37,8 +46,18 @@ public class DockerConnectionFactory {
   @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
   private int connectionReadTimeoutMs = 60000;
 
+  @Inject(optional = true)
+  @Named(POOL_MAX_IDLE_PER_DAEMON_PROPERTY)
+  private int poolMaxIdlePerDaemon = 5;
+
+  @Inject(optional = true)
+  @Named(POOL_IDLE_TIMEOUT_MS_PROPERTY)
+  private long poolIdleTimeoutMs = 30000;
+
   private final DockerCertificates dockerCertificates;
 
+  private DockerConnectionPool connectionPool;
+
   @Inject
   public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
     this.dockerCertificates = connectorConfiguration.getDockerCertificates();
@@ -46,10 +65,29 @@ public class DockerConnectionFactory {
 
   public DockerConnection openConnection(URI dockerDaemonUri) {
     if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-      return new UnixSocketConnection(dockerDaemonUri.getPath());
-    } else {
+      return new UnixSocketConnection(dockerDaemonUri.getPath(), getConnectionPool());
+    }
+    final DockerConnectionPool pool = getConnectionPool();
+    if (pool == null) {
       return new TcpConnection(
           dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
     }
+    return new TcpSocketConnection(
+        dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs, pool);
+  }
+
+  /** Returns pool of idle connections or {@code null} if connections are not pooled. */
+  public synchronized DockerConnectionPool getConnectionPool() {
+    if (connectionPool == null && poolMaxIdlePerDaemon > 0) {
+      connectionPool = new DockerConnectionPool(poolMaxIdlePerDaemon, poolIdleTimeoutMs);
+    }
+    return connectionPool;
+  }
+
+  @PreDestroy
+  public synchronized void closeIdleConnections() {
+    if (connectionPool != null) {
+      connectionPool.close();
+    }
   }
 }
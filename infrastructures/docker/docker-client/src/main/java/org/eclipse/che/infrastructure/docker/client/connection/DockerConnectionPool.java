@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps idle connections to docker daemons, so they can be reused by the following requests.
+ *
+ * <p>Only idle connections are limited, requests never wait for a connection, a new one is opened
+ * if there is no idle connection to the daemon. So long running requests like following logs or
+ * events can't block other requests. Each connection in use serves exactly one request, so the
+ * number of connections to a daemon never exceeds the number of concurrent requests plus the number
+ * of idle connections, which is the same bound as without the pool plus the idle limit. Connections
+ * that stay idle longer than the idle timeout are closed when the pool of the daemon is used next
+ * time or when the pool is closed. Idle connection is checked before it is reused and is discarded
+ * if the daemon has closed it.
+ */
+public class DockerConnectionPool {
+  private final int maxIdlePerDaemon;
+  private final long idleTimeoutMs;
+  private final Map<String, Deque<IdleChannel>> idle = new HashMap<>();
+
+  private final LongAdder opened = new LongAdder();
+  private final LongAdder reused = new LongAdder();
+  private final LongAdder discarded = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  private boolean closed;
+
+  /**
+   * @param maxIdlePerDaemon max number of idle connections kept for each daemon
+   * @param idleTimeoutMs time after which idle connection is closed
+   */
+  public DockerConnectionPool(int maxIdlePerDaemon, long idleTimeoutMs) {
+    if (maxIdlePerDaemon <= 0) {
+      throw new IllegalArgumentException("Max number of idle connections must be positive");
+    }
+    this.maxIdlePerDaemon = maxIdlePerDaemon;
+    this.idleTimeoutMs = idleTimeoutMs;
+  }
+
+  /** Returns number of connections opened since the pool is created. */
+  public long getOpenedCount() {
+    return opened.sum();
+  }
+
+  /** Returns number of requests that were sent over a connection taken from the pool. */
+  public long getReusedCount() {
+    return reused.sum();
+  }
+
+  /** Returns number of idle connections that were found closed by the daemon. */
+  public long getDiscardedCount() {
+    return discarded.sum();
+  }
+
+  /** Returns number of idle connections closed because of the idle timeout or the limit. */
+  public long getEvictedCount() {
+    return evicted.sum();
+  }
+
+  /** Returns number of idle connections to all the daemons. */
+  public synchronized int getIdleCount() {
+    int count = 0;
+    for (Deque<IdleChannel> channels : idle.values()) {
+      count += channels.size();
+    }
+    return count;
+  }
+
+  /** Closes all the idle connections, connections released after that are closed immediately. */
+  public void close() {
+    final List<IdleChannel> toClose = new ArrayList<>();
+    synchronized (this) {
+      closed = true;
+      idle.values().forEach(toClose::addAll);
+      idle.clear();
+    }
+    toClose.forEach(idleChannel -> idleChannel.channel.close());
+  }
+
+  /**
+   * Returns an idle connection to the daemon that is still open or {@code null} if there is no such
+   * connection.
+   */
+  DockerChannel acquire(String daemon) {
+    for (; ; ) {
+      final IdleChannel candidate;
+      final List<IdleChannel> expired;
+      synchronized (this) {
+        final Deque<IdleChannel> channels = idle.get(daemon);
+        if (channels == null) {
+          return null;
+        }
+        expired = removeExpired(channels);
+        // the most recently used connection is the least likely to be closed by the daemon
+        candidate = channels.pollFirst();
+        if (channels.isEmpty()) {
+          idle.remove(daemon);
+        }
+      }
+      closeEvicted(expired);
+      if (candidate == null) {
+        return null;
+      }
+      if (candidate.channel.isAlive()) {
+        reused.increment();
+        return candidate.channel;
+      }
+      discarded.increment();
+      candidate.channel.close();
+    }
+  }
+
+  /** Returns the connection to the pool, or closes it if the pool of the daemon is full. */
+  void release(String daemon, DockerChannel channel) {
+    final List<IdleChannel> expired;
+    boolean accepted = false;
+    synchronized (this) {
+      if (closed) {
+        expired = new ArrayList<>();
+      } else {
+        final Deque<IdleChannel> channels = idle.computeIfAbsent(daemon, d -> new ArrayDeque<>());
+        expired = removeExpired(channels);
+        if (channels.size() < maxIdlePerDaemon) {
+          channels.addFirst(new IdleChannel(channel, System.currentTimeMillis()));
+          accepted = true;
+        }
+      }
+    }
+    closeEvicted(expired);
+    if (!accepted) {
+      evicted.increment();
+      channel.close();
+    }
+  }
+
+  /** Called when a new connection is opened. */
+  void onOpened() {
+    opened.increment();
+  }
+
+  private List<IdleChannel> removeExpired(Deque<IdleChannel> channels) {
+    final List<IdleChannel> expired = new ArrayList<>();
+    final long expiredBefore = System.currentTimeMillis() - idleTimeoutMs;
+    // the least recently used connections are at the end
+    for (Iterator<IdleChannel> it = channels.descendingIterator(); it.hasNext(); ) {
+      final IdleChannel idleChannel = it.next();
+      if (idleChannel.releasedAt > expiredBefore) {
+        break;
+      }
+      it.remove();
+      expired.add(idleChannel);
+    }
+    return expired;
+  }
+
+  private void closeEvicted(List<IdleChannel> expired) {
+    for (IdleChannel idleChannel : expired) {
+      evicted.increment();
+      idleChannel.channel.close();
+    }
+  }
+
+  private static class IdleChannel {
+    final DockerChannel channel;
+    final long releasedAt;
+
+    IdleChannel(DockerChannel channel, long releasedAt) {
+      this.channel = channel;
+      this.releasedAt = releasedAt;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import com.google.common.base.Strings;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import org.eclipse.che.commons.lang.Pair;
+
+/**
+ * Connection that talks HTTP/1.1 to docker daemon over a socket channel.
+ *
+ * <p>If a pool is set, the channel is returned to it on {@link #close()} when the response is read
+ * completely, so the next request to the same daemon doesn't need to open a new connection. Only
+ * GET requests are sent over channels taken from the pool, as they are the only requests that are
+ * sent once again over a new channel when the daemon closes or resets an idle channel before
+ * responding.
+ */
+abstract class SocketDockerConnection extends DockerConnection {
+  private final String daemon;
+  private final DockerConnectionPool pool;
+
+  private DockerChannel channel;
+  private UnixSocketDockerResponse response;
+  private boolean reusable;
+
+  /**
+   * @param daemon identifier of the daemon, channels are pooled per daemon
+   * @param pool pool of idle channels or {@code null} if channels should not be reused
+   */
+  SocketDockerConnection(String daemon, DockerConnectionPool pool) {
+    this.daemon = daemon;
+    this.pool = pool;
+  }
+
+  /** Opens a new channel to the daemon. */
+  protected abstract DockerChannel openChannel() throws IOException;
+
+  /** Returns value of the Host header. */
+  protected abstract String getHost();
+
+  @Override
+  protected DockerResponse request(
+      String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+      throws IOException {
+    // response to HEAD has no body regardless of its headers, so it can't be checked for
+    // completeness
+    reusable = pool != null && !"HEAD".equals(method) && !(entity instanceof StreamEntity);
+    // daemon may close an idle connection at any time, so a request sent over it may need to be
+    // sent once again, only idempotent requests can be safely sent twice
+    final DockerChannel reused = reusable && "GET".equals(method) ? pool.acquire(daemon) : null;
+    if (reused != null) {
+      channel = reused;
+      try {
+        final InputStream input = send(method, path, query, headers, entity);
+        input.mark(1);
+        if (input.read() != -1) {
+          input.reset();
+          return response = new UnixSocketDockerResponse(input);
+        }
+      } catch (SocketTimeoutException e) {
+        // the connection is alive but the daemon is slow, it would be as slow on a new one
+        closeChannel();
+        throw e;
+      } catch (IOException ignored) {
+        // the connection was reset by daemon before any response byte
+      }
+      // the connection was closed by daemon before any response byte, send the request again
+      closeChannel();
+    }
+    channel = openChannel();
+    if (pool != null) {
+      pool.onOpened();
+    }
+    return response = new UnixSocketDockerResponse(send(method, path, query, headers, entity));
+  }
+
+  @Override
+  public void close() {
+    if (channel == null) {
+      return;
+    }
+    if (reusable && response != null && response.isReusable()) {
+      pool.release(daemon, channel);
+      channel = null;
+    } else {
+      closeChannel();
+    }
+  }
+
+  private InputStream send(
+      String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+      throws IOException {
+    final OutputStream output = new BufferedOutputStream(channel.getOutputStream());
+    writeHttpHeaders(output, method, path, query, headers);
+    if (entity != null) {
+      entity.writeTo(output);
+    }
+    return new BufferedInputStream(channel.getInputStream());
+  }
+
+  private void closeChannel() {
+    channel.close();
+    channel = null;
+  }
+
+  private void writeHttpHeaders(
+      OutputStream output, String method, String path, String query, List<Pair<String, ?>> headers)
+      throws IOException {
+    final Writer writer = new OutputStreamWriter(output);
+    writer.write(method);
+    writer.write(' ');
+    writer.write(path);
+    if (!Strings.isNullOrEmpty(query)) {
+      writer.write("?");
+      writer.write(query);
+    }
+    writer.write(" HTTP/1.1\r\n");
+    for (Pair<String, ?> header : headers) {
+      writer.write(header.first);
+      writer.write(": ");
+      writer.write(String.valueOf(header.second));
+      writer.write("\r\n");
+    }
+    // Host header is mandatory in HTTP 1.1
+    writer.write("Host: ");
+    writer.write(getHost());
+    writer.write("\r\n\r\n");
+    writer.flush();
+  }
+}
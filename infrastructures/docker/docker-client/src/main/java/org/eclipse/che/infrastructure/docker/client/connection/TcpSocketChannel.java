@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import org.eclipse.che.infrastructure.docker.client.DockerCertificates;
+
+/** Channel over a TCP socket, TLS is used if the daemon URI has https scheme. */
+class TcpSocketChannel implements DockerChannel {
+  private final Socket socket;
+  private final int readTimeoutMs;
+
+  private TcpSocketChannel(Socket socket, int readTimeoutMs) {
+    this.socket = socket;
+    this.readTimeoutMs = readTimeoutMs;
+  }
+
+  static TcpSocketChannel connect(
+      URI daemonUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs)
+      throws IOException {
+    final boolean secure = "https".equals(daemonUri.getScheme());
+    final SocketFactory socketFactory =
+        secure ? certificates.getSslContext().getSocketFactory() : SocketFactory.getDefault();
+    int port = daemonUri.getPort();
+    if (port == -1) {
+      port = secure ? 443 : 80;
+    }
+    final Socket socket = socketFactory.createSocket();
+    try {
+      if (secure) {
+        // the same check of the daemon host name as HttpsURLConnection does
+        final SSLParameters sslParameters = ((SSLSocket) socket).getSSLParameters();
+        sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+        ((SSLSocket) socket).setSSLParameters(sslParameters);
+      }
+      socket.setTcpNoDelay(true);
+      socket.setKeepAlive(true);
+      socket.connect(new InetSocketAddress(daemonUri.getHost(), port), connectionTimeoutMs);
+      socket.setSoTimeout(readTimeoutMs);
+    } catch (IOException | RuntimeException e) {
+      socket.close();
+      throw e;
+    }
+    return new TcpSocketChannel(socket, readTimeoutMs);
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return socket.getInputStream();
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws IOException {
+    return socket.getOutputStream();
+  }
+
+  @Override
+  public boolean isAlive() {
+    if (socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+      return false;
+    }
+    try {
+      // socket that is alive and has no data blocks on read until the timeout
+      socket.setSoTimeout(1);
+      socket.getInputStream().read();
+      return false;
+    } catch (SocketTimeoutException e) {
+      return true;
+    } catch (IOException e) {
+      return false;
+    } finally {
+      try {
+        socket.setSoTimeout(readTimeoutMs);
+      } catch (IOException ignored) {
+        // socket is closed, it is found on the next use
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      socket.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
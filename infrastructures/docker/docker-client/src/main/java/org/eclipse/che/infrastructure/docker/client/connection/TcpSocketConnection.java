@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import java.io.IOException;
+import java.net.URI;
+import org.eclipse.che.infrastructure.docker.client.DockerCertificates;
+
+/**
+ * Connection to docker daemon over TCP that keeps the socket open between requests, unlike {@link
+ * TcpConnection}.
+ */
+public class TcpSocketConnection extends SocketDockerConnection {
+  private final URI baseUri;
+  private final DockerCertificates certificates;
+  private final int connectionTimeout;
+  private final int readTimeout;
+
+  public TcpSocketConnection(
+      URI baseUri,
+      DockerCertificates certificates,
+      int connectionTimeoutMs,
+      int readTimeoutMs,
+      DockerConnectionPool pool) {
+    super(baseUri.getScheme() + "://" + baseUri.getAuthority(), pool);
+    if ("https".equals(baseUri.getScheme())) {
+      if (certificates == null) {
+        throw new IllegalArgumentException("Certificates are required for https connection.");
+      }
+    } else if (!("http".equals(baseUri.getScheme()))) {
+      throw new IllegalArgumentException(
+          String.format("Invalid URL '%s', only http and https protocols are supported.", baseUri));
+    }
+    this.baseUri = baseUri;
+    this.certificates = certificates;
+    this.connectionTimeout = connectionTimeoutMs;
+    this.readTimeout = readTimeoutMs;
+  }
+
+  @Override
+  protected DockerChannel openChannel() throws IOException {
+    return TcpSocketChannel.connect(baseUri, certificates, connectionTimeout, readTimeout);
+  }
+
+  @Override
+  protected String getHost() {
+    return baseUri.getPort() != -1
+        ? baseUri.getHost() + ':' + baseUri.getPort()
+        : baseUri.getHost();
+  }
+}
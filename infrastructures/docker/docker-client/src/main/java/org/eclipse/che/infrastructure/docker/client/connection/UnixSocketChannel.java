@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static org.eclipse.che.infrastructure.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.infrastructure.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.infrastructure.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.infrastructure.docker.client.CLibraryFactory.getCLibrary;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import org.eclipse.che.infrastructure.docker.client.CLibrary;
+
+/** Channel over a unix socket. */
+class UnixSocketChannel implements DockerChannel {
+  // Defined in 'sys/socket.h' and 'errno.h'
+  private static final int MSG_PEEK = 0x2;
+  private static final int MSG_DONTWAIT = 0x40;
+  private static final int EAGAIN = 11;
+
+  private final int fd;
+
+  private UnixSocketChannel(int fd) {
+    this.fd = fd;
+  }
+
+  static UnixSocketChannel connect(String dockerSocketPath) throws ConnectException {
+    final CLibrary cLib = getCLibrary();
+    int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+    if (fd == -1) {
+      throw new ConnectException(
+          String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+    }
+    final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
+    int c = cLib.connect(fd, sockAddr, sockAddr.size());
+    if (c == -1) {
+      cLib.close(fd);
+      throw new ConnectException(
+          String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+    }
+    return new UnixSocketChannel(fd);
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return new UnixSocketInputStream(fd);
+  }
+
+  @Override
+  public OutputStream getOutputStream() {
+    return new UnixSocketOutputStream(fd);
+  }
+
+  @Override
+  public boolean isAlive() {
+    final CLibrary cLib = getCLibrary();
+    try {
+      // peeks without blocking, socket that is alive and has no data has nothing to receive yet
+      int n = cLib.recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT);
+      return n == -1 && Native.getLastError() == EAGAIN;
+    } catch (LastErrorException e) {
+      return e.getErrorCode() == EAGAIN;
+    }
+  }
+
+  @Override
+  public void close() {
+    getCLibrary().close(fd);
+  }
+}
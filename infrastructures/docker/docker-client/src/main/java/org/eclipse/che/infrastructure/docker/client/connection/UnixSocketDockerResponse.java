@@ -17,6 +17,9 @@ import java.util.List;
 
 /** @author andrew00x */
 public class UnixSocketDockerResponse implements DockerResponse {
+  /** Max size of unread body that is skipped to reuse the connection. */
+  private static final int MAX_SKIPPED_BODY_SIZE = 8192;
+
   private static final InputStream EMPTY =
       new InputStream() {
         @Override
@@ -142,6 +145,11 @@ public class UnixSocketDockerResponse implements DockerResponse {
       }
     }
     this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+    final int statusCode = getStatus();
+    if (statusCode == 204 || statusCode == 304) {
+      // responses without body by definition
+      return data = EMPTY;
+    }
     final int contentLength = getContentLength();
     if (contentLength == 0) {
       return data = EMPTY;
@@ -154,4 +162,40 @@ public class UnixSocketDockerResponse implements DockerResponse {
             ? new ChunkedInputStream(rawData)
             : rawData;
   }
+
+  /**
+   * Checks whether the connection can be used for the next request after this response. It is so if
+   * the daemon doesn't close the connection and the body of the response is read completely. Small
+   * unread rest of the body is skipped.
+   */
+  synchronized boolean isReusable() {
+    if (headersFields == null) {
+      return false;
+    }
+    try {
+      if (!headersFields[0].startsWith("HTTP/1.1")
+          || "close".equalsIgnoreCase(getHeader("Connection"))) {
+        return false;
+      }
+      final boolean complete;
+      if (data == EMPTY) {
+        complete = true;
+      } else if (data instanceof LimitedInputStream) {
+        final LimitedInputStream limited = (LimitedInputStream) data;
+        if (limited.remaining() <= MAX_SKIPPED_BODY_SIZE) {
+          while (limited.skip(MAX_SKIPPED_BODY_SIZE) > 0) {}
+        }
+        complete = limited.remaining() == 0;
+      } else if (data instanceof ChunkedInputStream) {
+        complete = ((ChunkedInputStream) data).isEndReached();
+      } else {
+        // body ends when the daemon closes the connection
+        complete = false;
+      }
+      // nothing that doesn't belong to this response may be left in the connection
+      return complete && rawData.available() == 0;
+    } catch (IOException e) {
+      return false;
+    }
+  }
 }
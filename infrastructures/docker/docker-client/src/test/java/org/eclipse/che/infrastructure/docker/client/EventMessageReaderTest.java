@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.eclipse.che.infrastructure.docker.client.json.Event;
+import org.testng.annotations.Test;
+
+/** Tests {@link EventMessageReader}. */
+public class EventMessageReaderTest {
+
+  @Test
+  public void shouldParseSequenceOfEvents() throws IOException {
+    final String src =
+        "{\"status\":\"die\",\"id\":\"abc\",\"from\":\"ubuntu\",\"Type\":\"container\","
+            + "\"Action\":\"die\",\"Actor\":{\"ID\":\"abc\",\"Attributes\":{\"exitCode\":\"137\"}},"
+            + "\"scope\":\"local\",\"time\":1520000000,\"timeNano\":1520000000123456789}\n"
+            + "{\"status\":\"oom\",\"id\":\"def\",\"unknown\":{\"nested\":[1,2,{\"a\":null}]},"
+            + "\"from\":null,\"time\":1520000001}";
+
+    final EventMessageReader reader =
+        new EventMessageReader(new ByteArrayInputStream(src.getBytes()));
+
+    final Event event1 = reader.next();
+    final Event event2 = reader.next();
+
+    assertEquals(event1.getStatus(), "die");
+    assertEquals(event1.getId(), "abc");
+    assertEquals(event1.getFrom(), "ubuntu");
+    assertEquals(event1.getType(), "container");
+    assertEquals(event1.getAction(), "die");
+    assertEquals(event1.getActor().getId(), "abc");
+    assertEquals(event1.getActor().getAttributes(), ImmutableMap.of("exitCode", "137"));
+    assertEquals(event1.getTime(), 1520000000L);
+    assertEquals(event1.getTimeNano(), 1520000000123456789L);
+    assertEquals(event2.getStatus(), "oom");
+    assertEquals(event2.getId(), "def");
+    assertNull(event2.getFrom());
+    assertEquals(event2.getTime(), 1520000001L);
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void shouldReturnNullIfStreamIsEmpty() throws IOException {
+    assertNull(new EventMessageReader(new ByteArrayInputStream(new byte[0])).next());
+  }
+
+  @Test
+  public void shouldReturnNullIfJsonIsIncorrect() throws IOException {
+    assertNull(new EventMessageReader(new ByteArrayInputStream("not json".getBytes())).next());
+  }
+}
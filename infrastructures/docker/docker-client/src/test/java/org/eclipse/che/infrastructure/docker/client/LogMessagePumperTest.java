@@ -10,14 +10,22 @@
  */
 package org.eclipse.che.infrastructure.docker.client;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import com.google.common.base.Strings;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import org.testng.annotations.Test;
 
 /** @author Roman Nikitenko */
@@ -63,6 +71,131 @@ public class LogMessagePumperTest {
     logMessagePumper.start();
   }
 
+  @Test
+  public void shouldDecodeMultiByteCharsSplitBetweenReadsAndFrames() throws Exception {
+    final byte[] line = "\u00e9t\u00e9 \u20ac \ud83d\ude00\n".getBytes(UTF_8);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    // split the second byte of the first char into the next frame
+    writeFrame(stream, 1, line, 0, 1);
+    writeFrame(stream, 1, line, 1, line.length - 1);
+    final List<LogMessage> messages = new ArrayList<>();
+
+    new LogMessagePumper(new OneByteInputStream(stream.toByteArray()), messages::add).start();
+
+    assertEquals(messages.size(), 1);
+    assertEquals(messages.get(0).getContent(), "\u00e9t\u00e9 \u20ac \ud83d\ude00");
+  }
+
+  @Test
+  public void shouldContinueLineInNextFrameOfTheSameStream() throws Exception {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    writeFrame(stream, 1, "first ".getBytes(UTF_8));
+    writeFrame(stream, 1, "line\r".getBytes(UTF_8));
+    writeFrame(stream, 1, "\nsecond line\n".getBytes(UTF_8));
+    writeFrame(stream, 2, "error".getBytes(UTF_8));
+    writeFrame(stream, 1, "last".getBytes(UTF_8));
+    final List<LogMessage> messages = new ArrayList<>();
+
+    new LogMessagePumper(new ByteArrayInputStream(stream.toByteArray()), messages::add).start();
+
+    assertEquals(messages.size(), 4);
+    assertEquals(messages.get(0).getContent(), "first line");
+    assertEquals(messages.get(1).getContent(), "second line");
+    assertEquals(messages.get(2).getType(), LogMessage.Type.STDERR);
+    assertEquals(messages.get(2).getContent(), "error");
+    assertEquals(messages.get(3).getType(), LogMessage.Type.STDOUT);
+    assertEquals(messages.get(3).getContent(), "last");
+  }
+
+  @Test
+  public void shouldNotContinueIncompleteCharInFrameOfAnotherStream() throws Exception {
+    final byte[] out = "out é".getBytes(UTF_8);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    // the last char of the stdout frame is incomplete
+    writeFrame(stream, 1, out, 0, out.length - 1);
+    writeFrame(stream, 2, "error\n".getBytes(UTF_8));
+    final List<LogMessage> messages = new ArrayList<>();
+
+    new LogMessagePumper(new ByteArrayInputStream(stream.toByteArray()), messages::add).start();
+
+    assertEquals(messages.size(), 2);
+    assertEquals(messages.get(0).getType(), LogMessage.Type.STDOUT);
+    assertEquals(messages.get(0).getContent(), "out �");
+    assertEquals(messages.get(1).getType(), LogMessage.Type.STDERR);
+    assertEquals(messages.get(1).getContent(), "error");
+  }
+
+  @Test
+  public void shouldSplitTooLongLinesWithoutLosingChars() throws Exception {
+    final String longLine = Strings.repeat("a", 1024) + Strings.repeat("b", 100);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    writeFrame(stream, 1, (longLine + "\n").getBytes(UTF_8));
+    final List<LogMessage> messages = new ArrayList<>();
+
+    new LogMessagePumper(new ByteArrayInputStream(stream.toByteArray()), messages::add).start();
+
+    assertEquals(messages.size(), 2);
+    assertEquals(messages.get(0).getContent(), Strings.repeat("a", 1024));
+    assertEquals(messages.get(1).getContent(), Strings.repeat("b", 100));
+  }
+
+  @Test
+  public void shouldDeliverLinesOfSingleReadInOneBatch() throws Exception {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    writeFrame(stream, 1, "line 1\nline 2\nline".getBytes(UTF_8));
+    writeFrame(stream, 1, " 3\n".getBytes(UTF_8));
+    final List<List<String>> batches = new ArrayList<>();
+    final boolean[] flushed = new boolean[1];
+    final BatchMessageProcessor<LogMessage> processor =
+        new BatchMessageProcessor<LogMessage>() {
+          @Override
+          public void process(List<LogMessage> messages) {
+            final List<String> batch = new ArrayList<>();
+            messages.forEach(m -> batch.add(m.getContent()));
+            batches.add(batch);
+          }
+
+          @Override
+          public void flush() {
+            flushed[0] = true;
+          }
+        };
+
+    new LogMessagePumper(new ByteArrayInputStream(stream.toByteArray()), processor).start();
+
+    assertEquals(batches, asList(asList("line 1", "line 2"), asList("line 3")));
+    assertTrue(flushed[0]);
+  }
+
+  private void writeFrame(ByteArrayOutputStream stream, int type, byte[] payload) {
+    writeFrame(stream, type, payload, 0, payload.length);
+  }
+
+  private void writeFrame(
+      ByteArrayOutputStream stream, int type, byte[] payload, int offset, int length) {
+    stream.write(type);
+    stream.write(0);
+    stream.write(0);
+    stream.write(0);
+    stream.write(length >>> 24);
+    stream.write(length >>> 16);
+    stream.write(length >>> 8);
+    stream.write(length);
+    stream.write(payload, offset, length);
+  }
+
+  /** Returns at most one byte per read, like a slow stream does. */
+  private static class OneByteInputStream extends FilterInputStream {
+    OneByteInputStream(byte[] bytes) {
+      super(new ByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return super.read(b, off, Math.min(len, 1));
+    }
+  }
+
   private InputStream getTestInputStream(String src) throws UnsupportedEncodingException {
     final byte remaining = (byte) src.getBytes("UTF-8").length;
     final byte[] stdoutHeader = {1, 0, 0, 0, 0, 0, 0, remaining};
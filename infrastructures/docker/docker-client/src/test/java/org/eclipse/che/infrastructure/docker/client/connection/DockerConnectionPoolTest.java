@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link DockerConnectionPool} */
+@Listeners(MockitoTestNGListener.class)
+public class DockerConnectionPoolTest {
+  private static final String DAEMON = "unix:///var/run/docker.sock";
+
+  @Mock private DockerChannel channel1;
+  @Mock private DockerChannel channel2;
+
+  private DockerConnectionPool pool;
+
+  @BeforeMethod
+  public void setUp() {
+    pool = new DockerConnectionPool(1, 60_000);
+    when(channel1.isAlive()).thenReturn(true);
+    when(channel2.isAlive()).thenReturn(true);
+  }
+
+  @Test
+  public void shouldReturnNullIfThereIsNoIdleConnection() {
+    assertNull(pool.acquire(DAEMON));
+  }
+
+  @Test
+  public void shouldReuseReleasedConnection() {
+    pool.release(DAEMON, channel1);
+
+    assertSame(pool.acquire(DAEMON), channel1);
+    assertNull(pool.acquire(DAEMON));
+    assertEquals(pool.getReusedCount(), 1);
+    verify(channel1, never()).close();
+  }
+
+  @Test
+  public void shouldNotReuseConnectionToAnotherDaemon() {
+    pool.release(DAEMON, channel1);
+
+    assertNull(pool.acquire("tcp://localhost:2375"));
+  }
+
+  @Test
+  public void shouldCloseReleasedConnectionIfDaemonHasMaxIdleConnections() {
+    pool.release(DAEMON, channel1);
+    pool.release(DAEMON, channel2);
+
+    verify(channel2).close();
+    assertEquals(pool.getIdleCount(), 1);
+    assertEquals(pool.getEvictedCount(), 1);
+  }
+
+  @Test
+  public void shouldDiscardConnectionClosedByDaemon() {
+    pool = new DockerConnectionPool(2, 60_000);
+    pool.release(DAEMON, channel1);
+    pool.release(DAEMON, channel2);
+    when(channel2.isAlive()).thenReturn(false);
+
+    assertSame(pool.acquire(DAEMON), channel1);
+    verify(channel2).close();
+    assertEquals(pool.getDiscardedCount(), 1);
+  }
+
+  @Test
+  public void shouldEvictConnectionIdleLongerThanTimeout() throws Exception {
+    pool = new DockerConnectionPool(1, 0);
+    pool.release(DAEMON, channel1);
+    Thread.sleep(5);
+
+    assertNull(pool.acquire(DAEMON));
+    verify(channel1).close();
+    assertEquals(pool.getEvictedCount(), 1);
+  }
+
+  @Test
+  public void shouldCloseIdleConnectionsAndConnectionsReleasedAfterPoolIsClosed() {
+    pool.release(DAEMON, channel1);
+
+    pool.close();
+    pool.release(DAEMON, channel2);
+
+    verify(channel1).close();
+    verify(channel2).close();
+    assertEquals(pool.getIdleCount(), 0);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import com.google.common.io.ByteStreams;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TcpSocketConnection} */
+public class TcpSocketConnectionTest {
+  private ServerSocket serverSocket;
+  private AtomicInteger accepted;
+  private Map<String, AtomicInteger> requests;
+  private URI daemonUri;
+  private DockerConnectionPool pool;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    serverSocket = new ServerSocket(0);
+    accepted = new AtomicInteger();
+    requests = new ConcurrentHashMap<>();
+    daemonUri = new URI("http://localhost:" + serverSocket.getLocalPort());
+    pool = new DockerConnectionPool(2, 60_000);
+    Thread server = new Thread(this::serve);
+    server.setDaemon(true);
+    server.start();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    pool.close();
+    serverSocket.close();
+  }
+
+  @Test
+  public void shouldSendSequentialRequestsOverTheSameConnection() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(request("/info"), "ok");
+    }
+
+    assertEquals(accepted.get(), 1);
+    assertEquals(pool.getOpenedCount(), 1);
+    assertEquals(pool.getReusedCount(), 2);
+  }
+
+  @Test
+  public void shouldOpenNewConnectionIfIdleConnectionIsClosedByDaemon() throws Exception {
+    assertEquals(request("/close"), "ok");
+    assertEquals(request("/info"), "ok");
+
+    assertEquals(accepted.get(), 2);
+    assertEquals(pool.getOpenedCount(), 2);
+  }
+
+  @Test
+  public void shouldSendGetRequestAgainIfDaemonClosesIdleConnectionWithoutResponse()
+      throws Exception {
+    assertEquals(request("/drop-next"), "ok");
+    assertEquals(request("/info"), "ok");
+
+    assertEquals(accepted.get(), 2);
+    assertEquals(pool.getReusedCount(), 1);
+    assertEquals(requests.get("/info").get(), 2);
+  }
+
+  @Test
+  public void shouldSendGetRequestAgainIfDaemonResetsIdleConnectionWithoutResponse()
+      throws Exception {
+    assertEquals(request("/reset-next"), "ok");
+    assertEquals(request("/info"), "ok");
+
+    assertEquals(accepted.get(), 2);
+    assertEquals(pool.getReusedCount(), 1);
+    assertEquals(requests.get("/info").get(), 2);
+  }
+
+  @Test
+  public void shouldNotSendGetRequestAgainIfResponseIsNotReceivedInTime() throws Exception {
+    assertEquals(request("GET", "/info", 200), "ok");
+
+    try {
+      request("GET", "/slow", 200);
+      fail("Request must fail by read timeout");
+    } catch (SocketTimeoutException expected) {
+    }
+
+    assertEquals(accepted.get(), 1);
+    assertEquals(requests.get("/slow").get(), 1);
+  }
+
+  @Test
+  public void shouldNotSendOtherRequestsOverIdleConnection() throws Exception {
+    assertEquals(request("/info"), "ok");
+    assertEquals(request("POST", "/create", 5000), "ok");
+    assertEquals(request("GET", "/info", 5000), "ok");
+
+    assertEquals(accepted.get(), 2);
+    assertEquals(pool.getReusedCount(), 1);
+  }
+
+  private String request(String path) throws IOException {
+    return request("GET", path, 5000);
+  }
+
+  private String request(String method, String path, int readTimeoutMs) throws IOException {
+    try (DockerConnection connection =
+        new TcpSocketConnection(daemonUri, null, 1000, readTimeoutMs, pool)
+            .method(method)
+            .path(path)) {
+      DockerResponse response = connection.request();
+      assertEquals(response.getStatus(), 200);
+      return new String(ByteStreams.toByteArray(response.getInputStream()), UTF_8);
+    }
+  }
+
+  /** Accepts connections and serves each of them on a separate thread. */
+  private void serve() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        accepted.incrementAndGet();
+        Thread connection = new Thread(() -> serve(socket));
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException ignored) {
+        // server socket is closed
+      }
+    }
+  }
+
+  /**
+   * Answers requests until the client closes connection, closes it after request to /close, closes
+   * it without answering the next request after request to /drop-next, resets it without answering
+   * the next request after request to /reset-next, answers request to /slow after a second.
+   */
+  private void serve(Socket socket) {
+    try (Socket ignored = socket) {
+      BufferedReader reader =
+          new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+      OutputStream output = socket.getOutputStream();
+      boolean dropNext = false;
+      boolean resetNext = false;
+      for (String requestLine = reader.readLine(); requestLine != null; ) {
+        for (String line = reader.readLine(); line != null && !line.isEmpty(); ) {
+          line = reader.readLine();
+        }
+        String path = requestLine.split(" ")[1];
+        requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        if (dropNext) {
+          break;
+        }
+        if (resetNext) {
+          socket.setSoLinger(true, 0);
+          break;
+        }
+        if (path.equals("/slow")) {
+          Thread.sleep(1000);
+        }
+        output.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes(UTF_8));
+        output.flush();
+        if (path.equals("/close")) {
+          break;
+        }
+        dropNext = path.equals("/drop-next");
+        resetNext = path.equals("/reset-next");
+        requestLine = reader.readLine();
+      }
+    } catch (IOException | InterruptedException ignored) {
+      // connection is closed
+    }
+  }
+}
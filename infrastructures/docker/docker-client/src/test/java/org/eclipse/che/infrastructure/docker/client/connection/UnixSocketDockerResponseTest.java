@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import org.testng.annotations.Test;
+
+/** Tests for {@link UnixSocketDockerResponse} */
+public class UnixSocketDockerResponseTest {
+
+  @Test
+  public void shouldBeReusableWhenBodyIsReadCompletely() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Length: 4\r\n\r\nbody");
+
+    assertEquals(new String(ByteStreams.toByteArray(response.getInputStream()), UTF_8), "body");
+    assertTrue(response.isReusable());
+  }
+
+  @Test
+  public void shouldSkipUnreadRestOfSmallBody() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Length: 4\r\n\r\nbody");
+
+    assertEquals(response.getStatus(), 200);
+    assertTrue(response.isReusable());
+  }
+
+  @Test
+  public void shouldBeReusableWhenLastChunkIsRead() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n4\r\nbody\r\n0\r\n\r\n");
+
+    assertEquals(new String(ByteStreams.toByteArray(response.getInputStream()), UTF_8), "body");
+    assertTrue(response.isReusable());
+  }
+
+  @Test
+  public void shouldHaveNoBodyWhenStatusIsNoContent() throws Exception {
+    UnixSocketDockerResponse response = response("HTTP/1.1 204 No Content\r\n\r\n");
+
+    assertEquals(response.getInputStream().read(), -1);
+    assertTrue(response.isReusable());
+  }
+
+  @Test
+  public void shouldNotBeReusableWhenDaemonClosesConnection() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+
+    assertEquals(response.getStatus(), 200);
+    assertFalse(response.isReusable());
+  }
+
+  @Test
+  public void shouldNotBeReusableWhenBodyHasNoLength() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Type: application/vnd.docker.raw-stream\r\n\r\nlogs");
+
+    ByteStreams.toByteArray(response.getInputStream());
+    assertFalse(response.isReusable());
+  }
+
+  @Test
+  public void shouldNotBeReusableWhenChunkedBodyIsNotReadCompletely() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n4\r\nbody\r\n");
+
+    assertEquals(response.getStatus(), 200);
+    assertFalse(response.isReusable());
+  }
+
+  private static UnixSocketDockerResponse response(String raw) {
+    return new UnixSocketDockerResponse(new ByteArrayInputStream(raw.getBytes(UTF_8)));
+  }
+}
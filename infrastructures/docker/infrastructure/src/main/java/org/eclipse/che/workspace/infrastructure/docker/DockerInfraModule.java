@@ -76,6 +76,7 @@ public class DockerInfraModule extends AbstractModule {
     bind(
         org.eclipse.che.workspace.infrastructure.docker.monit.DockerAbandonedResourcesCleaner
             .class);
+    bind(WarmImagesPool.class);
 
     MapBinder<String, URLRewriter> rewriters =
         MapBinder.newMapBinder(binder(), String.class, URLRewriter.class);
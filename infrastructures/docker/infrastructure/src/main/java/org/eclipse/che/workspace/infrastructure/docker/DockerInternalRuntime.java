@@ -17,10 +17,19 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 import javax.inject.Named;
 import org.eclipse.che.api.core.model.workspace.Warning;
@@ -79,6 +88,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
   private final ProbeScheduler probeScheduler;
   private final WorkspaceProbesFactory probesFactory;
   private final ParallelDockerImagesBuilderFactory imagesBuilderFactory;
+  private final DockerMachineStartPool machineStartPool;
   private final int bootstrappingTimeoutMinutes;
 
   /**
@@ -99,6 +109,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
       ProbeScheduler probeScheduler,
       WorkspaceProbesFactory probesFactory,
       ParallelDockerImagesBuilderFactory imagesBuilderFactory,
+      DockerMachineStartPool machineStartPool,
       @Named("che.infra.docker.bootstrapper.timeout_min") int bootstrappingTimeoutMinutes) {
     this(
         context,
@@ -114,6 +125,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
         probeScheduler,
         probesFactory,
         imagesBuilderFactory,
+        machineStartPool,
         bootstrappingTimeoutMinutes);
   }
 
@@ -138,6 +150,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
       ProbeScheduler probeScheduler,
       WorkspaceProbesFactory probesFactory,
       ParallelDockerImagesBuilderFactory imagesBuilderFactory,
+      DockerMachineStartPool machineStartPool,
       @Named("che.infra.docker.bootstrapper.timeout_min") int bootstrappingTimeoutMinutes)
       throws InfrastructureException {
     this(
@@ -154,6 +167,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
         probeScheduler,
         probesFactory,
         imagesBuilderFactory,
+        machineStartPool,
         bootstrappingTimeoutMinutes);
 
     for (ContainerListEntry container : containers) {
@@ -180,6 +194,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
       ProbeScheduler probeScheduler,
       WorkspaceProbesFactory probesFactory,
       ParallelDockerImagesBuilderFactory imagesBuilderFactory,
+      DockerMachineStartPool machineStartPool,
       int bootstrappingTimeoutMinutes) {
     super(context, urlRewriter, warnings, running ? WorkspaceStatus.RUNNING : null);
     this.networks = networks;
@@ -195,43 +210,37 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     this.loggers = loggers;
     this.probeScheduler = probeScheduler;
     this.imagesBuilderFactory = imagesBuilderFactory;
+    this.machineStartPool = machineStartPool;
   }
 
   @Override
   protected void internalStart(Map<String, String> startOptions) throws InfrastructureException {
     startSynchronizer.setStartThread();
+    Map<String, CompletableFuture<String>> images = emptyMap();
     try {
       networks.createNetwork(getContext().getEnvironment().getNetwork());
-      Map<String, String> images =
-          imagesBuilderFactory
-              .create(getContext().getIdentity())
-              .prepareImages(getContext().getEnvironment().getContainers());
+      Map<String, DockerContainerConfig> containers = getContext().getEnvironment().getContainers();
+      // images of all the machines are prepared in background while machines of previous
+      // dependency levels are started
+      images =
+          imagesBuilderFactory.create(getContext().getIdentity()).prepareImagesAsync(containers);
 
-      for (Map.Entry<String, DockerContainerConfig> containerEntry :
-          getContext().getEnvironment().getContainers().entrySet()) {
+      for (List<String> level : MachineStartLevels.of(containers)) {
         checkInterruption();
-        String machineName = containerEntry.getKey();
-
-        runtimeMachines.putMachine(machineName, new DockerMachine.StartingDockerMachine());
-        sendStartingEvent(machineName);
-
-        try {
-          DockerMachine machine =
-              startMachine(machineName, images.get(machineName), containerEntry.getValue());
-          sendRunningEvent(machineName);
-
-          bootstrapInstallers(machineName, machine);
-
-          checkServers(machineName, machine);
-        } catch (InfrastructureException e) {
-          sendFailedEvent(machineName, e.getMessage());
-          throw e;
+        if (level.size() == 1) {
+          String machineName = level.get(0);
+          startMachine(machineName, containers.get(machineName), images.get(machineName));
+        } else {
+          startMachinesInParallel(level, containers, images);
         }
       }
       startSynchronizer.complete();
     } catch (InfrastructureException | InterruptedException | RuntimeException e) {
       boolean interrupted = Thread.interrupted() || e instanceof InterruptedException;
 
+      // Cancels preparation of images which are not needed anymore
+      images.values().forEach(image -> image.cancel(true));
+
       // Cancels workspace servers probes if any
       probeScheduler.cancel(getContext().getIdentity().getWorkspaceId());
 
@@ -293,6 +302,93 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     return Collections.unmodifiableMap(properties);
   }
 
+  /**
+   * Starts machines that don't depend on each other at the same time and waits until all of them
+   * are started. When start of any machine fails starts of the others are interrupted.
+   */
+  private void startMachinesInParallel(
+      List<String> machineNames,
+      Map<String, DockerContainerConfig> containers,
+      Map<String, CompletableFuture<String>> images)
+      throws InfrastructureException, InterruptedException {
+    BlockingQueue<Future<Void>> finished = new LinkedBlockingQueue<>();
+    List<Future<Void>> starts = new ArrayList<>(machineNames.size());
+    for (String machineName : machineNames) {
+      FutureTask<Void> start =
+          new FutureTask<Void>(
+              () -> {
+                startMachine(machineName, containers.get(machineName), images.get(machineName));
+                return null;
+              }) {
+            @Override
+            protected void done() {
+              finished.add(this);
+            }
+          };
+      starts.add(start);
+      machineStartPool.execute(start);
+    }
+
+    try {
+      for (int i = 0; i < starts.size(); i++) {
+        finished.take().get();
+      }
+    } catch (ExecutionException e) {
+      starts.forEach(start -> start.cancel(true));
+      try {
+        throw e.getCause();
+      } catch (InfrastructureException | InterruptedException | RuntimeException rethrow) {
+        throw rethrow;
+      } catch (Throwable thr) {
+        throw new InternalInfrastructureException(thr.getMessage(), thr);
+      }
+    } catch (InterruptedException e) {
+      starts.forEach(start -> start.cancel(true));
+      throw e;
+    }
+  }
+
+  /**
+   * Starts a machine, bootstraps its installers and waits until its servers are available. Logs
+   * time of each phase of the start.
+   */
+  private void startMachine(
+      String machineName, DockerContainerConfig containerConfig, CompletableFuture<String> image)
+      throws InfrastructureException, InterruptedException {
+    checkInterruption();
+    runtimeMachines.putMachine(machineName, new DockerMachine.StartingDockerMachine());
+    sendStartingEvent(machineName);
+
+    StartTimings timings = new StartTimings();
+    try {
+      if (image == null) {
+        throw new InternalInfrastructureException(
+            format("Image of machine '%s' is not prepared", machineName));
+      }
+      String imageName = ParallelDockerImagesBuilder.getImage(image);
+      timings.phaseFinished("image");
+
+      DockerMachine machine = startContainer(machineName, imageName, containerConfig);
+      timings.phaseFinished("container");
+      sendRunningEvent(machineName);
+
+      bootstrapInstallers(machineName, machine);
+      timings.phaseFinished("installers");
+
+      checkServers(machineName, machine);
+      timings.phaseFinished("servers");
+    } catch (InfrastructureException e) {
+      sendFailedEvent(machineName, e.getMessage());
+      throw e;
+    }
+    LOG.info(
+        "Machine '{}' of workspace '{}' started in {} ms ({})",
+        machineName,
+        getContext().getIdentity().getWorkspaceId(),
+        timings.getTotal(),
+        timings);
+  }
+
   /** Checks servers availability on all the machines. */
   void checkServers() throws InfrastructureException {
     for (Map.Entry<String, ? extends DockerMachine> entry :
@@ -309,7 +405,7 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     }
   }
 
-  private DockerMachine startMachine(
+  private DockerMachine startContainer(
       String name, String image, DockerContainerConfig containerConfig)
       throws InfrastructureException, InterruptedException {
     RuntimeIdentity identity = getContext().getIdentity();
@@ -517,4 +613,28 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
             .withStatus(server.getStatus())
             .withServerUrl(server.getUrl()));
   }
+
+  /** Durations of phases of a machine start. */
+  private static class StartTimings {
+    private final long start = System.currentTimeMillis();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private long phaseStart = start;
+
+    private void phaseFinished(String phase) {
+      long now = System.currentTimeMillis();
+      phases.put(phase, now - phaseStart);
+      phaseStart = now;
+    }
+
+    private long getTotal() {
+      return phaseStart - start;
+    }
+
+    @Override
+    public String toString() {
+      StringJoiner joiner = new StringJoiner(", ");
+      phases.forEach((phase, duration) -> joiner.add(phase + ": " + duration + " ms"));
+      return joiner.toString();
+    }
+  }
 }
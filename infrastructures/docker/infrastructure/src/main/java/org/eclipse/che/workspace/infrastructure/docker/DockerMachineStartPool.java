@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides {@link ExecutorService} that starts machines of a workspace in parallel.
+ *
+ * <p>Start of a machine may take minutes, so machines are not started by {@link DockerSharedPool}
+ * which threads are needed by short tasks of docker infrastructure components. Starts that exceed
+ * the pool size wait in a queue.
+ */
+@Singleton
+public class DockerMachineStartPool {
+
+  private final ExecutorService executor;
+
+  @Inject
+  public DockerMachineStartPool(@Named("che.infra.docker.max_machine_start_threads") int threads) {
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(threads, 1),
+            new ThreadFactoryBuilder()
+                .setNameFormat("DockerMachineStartPool-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(false)
+                .build());
+  }
+
+  /**
+   * Delegates call to {@link ExecutorService#execute(Runnable)} and propagates thread locals to it
+   * like defined by {@link ThreadLocalPropagateContext}.
+   */
+  public void execute(Runnable runnable) {
+    executor.execute(ThreadLocalPropagateContext.wrap(runnable));
+  }
+
+  @PreDestroy
+  private void terminate() throws InterruptedException {
+    if (!executor.isShutdown()) {
+      executor.shutdown();
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+          LoggerFactory.getLogger(DockerMachineStartPool.class)
+              .error("Couldn't terminate docker machine start thread pool");
+        }
+      }
+    }
+  }
+}
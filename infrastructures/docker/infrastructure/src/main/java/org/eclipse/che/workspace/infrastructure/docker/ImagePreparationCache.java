@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfig;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfigs;
+import org.eclipse.che.infrastructure.docker.client.json.ProgressStatus;
+
+/**
+ * Deduplicates preparation (pull or build) of the same docker image by workspaces started at the
+ * same time.
+ *
+ * <p>Preparations are identified by keys, e.g. an image reference or a hash of a Dockerfile. While
+ * an image is being prepared, other preparations with the same key wait for it and receive its
+ * progress instead of doing the same work. Completed preparations of reusable images are remembered
+ * for the configured time, so images are not pulled or built again during that time.
+ *
+ * <p>Preparations that use registry credentials are identified by the image and the credentials,
+ * see {@link #key(String, AuthConfigs)}, so an image that was pulled with credentials of one user
+ * is not reused for a user who may have no access to it.
+ */
+@Singleton
+public class ImagePreparationCache {
+
+  /** Pulls or builds an image. */
+  public interface Preparation {
+    void prepare(ProgressMonitor progressMonitor) throws IOException;
+  }
+
+  private static final char CREDENTIALS_SEPARATOR = '#';
+
+  private final Cache<String, Boolean> prepared;
+  private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong preparations = new AtomicLong();
+  private final AtomicLong joined = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+
+  /**
+   * @param ttlSeconds time after which a prepared image is prepared again, non-positive value
+   *     disables reuse of prepared images, concurrent preparations are deduplicated anyway
+   */
+  @Inject
+  public ImagePreparationCache(@Named("che.infra.docker.image_cache.ttl_sec") long ttlSeconds) {
+    this.prepared =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(Math.max(ttlSeconds, 0), TimeUnit.SECONDS)
+            .maximumSize(1000)
+            .build();
+  }
+
+  /**
+   * Prepares an image unless it is being prepared or was recently prepared with the same key.
+   *
+   * @param key identifies the image preparation
+   * @param reusable whether the prepared image may be reused by later preparations with the same
+   *     key, it should be {@code false} if the result of preparation may differ in spite of the
+   *     same key, e.g. when image is built from a remote context
+   * @param progressMonitor receives progress of the preparation
+   * @param preparation pulls or builds the image
+   * @throws IOException if the image preparation failed, the same exception is thrown to all the
+   *     waiting callers
+   * @throws InterruptedException if the current thread was interrupted while waiting for the
+   *     preparation started by another caller
+   */
+  public void prepare(
+      String key, boolean reusable, ProgressMonitor progressMonitor, Preparation preparation)
+      throws IOException, InterruptedException {
+    if (reusable && prepared.getIfPresent(key) != null) {
+      hits.incrementAndGet();
+      return;
+    }
+    doPrepare(key, reusable, progressMonitor, preparation);
+  }
+
+  /**
+   * Prepares a reusable image even if it was recently prepared, so the following preparations with
+   * the same key reuse it for the whole configured time. Waits for the preparation if the image is
+   * being prepared.
+   *
+   * @param key identifies the image preparation
+   * @param progressMonitor receives progress of the preparation
+   * @param preparation pulls or builds the image
+   * @throws IOException if the image preparation failed
+   * @throws InterruptedException if the current thread was interrupted while waiting for the
+   *     preparation started by another caller
+   */
+  public void refresh(String key, ProgressMonitor progressMonitor, Preparation preparation)
+      throws IOException, InterruptedException {
+    doPrepare(key, true, progressMonitor, preparation);
+  }
+
+  private void doPrepare(
+      String key, boolean reusable, ProgressMonitor progressMonitor, Preparation preparation)
+      throws IOException, InterruptedException {
+    final InFlight created = new InFlight(progressMonitor);
+    final InFlight running = inFlight.putIfAbsent(key, created);
+    if (running != null) {
+      joined.incrementAndGet();
+      running.join(progressMonitor);
+      return;
+    }
+    preparations.incrementAndGet();
+    try {
+      preparation.prepare(created);
+      if (reusable) {
+        prepared.put(key, Boolean.TRUE);
+      }
+      created.result.complete(null);
+    } catch (IOException | RuntimeException x) {
+      created.result.completeExceptionally(x);
+      throw x;
+    } finally {
+      inFlight.remove(key, created);
+    }
+  }
+
+  /**
+   * Returns key of the preparation of the image that is done with the given registry credentials.
+   *
+   * @param image name of the prepared image
+   * @param authConfigs registry credentials used by the preparation, or {@code null} if the
+   *     preparation is anonymous
+   */
+  public static String key(String image, @Nullable AuthConfigs authConfigs) {
+    if (authConfigs == null
+        || authConfigs.getConfigs() == null
+        || authConfigs.getConfigs().isEmpty()) {
+      return image;
+    }
+    final Hasher hasher = Hashing.sha256().newHasher();
+    for (Map.Entry<String, AuthConfig> config :
+        new TreeMap<>(authConfigs.getConfigs()).entrySet()) {
+      hasher.putUnencodedChars(config.getKey()).putChar('\0');
+      if (config.getValue() != null) {
+        hasher.putUnencodedChars(String.valueOf(config.getValue().getUsername())).putChar('\0');
+        hasher.putUnencodedChars(String.valueOf(config.getValue().getPassword())).putChar('\0');
+      }
+    }
+    return image + CREDENTIALS_SEPARATOR + hasher.hash().toString().substring(0, 32);
+  }
+
+  /**
+   * Returns {@code true} if the image is being prepared or its recent preparation is reused, with
+   * or without credentials, such an image must not be removed.
+   *
+   * @param image name of the prepared image
+   */
+  public boolean isInUse(String image) {
+    return isPreparationOf(image, inFlight.keySet())
+        || isPreparationOf(image, prepared.asMap().keySet());
+  }
+
+  private static boolean isPreparationOf(String image, Iterable<String> keys) {
+    for (String key : keys) {
+      if (key.equals(image)
+          || (key.startsWith(image) && key.charAt(image.length()) == CREDENTIALS_SEPARATOR)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns number of images pulled or built. */
+  public long getPreparationsCount() {
+    return preparations.get();
+  }
+
+  /** Returns number of preparations that waited for the same preparation started by others. */
+  public long getJoinedCount() {
+    return joined.get();
+  }
+
+  /** Returns number of preparations skipped because the image was recently prepared. */
+  public long getHitsCount() {
+    return hits.get();
+  }
+
+  /** Preparation in progress, passes its progress to all the waiting callers. */
+  private static class InFlight implements ProgressMonitor {
+    private final List<ProgressMonitor> monitors = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private InFlight(ProgressMonitor progressMonitor) {
+      monitors.add(progressMonitor);
+    }
+
+    @Override
+    public void updateProgress(ProgressStatus currentProgressStatus) {
+      for (ProgressMonitor monitor : monitors) {
+        monitor.updateProgress(currentProgressStatus);
+      }
+    }
+
+    private void join(ProgressMonitor progressMonitor) throws IOException, InterruptedException {
+      ProgressStatus status = new ProgressStatus();
+      status.setStream("Image is being prepared for another workspace, waiting for it");
+      progressMonitor.updateProgress(status);
+      monitors.add(progressMonitor);
+      try {
+        result.get();
+      } catch (ExecutionException x) {
+        if (x.getCause() instanceof IOException) {
+          throw (IOException) x.getCause();
+        }
+        throw new IOException(x.getCause().getLocalizedMessage(), x.getCause());
+      } finally {
+        monitors.remove(progressMonitor);
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.che.api.workspace.server.spi.InternalInfrastructureException;
+import org.eclipse.che.workspace.infrastructure.docker.model.DockerContainerConfig;
+
+/**
+ * Splits containers of an environment into levels of dependency graph. Containers of a level depend
+ * only on containers of previous levels, so all the containers of a level can be started at the
+ * same time once previous levels are started. Dependencies are defined by {@code depends_on},
+ * {@code links} and {@code volumes_from} of containers.
+ */
+class MachineStartLevels {
+
+  private MachineStartLevels() {}
+
+  /**
+   * Returns names of containers grouped by levels, starting from containers that don't depend on
+   * others. Containers of a level keep the order they have in the given map.
+   *
+   * @param containers containers mapped by names of machines
+   * @throws InternalInfrastructureException if dependencies of containers are circular
+   */
+  static List<List<String>> of(Map<String, DockerContainerConfig> containers)
+      throws InternalInfrastructureException {
+    Map<String, Integer> levels = new HashMap<>();
+    List<List<String>> result = new ArrayList<>();
+    for (String name : containers.keySet()) {
+      int level = computeLevel(name, containers, levels, new HashSet<>());
+      while (result.size() <= level) {
+        result.add(new ArrayList<>());
+      }
+      result.get(level).add(name);
+    }
+    return result;
+  }
+
+  /** Returns names of containers the container depends on. */
+  private static Set<String> getDependencies(
+      String name, Map<String, DockerContainerConfig> containers) {
+    DockerContainerConfig container = containers.get(name);
+    Set<String> dependencies = new LinkedHashSet<>(container.getDependsOn());
+    for (String link : container.getLinks()) {
+      dependencies.add(link.split(":", 2)[0]);
+    }
+    for (String volumesFrom : container.getVolumesFrom()) {
+      dependencies.add(volumesFrom.split(":", 2)[0]);
+    }
+    // dependencies on containers that are not a part of the environment can't be waited for
+    dependencies.retainAll(containers.keySet());
+    dependencies.remove(name);
+    return dependencies;
+  }
+
+  private static int computeLevel(
+      String name,
+      Map<String, DockerContainerConfig> containers,
+      Map<String, Integer> levels,
+      Set<String> visiting)
+      throws InternalInfrastructureException {
+    Integer known = levels.get(name);
+    if (known != null) {
+      return known;
+    }
+    if (!visiting.add(name)) {
+      throw new InternalInfrastructureException(
+          format("Start order of machine '%s' can't be evaluated. Circular dependency.", name));
+    }
+    int level = 0;
+    for (String dependency : getDependencies(name, containers)) {
+      level = Math.max(level, computeLevel(dependency, containers, levels, visiting) + 1);
+    }
+    visiting.remove(name);
+    levels.put(name, level);
+    return level;
+  }
+}
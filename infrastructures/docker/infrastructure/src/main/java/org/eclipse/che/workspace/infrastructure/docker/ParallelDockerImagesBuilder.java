@@ -11,21 +11,24 @@
 package org.eclipse.che.workspace.infrastructure.docker;
 
 import static java.lang.String.format;
-import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.workspace.infrastructure.docker.DockerMachine.LATEST_TAG;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.assistedinject.Assisted;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
@@ -37,10 +40,12 @@ import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
 import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.api.workspace.server.spi.InternalInfrastructureException;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.infrastructure.docker.client.DockerConnector;
 import org.eclipse.che.infrastructure.docker.client.DockerFileException;
 import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
 import org.eclipse.che.infrastructure.docker.client.UserSpecificDockerRegistryCredentialsProvider;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfigs;
 import org.eclipse.che.infrastructure.docker.client.exception.ImageNotFoundException;
 import org.eclipse.che.infrastructure.docker.client.json.Filters;
 import org.eclipse.che.infrastructure.docker.client.params.BuildImageParams;
@@ -62,6 +67,9 @@ import org.slf4j.Logger;
  */
 public class ParallelDockerImagesBuilder {
 
+  /** Prefix of names of images built from recipes, such images are shared by machines. */
+  public static final String RECIPE_IMAGE_PREFIX = "eclipse-che/recipe-";
+
   private static final Logger LOG = getLogger(ParallelDockerImagesBuilder.class);
   private static final String PARALLEL_PULL_PROPERTY_NAME = "che.infra.docker.max_pull_threads";
 
@@ -71,6 +79,8 @@ public class ParallelDockerImagesBuilder {
   private final UserSpecificDockerRegistryCredentialsProvider dockerCredentials;
   private final DockerConnector dockerConnector;
   private final ThreadPoolExecutor executor;
+  private final ImagePreparationCache preparationCache;
+  private final WarmImagesPool warmImagesPool;
 
   @Inject
   public ParallelDockerImagesBuilder(
@@ -79,12 +89,16 @@ public class ParallelDockerImagesBuilder {
       @Named(PARALLEL_PULL_PROPERTY_NAME) int parallelPullsNumber,
       UserSpecificDockerRegistryCredentialsProvider dockerCredentials,
       DockerConnector dockerConnector,
-      MachineLoggersFactory machineLoggersFactory) {
+      MachineLoggersFactory machineLoggersFactory,
+      ImagePreparationCache preparationCache,
+      WarmImagesPool warmImagesPool) {
     this.identity = identity;
     this.doForcePullImage = doForcePullImage;
     this.dockerCredentials = dockerCredentials;
     this.dockerConnector = dockerConnector;
     this.machineLoggersFactory = machineLoggersFactory;
+    this.preparationCache = preparationCache;
+    this.warmImagesPool = warmImagesPool;
 
     ThreadFactory factory =
         new ThreadFactoryBuilder()
@@ -104,6 +118,42 @@ public class ParallelDockerImagesBuilder {
    */
   public Map<String, String> prepareImages(Map<String, DockerContainerConfig> containers)
       throws InterruptedException, InfrastructureException {
+    Map<String, CompletableFuture<String>> images = prepareImagesAsync(containers);
+    CompletableFuture<Void> firstFailed = new CompletableFuture<>();
+    images
+        .values()
+        .forEach(
+            image ->
+                image.whenComplete(
+                    (name, error) -> {
+                      if (error != null) {
+                        firstFailed.completeExceptionally(error);
+                      }
+                    }));
+
+    CompletableFuture all =
+        CompletableFuture.allOf(images.values().toArray(new CompletableFuture[images.size()]));
+    try {
+      CompletableFuture.anyOf(all, firstFailed).get();
+    } catch (ExecutionException e) {
+      throw asInfrastructureException(e);
+    }
+    Map<String, String> machineToImageNames = new ConcurrentHashMap<>(containers.size());
+    images.forEach((machineName, image) -> machineToImageNames.put(machineName, image.join()));
+    return machineToImageNames;
+  }
+
+  /**
+   * Schedules parallel preparation of docker images for the set of docker containers without
+   * waiting for it, so the caller can use each image as soon as it is ready.
+   *
+   * @param containers map of machine name and it's container config
+   * @return map of machine names and futures of theirs image names, a future fails with {@link
+   *     InfrastructureException} if the image can't be prepared
+   * @see #getImage(CompletableFuture)
+   */
+  public Map<String, CompletableFuture<String>> prepareImagesAsync(
+      Map<String, DockerContainerConfig> containers) {
     if (executor.getActiveCount() + containers.size() > executor.getMaximumPoolSize()) {
       LOG.warn(
           String.format(
@@ -111,40 +161,48 @@ public class ParallelDockerImagesBuilder {
                   + " Workspace machines count is %s. If problem persists, increase %s property value.",
               containers.size(), PARALLEL_PULL_PROPERTY_NAME));
     }
-    Map<String, String> machineToImageNames = new ConcurrentHashMap<>(containers.size());
-    CompletableFuture<Void> firstFailed = new CompletableFuture<>();
-    List<CompletableFuture<Void>> taskFutures =
-        containers
-            .entrySet()
-            .stream()
-            .map(
-                e ->
-                    CompletableFuture.runAsync(
-                        () -> {
-                          try {
-                            machineToImageNames.put(
-                                e.getKey(), prepareImage(e.getKey(), e.getValue()));
-                          } catch (InternalInfrastructureException | SourceNotFoundException ex) {
-                            firstFailed.completeExceptionally(ex);
-                          }
-                        },
-                        executor))
-            .collect(toList());
+    Map<String, CompletableFuture<String>> images = new LinkedHashMap<>();
+    containers.forEach(
+        (machineName, container) ->
+            images.put(
+                machineName,
+                CompletableFuture.supplyAsync(
+                    () -> {
+                      try {
+                        return prepareImage(machineName, container);
+                      } catch (InternalInfrastructureException | SourceNotFoundException ex) {
+                        throw new CompletionException(ex);
+                      }
+                    },
+                    executor)));
+    return images;
+  }
 
-    CompletableFuture all =
-        CompletableFuture.allOf(taskFutures.toArray(new CompletableFuture[taskFutures.size()]));
+  /**
+   * Waits for the image that is prepared by {@link #prepareImagesAsync(Map)}.
+   *
+   * @return name of the image
+   * @throws InterruptedException if waiting is interrupted
+   * @throws InfrastructureException if the image can't be prepared
+   */
+  public static String getImage(CompletableFuture<String> image)
+      throws InterruptedException, InfrastructureException {
     try {
-      CompletableFuture.anyOf(all, firstFailed).get();
+      return image.get();
     } catch (ExecutionException e) {
-      try {
-        throw e.getCause();
-      } catch (InfrastructureException rethrow) {
-        throw rethrow;
-      } catch (Throwable thr) {
-        throw new InternalInfrastructureException("Unable to build or pull image", thr);
-      }
+      throw asInfrastructureException(e);
     }
-    return machineToImageNames;
+  }
+
+  private static InfrastructureException asInfrastructureException(ExecutionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof InfrastructureException) {
+      return (InfrastructureException) cause;
+    }
+    return new InternalInfrastructureException("Unable to build or pull image", cause);
   }
 
   /**
@@ -184,6 +242,13 @@ public class ParallelDockerImagesBuilder {
   /**
    * Builds Docker image for container creation.
    *
+   * <p>Image is built with a name derived from the recipe, so the same recipe used by several
+   * containers is built once. An image built from Dockerfile content is reused without building
+   * when it exists locally and re-pulling of base image is not forced. Recipe images that are not
+   * in use are removed by {@link
+   * org.eclipse.che.workspace.infrastructure.docker.monit.DockerAbandonedResourcesCleaner}, so the
+   * image is built once again if it is removed before it is tagged.
+   *
    * @param containerConfig configuration of container
    * @param machineImageName name of image that should be applied to built image
    * @param doForcePullOnBuild whether re-pulling of base image should be performed when it exists
@@ -197,7 +262,48 @@ public class ParallelDockerImagesBuilder {
       boolean doForcePullOnBuild,
       ProgressMonitor progressMonitor)
       throws InternalInfrastructureException {
+    final boolean isContentRecipe = containerConfig.getBuild().getDockerfileContent() != null;
+    final String recipeImageName = RECIPE_IMAGE_PREFIX + hashRecipe(containerConfig);
+    final AuthConfigs credentials = dockerCredentials.getCredentials();
+    final String key = ImagePreparationCache.key(recipeImageName, credentials);
+    final ImagePreparationCache.Preparation preparation =
+        monitor -> {
+          if (isContentRecipe
+              && !doForcePullOnBuild
+              && isDockerImageExistLocally(recipeImageName)) {
+            return;
+          }
+          doBuildImage(containerConfig, recipeImageName, credentials, doForcePullOnBuild, monitor);
+        };
+    try {
+      preparationCache.prepare(key, isContentRecipe, progressMonitor, preparation);
+      try {
+        // tag image with generated name to allow sysadmin recognize it
+        dockerConnector.tag(TagParams.create(recipeImageName, machineImageName));
+      } catch (ImageNotFoundException e) {
+        // recipe image was removed as not used right after it had been prepared
+        if (isContentRecipe) {
+          preparationCache.refresh(key, progressMonitor, preparation);
+        } else {
+          preparationCache.prepare(key, false, progressMonitor, preparation);
+        }
+        dockerConnector.tag(TagParams.create(recipeImageName, machineImageName));
+      }
+    } catch (IOException e) {
+      throw new InternalInfrastructureException(e.getLocalizedMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InternalInfrastructureException("Image build was interrupted", e);
+    }
+  }
 
+  private void doBuildImage(
+      DockerContainerConfig containerConfig,
+      String imageName,
+      @Nullable AuthConfigs credentials,
+      boolean doForcePullOnBuild,
+      ProgressMonitor progressMonitor)
+      throws IOException {
     File workDir = null;
     try {
       BuildImageParams buildImageParams;
@@ -218,16 +324,14 @@ public class ParallelDockerImagesBuilder {
       }
       buildImageParams
           .withForceRemoveIntermediateContainers(true)
-          .withRepository(machineImageName)
-          .withAuthConfigs(dockerCredentials.getCredentials())
+          .withRepository(imageName)
+          .withAuthConfigs(credentials)
           .withDoForcePull(doForcePullOnBuild)
           .withMemoryLimit(containerConfig.getMemLimit())
           .withMemorySwapLimit(-1)
           .withBuildArgs(containerConfig.getBuild().getArgs());
 
       dockerConnector.buildImage(buildImageParams, progressMonitor);
-    } catch (IOException e) {
-      throw new InternalInfrastructureException(e.getLocalizedMessage(), e);
     } finally {
       if (workDir != null) {
         FileCleaner.addFile(workDir);
@@ -235,9 +339,33 @@ public class ParallelDockerImagesBuilder {
     }
   }
 
+  /** Returns hash of the recipe and build arguments of the container. */
+  private static String hashRecipe(DockerContainerConfig containerConfig) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    if (containerConfig.getBuild().getDockerfileContent() != null) {
+      hasher.putUnencodedChars(containerConfig.getBuild().getDockerfileContent());
+    } else {
+      hasher.putUnencodedChars(containerConfig.getBuild().getContext()).putChar('\0');
+      hasher.putUnencodedChars(
+          MoreObjects.firstNonNull(containerConfig.getBuild().getDockerfilePath(), ""));
+    }
+    if (containerConfig.getBuild().getArgs() != null) {
+      for (Map.Entry<String, String> arg :
+          new TreeMap<>(containerConfig.getBuild().getArgs()).entrySet()) {
+        hasher.putChar('\0').putUnencodedChars(arg.getKey());
+        hasher.putChar('=').putUnencodedChars(arg.getValue());
+      }
+    }
+    return hasher.hash().toString().substring(0, 32);
+  }
+
   /**
    * Pulls docker image for container creation.
    *
+   * <p>Concurrent pulls of the same image with the same registry credentials are done once. Image
+   * which reference contains a digest is never pulled again when it exists locally, as its content
+   * can't change.
+   *
    * @param container container that provides description of image that should be pulled
    * @param machineImageName name of the image that should be assigned on pull
    * @param progressMonitor consumer of output
@@ -261,17 +389,21 @@ public class ParallelDockerImagesBuilder {
               "Machine creation failed. Machine source is invalid. No repository is defined. Found '%s'.",
               dockerImageIdentifier.getRepository()));
     }
+    final AuthConfigs credentials = dockerCredentials.getCredentials();
+    warmImagesPool.recordStart(container.getImage(), credentials);
     try {
-      boolean isImageExistLocally =
-          isDockerImageExistLocally(dockerImageIdentifier.getRepository());
-      if (doForcePullImage || !isImageExistLocally) {
-        PullParams pullParams =
-            PullParams.create(dockerImageIdentifier.getRepository())
-                .withTag(MoreObjects.firstNonNull(dockerImageIdentifier.getTag(), LATEST_TAG))
-                .withRegistry(dockerImageIdentifier.getRegistry())
-                .withAuthConfigs(dockerCredentials.getCredentials());
-        dockerConnector.pull(pullParams, progressMonitor);
-      }
+      preparationCache.prepare(
+          ImagePreparationCache.key(container.getImage(), credentials),
+          true,
+          progressMonitor,
+          monitor -> {
+            boolean isImageExistLocally =
+                isDockerImageExistLocally(getReference(dockerImageIdentifier));
+            boolean isImmutable = dockerImageIdentifier.getDigest() != null;
+            if ((doForcePullImage && !isImmutable) || !isImageExistLocally) {
+              dockerConnector.pull(createPullParams(dockerImageIdentifier, credentials), monitor);
+            }
+          });
 
       String fullNameOfPulledImage = container.getImage();
       try {
@@ -283,7 +415,38 @@ public class ParallelDockerImagesBuilder {
     } catch (IOException e) {
       throw new InternalInfrastructureException(
           "Can't create machine from image. Cause: " + e.getLocalizedMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InternalInfrastructureException("Image pull was interrupted", e);
+    }
+  }
+
+  /** Creates parameters of the pull of the image, the latest tag is pulled if tag is missing. */
+  static PullParams createPullParams(
+      DockerImageIdentifier imageIdentifier, @Nullable AuthConfigs authConfigs) {
+    return PullParams.create(imageIdentifier.getRepository())
+        .withTag(MoreObjects.firstNonNull(imageIdentifier.getTag(), LATEST_TAG))
+        .withRegistry(imageIdentifier.getRegistry())
+        .withAuthConfigs(authConfigs);
+  }
+
+  /**
+   * Returns the full reference of the image, the latest tag is referenced if both tag and digest
+   * are missing.
+   */
+  @VisibleForTesting
+  static String getReference(DockerImageIdentifier imageIdentifier) {
+    final StringBuilder reference = new StringBuilder();
+    if (imageIdentifier.getRegistry() != null) {
+      reference.append(imageIdentifier.getRegistry()).append('/');
+    }
+    reference.append(imageIdentifier.getRepository());
+    if (imageIdentifier.getDigest() != null) {
+      reference.append('@').append(imageIdentifier.getDigest());
+    } else {
+      reference.append(':').append(MoreObjects.firstNonNull(imageIdentifier.getTag(), LATEST_TAG));
     }
+    return reference.toString();
   }
 
   @VisibleForTesting
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.Collectors.toList;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.DockerFileException;
+import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfigs;
+import org.eclipse.che.infrastructure.docker.client.json.Filters;
+import org.eclipse.che.infrastructure.docker.client.params.ListImagesParams;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifier;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifierParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps images of the most frequently started machines pulled, so workspaces of popular stacks
+ * start without waiting for image pulls.
+ *
+ * <p>The pool consists of the configured images and of the images which start rate is not lower
+ * than the configured one, limited by the maximum pool size. Start rates are estimated from the
+ * starts of machines with a decay of one hour, so the pool follows the changes of the load. Images
+ * of the pool are periodically pulled through {@link ImagePreparationCache}, so starts of machines
+ * reuse them without pulling again while they are remembered by the cache. Like on machine starts,
+ * images that exist locally are pulled again only when pulling of images is forced, and the
+ * registry credentials of the last start of the image are used for pulls.
+ */
+@Singleton
+public class WarmImagesPool implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmImagesPool.class);
+
+  /** Start rates lower than this are forgotten. */
+  private static final double MIN_TRACKED_RATE = 0.01;
+
+  private static final long RATE_DECAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private final List<String> configuredImages;
+  private final int maxSize;
+  private final int minStartsPerHour;
+  private final boolean doForcePullImage;
+  private final DockerConnector dockerConnector;
+  private final ImagePreparationCache preparationCache;
+  private final Map<String, StartRate> startRates = new ConcurrentHashMap<>();
+
+  /**
+   * @param images comma-separated references of images that are always kept in the pool
+   * @param maxSize maximum number of images added to the pool by their start rates, non-positive
+   *     value keeps only the configured images in the pool
+   * @param minStartsPerHour minimal number of machine starts per hour that adds the image to the
+   *     pool
+   * @param doForcePullImage whether images that exist locally are pulled again
+   */
+  @Inject
+  public WarmImagesPool(
+      @Nullable @Named("che.infra.docker.warm_pool.images") String images,
+      @Named("che.infra.docker.warm_pool.max_size") int maxSize,
+      @Named("che.infra.docker.warm_pool.min_starts_per_hour") int minStartsPerHour,
+      @Named("che.docker.always_pull_image") boolean doForcePullImage,
+      DockerConnector dockerConnector,
+      ImagePreparationCache preparationCache) {
+    this.configuredImages =
+        images == null
+            ? new ArrayList<>()
+            : Splitter.on(',').trimResults().omitEmptyStrings().splitToList(images);
+    this.maxSize = maxSize;
+    this.minStartsPerHour = Math.max(minStartsPerHour, 1);
+    this.doForcePullImage = doForcePullImage;
+    this.dockerConnector = dockerConnector;
+    this.preparationCache = preparationCache;
+  }
+
+  /**
+   * Records start of a machine from the image.
+   *
+   * @param image reference of the image
+   * @param credentials registry credentials used to pull the image
+   */
+  public void recordStart(String image, @Nullable AuthConfigs credentials) {
+    recordStart(image, credentials, System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  void recordStart(String image, @Nullable AuthConfigs credentials, long timeMillis) {
+    if (maxSize > 0 || configuredImages.contains(image)) {
+      startRates.computeIfAbsent(image, i -> new StartRate()).increment(timeMillis, credentials);
+    }
+  }
+
+  /** Returns references of images that are kept in the pool. */
+  public List<String> getImages() {
+    return getImages(System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  List<String> getImages(long timeMillis) {
+    Set<String> images = new LinkedHashSet<>(configuredImages);
+    if (maxSize <= 0) {
+      return new ArrayList<>(images);
+    }
+    Map<String, Double> rates = new HashMap<>();
+    for (Iterator<Map.Entry<String, StartRate>> it = startRates.entrySet().iterator();
+        it.hasNext(); ) {
+      Map.Entry<String, StartRate> entry = it.next();
+      double rate = entry.getValue().get(timeMillis);
+      if (rate < MIN_TRACKED_RATE) {
+        if (!configuredImages.contains(entry.getKey())) {
+          it.remove();
+        }
+      } else if (rate >= minStartsPerHour) {
+        rates.put(entry.getKey(), rate);
+      }
+    }
+    images.addAll(
+        rates
+            .entrySet()
+            .stream()
+            .sorted(comparingDouble(Map.Entry<String, Double>::getValue).reversed())
+            .limit(maxSize)
+            .map(Map.Entry::getKey)
+            .collect(toList()));
+    return new ArrayList<>(images);
+  }
+
+  /** Pulls images of the pool. */
+  @ScheduleRate(
+    periodParameterName = "che.infra.docker.warm_pool.refresh_period_sec",
+    initialDelay = 0L,
+    unit = TimeUnit.SECONDS
+  )
+  @Override
+  public void run() {
+    for (String image : getImages()) {
+      StartRate startRate = startRates.get(image);
+      AuthConfigs credentials = startRate != null ? startRate.getCredentials() : null;
+      try {
+        preparationCache.refresh(
+            ImagePreparationCache.key(image, credentials),
+            ProgressMonitor.DEV_NULL,
+            monitor -> pull(image, credentials, monitor));
+      } catch (IOException e) {
+        LOG.warn("Failed to pull image '{}' of warm images pool. Cause: {}", image, e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void pull(
+      String image, @Nullable AuthConfigs credentials, ProgressMonitor progressMonitor)
+      throws IOException {
+    final DockerImageIdentifier identifier;
+    try {
+      identifier = DockerImageIdentifierParser.parse(image);
+    } catch (DockerFileException e) {
+      throw new IOException(e.getLocalizedMessage(), e);
+    }
+    // content of image referenced by digest can't change
+    boolean isImmutable = identifier.getDigest() != null;
+    if ((!doForcePullImage || isImmutable)
+        && !dockerConnector
+            .listImages(
+                ListImagesParams.create()
+                    .withFilters(
+                        new Filters()
+                            .withFilter(
+                                "reference", ParallelDockerImagesBuilder.getReference(identifier))))
+            .isEmpty()) {
+      return;
+    }
+    dockerConnector.pull(
+        ParallelDockerImagesBuilder.createPullParams(identifier, credentials), progressMonitor);
+  }
+
+  /**
+   * Number of starts per hour that exponentially decays with time and credentials of the last
+   * start.
+   */
+  private static class StartRate {
+    private double value;
+    private long updated;
+    private AuthConfigs credentials;
+
+    private synchronized void increment(long timeMillis, @Nullable AuthConfigs credentials) {
+      value = get(timeMillis) + 1;
+      updated = timeMillis;
+      this.credentials = credentials;
+    }
+
+    private synchronized AuthConfigs getCredentials() {
+      return credentials;
+    }
+
+    private synchronized double get(long timeMillis) {
+      return value * Math.exp(-(double) Math.max(timeMillis - updated, 0) / RATE_DECAY_MILLIS);
+    }
+  }
+}
@@ -14,14 +14,18 @@ import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 import static org.eclipse.che.infrastructure.docker.client.LogMessage.Type.DOCKER;
 
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.workspace.server.DtoConverter;
 import org.eclipse.che.api.workspace.shared.dto.event.MachineLogEvent;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.infrastructure.docker.client.BatchMessageProcessor;
 import org.eclipse.che.infrastructure.docker.client.LogMessage;
 import org.eclipse.che.infrastructure.docker.client.MessageProcessor;
 import org.eclipse.che.infrastructure.docker.client.ProgressLineFormatterImpl;
@@ -36,11 +40,22 @@ import org.eclipse.che.infrastructure.docker.client.json.ProgressStatus;
 @Singleton
 public class MachineLoggersFactory {
 
+  private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
   private final EventService eventService;
+  private final int maxLinesPerSecond;
 
+  /**
+   * @param eventService service that publishes machine log events
+   * @param maxLinesPerSecond maximum number of log lines of a single machine published per second,
+   *     the rest are skipped and summarised in a single line, non-positive value disables the limit
+   */
   @Inject
-  public MachineLoggersFactory(EventService eventService) {
+  public MachineLoggersFactory(
+      EventService eventService,
+      @Named("che.infra.docker.machine_logs.max_lines_per_sec") int maxLinesPerSecond) {
     this.eventService = eventService;
+    this.maxLinesPerSecond = maxLinesPerSecond;
   }
 
   /**
@@ -54,27 +69,82 @@ public class MachineLoggersFactory {
   }
 
   /**
-   * Produces new instance of {@link MessageProcessor}.
+   * Produces new instance of {@link MessageProcessor}, lines that exceed the rate limit of the
+   * machine are skipped.
    *
    * @param machineName name of machine
    * @param runtime runtime identity for given machine
    */
   public MessageProcessor<LogMessage> newLogsProcessor(
       String machineName, RuntimeIdentity runtime) {
-    return new MachineLogMessageProcessor(new MachineLogsBiConsumer(machineName, runtime));
+    return new MachineLogMessageProcessor(
+        new MachineLogsBiConsumer(machineName, runtime), maxLinesPerSecond);
   }
 
-  /** Supplies text and stream to {@link MachineLogsBiConsumer} from {@link LogMessage}. */
-  private static class MachineLogMessageProcessor implements MessageProcessor<LogMessage> {
+  /**
+   * Supplies text and stream to {@link MachineLogsBiConsumer} from {@link LogMessage}.
+   *
+   * <p>Lines are counted in one second windows, lines that exceed the limit of the current window
+   * are skipped and the number of skipped lines is reported when the next line is published or the
+   * logs end.
+   */
+  private static class MachineLogMessageProcessor implements BatchMessageProcessor<LogMessage> {
 
     private final BiConsumer<String, String> biConsumer;
+    private final int maxLinesPerSecond;
+
+    private long windowStart;
+    private int windowLines;
+    private long skippedLines;
 
-    public MachineLogMessageProcessor(BiConsumer<String, String> biConsumer) {
+    public MachineLogMessageProcessor(
+        BiConsumer<String, String> biConsumer, int maxLinesPerSecond) {
       this.biConsumer = biConsumer;
+      this.maxLinesPerSecond = maxLinesPerSecond;
+      this.windowStart = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void process(List<LogMessage> messages) {
+      for (LogMessage message : messages) {
+        if (tryAcquire()) {
+          reportSkipped();
+          publish(message);
+        } else {
+          skippedLines++;
+        }
+      }
     }
 
     @Override
-    public void process(LogMessage message) {
+    public synchronized void flush() {
+      reportSkipped();
+    }
+
+    private boolean tryAcquire() {
+      if (maxLinesPerSecond <= 0) {
+        return true;
+      }
+      final long now = System.nanoTime();
+      if (now - windowStart >= RATE_WINDOW_NANOS) {
+        windowStart = now;
+        windowLines = 0;
+      }
+      return windowLines++ < maxLinesPerSecond;
+    }
+
+    private void reportSkipped() {
+      if (skippedLines > 0) {
+        biConsumer.accept(
+            null,
+            String.format(
+                "[DOCKER] %d log lines were skipped, the limit is %d lines per second",
+                skippedLines, maxLinesPerSecond));
+        skippedLines = 0;
+      }
+    }
+
+    private void publish(LogMessage message) {
       final LogMessage.Type type = message.getType();
       if (type == DOCKER) {
         biConsumer.accept(null, "[DOCKER] " + message.getContent());
@@ -114,7 +184,8 @@ public class MachineLoggersFactory {
 
     @Override
     public void accept(String stream, String text) {
-      eventService.publish(
+      // published for each line of the output, so slow subscribers must not block machine start
+      eventService.publishAsync(
           DtoFactory.newDto(MachineLogEvent.class)
               .withRuntimeId(DtoConverter.asDto(runtime))
               .withStream(stream)
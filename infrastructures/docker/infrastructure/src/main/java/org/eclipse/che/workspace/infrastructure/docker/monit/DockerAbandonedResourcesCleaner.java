@@ -14,32 +14,63 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.PreDestroy;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.spi.RuntimeContext;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.eclipse.che.infrastructure.docker.client.DockerConnector;
 import org.eclipse.che.infrastructure.docker.client.json.ContainerListEntry;
 import org.eclipse.che.infrastructure.docker.client.json.Filters;
+import org.eclipse.che.infrastructure.docker.client.json.Image;
 import org.eclipse.che.infrastructure.docker.client.json.network.Network;
+import org.eclipse.che.infrastructure.docker.client.json.volume.Volume;
+import org.eclipse.che.infrastructure.docker.client.params.ListContainersParams;
+import org.eclipse.che.infrastructure.docker.client.params.ListImagesParams;
 import org.eclipse.che.infrastructure.docker.client.params.RemoveContainerParams;
+import org.eclipse.che.infrastructure.docker.client.params.RemoveImageParams;
 import org.eclipse.che.infrastructure.docker.client.params.network.GetNetworksParams;
+import org.eclipse.che.infrastructure.docker.client.params.volume.GetVolumesParams;
+import org.eclipse.che.workspace.infrastructure.docker.DockerMachine;
+import org.eclipse.che.workspace.infrastructure.docker.ImagePreparationCache;
 import org.eclipse.che.workspace.infrastructure.docker.Labels;
+import org.eclipse.che.workspace.infrastructure.docker.ParallelDockerImagesBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Job for periodically clean up abandoned docker containers and networks created by CHE. Also, logs
- * active containers list.
+ * Job for periodically clean up abandoned docker containers, networks, volumes and recipe images
+ * created by CHE. Also, logs active containers list.
+ *
+ * <p>Each run reconciles docker resources with the runtimes of running workspaces at once: CHE
+ * containers are listed with a single label filtered request, identifiers of running workspaces are
+ * fetched once from {@link WorkspaceRuntimes} and abandoned resources are removed in parallel by a
+ * bounded number of threads.
  *
  * @author Alexander Andrienko
  * @author Mykola Morhun
@@ -52,23 +83,64 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
   private static final Filters NETWORK_FILTERS = new Filters().withFilter("type", "custom");
   private static final GetNetworksParams GET_NETWORKS_PARAMS =
       GetNetworksParams.create().withFilters(NETWORK_FILTERS);
+  private static final ListContainersParams LIST_CONTAINERS_PARAMS =
+      ListContainersParams.create()
+          .withAll(true)
+          .withFilters(Filters.label(Labels.LABEL_WORKSPACE_ID));
+  private static final GetVolumesParams GET_VOLUMES_PARAMS =
+      GetVolumesParams.create().withFilters(new Filters().withFilter("dangling", "true"));
+  private static final ListImagesParams LIST_RECIPE_IMAGES_PARAMS =
+      ListImagesParams.create()
+          .withFilters(
+              new Filters()
+                  .withFilter("reference", ParallelDockerImagesBuilder.RECIPE_IMAGE_PREFIX + "*"));
+  private static final String LATEST_TAG_SUFFIX = ":" + DockerMachine.LATEST_TAG;
   private static final String WORKSPACE_ID_REGEX_GROUP = "workspaceId";
   private static final String CHE_NETWORK_REGEX =
       "^(?<" + WORKSPACE_ID_REGEX_GROUP + ">workspace[a-z\\d]{16})_[a-z\\d]{16}$";
   private static final Pattern CHE_NETWORK_PATTERN = Pattern.compile(CHE_NETWORK_REGEX);
+  private static final String CHE_VOLUME_REGEX =
+      "^(?<" + WORKSPACE_ID_REGEX_GROUP + ">workspace[a-z\\d]{16})_.+$";
+  private static final Pattern CHE_VOLUME_PATTERN = Pattern.compile(CHE_VOLUME_REGEX);
 
   private final WorkspaceManager workspaceManager;
   private final DockerConnector dockerConnector;
   private final WorkspaceRuntimes runtimes;
+  private final ImagePreparationCache preparationCache;
+  private final ExecutorService executor;
+
+  private volatile long lastRunDurationMillis;
+  private volatile int lastRemovedContainers;
+  private volatile int lastRemovedNetworks;
+  private volatile int lastRemovedVolumes;
+  private volatile int lastRemovedImages;
 
   @Inject
   public DockerAbandonedResourcesCleaner(
       WorkspaceManager workspaceManager,
       DockerConnector dockerConnector,
-      WorkspaceRuntimes workspaceRuntimes) {
+      WorkspaceRuntimes workspaceRuntimes,
+      ImagePreparationCache preparationCache,
+      @Named("che.docker.cleanup_threads") int threads) {
     this.workspaceManager = workspaceManager;
     this.dockerConnector = dockerConnector;
     this.runtimes = workspaceRuntimes;
+    this.preparationCache = preparationCache;
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            Math.max(threads, 1),
+            Math.max(threads, 1),
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("DockerAbandonedResourcesCleaner-%d")
+                .setDaemon(true)
+                .build());
+    // threads are needed only while a cleanup is running
+    executor.allowCoreThreadTimeOut(true);
+    this.executor = executor;
   }
 
   @ScheduleRate(
@@ -78,55 +150,111 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
   )
   @Override
   public void run() {
+    final long start = System.currentTimeMillis();
     cleanContainers();
     cleanNetworks();
+    cleanVolumes();
+    cleanImages();
+    lastRunDurationMillis = System.currentTimeMillis() - start;
+    LOG.info(
+        "Docker resources cleanup took {}ms, removed containers: {}, networks: {}, volumes: {}, "
+            + "images: {}",
+        lastRunDurationMillis,
+        lastRemovedContainers,
+        lastRemovedNetworks,
+        lastRemovedVolumes,
+        lastRemovedImages);
+  }
+
+  /** Returns duration of the last cleanup in milliseconds. */
+  public long getLastRunDurationMillis() {
+    return lastRunDurationMillis;
+  }
+
+  /** Returns number of containers removed by the last cleanup. */
+  public int getLastRemovedContainers() {
+    return lastRemovedContainers;
+  }
+
+  /** Returns number of networks removed by the last cleanup. */
+  public int getLastRemovedNetworks() {
+    return lastRemovedNetworks;
+  }
+
+  /** Returns number of volumes removed by the last cleanup. */
+  public int getLastRemovedVolumes() {
+    return lastRemovedVolumes;
+  }
+
+  /** Returns number of recipe images removed by the last cleanup. */
+  public int getLastRemovedImages() {
+    return lastRemovedImages;
   }
 
   /** Cleans up CHE inactive machine docker containers. */
   @VisibleForTesting
   void cleanContainers() {
     List<String> activeContainers = new ArrayList<>();
+    List<ContainerListEntry> abandonedContainers = new ArrayList<>();
     try {
-      for (ContainerListEntry container : dockerConnector.listContainers()) {
+      // containers are listed before runtimes, runtime of a workspace is registered before
+      // its containers are created, so containers of starting workspaces are never removed
+      List<ContainerListEntry> containers = dockerConnector.listContainers(LIST_CONTAINERS_PARAMS);
+      Set<String> runningWorkspaces = runtimes.getRuntimesIds();
+      Map<String, Optional<Set<String>>> runningMachines = new HashMap<>();
+      for (ContainerListEntry container : containers) {
         String containerName = container.getNames()[0];
-
         String machineName = container.getLabels().get(Labels.LABEL_MACHINE_NAME);
         String workspaceId = container.getLabels().get(Labels.LABEL_WORKSPACE_ID);
+        if (isNullOrEmpty(machineName) || isNullOrEmpty(workspaceId)) {
+          continue;
+        }
 
-        if (!isNullOrEmpty(machineName) && !isNullOrEmpty(workspaceId)) {
-          try {
-            WorkspaceImpl workspace = workspaceManager.getWorkspace(workspaceId);
-            if (workspace.getRuntime() != null
-                && workspace.getRuntime().getMachines().containsKey(machineName)) {
-              activeContainers.add(containerName);
-              continue;
-            }
-          } catch (NotFoundException e) {
-            // cleanup container
-          } catch (Exception e) {
-            LOG.error(
-                format(
-                    "Failed to check activity for container with name '%s'. Cause: %s",
-                    containerName, e.getLocalizedMessage()),
-                e);
+        if (runningWorkspaces.contains(workspaceId)) {
+          Optional<Set<String>> machines =
+              runningMachines.computeIfAbsent(workspaceId, this::getMachineNames);
+          // keep the container if machines of its workspace can't be inspected
+          if (!machines.isPresent() || machines.get().contains(machineName)) {
+            activeContainers.add(containerName);
+            continue;
           }
-          cleanUpContainer(container);
         }
+        abandonedContainers.add(container);
       }
     } catch (IOException e) {
       LOG.error("Failed to get list docker containers", e);
     } catch (Exception e) {
       LOG.error("Failed to clean up inactive containers", e);
     }
+    lastRemovedContainers = removeInParallel(abandonedContainers, this::cleanUpContainer);
     LOG.info("List containers registered in the api: " + activeContainers);
   }
 
-  private void cleanUpContainer(ContainerListEntry container) {
+  private Optional<Set<String>> getMachineNames(String workspaceId) {
+    try {
+      Optional<RuntimeContext> context = runtimes.getRuntimeContext(workspaceId);
+      if (!context.isPresent()) {
+        // runtime was stopped after its identifier was fetched
+        return Optional.of(Collections.emptySet());
+      }
+      return Optional.of(
+          Collections.unmodifiableSet(context.get().getRuntime().getMachines().keySet()));
+    } catch (Exception e) {
+      LOG.error(
+          format(
+              "Failed to check activity for containers of workspace '%s'. Cause: %s",
+              workspaceId, e.getLocalizedMessage()),
+          e);
+      return Optional.empty();
+    }
+  }
+
+  private boolean cleanUpContainer(ContainerListEntry container) {
     String containerId = container.getId();
     String containerName = container.getNames()[0];
 
     killContainer(containerId, containerName, container.getStatus());
-    removeContainer(containerId, containerName);
+    return removeContainer(containerId, containerName);
   }
 
   private void killContainer(String containerId, String containerName, String containerStatus) {
@@ -147,7 +275,7 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
     }
   }
 
-  private void removeContainer(String containerId, String containerName) {
+  private boolean removeContainer(String containerId, String containerName) {
     try {
       dockerConnector.removeContainer(
           RemoveContainerParams.create(containerId).withForce(true).withRemoveVolumes(true));
@@ -155,12 +283,14 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
           "Unused container with 'id': '{}' and 'name': '{}' was removed",
           containerId,
           containerName);
+      return true;
     } catch (IOException e) {
       LOG.error(
           format(
               "Failed to delete unused container with 'id': '%s' and 'name': '%s'",
               containerId, containerName),
           e);
+      return false;
     }
   }
 
@@ -172,6 +302,7 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
    */
   @VisibleForTesting
   void cleanNetworks() {
+    List<Network> abandonedNetworks = new ArrayList<>();
     try {
       List<Network> customNetworks = dockerConnector.getNetworks(GET_NETWORKS_PARAMS);
       // This workaround is added because of docker bug which returns null instead of empty list
@@ -180,21 +311,181 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
         return;
       }
 
+      Set<String> runningWorkspaces = runtimes.getRuntimesIds();
       for (Network network : customNetworks) {
         Matcher cheNetworkMatcher = CHE_NETWORK_PATTERN.matcher(network.getName());
         if (cheNetworkMatcher.matches()
             && network.getContainers().isEmpty()
-            && !runtimes.hasRuntime(cheNetworkMatcher.group(WORKSPACE_ID_REGEX_GROUP))) {
+            && !runningWorkspaces.contains(cheNetworkMatcher.group(WORKSPACE_ID_REGEX_GROUP))) {
+          abandonedNetworks.add(network);
+        }
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to get list of docker networks", e);
+    } finally {
+      lastRemovedNetworks = removeInParallel(abandonedNetworks, this::removeNetwork);
+    }
+  }
 
-          try {
-            dockerConnector.removeNetwork(network.getId());
-          } catch (IOException e) {
-            LOG.warn("Failed to remove abandoned network: " + network.getName(), e);
+  private boolean removeNetwork(Network network) {
+    try {
+      dockerConnector.removeNetwork(network.getId());
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Failed to remove abandoned network: " + network.getName(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Deletes CHE volumes of removed workspaces. Volumes of a workspace are removed together with the
+   * workspace, so such volumes appear only when the removal failed. Only volumes that are not used
+   * by any container are checked. To do this job more efficiently, it should be invoked after
+   * cleaning of abandoned containers.
+   */
+  @VisibleForTesting
+  void cleanVolumes() {
+    List<String> abandonedVolumes = new ArrayList<>();
+    try {
+      List<Volume> danglingVolumes = dockerConnector.getVolumes(GET_VOLUMES_PARAMS).getVolumes();
+      // May happen because Docker API is not very consistent on whether it returns null or empty
+      // collection
+      if (danglingVolumes == null) {
+        return;
+      }
+
+      Set<String> runningWorkspaces = runtimes.getRuntimesIds();
+      Map<String, Boolean> removedWorkspaces = new HashMap<>();
+      for (Volume volume : danglingVolumes) {
+        Matcher cheVolumeMatcher = CHE_VOLUME_PATTERN.matcher(volume.getName());
+        if (!cheVolumeMatcher.matches()) {
+          continue;
+        }
+        String workspaceId = cheVolumeMatcher.group(WORKSPACE_ID_REGEX_GROUP);
+        if (!runningWorkspaces.contains(workspaceId)
+            && removedWorkspaces.computeIfAbsent(workspaceId, this::isRemoved)) {
+          abandonedVolumes.add(volume.getName());
+        }
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to get list of docker volumes", e);
+    } finally {
+      lastRemovedVolumes = removeInParallel(abandonedVolumes, this::removeVolume);
+    }
+  }
+
+  private boolean isRemoved(String workspaceId) {
+    try {
+      workspaceManager.getWorkspace(workspaceId);
+      return false;
+    } catch (NotFoundException e) {
+      return true;
+    } catch (Exception e) {
+      LOG.error(
+          format(
+              "Failed to check existence of workspace '%s'. Cause: %s",
+              workspaceId, e.getLocalizedMessage()),
+          e);
+      return false;
+    }
+  }
+
+  private boolean removeVolume(String volumeName) {
+    try {
+      dockerConnector.removeVolume(volumeName);
+      LOG.warn("Abandoned volume '{}' was removed", volumeName);
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Failed to remove abandoned volume: " + volumeName, e);
+      return false;
+    }
+  }
+
+  /**
+   * Removes images built from recipes that are neither being prepared nor reused by {@link
+   * ImagePreparationCache}. Only the recipe name of an image is removed, so the image itself is
+   * kept while it is tagged for a machine or used by a container.
+   */
+  @VisibleForTesting
+  void cleanImages() {
+    List<String> abandonedImages = new ArrayList<>();
+    try {
+      for (Image image : dockerConnector.listImages(LIST_RECIPE_IMAGES_PARAMS)) {
+        if (image.getRepoTags() == null) {
+          continue;
+        }
+        for (String tag : image.getRepoTags()) {
+          String name =
+              tag.endsWith(LATEST_TAG_SUFFIX)
+                  ? tag.substring(0, tag.length() - LATEST_TAG_SUFFIX.length())
+                  : tag;
+          if (name.startsWith(ParallelDockerImagesBuilder.RECIPE_IMAGE_PREFIX)
+              && !preparationCache.isInUse(name)) {
+            abandonedImages.add(tag);
           }
         }
       }
     } catch (IOException e) {
-      LOG.error("Failed to get list of docker networks", e);
+      LOG.error("Failed to get list of docker images", e);
+    } finally {
+      lastRemovedImages = removeInParallel(abandonedImages, this::removeImage);
+    }
+  }
+
+  private boolean removeImage(String image) {
+    try {
+      dockerConnector.removeImage(RemoveImageParams.create(image).withForce(false));
+      LOG.warn("Unused recipe image '{}' was removed", image);
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Failed to remove unused recipe image: " + image, e);
+      return false;
+    }
+  }
+
+  /**
+   * Removes resources by a bounded number of threads and returns the number of removed ones.
+   *
+   * @param resources resources to remove
+   * @param remover removes a resource, returns {@code true} if the resource was removed
+   */
+  private <T> int removeInParallel(List<T> resources, Predicate<T> remover) {
+    if (resources.isEmpty()) {
+      return 0;
+    }
+    AtomicInteger removed = new AtomicInteger();
+    List<Callable<Void>> tasks = new ArrayList<>(resources.size());
+    for (T resource : resources) {
+      tasks.add(
+          () -> {
+            if (remover.test(resource)) {
+              removed.incrementAndGet();
+            }
+            return null;
+          });
+    }
+    try {
+      // not finished tasks are cancelled on timeout
+      executor
+          .invokeAll(tasks, 10, TimeUnit.MINUTES)
+          .stream()
+          .filter(Future::isCancelled)
+          .findAny()
+          .ifPresent(
+              f -> LOG.warn("Removal of abandoned docker resources is not finished in 10 minutes"));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RejectedExecutionException e) {
+      LOG.warn("Removal of abandoned docker resources is rejected, cleaner is terminated");
+    }
+    return removed.get();
+  }
+
+  @PreDestroy
+  void terminate() throws InterruptedException {
+    executor.shutdownNow();
+    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+      LOG.error("Couldn't terminate docker abandoned resources cleaner thread pool");
     }
   }
 }
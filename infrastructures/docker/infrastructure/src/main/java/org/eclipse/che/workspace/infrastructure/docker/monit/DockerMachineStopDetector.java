@@ -12,11 +12,14 @@ package org.eclipse.che.workspace.infrastructure.docker.monit;
 
 import static java.lang.String.format;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -30,19 +33,35 @@ import org.eclipse.che.infrastructure.docker.client.MessageProcessor;
 import org.eclipse.che.infrastructure.docker.client.json.Event;
 import org.eclipse.che.infrastructure.docker.client.json.Filters;
 import org.eclipse.che.infrastructure.docker.client.params.GetEventsParams;
+import org.eclipse.che.workspace.infrastructure.docker.DockerSharedPool;
+import org.eclipse.che.workspace.infrastructure.docker.Labels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Track docker containers events to detect containers stop or failure.
  *
+ * <p>Events of CHE containers are filtered by docker. When the events stream is interrupted it is
+ * resumed from the time of the last received event, events received before are skipped. Event times
+ * come from the docker daemon clock, so until the first event is received the stream is not resumed
+ * from any time and no events are skipped. Handlers of
+ * stopped containers are called by {@link DockerSharedPool}, so they don't delay reading of events.
+ *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class DockerMachineStopDetector {
   private static final Logger LOG = LoggerFactory.getLogger(DockerMachineStopDetector.class);
 
+  private static final long RECONNECT_DELAY_MS = 1_000;
+  private static final Filters EVENTS_FILTERS =
+      new Filters()
+          .withFilter("event", "die", "oom")
+          .withFilter("type", "container")
+          .withFilter("label", Labels.LABEL_WORKSPACE_ID);
+
   private final DockerConnector dockerConnector;
+  private final DockerSharedPool sharedPool;
   private final ExecutorService executorService;
   private final Map<String, ContainerDeathHandlerHolder> handlers;
   /*
@@ -59,11 +78,18 @@ public class DockerMachineStopDetector {
   */
   private final Cache<String, String> containersOomTimestamps;
 
-  private long lastProcessedEventDate = 0;
+  /**
+   * Time in nanoseconds of the last received event by the docker daemon clock, events stream is
+   * resumed from it. It is 0 until the first event is received, then only new events are streamed.
+   */
+  private long cursorNanos;
+  /** Received events which time is equal to the cursor, they are skipped when stream is resumed. */
+  private final Set<String> eventsAtCursor = new HashSet<>();
 
   @Inject
-  public DockerMachineStopDetector(DockerConnector dockerConnector) {
+  public DockerMachineStopDetector(DockerConnector dockerConnector, DockerSharedPool sharedPool) {
     this.dockerConnector = dockerConnector;
+    this.sharedPool = sharedPool;
     this.handlers = new ConcurrentHashMap<>();
     this.containersOomTimestamps =
         CacheBuilder.newBuilder().expireAfterWrite(10, TimeUnit.SECONDS).build();
@@ -107,18 +133,44 @@ public class DockerMachineStopDetector {
             try {
               dockerConnector.getEvents(
                   GetEventsParams.create()
-                      .withSinceSecond(lastProcessedEventDate)
-                      .withFilters(new Filters().withFilter("event", "die", "oom")),
+                      .withSinceSecond(TimeUnit.NANOSECONDS.toSeconds(cursorNanos))
+                      .withFilters(EVENTS_FILTERS),
                   new EventsProcessor());
             } catch (IOException e) {
               // usually connection timeout
               LOG.debug(e.getLocalizedMessage(), e);
+              try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+              } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                return;
+              }
             }
           }
         });
   }
 
-  private class EventsProcessor implements MessageProcessor<Event> {
+  /**
+   * Moves the cursor to the time of the event, returns {@code false} if the event was already
+   * received before the events stream was resumed.
+   */
+  @VisibleForTesting
+  boolean advanceCursor(Event event) {
+    final long eventNanos =
+        event.getTimeNano() != 0 ? event.getTimeNano() : TimeUnit.SECONDS.toNanos(event.getTime());
+    final String eventKey = event.getId() + ' ' + event.getStatus();
+    if (eventNanos < cursorNanos) {
+      return false;
+    }
+    if (eventNanos > cursorNanos) {
+      cursorNanos = eventNanos;
+      eventsAtCursor.clear();
+    }
+    return eventsAtCursor.add(eventKey);
+  }
+
+  @VisibleForTesting
+  class EventsProcessor implements MessageProcessor<Event> {
     @Override
     public void process(Event message) {
       if (message.getType() != null && !"container".equals(message.getType())) {
@@ -127,6 +179,9 @@ public class DockerMachineStopDetector {
         // event types
         return;
       }
+      if (message.getStatus() == null || !advanceCursor(message)) {
+        return;
+      }
 
       switch (message.getStatus()) {
         case "oom":
@@ -142,13 +197,13 @@ public class DockerMachineStopDetector {
             stopReason =
                 "Please, check that container is designed to run in non-interactive terminal.";
           }
-          lastProcessedEventDate = message.getTime();
           ContainerDeathHandlerHolder holder = handlers.get(message.getId());
           if (holder != null) {
-            holder.handler.handle(
+            final String stopMessage =
                 format(
                     "Container of machine '%s' unexpectedly stopped. %s",
-                    holder.machineName, stopReason));
+                    holder.machineName, stopReason);
+            sharedPool.execute(() -> holder.handler.handle(stopMessage));
           }
           break;
         default:
@@ -14,6 +14,9 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toMap;
 import static org.eclipse.che.api.core.model.workspace.runtime.MachineStatus.FAILED;
 import static org.eclipse.che.api.core.model.workspace.runtime.MachineStatus.RUNNING;
 import static org.eclipse.che.api.core.model.workspace.runtime.MachineStatus.STARTING;
@@ -34,13 +37,19 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.function.Consumer;
 import org.eclipse.che.api.core.model.workspace.runtime.MachineStatus;
 import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
@@ -106,6 +115,7 @@ public class DockerInternalRuntimeTest {
   @Mock private DockerMachine dockerMachine;
   @Mock private ParallelDockerImagesBuilderFactory dockerImagesBuilderFactory;
   @Mock private ParallelDockerImagesBuilder dockerImagesBuilder;
+  @Mock private DockerMachineStartPool machineStartPool;
 
   @Captor private ArgumentCaptor<Consumer<ProbeResult>> probeResultConsumerCaptor;
   @Captor private ArgumentCaptor<MachineStatusEvent> eventCaptor;
@@ -116,7 +126,9 @@ public class DockerInternalRuntimeTest {
   public void setup() throws Exception {
     MockitoAnnotations.initMocks(this);
     final DockerContainerConfig config1 = new DockerContainerConfig();
-    final DockerContainerConfig config2 = new DockerContainerConfig();
+    // machines are started one by one as the second machine depends on the first one
+    final DockerContainerConfig config2 =
+        new DockerContainerConfig().setDependsOn(singletonList(DEV_MACHINE));
     final InternalMachineConfig internalMachineCfg1 = mock(InternalMachineConfig.class);
     when(internalMachineCfg1.getInstallers()).thenReturn(singletonList(newInstaller(1)));
     final InternalMachineConfig internalMachineCfg2 = mock(InternalMachineConfig.class);
@@ -139,7 +151,22 @@ public class DockerInternalRuntimeTest {
     when(workspaceProbesFactory.getProbes(eq(IDENTITY), anyString(), any()))
         .thenReturn(workspaceProbes);
     when(dockerImagesBuilderFactory.create(any())).thenReturn(dockerImagesBuilder);
-    when(dockerImagesBuilder.prepareImages(anyMap())).thenReturn(emptyMap());
+    when(dockerImagesBuilder.prepareImagesAsync(anyMap()))
+        .thenAnswer(
+            invocation -> {
+              Map<String, DockerContainerConfig> containers = invocation.getArgument(0);
+              return containers
+                  .keySet()
+                  .stream()
+                  .collect(toMap(name -> name, name -> completedFuture("image")));
+            });
+    doAnswer(
+            invocation -> {
+              new Thread((Runnable) invocation.getArgument(0)).start();
+              return null;
+            })
+        .when(machineStartPool)
+        .execute(any(Runnable.class));
     dockerRuntime =
         new DockerInternalRuntime(
             runtimeContext,
@@ -154,9 +181,98 @@ public class DockerInternalRuntimeTest {
             probesScheduler,
             workspaceProbesFactory,
             dockerImagesBuilderFactory,
+            machineStartPool,
             BOOTSTRAPPING_TIMEOUT_MINUTES);
   }
 
+  @Test
+  public void startsIndependentMachinesInParallel() throws Exception {
+    makeMachinesIndependent();
+    mockInstallersBootstrap();
+    // each container start waits for another one, so it passes only if both are started together
+    CyclicBarrier bothStarting = new CyclicBarrier(2);
+    doAnswer(
+            invocation -> {
+              bothStarting.await(10, SECONDS);
+              return dockerMachine;
+            })
+        .when(starter)
+        .startContainer(
+            nullable(String.class),
+            nullable(String.class),
+            nullable(String.class),
+            any(DockerContainerConfig.class),
+            any(RuntimeIdentity.class),
+            any(AbnormalMachineStopHandler.class));
+
+    dockerRuntime.start(emptyMap());
+
+    verify(machineStartPool, times(2)).execute(any(Runnable.class));
+    verify(probesScheduler, times(2)).schedule(eq(workspaceProbes), any());
+    assertEquals(
+        dockerRuntime.getInternalMachines().keySet(), ImmutableSet.of(DEV_MACHINE, DB_MACHINE));
+  }
+
+  @Test
+  public void interruptsStartOfIndependentMachinesWhenOneOfThemFails() throws Exception {
+    makeMachinesIndependent();
+    mockInstallersBootstrap();
+    CountDownLatch interrupted = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              DockerContainerConfig config = invocation.getArgument(3);
+              if (config.getContainerName() == null) {
+                throw new InfrastructureException("container start failed");
+              }
+              try {
+                Thread.sleep(SECONDS.toMillis(30));
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new RuntimeStartInterruptedException(IDENTITY);
+              }
+              return dockerMachine;
+            })
+        .when(starter)
+        .startContainer(
+            nullable(String.class),
+            nullable(String.class),
+            nullable(String.class),
+            any(DockerContainerConfig.class),
+            any(RuntimeIdentity.class),
+            any(AbnormalMachineStopHandler.class));
+
+    try {
+      dockerRuntime.start(emptyMap());
+      fail("Runtime start must fail");
+    } catch (InfrastructureException e) {
+      assertEquals(e.getMessage(), "container start failed");
+    }
+
+    assertTrue(interrupted.await(10, SECONDS));
+    verify(probesScheduler).cancel(IDENTITY.getWorkspaceId());
+  }
+
+  @Test
+  public void waitsForImageOfMachineBeforeStartingIt() throws Exception {
+    mockInstallersBootstrap();
+    mockContainerStart();
+    CompletableFuture<String> devImage = new CompletableFuture<>();
+    when(dockerImagesBuilder.prepareImagesAsync(anyMap()))
+        .thenReturn(ImmutableMap.of(DEV_MACHINE, devImage, DB_MACHINE, completedFuture("db")));
+    new Thread(() -> devImage.complete("dev")).start();
+
+    dockerRuntime.start(emptyMap());
+
+    verify(starter)
+        .startContainer(
+            nullable(String.class),
+            eq(DEV_MACHINE),
+            eq("dev"),
+            any(DockerContainerConfig.class),
+            any(RuntimeIdentity.class),
+            any(AbnormalMachineStopHandler.class));
+  }
+
   @Test
   public void startsDockerRuntimeAndPropagatesMachineStatusEvents() throws Exception {
     mockInstallersBootstrap();
@@ -205,6 +321,25 @@ public class DockerInternalRuntimeTest {
     }
   }
 
+  @Test
+  public void cancelsPreparationOfImagesWhenMachineStartFailed() throws Exception {
+    mockInstallersBootstrap();
+    mockContainerStart();
+    CompletableFuture<String> devImage = new CompletableFuture<>();
+    devImage.completeExceptionally(new InternalInfrastructureException("pull failed"));
+    CompletableFuture<String> dbImage = new CompletableFuture<>();
+    when(dockerImagesBuilder.prepareImagesAsync(anyMap()))
+        .thenReturn(ImmutableMap.of(DEV_MACHINE, devImage, DB_MACHINE, dbImage));
+
+    try {
+      dockerRuntime.start(emptyMap());
+      fail("Start should fail");
+    } catch (InfrastructureException ignored) {
+    }
+
+    assertTrue(dbImage.isCancelled());
+  }
+
   @Test(expectedExceptions = InfrastructureException.class)
   public void throwsExceptionWhenBootstrappingOfInstallersFailed() throws Exception {
     mockInstallersBootstrapFailed(new InfrastructureException("bootstrap failed"));
@@ -400,6 +535,12 @@ public class DockerInternalRuntimeTest {
     };
   }
 
+  private void makeMachinesIndependent() {
+    Map<String, DockerContainerConfig> containers = runtimeContext.getEnvironment().getContainers();
+    containers.put(DEV_MACHINE, new DockerContainerConfig().setContainerName(DEV_MACHINE));
+    containers.put(DB_MACHINE, new DockerContainerConfig());
+  }
+
   private void verifyEventsOrder(MachineStatusEvent... expectedEvents) {
     final Iterator<MachineStatusEvent> actualEvents = captureEvents().iterator();
     for (MachineStatusEvent expected : expectedEvents) {
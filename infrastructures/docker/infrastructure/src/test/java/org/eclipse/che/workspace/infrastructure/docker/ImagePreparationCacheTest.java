@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfig;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfigs;
+import org.eclipse.che.infrastructure.docker.client.json.ProgressStatus;
+import org.testng.annotations.Test;
+
+/** Tests {@link ImagePreparationCache}. */
+public class ImagePreparationCacheTest {
+
+  @Test(timeOut = 10_000)
+  public void shouldPrepareImageOnceForConcurrentCallers() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(0);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger preparations = new AtomicInteger();
+    ProgressMonitor joinedMonitor = mock(ProgressMonitor.class);
+
+    CompletableFuture<Void> first =
+        runAsync(
+            () ->
+                cache.prepare(
+                    "image",
+                    true,
+                    ProgressMonitor.DEV_NULL,
+                    monitor -> {
+                      preparations.incrementAndGet();
+                      started.countDown();
+                      await(release);
+                      monitor.updateProgress(new ProgressStatus());
+                    }));
+    started.await();
+    CompletableFuture<Void> second =
+        runAsync(
+            () ->
+                cache.prepare(
+                    "image", true, joinedMonitor, monitor -> preparations.incrementAndGet()));
+    verify(joinedMonitor, timeout(5_000)).updateProgress(any());
+    release.countDown();
+
+    first.get();
+    second.get();
+    assertEquals(preparations.get(), 1);
+    assertEquals(cache.getJoinedCount(), 1);
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldPassFailureOfPreparationToAllTheWaitingCallers() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    IOException failure = new IOException("pull failed");
+    ProgressMonitor joinedMonitor = mock(ProgressMonitor.class);
+
+    CompletableFuture<Void> first =
+        runAsync(
+            () ->
+                cache.prepare(
+                    "image",
+                    true,
+                    ProgressMonitor.DEV_NULL,
+                    monitor -> {
+                      started.countDown();
+                      await(release);
+                      throw failure;
+                    }));
+    started.await();
+    CompletableFuture<Void> second =
+        runAsync(() -> cache.prepare("image", true, joinedMonitor, monitor -> {}));
+    verify(joinedMonitor, timeout(5_000)).updateProgress(any());
+    release.countDown();
+
+    assertSame(getFailure(first), failure);
+    assertSame(getFailure(second), failure);
+
+    // failed preparation is not reused
+    AtomicInteger preparations = new AtomicInteger();
+    cache.prepare("image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    assertEquals(preparations.get(), 1);
+  }
+
+  @Test
+  public void shouldReuseRecentlyPreparedImage() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    AtomicInteger preparations = new AtomicInteger();
+
+    cache.prepare("image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    cache.prepare("image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+
+    assertEquals(preparations.get(), 1);
+    assertEquals(cache.getHitsCount(), 1);
+  }
+
+  @Test
+  public void shouldNotReuseNotReusableOrExpiredPreparations() throws Exception {
+    AtomicInteger preparations = new AtomicInteger();
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    cache.prepare("image", false, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    cache.prepare("image", false, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    ImagePreparationCache notCaching = new ImagePreparationCache(0);
+    notCaching.prepare(
+        "image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    notCaching.prepare(
+        "image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+
+    assertEquals(preparations.get(), 4);
+  }
+
+  @Test
+  public void shouldPrepareRecentlyPreparedImageOnRefreshAndReuseIt() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    AtomicInteger preparations = new AtomicInteger();
+
+    cache.prepare("image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    cache.refresh("image", ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+    cache.prepare("image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+
+    assertEquals(preparations.get(), 2);
+    assertEquals(cache.getHitsCount(), 1);
+  }
+
+  @Test
+  public void shouldIdentifyPreparationsByImageAndCredentials() throws Exception {
+    AuthConfigs empty = mock(AuthConfigs.class);
+    when(empty.getConfigs()).thenReturn(Collections.emptyMap());
+
+    assertEquals(ImagePreparationCache.key("image", null), "image");
+    assertEquals(ImagePreparationCache.key("image", empty), "image");
+    assertEquals(
+        ImagePreparationCache.key("image", credentials("user", "password")),
+        ImagePreparationCache.key("image", credentials("user", "password")));
+    assertNotEquals(
+        ImagePreparationCache.key("image", credentials("user", "password")),
+        ImagePreparationCache.key("image", credentials("user", "another")));
+    assertNotEquals(ImagePreparationCache.key("image", credentials("user", "password")), "image");
+  }
+
+  @Test
+  public void shouldNotReusePreparationDoneWithOtherCredentials() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    AtomicInteger preparations = new AtomicInteger();
+
+    cache.prepare(
+        ImagePreparationCache.key("image", credentials("user", "password")),
+        true,
+        ProgressMonitor.DEV_NULL,
+        m -> preparations.incrementAndGet());
+    cache.prepare(
+        ImagePreparationCache.key("image", credentials("another", "password")),
+        true,
+        ProgressMonitor.DEV_NULL,
+        m -> preparations.incrementAndGet());
+    cache.prepare("image", true, ProgressMonitor.DEV_NULL, m -> preparations.incrementAndGet());
+
+    assertEquals(preparations.get(), 3);
+  }
+
+  @Test
+  public void shouldConsiderImageInUseWhileItIsPreparedOrReused() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    CountDownLatch preparing = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+
+    CompletableFuture<Void> preparation =
+        runAsync(
+            () ->
+                cache.prepare(
+                    "image",
+                    false,
+                    ProgressMonitor.DEV_NULL,
+                    m -> {
+                      preparing.countDown();
+                      await(finish);
+                    }));
+    preparing.await();
+    assertTrue(cache.isInUse("image"));
+    finish.countDown();
+    preparation.get(5, TimeUnit.SECONDS);
+    assertFalse(cache.isInUse("image"));
+
+    cache.prepare(
+        ImagePreparationCache.key("image", credentials("user", "password")),
+        true,
+        ProgressMonitor.DEV_NULL,
+        m -> {});
+    assertTrue(cache.isInUse("image"));
+    assertFalse(cache.isInUse("imag"));
+    assertFalse(cache.isInUse("image2"));
+  }
+
+  private static AuthConfigs credentials(String username, String password) {
+    AuthConfig config = mock(AuthConfig.class);
+    when(config.getUsername()).thenReturn(username);
+    when(config.getPassword()).thenReturn(password);
+    AuthConfigs configs = mock(AuthConfigs.class);
+    when(configs.getConfigs()).thenReturn(ImmutableMap.of("registry.com", config));
+    return configs;
+  }
+
+  private static Throwable getFailure(CompletableFuture<Void> future) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail("Preparation must fail");
+      return null;
+    } catch (ExecutionException x) {
+      return x.getCause();
+    }
+  }
+
+  private static void await(CountDownLatch latch) throws IOException {
+    try {
+      latch.await();
+    } catch (InterruptedException x) {
+      Thread.currentThread().interrupt();
+      throw new IOException(x);
+    }
+  }
+
+  private static CompletableFuture<Void> runAsync(Action action) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                action.run();
+                future.complete(null);
+              } catch (Exception x) {
+                future.completeExceptionally(x);
+              }
+            });
+    thread.setDaemon(true);
+    thread.start();
+    return future;
+  }
+
+  private interface Action {
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.che.api.workspace.server.spi.InternalInfrastructureException;
+import org.eclipse.che.workspace.infrastructure.docker.model.DockerContainerConfig;
+import org.testng.annotations.Test;
+
+/** Tests {@link MachineStartLevels}. */
+public class MachineStartLevelsTest {
+
+  @Test
+  public void putsIndependentContainersToTheSameLevel() throws Exception {
+    Map<String, DockerContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("b", new DockerContainerConfig());
+    containers.put("a", new DockerContainerConfig());
+    containers.put("c", new DockerContainerConfig());
+
+    List<List<String>> levels = MachineStartLevels.of(containers);
+
+    assertEquals(levels, singletonList(asList("b", "a", "c")));
+  }
+
+  @Test
+  public void evaluatesLevelsFromAllKindsOfDependencies() throws Exception {
+    Map<String, DockerContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("app", new DockerContainerConfig().setLinks(asList("db:database", "cache")));
+    containers.put("data", new DockerContainerConfig().setVolumesFrom(asList("storage:ro")));
+    containers.put("db", new DockerContainerConfig().setDependsOn(singletonList("data")));
+    containers.put("cache", new DockerContainerConfig());
+    containers.put("storage", new DockerContainerConfig());
+
+    List<List<String>> levels = MachineStartLevels.of(containers);
+
+    assertEquals(
+        levels,
+        asList(
+            asList("cache", "storage"),
+            singletonList("data"),
+            singletonList("db"),
+            singletonList("app")));
+  }
+
+  @Test
+  public void ignoresDependenciesOnContainersOutsideOfEnvironment() throws Exception {
+    Map<String, DockerContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("app", new DockerContainerConfig().setLinks(singletonList("external")));
+    containers.put("db", new DockerContainerConfig());
+
+    List<List<String>> levels = MachineStartLevels.of(containers);
+
+    assertEquals(levels, singletonList(asList("app", "db")));
+  }
+
+  @Test(
+    expectedExceptions = InternalInfrastructureException.class,
+    expectedExceptionsMessageRegExp =
+        "Start order of machine '.*' can't be evaluated. Circular dependency."
+  )
+  public void throwsExceptionWhenDependenciesAreCircular() throws Exception {
+    Map<String, DockerContainerConfig> containers = new LinkedHashMap<>();
+    containers.put("first", new DockerContainerConfig().setDependsOn(singletonList("third")));
+    containers.put("second", new DockerContainerConfig().setDependsOn(singletonList("first")));
+    containers.put("third", new DockerContainerConfig().setLinks(singletonList("second")));
+
+    MachineStartLevels.of(containers);
+  }
+}
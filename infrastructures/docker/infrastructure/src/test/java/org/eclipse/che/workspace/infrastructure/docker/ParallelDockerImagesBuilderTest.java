@@ -10,14 +10,19 @@
  */
 package org.eclipse.che.workspace.infrastructure.docker;
 
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertTrue;
 
+import com.google.common.collect.ImmutableMap;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -25,8 +30,16 @@ import java.util.Map;
 import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
 import org.eclipse.che.infrastructure.docker.client.UserSpecificDockerRegistryCredentialsProvider;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfig;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfigs;
+import org.eclipse.che.infrastructure.docker.client.exception.ImageNotFoundException;
+import org.eclipse.che.infrastructure.docker.client.json.Image;
 import org.eclipse.che.infrastructure.docker.client.params.BuildImageParams;
+import org.eclipse.che.infrastructure.docker.client.params.ListImagesParams;
+import org.eclipse.che.infrastructure.docker.client.params.TagParams;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifierParser;
 import org.eclipse.che.workspace.infrastructure.docker.logs.MachineLoggersFactory;
 import org.eclipse.che.workspace.infrastructure.docker.model.DockerBuildContext;
 import org.eclipse.che.workspace.infrastructure.docker.model.DockerContainerConfig;
@@ -45,6 +58,7 @@ public class ParallelDockerImagesBuilderTest {
   @Mock private UserSpecificDockerRegistryCredentialsProvider dockerCredentials;
   @Mock private DockerConnector dockerConnector;
   @Mock private MachineLoggersFactory machineLoggersFactory;
+  @Mock private WarmImagesPool warmImagesPool;
 
   private ParallelDockerImagesBuilder dockerImagesBuilder;
 
@@ -52,7 +66,14 @@ public class ParallelDockerImagesBuilderTest {
   public void setUp() throws Exception {
     dockerImagesBuilder =
         new ParallelDockerImagesBuilder(
-            identity, false, 10, dockerCredentials, dockerConnector, machineLoggersFactory);
+            identity,
+            false,
+            10,
+            dockerCredentials,
+            dockerConnector,
+            machineLoggersFactory,
+            new ImagePreparationCache(60),
+            warmImagesPool);
   }
 
   @Test(
@@ -94,6 +115,8 @@ public class ParallelDockerImagesBuilderTest {
 
     verify(dockerConnector, times(input.size())).pull(any(), any());
     verify(dockerConnector, times(input.size())).tag(any());
+    verify(warmImagesPool).recordStart("ubuntu/jdk8", null);
+    verify(warmImagesPool).recordStart("ubuntu/jdk9", null);
     assertEquals(result.size(), input.size());
     assertTrue(result.keySet().containsAll(input.keySet()));
     assertTrue(result.values().contains("eclipse-che/" + config1.getContainerName()));
@@ -137,4 +160,179 @@ public class ParallelDockerImagesBuilderTest {
     assertTrue(list.stream().map(BuildImageParams::getBuildArgs).anyMatch(m -> m.equals(args1)));
     assertTrue(list.stream().map(BuildImageParams::getBuildArgs).anyMatch(m -> m.equals(args2)));
   }
+
+  @Test
+  void shouldBuildTheSameRecipeOnce() throws Throwable {
+    DockerBuildContext context =
+        new DockerBuildContext()
+            .setDockerfileContent("FROM ubuntu/jdk8")
+            .setArgs(singletonMap("key", "value"));
+    DockerContainerConfig config1 =
+        new DockerContainerConfig()
+            .setContainerName("container1")
+            .setBuild(context)
+            .setMemLimit(1_024_000_000L);
+    DockerContainerConfig config2 =
+        new DockerContainerConfig()
+            .setContainerName("container2")
+            .setBuild(context)
+            .setMemLimit(1_024_000_000L);
+    Map<String, DockerContainerConfig> input = new HashMap<>();
+    input.put("machine1", config1);
+    input.put("machine2", config2);
+    when(dockerConnector.listImages(any())).thenReturn(Collections.emptyList());
+    when(machineLoggersFactory.newProgressMonitor(any(), any()))
+        .thenReturn(ProgressMonitor.DEV_NULL);
+
+    dockerImagesBuilder.prepareImages(input);
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config1));
+
+    verify(dockerConnector).buildImage(any(), any());
+    ArgumentCaptor<TagParams> captor = ArgumentCaptor.forClass(TagParams.class);
+    verify(dockerConnector, times(3)).tag(captor.capture());
+    assertTrue(
+        captor
+            .getAllValues()
+            .stream()
+            .anyMatch(t -> t.getRepository().equals("eclipse-che/container1")));
+    assertTrue(
+        captor
+            .getAllValues()
+            .stream()
+            .anyMatch(t -> t.getRepository().equals("eclipse-che/container2")));
+  }
+
+  @Test
+  void shouldNotPullRecentlyPulledImageAgain() throws Throwable {
+    dockerImagesBuilder =
+        new ParallelDockerImagesBuilder(
+            identity,
+            true,
+            10,
+            dockerCredentials,
+            dockerConnector,
+            machineLoggersFactory,
+            new ImagePreparationCache(60),
+            warmImagesPool);
+    DockerContainerConfig config =
+        new DockerContainerConfig().setContainerName("container1").setImage("ubuntu/jdk8");
+    when(dockerConnector.listImages(any())).thenReturn(Collections.emptyList());
+
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+
+    verify(dockerConnector).pull(any(), any());
+    verify(dockerConnector, times(2)).tag(any());
+  }
+
+  @Test
+  void shouldNotPullLocalImageReferencedByDigestEvenIfPullIsForced() throws Throwable {
+    dockerImagesBuilder =
+        new ParallelDockerImagesBuilder(
+            identity,
+            true,
+            10,
+            dockerCredentials,
+            dockerConnector,
+            machineLoggersFactory,
+            new ImagePreparationCache(0),
+            warmImagesPool);
+    DockerContainerConfig config =
+        new DockerContainerConfig()
+            .setContainerName("container1")
+            .setImage(
+                "ubuntu@sha256:45b23dee08af5e43a7fea6c4cf9c25ccf269ee113168c19722f87876677c5cb2");
+    when(dockerConnector.listImages(any())).thenReturn(singletonList(new Image()));
+
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+
+    verify(dockerConnector, never()).pull(any(), any());
+    verify(dockerConnector).tag(any());
+  }
+
+  @Test
+  void shouldPullRecentlyPulledImageAgainWithOtherCredentials() throws Throwable {
+    dockerImagesBuilder =
+        new ParallelDockerImagesBuilder(
+            identity,
+            true,
+            10,
+            dockerCredentials,
+            dockerConnector,
+            machineLoggersFactory,
+            new ImagePreparationCache(60),
+            warmImagesPool);
+    DockerContainerConfig config =
+        new DockerContainerConfig().setContainerName("container1").setImage("ubuntu/jdk8");
+    when(dockerConnector.listImages(any())).thenReturn(Collections.emptyList());
+    AuthConfigs user1 = credentials("user1");
+    AuthConfigs user2 = credentials("user2");
+    when(dockerCredentials.getCredentials()).thenReturn(user1, user2, user1);
+
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+
+    verify(dockerConnector, times(2)).pull(any(), any());
+    verify(dockerConnector, times(3)).tag(any());
+  }
+
+  @Test
+  void shouldCheckLocalExistenceOfPulledImageByItsFullReference() throws Throwable {
+    DockerContainerConfig config =
+        new DockerContainerConfig()
+            .setContainerName("container1")
+            .setImage("registry.com:5000/ubuntu/jdk8");
+    when(dockerConnector.listImages(any())).thenReturn(Collections.emptyList());
+
+    dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+
+    ArgumentCaptor<ListImagesParams> captor = ArgumentCaptor.forClass(ListImagesParams.class);
+    verify(dockerConnector).listImages(captor.capture());
+    assertEquals(
+        captor.getValue().getFilters().getFilter("reference"),
+        singletonList("registry.com:5000/ubuntu/jdk8:latest"));
+  }
+
+  @Test
+  void shouldCreateFullReferenceOfImage() throws Throwable {
+    assertEquals(
+        ParallelDockerImagesBuilder.getReference(DockerImageIdentifierParser.parse("ubuntu")),
+        "ubuntu:latest");
+    assertEquals(
+        ParallelDockerImagesBuilder.getReference(
+            DockerImageIdentifierParser.parse("localhost:5000/eclipse/ubuntu:jdk8")),
+        "localhost:5000/eclipse/ubuntu:jdk8");
+    assertEquals(
+        ParallelDockerImagesBuilder.getReference(
+            DockerImageIdentifierParser.parse("ubuntu:jdk8@sha256:45b23dee08af5e43")),
+        "ubuntu@sha256:45b23dee08af5e43");
+  }
+
+  @Test
+  void shouldBuildRecipeImageAgainIfItIsRemovedBeforeItIsTagged() throws Throwable {
+    DockerContainerConfig config =
+        new DockerContainerConfig()
+            .setContainerName("container1")
+            .setBuild(new DockerBuildContext().setDockerfileContent("FROM ubuntu/jdk8"))
+            .setMemLimit(1_024_000_000L);
+    when(dockerConnector.listImages(any())).thenReturn(Collections.emptyList());
+    doThrow(new ImageNotFoundException("not found")).doNothing().when(dockerConnector).tag(any());
+
+    Map<String, String> result =
+        dockerImagesBuilder.prepareImages(singletonMap("machine1", config));
+
+    verify(dockerConnector, times(2)).buildImage(any(), any());
+    verify(dockerConnector, times(2)).tag(any());
+    assertEquals(result.get("machine1"), "eclipse-che/container1");
+  }
+
+  private static AuthConfigs credentials(String username) {
+    AuthConfig config = mock(AuthConfig.class);
+    when(config.getUsername()).thenReturn(username);
+    when(config.getPassword()).thenReturn("password");
+    AuthConfigs configs = mock(AuthConfigs.class);
+    when(configs.getConfigs()).thenReturn(ImmutableMap.of("registry.com", config));
+    return configs;
+  }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
+import org.eclipse.che.infrastructure.docker.client.dto.AuthConfigs;
+import org.eclipse.che.infrastructure.docker.client.json.Image;
+import org.eclipse.che.infrastructure.docker.client.params.ListImagesParams;
+import org.eclipse.che.infrastructure.docker.client.params.PullParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link WarmImagesPool}. */
+@Listeners(MockitoTestNGListener.class)
+public class WarmImagesPoolTest {
+
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+  @Mock private DockerConnector dockerConnector;
+
+  @Test
+  public void poolContainsConfiguredImages() {
+    WarmImagesPool pool = createPool(" eclipse/ubuntu_jdk8, eclipse/node ,", 0, 1);
+
+    pool.recordStart("eclipse/php", null, 0);
+
+    assertEquals(pool.getImages(0), asList("eclipse/ubuntu_jdk8", "eclipse/node"));
+  }
+
+  @Test
+  public void addsImagesToPoolByStartRate() {
+    WarmImagesPool pool = createPool(null, 2, 3);
+
+    recordStarts(pool, "eclipse/php", 3, 0);
+    recordStarts(pool, "eclipse/node", 10, 0);
+    recordStarts(pool, "eclipse/ruby", 5, 0);
+    recordStarts(pool, "eclipse/cpp", 2, 0);
+
+    assertEquals(pool.getImages(0), asList("eclipse/node", "eclipse/ruby"));
+  }
+
+  @Test
+  public void removesImagesFromPoolWhenTheirStartRateDecays() {
+    WarmImagesPool pool = createPool(null, 5, 3);
+
+    recordStarts(pool, "eclipse/node", 5, 0);
+    recordStarts(pool, "eclipse/php", 5, 2 * HOUR);
+
+    assertEquals(pool.getImages(2 * HOUR), asList("eclipse/php"));
+    assertEquals(pool.getImages(10 * HOUR), emptyList());
+  }
+
+  @Test
+  public void pullsImagesOfPoolAndRemembersThemInPreparationCache() throws Exception {
+    ImagePreparationCache cache = new ImagePreparationCache(60);
+    WarmImagesPool pool = createPool("eclipse/node:8,registry.host:5000/eclipse/php", 0, 1, cache);
+
+    pool.run();
+    cache.prepare(
+        "eclipse/node:8",
+        true,
+        ProgressMonitor.DEV_NULL,
+        monitor -> {
+          throw new IOException("Image must not be prepared again");
+        });
+
+    ArgumentCaptor<PullParams> captor = ArgumentCaptor.forClass(PullParams.class);
+    verify(dockerConnector, times(2)).pull(captor.capture(), any());
+    PullParams node = captor.getAllValues().get(0);
+    assertEquals(node.getImage(), "eclipse/node");
+    assertEquals(node.getTag(), "8");
+    PullParams php = captor.getAllValues().get(1);
+    assertEquals(php.getImage(), "eclipse/php");
+    assertEquals(php.getTag(), "latest");
+    assertEquals(php.getRegistry(), "registry.host:5000");
+    assertEquals(cache.getHitsCount(), 1);
+  }
+
+  @Test
+  public void continuesPullingWhenPullOfImageFails() throws Exception {
+    WarmImagesPool pool = createPool("eclipse/node,eclipse/php", 0, 1);
+    doThrow(new IOException("pull failed")).doNothing().when(dockerConnector).pull(any(), any());
+
+    pool.run();
+
+    verify(dockerConnector, times(2)).pull(any(), any());
+  }
+
+  @Test
+  public void doesNotPullLocalImageReferencedByDigest() throws Exception {
+    WarmImagesPool pool =
+        new WarmImagesPool(
+            "ubuntu@sha256:45b23dee08af5e43a7fea6c4cf9c25ccf269ee113168c19722f87876677c5cb2",
+            0,
+            1,
+            true,
+            dockerConnector,
+            new ImagePreparationCache(0));
+    when(dockerConnector.listImages(any())).thenReturn(asList(new Image()));
+
+    pool.run();
+
+    verify(dockerConnector, never()).pull(any(), any());
+  }
+
+  @Test
+  public void doesNotPullLocalImageIfPullIsNotForced() throws Exception {
+    WarmImagesPool pool = createPool("eclipse/node:8", 0, 1);
+    when(dockerConnector.listImages(any())).thenReturn(asList(new Image()));
+
+    pool.run();
+
+    ArgumentCaptor<ListImagesParams> captor = ArgumentCaptor.forClass(ListImagesParams.class);
+    verify(dockerConnector).listImages(captor.capture());
+    assertEquals(
+        captor.getValue().getFilters().getFilters().get("reference"), asList("eclipse/node:8"));
+    verify(dockerConnector, never()).pull(any(), any());
+  }
+
+  @Test
+  public void pullsLocalImageIfPullIsForced() throws Exception {
+    WarmImagesPool pool =
+        new WarmImagesPool(
+            "eclipse/node:8", 0, 1, true, dockerConnector, new ImagePreparationCache(0));
+    when(dockerConnector.listImages(any())).thenReturn(asList(new Image()));
+
+    pool.run();
+
+    verify(dockerConnector).pull(any(), any());
+  }
+
+  @Test
+  public void pullsImageWithCredentialsOfLastStart() throws Exception {
+    WarmImagesPool pool = createPool(null, 1, 1);
+    AuthConfigs credentials = mock(AuthConfigs.class);
+    pool.recordStart("registry.host:5000/eclipse/php", null);
+    pool.recordStart("registry.host:5000/eclipse/php", credentials);
+
+    pool.run();
+
+    ArgumentCaptor<PullParams> captor = ArgumentCaptor.forClass(PullParams.class);
+    verify(dockerConnector).pull(captor.capture(), any());
+    assertEquals(captor.getValue().getAuthConfigs(), credentials);
+  }
+
+  private WarmImagesPool createPool(String images, int maxSize, int minStartsPerHour) {
+    return createPool(images, maxSize, minStartsPerHour, new ImagePreparationCache(0));
+  }
+
+  private WarmImagesPool createPool(
+      String images, int maxSize, int minStartsPerHour, ImagePreparationCache cache) {
+    return new WarmImagesPool(images, maxSize, minStartsPerHour, false, dockerConnector, cache);
+  }
+
+  private static void recordStarts(WarmImagesPool pool, String image, int count, long time) {
+    for (int i = 0; i < count; i++) {
+      pool.recordStart(image, null, time);
+    }
+  }
+}
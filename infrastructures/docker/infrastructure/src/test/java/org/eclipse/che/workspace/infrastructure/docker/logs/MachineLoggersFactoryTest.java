@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker.logs;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.workspace.server.model.impl.RuntimeIdentityImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.MachineLogEvent;
+import org.eclipse.che.infrastructure.docker.client.BatchMessageProcessor;
+import org.eclipse.che.infrastructure.docker.client.LogMessage;
+import org.eclipse.che.infrastructure.docker.client.MessageProcessor;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link MachineLoggersFactory}. */
+@Listeners(MockitoTestNGListener.class)
+public class MachineLoggersFactoryTest {
+
+  private static final RuntimeIdentityImpl RUNTIME_ID =
+      new RuntimeIdentityImpl("workspace123", "env", "owner");
+
+  @Mock private EventService eventService;
+  @Captor private ArgumentCaptor<MachineLogEvent> eventCaptor;
+
+  @Test
+  public void shouldPublishEachLineAsMachineLogEvent() {
+    MessageProcessor<LogMessage> processor =
+        new MachineLoggersFactory(eventService, 0).newLogsProcessor("machine", RUNTIME_ID);
+
+    processor.process(new LogMessage(LogMessage.Type.STDOUT, "line 1"));
+    processor.process(new LogMessage(LogMessage.Type.DOCKER, "line 2"));
+
+    verify(eventService, atLeastOnce()).publishAsync(eventCaptor.capture());
+    List<MachineLogEvent> events = eventCaptor.getAllValues();
+    assertEquals(events.size(), 2);
+    assertEquals(events.get(0).getStream(), "STDOUT");
+    assertEquals(events.get(0).getText(), "line 1");
+    assertEquals(events.get(0).getMachineName(), "machine");
+    assertEquals(events.get(1).getStream(), null);
+    assertEquals(events.get(1).getText(), "[DOCKER] line 2");
+  }
+
+  @Test
+  public void shouldSkipLinesOverRateLimitAndReportNumberOfSkippedLines() {
+    BatchMessageProcessor<LogMessage> processor =
+        (BatchMessageProcessor<LogMessage>)
+            new MachineLoggersFactory(eventService, 2).newLogsProcessor("machine", RUNTIME_ID);
+
+    processor.process(
+        asList(
+            new LogMessage(LogMessage.Type.STDOUT, "line 1"),
+            new LogMessage(LogMessage.Type.STDOUT, "line 2"),
+            new LogMessage(LogMessage.Type.STDOUT, "line 3"),
+            new LogMessage(LogMessage.Type.STDOUT, "line 4")));
+    processor.flush();
+
+    verify(eventService, atLeastOnce()).publishAsync(eventCaptor.capture());
+    assertEquals(
+        eventCaptor.getAllValues().stream().map(MachineLogEvent::getText).collect(toList()),
+        asList(
+            "line 1",
+            "line 2",
+            "[DOCKER] 2 log lines were skipped, the limit is 2 lines per second"));
+  }
+}
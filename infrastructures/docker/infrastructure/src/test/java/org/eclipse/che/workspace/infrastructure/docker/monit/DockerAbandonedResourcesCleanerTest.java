@@ -23,27 +23,37 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
 import org.eclipse.che.api.workspace.server.model.impl.MachineImpl;
-import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.spi.InternalRuntime;
+import org.eclipse.che.api.workspace.server.spi.RuntimeContext;
 import org.eclipse.che.infrastructure.docker.client.DockerConnector;
 import org.eclipse.che.infrastructure.docker.client.json.ContainerListEntry;
+import org.eclipse.che.infrastructure.docker.client.json.Image;
 import org.eclipse.che.infrastructure.docker.client.json.network.ContainerInNetwork;
 import org.eclipse.che.infrastructure.docker.client.json.network.Network;
+import org.eclipse.che.infrastructure.docker.client.json.volume.Volume;
+import org.eclipse.che.infrastructure.docker.client.json.volume.Volumes;
 import org.eclipse.che.infrastructure.docker.client.params.RemoveContainerParams;
+import org.eclipse.che.infrastructure.docker.client.params.RemoveImageParams;
+import org.eclipse.che.workspace.infrastructure.docker.ImagePreparationCache;
 import org.eclipse.che.workspace.infrastructure.docker.Labels;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
@@ -83,6 +93,7 @@ public class DockerAbandonedResourcesCleanerTest {
   @Mock private WorkspaceManager workspaceManager;
   @Mock private DockerConnector dockerConnector;
   @Mock private WorkspaceRuntimes workspaceRuntimes;
+  @Mock private ImagePreparationCache preparationCache;
 
   @Mock private WorkspaceImpl workspaceImpl1;
 
@@ -90,7 +101,8 @@ public class DockerAbandonedResourcesCleanerTest {
 
   @Mock private MachineImpl machineImpl;
 
-  @Mock private RuntimeImpl runtimeImpl;
+  @Mock private RuntimeContext runtimeContext;
+  @Mock private InternalRuntime internalRuntime;
   @Mock private ContainerListEntry container1;
   @Mock private ContainerListEntry container2;
   @Mock private ContainerListEntry container3;
@@ -102,6 +114,7 @@ public class DockerAbandonedResourcesCleanerTest {
   @Mock private ContainerInNetwork containerInNetwork1;
 
   private List<Network> networks;
+  private List<Volume> volumes;
   private Map<String, ContainerInNetwork> usedNetworkContainers;
   private Map<String, ContainerInNetwork> additionalNetworkContainers = new HashMap<>();
 
@@ -110,12 +123,13 @@ public class DockerAbandonedResourcesCleanerTest {
   @BeforeMethod
   public void setUp() throws Exception {
     networks = new ArrayList<>();
+    volumes = new ArrayList<>();
     usedNetworkContainers = new HashMap<>();
 
     cleaner =
         spy(
             new DockerAbandonedResourcesCleaner(
-                workspaceManager, dockerConnector, workspaceRuntimes));
+                workspaceManager, dockerConnector, workspaceRuntimes, preparationCache, 2));
 
     doAnswer(
             invocation -> {
@@ -132,12 +146,13 @@ public class DockerAbandonedResourcesCleanerTest {
         .when(workspaceManager)
         .getWorkspace(anyString());
 
-    when(workspaceImpl1.getRuntime()).thenReturn(runtimeImpl);
-    doReturn(ImmutableMap.of(machineName1, machineImpl)).when(runtimeImpl).getMachines();
+    when(workspaceRuntimes.getRuntimesIds()).thenReturn(ImmutableSet.of(workspaceId1));
+    when(workspaceRuntimes.getRuntimeContext(workspaceId1)).thenReturn(Optional.of(runtimeContext));
+    when(runtimeContext.getRuntime()).thenReturn(internalRuntime);
+    doReturn(ImmutableMap.of(machineName1, machineImpl)).when(internalRuntime).getMachines();
 
-    when(workspaceManager.getWorkspace(workspaceId2)).thenReturn(workspaceImpl2);
-
-    when(dockerConnector.listContainers()).thenReturn(asList(container1, container2, container3));
+    when(dockerConnector.listContainers(any()))
+        .thenReturn(asList(container1, container2, container3));
 
     when(container1.getNames()).thenReturn(new String[] {containerName1});
     when(container1.getLabels())
@@ -164,6 +179,7 @@ public class DockerAbandonedResourcesCleanerTest {
     when(container3.getId()).thenReturn(containerId3);
 
     when(dockerConnector.getNetworks(any())).thenReturn(networks);
+    when(dockerConnector.getVolumes(any())).thenReturn(new Volumes().withVolumes(volumes));
 
     when(abandonedNetwork.getId()).thenReturn(abandonedNetworkId);
     when(usedNetwork.getId()).thenReturn(usedNetworkId);
@@ -178,6 +194,11 @@ public class DockerAbandonedResourcesCleanerTest {
     when(additionalNetwork.getContainers()).thenReturn(additionalNetworkContainers);
   }
 
+  @AfterMethod
+  public void tearDown() throws Exception {
+    cleaner.terminate();
+  }
+
   @Test
   public void cleanerShouldRunCleanOfContainerAndThenCleanOfNetworks() {
     // when
@@ -186,12 +207,13 @@ public class DockerAbandonedResourcesCleanerTest {
     // then
     verify(cleaner).cleanContainers();
     verify(cleaner).cleanNetworks();
+    verify(cleaner).cleanVolumes();
   }
 
   @Test
   public void cleanerShouldRunCleanNetworksEvenIfCleanOfContainersFailed() throws IOException {
     // given
-    when(dockerConnector.listContainers())
+    when(dockerConnector.listContainers(any()))
         .thenThrow(new IOException("Error while fetching docker containers list"));
 
     // when
@@ -207,9 +229,11 @@ public class DockerAbandonedResourcesCleanerTest {
           throws Exception {
     cleaner.cleanContainers();
 
-    verify(dockerConnector).listContainers();
+    verify(dockerConnector).listContainers(any());
 
-    verify(workspaceManager, times(3)).getWorkspace(anyString());
+    verify(workspaceRuntimes).getRuntimesIds();
+    verify(workspaceRuntimes).getRuntimeContext(workspaceId1);
+    verify(workspaceManager, never()).getWorkspace(anyString());
 
     verify(dockerConnector, times(2)).killContainer(anyString());
     verify(dockerConnector, times(2)).removeContainer(any());
@@ -218,6 +242,20 @@ public class DockerAbandonedResourcesCleanerTest {
     verify(dockerConnector, never())
         .removeContainer(
             RemoveContainerParams.create(containerId1).withForce(true).withRemoveVolumes(true));
+    assertEquals(cleaner.getLastRemovedContainers(), 2);
+  }
+
+  @Test
+  public void shouldNotRemoveContainerIfMachinesOfItsWorkspaceCanNotBeInspected() throws Exception {
+    when(workspaceRuntimes.getRuntimesIds())
+        .thenReturn(ImmutableSet.of(workspaceId1, workspaceId2));
+    when(workspaceRuntimes.getRuntimeContext(workspaceId2))
+        .thenThrow(new IllegalStateException("runtime is broken"));
+
+    cleaner.cleanContainers();
+
+    verify(dockerConnector, never()).killContainer(anyString());
+    verify(dockerConnector, never()).removeContainer(any());
   }
 
   @Test
@@ -274,7 +312,7 @@ public class DockerAbandonedResourcesCleanerTest {
   public void shouldNotRemoveNetworkWhichIsInWorkspaceRuntime() throws IOException {
     // given
     final String usedNetworkWorkspace = usedNetworkName.substring(0, 25);
-    when(workspaceRuntimes.hasRuntime(usedNetworkWorkspace)).thenReturn(true);
+    when(workspaceRuntimes.getRuntimesIds()).thenReturn(ImmutableSet.of(usedNetworkWorkspace));
 
     networks.add(usedNetwork);
 
@@ -350,4 +388,65 @@ public class DockerAbandonedResourcesCleanerTest {
     verify(dockerConnector).removeNetwork(abandonedNetworkId);
     verify(dockerConnector).removeNetwork(abandonedNetworkId);
   }
+
+  @Test
+  public void shouldRemoveDanglingVolumesOfRemovedWorkspaces() throws Exception {
+    // given
+    volumes.add(new Volume().withName("workspace1234567890abcdef_projects"));
+    volumes.add(new Volume().withName("workspace1234567890abcdef_data"));
+    volumes.add(new Volume().withName("workspace0987654321zyxwvu_projects"));
+    volumes.add(new Volume().withName("userVolume"));
+    doReturn(workspaceImpl2).when(workspaceManager).getWorkspace("workspace0987654321zyxwvu");
+
+    // when
+    cleaner.cleanVolumes();
+    cleaner.cleanVolumes();
+
+    // then
+    verify(dockerConnector, times(2)).removeVolume("workspace1234567890abcdef_projects");
+    verify(dockerConnector, times(2)).removeVolume("workspace1234567890abcdef_data");
+    verify(dockerConnector, never()).removeVolume("workspace0987654321zyxwvu_projects");
+    verify(dockerConnector, never()).removeVolume("userVolume");
+    // each workspace is looked up once per cleanup
+    verify(workspaceManager, times(2)).getWorkspace("workspace0987654321zyxwvu");
+    verify(workspaceManager, times(2)).getWorkspace("workspace1234567890abcdef");
+    assertEquals(cleaner.getLastRemovedVolumes(), 2);
+  }
+
+  @Test
+  public void shouldNotRemoveVolumesOfRunningWorkspaces() throws Exception {
+    // given
+    volumes.add(new Volume().withName("workspace1234567890abcdef_projects"));
+    when(workspaceRuntimes.getRuntimesIds())
+        .thenReturn(ImmutableSet.of("workspace1234567890abcdef"));
+
+    // when
+    cleaner.cleanVolumes();
+
+    // then
+    verify(dockerConnector, never()).removeVolume(anyString());
+    verify(workspaceManager, never()).getWorkspace(anyString());
+  }
+
+  @Test
+  public void shouldRemoveRecipeImagesWhichAreNotInUse() throws Exception {
+    // given
+    Image used = new Image();
+    used.setRepoTags(
+        new String[] {"eclipse-che/recipe-used:latest", "eclipse-che/machine1:latest"});
+    Image unused = new Image();
+    unused.setRepoTags(new String[] {"eclipse-che/recipe-unused:latest"});
+    Image untagged = new Image();
+    when(dockerConnector.listImages(any())).thenReturn(asList(used, unused, untagged));
+    when(preparationCache.isInUse("eclipse-che/recipe-used")).thenReturn(true);
+
+    // when
+    cleaner.cleanImages();
+
+    // then
+    verify(dockerConnector)
+        .removeImage(RemoveImageParams.create("eclipse-che/recipe-unused:latest").withForce(false));
+    verify(dockerConnector).removeImage(any(RemoveImageParams.class));
+    assertEquals(cleaner.getLastRemovedImages(), 1);
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker.monit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.json.Event;
+import org.eclipse.che.workspace.infrastructure.docker.DockerSharedPool;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link DockerMachineStopDetector}. */
+@Listeners(MockitoTestNGListener.class)
+public class DockerMachineStopDetectorTest {
+
+  private static final String CONTAINER_ID = "container123";
+
+  @Mock private DockerConnector dockerConnector;
+  @Mock private DockerSharedPool sharedPool;
+  @Mock private AbnormalMachineStopHandler handler;
+
+  private DockerMachineStopDetector detector;
+  private long now;
+
+  @BeforeMethod
+  public void setUp() {
+    detector = new DockerMachineStopDetector(dockerConnector, sharedPool);
+    now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 1;
+  }
+
+  @Test
+  public void shouldSkipEventsReceivedBeforeStreamWasResumed() {
+    Event die = event("die", now, 5);
+    Event oom = event("oom", now, 5);
+
+    assertTrue(detector.advanceCursor(oom));
+    assertTrue(detector.advanceCursor(die));
+    // stream is resumed from the second of the last event
+    assertFalse(detector.advanceCursor(event("oom", now, 5)));
+    assertFalse(detector.advanceCursor(event("die", now, 5)));
+    assertFalse(detector.advanceCursor(event("die", now, 1)));
+    assertTrue(detector.advanceCursor(event("die", now, 6)));
+  }
+
+  @Test
+  public void shouldNotSkipEventsIfDockerClockLagsBehindServerClock() {
+    assertTrue(detector.advanceCursor(event("die", now - 3600, 5)));
+  }
+
+  @Test
+  public void shouldUseSecondsIfEventHasNoNanoseconds() {
+    Event event = new Event().withId(CONTAINER_ID).withStatus("die").withTime(now + 1);
+
+    assertTrue(detector.advanceCursor(event));
+    assertFalse(detector.advanceCursor(event("die", now, 999_999)));
+  }
+
+  @Test
+  public void shouldCallHandlerOfDiedContainerOnSharedPool() {
+    detector.startDetection(CONTAINER_ID, "machine", handler);
+
+    detector.new EventsProcessor().process(event("die", now, 1));
+
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(sharedPool).execute(captor.capture());
+    verify(handler, never()).handle(anyString());
+    captor.getValue().run();
+    verify(handler).handle(any());
+  }
+
+  @Test
+  public void shouldNotCallHandlerTwiceForTheSameEvent() {
+    detector.startDetection(CONTAINER_ID, "machine", handler);
+
+    detector.new EventsProcessor().process(event("die", now, 1));
+    detector.new EventsProcessor().process(event("die", now, 1));
+
+    verify(sharedPool).execute(any());
+  }
+
+  private static Event event(String status, long second, long nanos) {
+    return new Event()
+        .withId(CONTAINER_ID)
+        .withStatus(status)
+        .withType("container")
+        .withTime(second)
+        .withTimeNano(TimeUnit.SECONDS.toNanos(second) + nanos);
+  }
+}
@@ -136,7 +136,7 @@ public class KubernetesBootstrapper extends AbstractBootstrapper {
     final RuntimeIdentityDto runtimeIdentityDto = DtoConverter.asDto(runtimeIdentity);
     final BiConsumer<String, String> outputConsumer =
         (stream, text) ->
-            eventService.publish(
+            eventService.publishAsync(
                 DtoFactory.newDto(MachineLogEvent.class)
                     .withRuntimeId(runtimeIdentityDto)
                     .withStream(stream)
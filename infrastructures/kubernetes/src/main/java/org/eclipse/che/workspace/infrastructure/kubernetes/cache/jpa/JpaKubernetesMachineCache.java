@@ -120,6 +120,24 @@ public class JpaKubernetesMachineCache implements KubernetesMachineCache {
     }
   }
 
+  /**
+   * Updates statuses of several machines and servers in a single transaction. Statuses of machines
+   * and servers that are not present in the cache anymore are ignored.
+   *
+   * @param machineStatuses new statuses of machines
+   * @param serverStatuses new statuses of servers
+   * @throws InfrastructureException when any error occurs
+   */
+  public void updateStatuses(
+      Map<MachineId, MachineStatus> machineStatuses, Map<ServerId, ServerStatus> serverStatuses)
+      throws InfrastructureException {
+    try {
+      doUpdateStatuses(machineStatuses, serverStatuses);
+    } catch (RuntimeException e) {
+      throw new InfrastructureException(e.getMessage(), e);
+    }
+  }
+
   @Override
   public void remove(RuntimeIdentity runtimeIdentity) throws InfrastructureException {
     try {
@@ -167,6 +185,29 @@ public class JpaKubernetesMachineCache implements KubernetesMachineCache {
     entityManager.flush();
   }
 
+  @Transactional
+  protected void doUpdateStatuses(
+      Map<MachineId, MachineStatus> machineStatuses, Map<ServerId, ServerStatus> serverStatuses) {
+    EntityManager entityManager = managerProvider.get();
+
+    machineStatuses.forEach(
+        (id, status) -> {
+          KubernetesMachineImpl machine = entityManager.find(KubernetesMachineImpl.class, id);
+          if (machine != null) {
+            machine.setStatus(status);
+          }
+        });
+    serverStatuses.forEach(
+        (id, status) -> {
+          KubernetesServerImpl server = entityManager.find(KubernetesServerImpl.class, id);
+          if (server != null) {
+            server.setStatus(status);
+          }
+        });
+
+    entityManager.flush();
+  }
+
   @Transactional(rollbackOn = {RuntimeException.class, InfrastructureException.class})
   protected boolean doUpdateServerStatus(
       RuntimeIdentity runtimeIdentity, String machineName, String serverName, ServerStatus status)
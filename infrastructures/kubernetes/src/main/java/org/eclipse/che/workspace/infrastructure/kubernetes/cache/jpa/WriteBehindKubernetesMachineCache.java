@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.cache.jpa;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.model.workspace.runtime.MachineStatus;
+import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
+import org.eclipse.che.api.core.model.workspace.runtime.ServerStatus;
+import org.eclipse.che.api.workspace.server.model.impl.ServerImpl;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.workspace.infrastructure.kubernetes.cache.KubernetesMachineCache;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesMachineImpl;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesMachineImpl.MachineId;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesServerImpl;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesServerImpl.ServerId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link KubernetesMachineCache} that keeps machines of running workspaces in memory and writes
+ * status updates to {@link JpaKubernetesMachineCache} in batches.
+ *
+ * <p>Machines are written to the database when they are put and loaded from it when a runtime is
+ * accessed for the first time, e.g. when it is recovered after restart. Status updates are applied
+ * in memory and queued, only the last status of a machine or a server is kept in the queue. Queued
+ * statuses are written in a single transaction, either periodically or, when durable status updates
+ * are enabled, as soon as possible while the updating thread waits for the write. In the last case
+ * updates that happen while a batch is written are written together with the next batch, so the
+ * number of transactions stays low even when many workspaces are started at the same time.
+ *
+ * <p>When durable status updates are disabled statuses that are updated during the last flush
+ * period may be lost if the server crashes, so the recovered runtime may see stale statuses.
+ */
+@Singleton
+public class WriteBehindKubernetesMachineCache implements KubernetesMachineCache {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(WriteBehindKubernetesMachineCache.class);
+
+  private final JpaKubernetesMachineCache machineCache;
+  private final boolean durableStatusUpdates;
+  private final ConcurrentMap<String, RuntimeMachines> runtimes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<MachineId, MachineStatus> pendingMachineStatuses =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<ServerId, ServerStatus> pendingServerStatuses =
+      new ConcurrentHashMap<>();
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private final ScheduledExecutorService flusher;
+
+  private volatile CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+
+  @Inject
+  public WriteBehindKubernetesMachineCache(
+      JpaKubernetesMachineCache machineCache,
+      @Named("che.infra.kubernetes.machine_cache.flush_period_ms") long flushPeriodMs,
+      @Named("che.infra.kubernetes.machine_cache.durable_status_updates")
+          boolean durableStatusUpdates) {
+    this.machineCache = machineCache;
+    this.durableStatusUpdates = durableStatusUpdates;
+    this.flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("KubernetesMachineCacheFlusher")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+    flusher.scheduleWithFixedDelay(
+        this::flush, flushPeriodMs, flushPeriodMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void put(RuntimeIdentity runtimeIdentity, KubernetesMachineImpl machine)
+      throws InfrastructureException {
+    RuntimeMachines runtime = getRuntime(runtimeIdentity);
+    synchronized (runtime) {
+      machineCache.put(runtimeIdentity, machine);
+      if (runtime.machines != null) {
+        runtime.machines.put(machine.getName(), copy(machine));
+      }
+    }
+  }
+
+  @Override
+  public Map<String, KubernetesMachineImpl> getMachines(RuntimeIdentity runtimeIdentity)
+      throws InfrastructureException {
+    RuntimeMachines runtime = getRuntime(runtimeIdentity);
+    synchronized (runtime) {
+      return runtime
+          .load(runtimeIdentity)
+          .values()
+          .stream()
+          .collect(toMap(KubernetesMachineImpl::getName, WriteBehindKubernetesMachineCache::copy));
+    }
+  }
+
+  @Override
+  public KubernetesServerImpl getServer(
+      RuntimeIdentity runtimeIdentity, String machineName, String serverName)
+      throws InfrastructureException {
+    RuntimeMachines runtime = getRuntime(runtimeIdentity);
+    synchronized (runtime) {
+      return copy(
+          runtimeIdentity.getWorkspaceId(),
+          machineName,
+          serverName,
+          runtime.getServer(runtimeIdentity, machineName, serverName));
+    }
+  }
+
+  @Override
+  public void updateMachineStatus(
+      RuntimeIdentity runtimeIdentity, String machineName, MachineStatus newStatus)
+      throws InfrastructureException {
+    RuntimeMachines runtime = getRuntime(runtimeIdentity);
+    synchronized (runtime) {
+      KubernetesMachineImpl machine = runtime.load(runtimeIdentity).get(machineName);
+      if (machine == null) {
+        throw new InfrastructureException(
+            format("Machine '%s:%s' was not found", runtimeIdentity.getWorkspaceId(), machineName));
+      }
+      machine.setStatus(newStatus);
+      pendingMachineStatuses.put(machine.getMachineId(), newStatus);
+    }
+    awaitPersisted();
+  }
+
+  @Override
+  public boolean updateServerStatus(
+      RuntimeIdentity runtimeIdentity,
+      String machineName,
+      String serverName,
+      ServerStatus newStatus)
+      throws InfrastructureException {
+    RuntimeMachines runtime = getRuntime(runtimeIdentity);
+    synchronized (runtime) {
+      KubernetesServerImpl server = runtime.getServer(runtimeIdentity, machineName, serverName);
+      if (server.getStatus() == newStatus) {
+        return false;
+      }
+      server.setStatus(newStatus);
+      pendingServerStatuses.put(
+          new ServerId(runtimeIdentity.getWorkspaceId(), machineName, serverName), newStatus);
+    }
+    awaitPersisted();
+    return true;
+  }
+
+  @Override
+  public void remove(RuntimeIdentity runtimeIdentity) throws InfrastructureException {
+    String workspaceId = runtimeIdentity.getWorkspaceId();
+    RuntimeMachines runtime = getRuntime(runtimeIdentity);
+    synchronized (runtime) {
+      pendingMachineStatuses.keySet().removeIf(id -> workspaceId.equals(id.getWorkspaceId()));
+      pendingServerStatuses.keySet().removeIf(id -> workspaceId.equals(id.getWorkspaceId()));
+      machineCache.remove(runtimeIdentity);
+      runtimes.remove(workspaceId, runtime);
+    }
+  }
+
+  /**
+   * Writes all the queued statuses in a single transaction. Statuses that can't be written are
+   * queued again unless they were updated in the meantime.
+   */
+  @VisibleForTesting
+  synchronized void flush() {
+    flushRequested.set(false);
+    CompletableFuture<Void> flushed = nextFlush;
+    nextFlush = new CompletableFuture<>();
+
+    Map<MachineId, MachineStatus> machineStatuses = drain(pendingMachineStatuses);
+    Map<ServerId, ServerStatus> serverStatuses = drain(pendingServerStatuses);
+    if (machineStatuses.isEmpty() && serverStatuses.isEmpty()) {
+      flushed.complete(null);
+      return;
+    }
+
+    try {
+      machineCache.updateStatuses(machineStatuses, serverStatuses);
+      flushed.complete(null);
+    } catch (InfrastructureException | RuntimeException e) {
+      LOG.error(
+          "Failed to write statuses of {} machines and {} servers, they will be written later. Cause: {}",
+          machineStatuses.size(),
+          serverStatuses.size(),
+          e.getMessage());
+      machineStatuses.forEach(pendingMachineStatuses::putIfAbsent);
+      serverStatuses.forEach(pendingServerStatuses::putIfAbsent);
+      flushed.completeExceptionally(e);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    flusher.shutdown();
+    if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+      LOG.warn("Unable to terminate kubernetes machine cache flusher in 30 seconds");
+    }
+    flush();
+  }
+
+  /** Waits until queued statuses are written if durable status updates are enabled. */
+  private void awaitPersisted() throws InfrastructureException {
+    if (!durableStatusUpdates) {
+      return;
+    }
+    // the flush that is not started yet is guaranteed to write the status queued by this thread
+    CompletableFuture<Void> flushed = nextFlush;
+    if (flushRequested.compareAndSet(false, true)) {
+      flusher.execute(this::flush);
+    }
+    try {
+      flushed.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InfrastructureException("Interrupted while waiting for status to be written");
+    } catch (ExecutionException e) {
+      throw new InfrastructureException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  private RuntimeMachines getRuntime(RuntimeIdentity runtimeIdentity) {
+    return runtimes.computeIfAbsent(runtimeIdentity.getWorkspaceId(), id -> new RuntimeMachines());
+  }
+
+  private static <K, V> Map<K, V> drain(ConcurrentMap<K, V> pending) {
+    Map<K, V> drained = new HashMap<>();
+    for (Iterator<K> it = pending.keySet().iterator(); it.hasNext(); ) {
+      K key = it.next();
+      V value = pending.remove(key);
+      if (value != null) {
+        drained.put(key, value);
+      }
+    }
+    return drained;
+  }
+
+  private static KubernetesMachineImpl copy(KubernetesMachineImpl machine) {
+    return new KubernetesMachineImpl(
+        machine.getWorkspaceId(),
+        machine.getName(),
+        machine.getPodName(),
+        machine.getContainerName(),
+        machine.getStatus(),
+        machine.getAttributes() == null ? null : new HashMap<>(machine.getAttributes()),
+        machine
+            .getServers()
+            .entrySet()
+            .stream()
+            .collect(toMap(Map.Entry::getKey, e -> new ServerImpl(e.getValue()))));
+  }
+
+  private static KubernetesServerImpl copy(
+      String workspaceId, String machineName, String serverName, KubernetesServerImpl server) {
+    return new KubernetesServerImpl(workspaceId, machineName, serverName, new ServerImpl(server));
+  }
+
+  /** Machines of a single runtime, all the access must be synchronized on the instance. */
+  private class RuntimeMachines {
+    private Map<String, KubernetesMachineImpl> machines;
+
+    private Map<String, KubernetesMachineImpl> load(RuntimeIdentity runtimeIdentity)
+        throws InfrastructureException {
+      if (machines == null) {
+        Map<String, KubernetesMachineImpl> loaded = new HashMap<>();
+        for (KubernetesMachineImpl machine : machineCache.getMachines(runtimeIdentity).values()) {
+          loaded.put(machine.getName(), copy(machine));
+        }
+        machines = loaded;
+      }
+      return machines;
+    }
+
+    private KubernetesServerImpl getServer(
+        RuntimeIdentity runtimeIdentity, String machineName, String serverName)
+        throws InfrastructureException {
+      KubernetesMachineImpl machine = load(runtimeIdentity).get(machineName);
+      KubernetesServerImpl server = machine == null ? null : machine.getServers().get(serverName);
+      if (server == null) {
+        throw new InfrastructureException(
+            format("Server with name '%s' was not found", serverName));
+      }
+      return server;
+    }
+  }
+}
@@ -139,6 +139,18 @@ public class KubernetesServerImpl implements Server {
       this.serverName = serverName;
     }
 
+    public String getWorkspaceId() {
+      return workspaceId;
+    }
+
+    public String getMachineName() {
+      return machineName;
+    }
+
+    public String getServerName() {
+      return serverName;
+    }
+
     @Override
     public boolean equals(Object obj) {
       if (this == obj) {
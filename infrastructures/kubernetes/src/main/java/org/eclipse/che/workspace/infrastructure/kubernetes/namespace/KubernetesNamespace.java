@@ -82,11 +82,14 @@ public class KubernetesNamespace {
   }
 
   public KubernetesNamespace(
-      KubernetesClientFactory clientFactory, String name, String workspaceId) {
+      KubernetesClientFactory clientFactory,
+      KubernetesSharedInformers informers,
+      String name,
+      String workspaceId) {
     this.clientFactory = clientFactory;
     this.workspaceId = workspaceId;
     this.name = name;
-    this.pods = new KubernetesPods(name, workspaceId, clientFactory);
+    this.pods = new KubernetesPods(name, workspaceId, clientFactory, informers);
     this.services = new KubernetesServices(name, workspaceId, clientFactory);
     this.pvcs = new KubernetesPersistentVolumeClaims(name, workspaceId, clientFactory);
     this.ingresses = new KubernetesIngresses(name, workspaceId, clientFactory);
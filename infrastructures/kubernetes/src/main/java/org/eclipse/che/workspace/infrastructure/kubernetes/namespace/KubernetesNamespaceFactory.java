@@ -14,6 +14,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.commons.annotation.Nullable;
@@ -29,6 +30,7 @@ public class KubernetesNamespaceFactory {
 
   private final String namespaceName;
   private final KubernetesClientFactory clientFactory;
+  private final KubernetesSharedInformers informers;
 
   @Inject
   public KubernetesNamespaceFactory(
@@ -36,6 +38,7 @@ public class KubernetesNamespaceFactory {
       KubernetesClientFactory clientFactory) {
     this.namespaceName = namespaceName;
     this.clientFactory = clientFactory;
+    this.informers = new KubernetesSharedInformers(clientFactory);
   }
 
   /**
@@ -60,7 +63,7 @@ public class KubernetesNamespaceFactory {
     final String namespaceName =
         isNullOrEmpty(this.namespaceName) ? workspaceId : this.namespaceName;
     KubernetesNamespace namespace =
-        new KubernetesNamespace(clientFactory, namespaceName, workspaceId);
+        new KubernetesNamespace(clientFactory, informers, namespaceName, workspaceId);
     namespace.prepare();
     return namespace;
   }
@@ -74,6 +77,16 @@ public class KubernetesNamespaceFactory {
    * @return created namespace
    */
   public KubernetesNamespace create(String workspaceId, String namespace) {
-    return new KubernetesNamespace(clientFactory, namespace, workspaceId);
+    return new KubernetesNamespace(clientFactory, informers, namespace, workspaceId);
+  }
+
+  /** Returns watches of namespaces shared by all the workspaces. */
+  protected KubernetesSharedInformers getInformers() {
+    return informers;
+  }
+
+  @PreDestroy
+  public void stopInformers() {
+    informers.stop();
   }
 }
@@ -16,12 +16,9 @@ import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_
 import static org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesObjectUtil.putLabel;
 
 import io.fabric8.kubernetes.api.model.DoneablePod;
-import io.fabric8.kubernetes.api.model.Event;
-import io.fabric8.kubernetes.api.model.ObjectReference;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClientException;
-import io.fabric8.kubernetes.client.Watch;
-import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
 import io.fabric8.kubernetes.client.dsl.ExecListener;
 import io.fabric8.kubernetes.client.dsl.ExecWatch;
 import io.fabric8.kubernetes.client.dsl.PodResource;
@@ -40,13 +37,12 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import okhttp3.Response;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
 import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesInfrastructureException;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesSharedInformers.Subscription;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.ContainerEvent;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.ContainerEventHandler;
 import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.PodActionHandler;
@@ -64,16 +60,9 @@ public class KubernetesPods {
 
   private static final Logger LOG = LoggerFactory.getLogger(KubernetesPods.class);
 
-  private static final String CONTAINER_NAME_GROUP = "name";
-  // when event is related to container `fieldPath` field contains
-  // information in the following format: `spec.container{web}`, where `web` is container name
-  private static final Pattern CONTAINER_FIELD_PATH_PATTERN =
-      Pattern.compile("spec.containers\\{(?<" + CONTAINER_NAME_GROUP + ">.*)}");
-
   // TODO https://github.com/eclipse/che/issues/7656
   public static final int POD_REMOVAL_TIMEOUT_MIN = 5;
 
-  private static final String POD_OBJECT_KIND = "Pod";
   // error stream data initial capacity
   public static final int ERROR_BUFF_INITIAL_CAP = 2048;
   public static final String STDOUT = "stdout";
@@ -84,13 +73,19 @@ public class KubernetesPods {
   private final ConcurrentLinkedQueue<PodActionHandler> podActionHandlers;
   private final ConcurrentLinkedQueue<ContainerEventHandler> containerEventsHandlers;
   private final String workspaceId;
-  private Watch podWatch;
-  private Watch containerWatch;
-
-  KubernetesPods(String namespace, String workspaceId, KubernetesClientFactory clientFactory) {
+  private final KubernetesSharedInformers informers;
+  private Subscription podWatch;
+  private Subscription containerWatch;
+
+  KubernetesPods(
+      String namespace,
+      String workspaceId,
+      KubernetesClientFactory clientFactory,
+      KubernetesSharedInformers informers) {
     this.namespace = namespace;
     this.workspaceId = workspaceId;
     this.clientFactory = clientFactory;
+    this.informers = informers;
     this.containerEventsHandlers = new ConcurrentLinkedQueue<>();
     this.podActionHandlers = new ConcurrentLinkedQueue<>();
   }
@@ -105,7 +100,11 @@ public class KubernetesPods {
   public Pod create(Pod pod) throws InfrastructureException {
     putLabel(pod, CHE_WORKSPACE_ID_LABEL, workspaceId);
     try {
-      return clientFactory.create(workspaceId).pods().inNamespace(namespace).create(pod);
+      final Pod created =
+          clientFactory.create(workspaceId).pods().inNamespace(namespace).create(pod);
+      // events of the pod containers may be received before the pod addition
+      informers.onPodCreated(namespace, created);
+      return created;
     } catch (KubernetesClientException e) {
       throw new KubernetesInfrastructureException(e);
     }
@@ -157,54 +156,22 @@ public class KubernetesPods {
    */
   public Pod wait(String name, int timeoutMin, Predicate<Pod> predicate)
       throws InfrastructureException {
-    CompletableFuture<Pod> future = new CompletableFuture<>();
-    Watch watch = null;
+    final CompletableFuture<Pod> future =
+        informers.waitPod(namespace, workspaceId, name, predicate);
     try {
-
-      PodResource<Pod, DoneablePod> podResource =
-          clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(name);
-
-      watch =
-          podResource.watch(
-              new Watcher<Pod>() {
-                @Override
-                public void eventReceived(Action action, Pod pod) {
-                  if (predicate.test(pod)) {
-                    future.complete(pod);
-                  }
-                }
-
-                @Override
-                public void onClose(KubernetesClientException cause) {
-                  future.completeExceptionally(
-                      new InfrastructureException(
-                          "Waiting for pod '" + name + "' was interrupted"));
-                }
-              });
-
-      Pod actualPod = podResource.get();
-      if (actualPod == null) {
-        throw new InfrastructureException("Specified pod " + name + " doesn't exist");
-      }
-      if (predicate.test(actualPod)) {
-        return actualPod;
+      return future.get(timeoutMin, TimeUnit.MINUTES);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof InfrastructureException) {
+        throw (InfrastructureException) e.getCause();
       }
-      try {
-        return future.get(timeoutMin, TimeUnit.MINUTES);
-      } catch (ExecutionException e) {
-        throw new InfrastructureException(e.getCause().getMessage(), e);
-      } catch (TimeoutException e) {
-        throw new InfrastructureException("Waiting for pod '" + name + "' reached timeout");
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        throw new InfrastructureException("Waiting for pod '" + name + "' was interrupted");
-      }
-    } catch (KubernetesClientException e) {
-      throw new KubernetesInfrastructureException(e);
+      throw new InfrastructureException(e.getCause().getMessage(), e);
+    } catch (TimeoutException e) {
+      throw new InfrastructureException("Waiting for pod '" + name + "' reached timeout");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InfrastructureException("Waiting for pod '" + name + "' was interrupted");
     } finally {
-      if (watch != null) {
-        watch.close();
-      }
+      future.cancel(true);
     }
   }
 
@@ -226,40 +193,11 @@ public class KubernetesPods {
    *     otherwise, it must be explicitly closed
    */
   public CompletableFuture<Void> waitAsync(String name, Predicate<Pod> predicate) {
-    final CompletableFuture<Void> podRunningFuture = new CompletableFuture<>();
-    try {
-      final PodResource<Pod, DoneablePod> podResource =
-          clientFactory.create().pods().inNamespace(namespace).withName(name);
-      final Watch watch =
-          podResource.watch(
-              new Watcher<Pod>() {
-                @Override
-                public void eventReceived(Action action, Pod pod) {
-                  if (predicate.test(pod)) {
-                    podRunningFuture.complete(null);
-                  }
-                }
-
-                @Override
-                public void onClose(KubernetesClientException cause) {
-                  podRunningFuture.completeExceptionally(
-                      new InfrastructureException(
-                          "Waiting for pod '" + name + "' was interrupted"));
-                }
-              });
-
-      podRunningFuture.whenComplete((ok, ex) -> watch.close());
-      final Pod pod = podResource.get();
-      if (pod == null) {
-        podRunningFuture.completeExceptionally(
-            new InfrastructureException("Specified pod " + name + " doesn't exist"));
-      }
-      if (predicate.test(pod)) {
-        podRunningFuture.complete(null);
-      }
-    } catch (KubernetesClientException | InfrastructureException ex) {
-      podRunningFuture.completeExceptionally(ex);
-    }
+    final CompletableFuture<Pod> podFuture =
+        informers.waitPod(namespace, workspaceId, name, predicate);
+    final CompletableFuture<Void> podRunningFuture = podFuture.thenApply(pod -> null);
+    // cancellation of the resulting future releases the waiting
+    podRunningFuture.whenComplete((ok, ex) -> podFuture.cancel(true));
     return podRunningFuture;
   }
 
@@ -273,27 +211,7 @@ public class KubernetesPods {
    */
   public void watch(PodActionHandler handler) throws InfrastructureException {
     if (podWatch == null) {
-      final Watcher<Pod> watcher =
-          new Watcher<Pod>() {
-            @Override
-            public void eventReceived(Action action, Pod pod) {
-              podActionHandlers.forEach(h -> h.handle(action, pod));
-            }
-
-            @Override
-            public void onClose(KubernetesClientException ignored) {}
-          };
-      try {
-        podWatch =
-            clientFactory
-                .create(workspaceId)
-                .pods()
-                .inNamespace(namespace)
-                .withLabel(CHE_WORKSPACE_ID_LABEL, workspaceId)
-                .watch(watcher);
-      } catch (KubernetesClientException ex) {
-        throw new KubernetesInfrastructureException(ex);
-      }
+      podWatch = informers.watchPods(namespace, workspaceId, this::handlePodAction);
     }
     podActionHandlers.add(handler);
   }
@@ -306,67 +224,23 @@ public class KubernetesPods {
    */
   public void watchContainers(ContainerEventHandler handler) throws InfrastructureException {
     if (containerWatch == null) {
-      final Watcher<Event> watcher =
-          new Watcher<Event>() {
-            @Override
-            public void eventReceived(Action action, Event event) {
-              ObjectReference involvedObject = event.getInvolvedObject();
-              String fieldPath = involvedObject.getFieldPath();
-
-              // check that event related to
-              if (POD_OBJECT_KIND.equals(involvedObject.getKind()) && fieldPath != null) {
-                Matcher containerFieldMatcher = CONTAINER_FIELD_PATH_PATTERN.matcher(fieldPath);
-                if (containerFieldMatcher.matches()) {
-
-                  String podName = involvedObject.getName();
-                  String containerName = containerFieldMatcher.group(CONTAINER_NAME_GROUP);
-
-                  ContainerEvent containerEvent =
-                      new ContainerEvent(
-                          podName,
-                          containerName,
-                          event.getReason(),
-                          event.getMessage(),
-                          event.getMetadata().getCreationTimestamp());
-                  containerEventsHandlers.forEach(h -> h.handle(containerEvent));
-                }
-              }
-            }
-
-            @Override
-            public void onClose(KubernetesClientException ignored) {}
-          };
-      try {
-        containerWatch =
-            clientFactory.create(workspaceId).events().inNamespace(namespace).watch(watcher);
-      } catch (KubernetesClientException ex) {
-        throw new KubernetesInfrastructureException(ex);
-      }
+      containerWatch =
+          informers.watchContainers(namespace, workspaceId, this::handleContainerEvent);
     }
     containerEventsHandlers.add(handler);
   }
 
   /** Stops watching the pods inside Kubernetes namespace. */
   public void stopWatch() {
-    try {
-      if (podWatch != null) {
-        podWatch.close();
-      }
-    } catch (KubernetesClientException ex) {
-      LOG.error(
-          "Failed to stop pod watcher for namespace '{}' cause '{}'", namespace, ex.getMessage());
+    if (podWatch != null) {
+      podWatch.cancel();
+      podWatch = null;
     }
     podActionHandlers.clear();
 
-    try {
-      if (containerWatch != null) {
-        containerWatch.close();
-      }
-    } catch (KubernetesClientException ex) {
-      LOG.error(
-          "Failed to stop pods containers watcher for namespace '{}' cause '{}'",
-          namespace,
-          ex.getMessage());
+    if (containerWatch != null) {
+      containerWatch.cancel();
+      containerWatch = null;
     }
     containerEventsHandlers.clear();
   }
@@ -470,8 +344,9 @@ public class KubernetesPods {
    * @throws InfrastructureException when any other exception occurs
    */
   public void delete(String name) throws InfrastructureException {
+    final CompletableFuture<Void> deleteFuture = doDelete(name);
     try {
-      doDelete(name).get(POD_REMOVAL_TIMEOUT_MIN, TimeUnit.MINUTES);
+      deleteFuture.get(POD_REMOVAL_TIMEOUT_MIN, TimeUnit.MINUTES);
     } catch (InterruptedException ex) {
       Thread.currentThread().interrupt();
       throw new InfrastructureException(
@@ -481,6 +356,8 @@ public class KubernetesPods {
           "Error occurred while waiting for pod removal. " + ex.getMessage());
     } catch (TimeoutException ex) {
       throw new InfrastructureException("Pod removal timeout reached " + ex.getMessage());
+    } finally {
+      deleteFuture.cancel(true);
     }
   }
 
@@ -522,6 +399,8 @@ public class KubernetesPods {
             "Error occurred while waiting for pod removing. " + e.getMessage());
       } catch (TimeoutException ex) {
         throw new InfrastructureException("Pods removal timeout reached " + ex.getMessage());
+      } finally {
+        deleteFutures.forEach(future -> future.cancel(true));
       }
     } catch (KubernetesClientException e) {
       throw new KubernetesInfrastructureException(e);
@@ -532,17 +411,27 @@ public class KubernetesPods {
     try {
       final PodResource<Pod, DoneablePod> podResource =
           clientFactory.create(workspaceId).pods().inNamespace(namespace).withName(name);
+      final CompletableFuture<Pod> removedFuture =
+          informers.waitPodRemoved(namespace, workspaceId, name);
+      try {
+        podResource.delete();
+      } catch (KubernetesClientException ex) {
+        removedFuture.cancel(true);
+        throw ex;
+      }
       final CompletableFuture<Void> deleteFuture = new CompletableFuture<>();
-      final Watch watch = podResource.watch(new DeleteWatcher(deleteFuture));
-
-      podResource.delete();
-      return deleteFuture.whenComplete(
-          (v, e) -> {
+      removedFuture.whenComplete(
+          (pod, e) -> {
             if (e != null) {
               LOG.warn("Failed to remove pod {} cause {}", name, e.getMessage());
+              deleteFuture.completeExceptionally(e);
+            } else {
+              deleteFuture.complete(null);
             }
-            watch.close();
           });
+      // cancellation of the resulting future releases the waiting
+      deleteFuture.whenComplete((v, e) -> removedFuture.cancel(true));
+      return deleteFuture;
     } catch (KubernetesClientException ex) {
       throw new KubernetesInfrastructureException(ex);
     }
@@ -560,28 +449,12 @@ public class KubernetesPods {
     return encoded;
   }
 
-  private static class DeleteWatcher implements Watcher<Pod> {
-
-    private final CompletableFuture<Void> future;
-
-    private DeleteWatcher(CompletableFuture<Void> future) {
-      this.future = future;
-    }
-
-    @Override
-    public void eventReceived(Action action, Pod hasMetadata) {
-      if (action == Action.DELETED) {
-        future.complete(null);
-      }
-    }
+  private void handlePodAction(Action action, Pod pod) {
+    podActionHandlers.forEach(h -> h.handle(action, pod));
+  }
 
-    @Override
-    public void onClose(KubernetesClientException e) {
-      // if event about removing is received then this completion has no effect
-      future.completeExceptionally(
-          new RuntimeException(
-              "Webscoket connection is closed. But event about removing is not received.", e));
-    }
+  private void handleContainerEvent(ContainerEvent event) {
+    containerEventsHandlers.forEach(h -> h.handle(event));
   }
 
   private class ExecWatchdog implements ExecListener {
@@ -0,0 +1,823 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.namespace;
+
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_WORKSPACE_ID_LABEL;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.ObjectReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesInfrastructureException;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.ContainerEvent;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.ContainerEventHandler;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.PodActionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a single list and watch of workspace pods and a single watch of events per namespace, that
+ * are shared by all the workspaces running in the namespace.
+ *
+ * <p>Pods are cached, so waiting for a pod state is served from the cache instead of opening a
+ * watch for each pod. Pod actions are dispatched to handlers of the workspace the pod is labeled
+ * with, container events are dispatched to handlers of the workspace that owns the pod of the
+ * container. Events of containers which pod is not cached yet are kept until the pod is cached, as
+ * the pods and events watches are independent and the pod addition may be received later. Only pods labeled with {@link
+ * org.eclipse.che.workspace.infrastructure.kubernetes.Constants#CHE_WORKSPACE_ID_LABEL} are
+ * watched, that is true for all the pods created with {@link KubernetesPods#create(Pod)}.
+ *
+ * <p>Watches of a namespace are opened when the first handler or waiter is registered and are
+ * closed when the last one is removed, the events watch is closed as soon as the last container
+ * events handler is removed. Broken watches are reopened, pods are listed once again and the
+ * handlers receive the actions they have missed. Watches are opened with the client of the
+ * workspace that registered the latest handler or waiter, so workspace specific client
+ * configuration applies. Kubernetes API is never called while the informer state is locked, so a
+ * slow API server doesn't delay dispatching of the received actions and events.
+ */
+public class KubernetesSharedInformers {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KubernetesSharedInformers.class);
+
+  private static final String CONTAINER_NAME_GROUP = "name";
+  // when event is related to container `fieldPath` field contains
+  // information in the following format: `spec.container{web}`, where `web` is container name
+  private static final Pattern CONTAINER_FIELD_PATH_PATTERN =
+      Pattern.compile("spec.containers\\{(?<" + CONTAINER_NAME_GROUP + ">.*)}");
+
+  private static final String POD_OBJECT_KIND = "Pod";
+  private static final int HTTP_GONE = 410;
+  private static final long RECONNECT_DELAY_MS = 2000;
+  // limits of events kept for containers of pods that are not cached, such events may belong to
+  // pods that are not workspace pods, so they are dropped when the limits are exceeded
+  private static final int MAX_UNMATCHED_PODS = 50;
+  private static final int MAX_UNMATCHED_EVENTS_PER_POD = 20;
+
+  private final KubernetesClientFactory clientFactory;
+  private final ScheduledExecutorService executor;
+  private final Map<String, NamespaceInformer> informers = new HashMap<>();
+
+  public KubernetesSharedInformers(KubernetesClientFactory clientFactory) {
+    this.clientFactory = clientFactory;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("KubernetesSharedInformer-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+  }
+
+  /** Registration of a handler or a waiter, that must be cancelled when it is not needed. */
+  public interface Subscription {
+    void cancel();
+  }
+
+  /**
+   * Registers a handler of actions on pods of the workspace.
+   *
+   * @param namespace namespace where the workspace is running
+   * @param workspaceId identifier of the workspace
+   * @param handler pod action events handler
+   * @throws InfrastructureException if the pods watch can't be started
+   */
+  public Subscription watchPods(String namespace, String workspaceId, PodActionHandler handler)
+      throws InfrastructureException {
+    final NamespaceInformer informer = acquire(namespace, workspaceId);
+    informer
+        .podHandlers
+        .computeIfAbsent(workspaceId, id -> new CopyOnWriteArrayList<>())
+        .add(handler);
+    return once(
+        () -> {
+          informer.podHandlers.computeIfPresent(
+              workspaceId,
+              (id, handlers) -> {
+                handlers.remove(handler);
+                return handlers.isEmpty() ? null : handlers;
+              });
+          release(informer);
+        });
+  }
+
+  /**
+   * Registers a handler of events about containers of the workspace pods.
+   *
+   * @param namespace namespace where the workspace is running
+   * @param workspaceId identifier of the workspace
+   * @param handler pod container events handler
+   * @throws InfrastructureException if the events watch can't be started
+   */
+  public Subscription watchContainers(
+      String namespace, String workspaceId, ContainerEventHandler handler)
+      throws InfrastructureException {
+    final NamespaceInformer informer = acquire(namespace, workspaceId);
+    // the handler is added before the watch is started, so the watch can't be closed in between
+    // by the cancellation of the last other handler
+    informer
+        .containerHandlers
+        .computeIfAbsent(workspaceId, id -> new CopyOnWriteArrayList<>())
+        .add(handler);
+    final Runnable cancellation =
+        () -> {
+          informer.containerHandlers.computeIfPresent(
+              workspaceId,
+              (id, handlers) -> {
+                handlers.remove(handler);
+                return handlers.isEmpty() ? null : handlers;
+              });
+          informer.stopEventsWatchIfUnused();
+          release(informer);
+        };
+    try {
+      informer.startEventsWatch();
+    } catch (InfrastructureException e) {
+      cancellation.run();
+      // handlers registered while the watch was being started get it on reconnect
+      if (!informer.containerHandlers.isEmpty()) {
+        informer.scheduleReconnect();
+      }
+      throw e;
+    }
+    return once(cancellation);
+  }
+
+  /**
+   * Returns the future that is completed with the pod when the pod state satisfies the predicate.
+   * The future is completed exceptionally if the pod doesn't exist.
+   *
+   * <p>Note that the resulting future must be explicitly cancelled when its completion no longer
+   * important.
+   *
+   * @param namespace namespace of the pod
+   * @param workspaceId identifier of the workspace the pod belongs to
+   * @param name name of the pod
+   * @param predicate predicate to perform state check
+   */
+  public CompletableFuture<Pod> waitPod(
+      String namespace, String workspaceId, String name, Predicate<Pod> predicate) {
+    return doWait(namespace, workspaceId, new PodWaiter(name, predicate, false));
+  }
+
+  /**
+   * Returns the future that is completed when the pod is removed.
+   *
+   * <p>Note that the resulting future must be explicitly cancelled when its completion no longer
+   * important.
+   *
+   * @param namespace namespace of the pod
+   * @param workspaceId identifier of the workspace the pod belongs to
+   * @param name name of the pod
+   */
+  public CompletableFuture<Pod> waitPodRemoved(String namespace, String workspaceId, String name) {
+    return doWait(namespace, workspaceId, new PodWaiter(name, null, true));
+  }
+
+  /**
+   * Caches the pod that is just created, so events of its containers are dispatched even if they
+   * are received before the pod addition. Does nothing if the namespace is not watched.
+   *
+   * @param namespace namespace of the pod
+   * @param pod created pod
+   */
+  public void onPodCreated(String namespace, Pod pod) {
+    final NamespaceInformer informer;
+    synchronized (this) {
+      informer = informers.get(namespace);
+    }
+    if (informer != null) {
+      informer.onPodFetched(pod);
+    }
+  }
+
+  /** Closes all the watches. */
+  public void stop() {
+    final List<NamespaceInformer> toStop;
+    synchronized (this) {
+      toStop = new ArrayList<>(informers.values());
+      informers.clear();
+    }
+    toStop.forEach(NamespaceInformer::stop);
+    executor.shutdownNow();
+  }
+
+  private CompletableFuture<Pod> doWait(String namespace, String workspaceId, PodWaiter waiter) {
+    final NamespaceInformer informer;
+    try {
+      informer = acquire(namespace, workspaceId);
+    } catch (InfrastructureException e) {
+      waiter.future.completeExceptionally(e);
+      return waiter.future;
+    }
+    waiter.future.whenComplete(
+        (pod, ex) -> {
+          informer.removeWaiter(waiter);
+          release(informer);
+        });
+    try {
+      Pod pod = informer.addWaiter(waiter);
+      if (pod == null) {
+        // pod may be just created and its addition may not be received yet
+        pod =
+            clientFactory
+                .create(workspaceId)
+                .pods()
+                .inNamespace(namespace)
+                .withName(waiter.name)
+                .get();
+        if (pod != null) {
+          informer.onPodFetched(pod);
+        }
+      }
+      if (pod == null) {
+        if (waiter.removal) {
+          waiter.future.complete(null);
+        } else {
+          waiter.future.completeExceptionally(
+              new InfrastructureException("Specified pod " + waiter.name + " doesn't exist"));
+        }
+      } else if (waiter.test(Action.MODIFIED, pod)) {
+        waiter.future.complete(pod);
+      }
+    } catch (KubernetesClientException e) {
+      waiter.future.completeExceptionally(new KubernetesInfrastructureException(e));
+    } catch (InfrastructureException e) {
+      waiter.future.completeExceptionally(e);
+    }
+    return waiter.future;
+  }
+
+  /** Returns informer of the namespace with started pods watch. */
+  private NamespaceInformer acquire(String namespace, String workspaceId)
+      throws InfrastructureException {
+    final NamespaceInformer informer;
+    synchronized (this) {
+      informer = informers.computeIfAbsent(namespace, NamespaceInformer::new);
+      informer.refs++;
+      informer.clientWorkspaceId = workspaceId;
+    }
+    try {
+      informer.startPodsWatch();
+    } catch (InfrastructureException | RuntimeException e) {
+      release(informer);
+      throw e;
+    }
+    return informer;
+  }
+
+  private void release(NamespaceInformer informer) {
+    synchronized (this) {
+      if (--informer.refs > 0) {
+        return;
+      }
+      informers.remove(informer.namespace, informer);
+    }
+    // may be called from a watcher callback, so watches are closed asynchronously
+    try {
+      executor.execute(informer::stop);
+    } catch (RejectedExecutionException e) {
+      informer.stop();
+    }
+  }
+
+  /** Returns subscription that runs the cancellation only once. */
+  private static Subscription once(Runnable cancellation) {
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    return () -> {
+      if (cancelled.compareAndSet(false, true)) {
+        cancellation.run();
+      }
+    };
+  }
+
+  private static String getWorkspaceId(Pod pod) {
+    final Map<String, String> labels = pod.getMetadata().getLabels();
+    return labels != null ? labels.get(CHE_WORKSPACE_ID_LABEL) : null;
+  }
+
+  private static <T> void dispatch(List<T> handlers, Consumer<T> action) {
+    if (handlers == null) {
+      return;
+    }
+    for (T handler : handlers) {
+      try {
+        action.accept(handler);
+      } catch (RuntimeException e) {
+        LOG.error(e.getMessage(), e);
+      }
+    }
+  }
+
+  /** Waits for a state of the pod. */
+  private static class PodWaiter {
+    private final String name;
+    private final Predicate<Pod> predicate;
+    private final boolean removal;
+    private final CompletableFuture<Pod> future = new CompletableFuture<>();
+
+    private PodWaiter(String name, Predicate<Pod> predicate, boolean removal) {
+      this.name = name;
+      this.predicate = predicate;
+      this.removal = removal;
+    }
+
+    private boolean test(Action action, Pod pod) {
+      return removal ? action == Action.DELETED : predicate.test(pod);
+    }
+  }
+
+  /** Watches of a single namespace. */
+  private class NamespaceInformer {
+    private final String namespace;
+    private final Map<String, List<PodActionHandler>> podHandlers = new ConcurrentHashMap<>();
+    private final Map<String, List<ContainerEventHandler>> containerHandlers =
+        new ConcurrentHashMap<>();
+
+    // guarded by KubernetesSharedInformers.this
+    private int refs;
+    // workspace which client is used to list and watch the namespace
+    private volatile String clientWorkspaceId;
+
+    // guarded by this
+    private final Map<String, Pod> pods = new HashMap<>();
+    private final List<PodWaiter> waiters = new ArrayList<>();
+    // events of containers which pods are not cached yet by pod names
+    private final Map<String, List<ContainerEvent>> unmatchedEvents =
+        new LinkedHashMap<String, List<ContainerEvent>>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, List<ContainerEvent>> eldest) {
+            return size() > MAX_UNMATCHED_PODS;
+          }
+        };
+    private Watch podsWatch;
+    // pods are being listed and listed actions dispatched, the watch is started after that
+    private boolean podsWatchStarting;
+    private Watch eventsWatch;
+    private boolean eventsWatchStarting;
+    private String eventsResourceVersion;
+    // watchers of closed watches are ignored
+    private int podsGeneration;
+    private int eventsGeneration;
+    private boolean stopped;
+
+    private NamespaceInformer(String namespace) {
+      this.namespace = namespace;
+    }
+
+    private void startPodsWatch() throws InfrastructureException {
+      try {
+        relistPods();
+      } catch (InfrastructureException e) {
+        // the informer may be still used by others, it is stopped otherwise
+        scheduleReconnect();
+        throw e;
+      }
+    }
+
+    /** Starts the events watch if it is not started or being started yet. */
+    private void startEventsWatch() throws InfrastructureException {
+      final int generation;
+      String resourceVersion;
+      synchronized (this) {
+        if (eventsWatch != null || eventsWatchStarting || stopped) {
+          return;
+        }
+        eventsWatchStarting = true;
+        generation = eventsGeneration;
+        resourceVersion = eventsResourceVersion;
+      }
+      Watch watch = null;
+      try {
+        if (resourceVersion == null) {
+          resourceVersion =
+              clientFactory
+                  .create(clientWorkspaceId)
+                  .events()
+                  .inNamespace(namespace)
+                  .list()
+                  .getMetadata()
+                  .getResourceVersion();
+        }
+        watch =
+            clientFactory
+                .create(clientWorkspaceId)
+                .events()
+                .inNamespace(namespace)
+                .watch(resourceVersion, new EventsWatcher(generation));
+        synchronized (this) {
+          // the watch is not needed if it was stopped while being started
+          if (generation == eventsGeneration && !stopped) {
+            eventsWatch = watch;
+            watch = null;
+            if (eventsResourceVersion == null) {
+              eventsResourceVersion = resourceVersion;
+            }
+          }
+        }
+      } catch (KubernetesClientException e) {
+        throw new KubernetesInfrastructureException(e);
+      } finally {
+        synchronized (this) {
+          eventsWatchStarting = false;
+        }
+        closeQuietly(watch);
+      }
+    }
+
+    /** Closes the events watch if there are no container events handlers left. */
+    private void stopEventsWatchIfUnused() {
+      final Watch ew;
+      synchronized (this) {
+        if (!containerHandlers.isEmpty() || (eventsWatch == null && !eventsWatchStarting)) {
+          return;
+        }
+        ew = eventsWatch;
+        eventsWatch = null;
+        // the watch that is being started is closed as soon as it is started
+        eventsGeneration++;
+        // the next handler needs only the events that happen after it is registered
+        eventsResourceVersion = null;
+        unmatchedEvents.clear();
+      }
+      closeQuietly(ew);
+    }
+
+    /**
+     * Lists pods, replaces the cache, dispatches actions that happened since the previous list and
+     * then starts watching pods from the listed version, so the actions received by the watch are
+     * never dispatched before or along with the listed ones. Does nothing if the watch is already
+     * started or is being started.
+     */
+    private void relistPods() throws InfrastructureException {
+      synchronized (this) {
+        if (podsWatch != null || podsWatchStarting || stopped) {
+          return;
+        }
+        podsWatchStarting = true;
+      }
+      try {
+        final PodList list =
+            clientFactory
+                .create(clientWorkspaceId)
+                .pods()
+                .inNamespace(namespace)
+                .withLabel(CHE_WORKSPACE_ID_LABEL)
+                .list();
+        dispatchChanges(replacePods(list.getItems()));
+        list.getItems().forEach(this::dispatchUnmatchedEvents);
+        final int generation;
+        synchronized (this) {
+          if (stopped) {
+            return;
+          }
+          generation = podsGeneration;
+        }
+        Watch watch =
+            clientFactory
+                .create(clientWorkspaceId)
+                .pods()
+                .inNamespace(namespace)
+                .withLabel(CHE_WORKSPACE_ID_LABEL)
+                .watch(list.getMetadata().getResourceVersion(), new PodsWatcher(generation));
+        synchronized (this) {
+          // the watch is not needed if it was stopped or closed while being started
+          if (generation == podsGeneration && !stopped) {
+            podsWatch = watch;
+            watch = null;
+          }
+        }
+        closeQuietly(watch);
+      } catch (KubernetesClientException e) {
+        throw new KubernetesInfrastructureException(e);
+      } finally {
+        synchronized (this) {
+          podsWatchStarting = false;
+        }
+      }
+    }
+
+    /** Replaces the cached pods and returns actions that happened since the previous list. */
+    private synchronized List<PodAction> replacePods(List<Pod> listed) {
+      final List<PodAction> changes = new ArrayList<>();
+      if (stopped) {
+        return changes;
+      }
+      final Map<String, Pod> removed = new HashMap<>(pods);
+      pods.clear();
+      for (Pod pod : listed) {
+        final String name = pod.getMetadata().getName();
+        final Pod previous = removed.remove(name);
+        pods.put(name, pod);
+        if (previous == null) {
+          changes.add(new PodAction(Action.ADDED, pod));
+        } else if (!pod.getMetadata()
+            .getResourceVersion()
+            .equals(previous.getMetadata().getResourceVersion())) {
+          changes.add(new PodAction(Action.MODIFIED, pod));
+        }
+      }
+      removed.values().forEach(pod -> changes.add(new PodAction(Action.DELETED, pod)));
+      return changes;
+    }
+
+    private void stop() {
+      final Watch pw;
+      final Watch ew;
+      final List<PodWaiter> toFail;
+      synchronized (this) {
+        stopped = true;
+        podsGeneration++;
+        eventsGeneration++;
+        pw = podsWatch;
+        ew = eventsWatch;
+        podsWatch = null;
+        eventsWatch = null;
+        pods.clear();
+        unmatchedEvents.clear();
+        toFail = new ArrayList<>(waiters);
+        waiters.clear();
+      }
+      closeQuietly(pw);
+      closeQuietly(ew);
+      toFail.forEach(
+          waiter ->
+              waiter.future.completeExceptionally(
+                  new InfrastructureException(
+                      "Waiting for pod '" + waiter.name + "' was interrupted")));
+    }
+
+    /** Adds the waiter and returns the cached pod it waits for or {@code null} if not cached. */
+    private synchronized Pod addWaiter(PodWaiter waiter) {
+      waiters.add(waiter);
+      return pods.get(waiter.name);
+    }
+
+    private synchronized void removeWaiter(PodWaiter waiter) {
+      waiters.remove(waiter);
+    }
+
+    private void onPodFetched(Pod pod) {
+      if (getWorkspaceId(pod) == null) {
+        return;
+      }
+      synchronized (this) {
+        if (stopped) {
+          return;
+        }
+        pods.putIfAbsent(pod.getMetadata().getName(), pod);
+      }
+      dispatchUnmatchedEvents(pod);
+    }
+
+    /** Dispatches the kept events of containers of the pod, which is cached now. */
+    private void dispatchUnmatchedEvents(Pod pod) {
+      final List<ContainerEvent> events;
+      synchronized (this) {
+        events = unmatchedEvents.remove(pod.getMetadata().getName());
+      }
+      if (events == null) {
+        return;
+      }
+      final List<ContainerEventHandler> handlers = containerHandlers.get(getWorkspaceId(pod));
+      for (ContainerEvent event : events) {
+        dispatch(handlers, h -> h.handle(event));
+      }
+    }
+
+    private void onPodAction(int watchGeneration, Action action, Pod pod) {
+      final List<PodWaiter> satisfied = new ArrayList<>();
+      synchronized (this) {
+        if (watchGeneration != podsGeneration || action == Action.ERROR) {
+          return;
+        }
+        final String name = pod.getMetadata().getName();
+        if (action == Action.DELETED) {
+          pods.remove(name);
+          unmatchedEvents.remove(name);
+        } else {
+          pods.put(name, pod);
+        }
+        for (PodWaiter waiter : waiters) {
+          if (waiter.name.equals(name) && waiter.test(action, pod)) {
+            satisfied.add(waiter);
+          }
+        }
+      }
+      dispatch(podHandlers.get(getWorkspaceId(pod)), h -> h.handle(action, pod));
+      satisfied.forEach(waiter -> waiter.future.complete(pod));
+      if (action != Action.DELETED) {
+        dispatchUnmatchedEvents(pod);
+      }
+    }
+
+    private void onEvent(int watchGeneration, Event event) {
+      final ObjectReference involvedObject = event.getInvolvedObject();
+      final String fieldPath = involvedObject.getFieldPath();
+      if (!POD_OBJECT_KIND.equals(involvedObject.getKind()) || fieldPath == null) {
+        return;
+      }
+      final Matcher containerFieldMatcher = CONTAINER_FIELD_PATH_PATTERN.matcher(fieldPath);
+      if (!containerFieldMatcher.matches()) {
+        return;
+      }
+      final String podName = involvedObject.getName();
+      final ContainerEvent containerEvent =
+          new ContainerEvent(
+              podName,
+              containerFieldMatcher.group(CONTAINER_NAME_GROUP),
+              event.getReason(),
+              event.getMessage(),
+              event.getMetadata().getCreationTimestamp());
+      final String workspaceId;
+      synchronized (this) {
+        if (watchGeneration != eventsGeneration) {
+          return;
+        }
+        final Pod pod = pods.get(podName);
+        if (pod == null) {
+          // the pod addition may be not received yet, the event is dispatched when it is
+          final List<ContainerEvent> events =
+              unmatchedEvents.computeIfAbsent(podName, name -> new ArrayList<>());
+          if (events.size() >= MAX_UNMATCHED_EVENTS_PER_POD) {
+            events.remove(0);
+          }
+          events.add(containerEvent);
+          return;
+        }
+        workspaceId = getWorkspaceId(pod);
+      }
+      dispatch(containerHandlers.get(workspaceId), h -> h.handle(containerEvent));
+    }
+
+    private void onPodsWatchClosed(int watchGeneration, KubernetesClientException cause) {
+      synchronized (this) {
+        if (cause == null || watchGeneration != podsGeneration || stopped) {
+          return;
+        }
+        podsWatch = null;
+        podsGeneration++;
+      }
+      LOG.warn(
+          "Pods watch of namespace '{}' is closed cause '{}', reconnecting",
+          namespace,
+          cause.getMessage());
+      scheduleReconnect();
+    }
+
+    private void onEventsWatchClosed(int watchGeneration, KubernetesClientException cause) {
+      synchronized (this) {
+        if (cause == null || watchGeneration != eventsGeneration || stopped) {
+          return;
+        }
+        if (cause.getCode() == HTTP_GONE) {
+          // the last seen version is too old, start watching from the current one
+          eventsResourceVersion = null;
+        }
+        eventsWatch = null;
+        eventsGeneration++;
+      }
+      LOG.warn(
+          "Events watch of namespace '{}' is closed cause '{}', reconnecting",
+          namespace,
+          cause.getMessage());
+      scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+      try {
+        executor.schedule(this::reconnect, RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ignored) {
+        // informers are stopped
+      }
+    }
+
+    private void reconnect() {
+      try {
+        relistPods();
+        if (!containerHandlers.isEmpty()) {
+          startEventsWatch();
+        }
+      } catch (InfrastructureException e) {
+        LOG.warn(
+            "Failed to reconnect watches of namespace '{}' cause '{}'", namespace, e.getMessage());
+        scheduleReconnect();
+      }
+    }
+
+    private void dispatchChanges(List<PodAction> changes) {
+      for (PodAction change : changes) {
+        onPodChange(change);
+      }
+    }
+
+    private void onPodChange(PodAction change) {
+      final List<PodWaiter> satisfied = new ArrayList<>();
+      synchronized (this) {
+        for (PodWaiter waiter : waiters) {
+          if (waiter.name.equals(change.pod.getMetadata().getName())
+              && waiter.test(change.action, change.pod)) {
+            satisfied.add(waiter);
+          }
+        }
+      }
+      dispatch(
+          podHandlers.get(getWorkspaceId(change.pod)), h -> h.handle(change.action, change.pod));
+      satisfied.forEach(waiter -> waiter.future.complete(change.pod));
+    }
+
+    private class PodsWatcher implements Watcher<Pod> {
+      private final int watchGeneration;
+
+      private PodsWatcher(int watchGeneration) {
+        this.watchGeneration = watchGeneration;
+      }
+
+      @Override
+      public void eventReceived(Action action, Pod pod) {
+        onPodAction(watchGeneration, action, pod);
+      }
+
+      @Override
+      public void onClose(KubernetesClientException cause) {
+        onPodsWatchClosed(watchGeneration, cause);
+      }
+    }
+
+    private class EventsWatcher implements Watcher<Event> {
+      private final int watchGeneration;
+
+      private EventsWatcher(int watchGeneration) {
+        this.watchGeneration = watchGeneration;
+      }
+
+      @Override
+      public void eventReceived(Action action, Event event) {
+        synchronized (NamespaceInformer.this) {
+          if (watchGeneration == eventsGeneration) {
+            eventsResourceVersion = event.getMetadata().getResourceVersion();
+          }
+        }
+        onEvent(watchGeneration, event);
+      }
+
+      @Override
+      public void onClose(KubernetesClientException cause) {
+        onEventsWatchClosed(watchGeneration, cause);
+      }
+    }
+  }
+
+  private static class PodAction {
+    private final Action action;
+    private final Pod pod;
+
+    private PodAction(Action action, Pod pod) {
+      this.action = action;
+      this.pod = pod;
+    }
+  }
+
+  private static void closeQuietly(Watch watch) {
+    if (watch == null) {
+      return;
+    }
+    try {
+      watch.close();
+    } catch (KubernetesClientException e) {
+      LOG.error("Failed to close watch cause '{}'", e.getMessage());
+    }
+  }
+}
@@ -97,7 +97,7 @@ public class RuntimeEventsPublisher {
 
   public void sendMachineLogEnvent(
       String machineName, String text, String time, RuntimeIdentity runtimeId) {
-    eventService.publish(
+    eventService.publishAsync(
         DtoFactory.newDto(MachineLogEvent.class)
             .withMachineName(machineName)
             .withRuntimeId(DtoConverter.asDto(runtimeId))
@@ -421,7 +421,7 @@ public class KubernetesInternalRuntimeTest {
     logsPublisher.handle(out1);
     logsPublisher.handle(out2);
 
-    verify(eventService, atLeastOnce()).publish(captor.capture());
+    verify(eventService, atLeastOnce()).publishAsync(captor.capture());
     final ImmutableList<MachineLogEvent> machineLogs =
         ImmutableList.of(asMachineLogEvent(out1), asMachineLogEvent(out2));
     assertTrue(captor.getAllValues().containsAll(machineLogs));
@@ -475,6 +475,7 @@ public class KubernetesInternalRuntimeTest {
     logsPublisher.handle(out1);
 
     verify(eventService, never()).publish(any());
+    verify(eventService, never()).publishAsync(any());
   }
 
   @Test
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.cache.jpa;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.api.core.model.workspace.runtime.MachineStatus.FAILED;
+import static org.eclipse.che.api.core.model.workspace.runtime.MachineStatus.RUNNING;
+import static org.eclipse.che.api.core.model.workspace.runtime.MachineStatus.STARTING;
+import static org.eclipse.che.api.core.model.workspace.runtime.ServerStatus.UNKNOWN;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.cache.tck.TestObjects.createMachine;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.cache.tck.TestObjects.createServer;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.che.api.core.model.workspace.runtime.MachineStatus;
+import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
+import org.eclipse.che.api.core.model.workspace.runtime.ServerStatus;
+import org.eclipse.che.api.workspace.server.model.impl.RuntimeIdentityImpl;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesMachineImpl;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesMachineImpl.MachineId;
+import org.eclipse.che.workspace.infrastructure.kubernetes.model.KubernetesServerImpl.ServerId;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link WriteBehindKubernetesMachineCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class WriteBehindKubernetesMachineCacheTest {
+
+  private static final String WORKSPACE_ID = "workspace123";
+  private static final String MACHINE_NAME = "machine";
+  private static final String SERVER_NAME = "server";
+  private static final RuntimeIdentity IDENTITY =
+      new RuntimeIdentityImpl(WORKSPACE_ID, "env", "owner");
+
+  @Mock private JpaKubernetesMachineCache jpaCache;
+
+  @Captor private ArgumentCaptor<Map<MachineId, MachineStatus>> machineStatusesCaptor;
+  @Captor private ArgumentCaptor<Map<ServerId, ServerStatus>> serverStatusesCaptor;
+
+  private WriteBehindKubernetesMachineCache cache;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    KubernetesMachineImpl machine =
+        createMachine(
+            WORKSPACE_ID, MACHINE_NAME, STARTING, singletonMap(SERVER_NAME, createServer(UNKNOWN)));
+    Map<String, KubernetesMachineImpl> machines = new HashMap<>();
+    machines.put(MACHINE_NAME, machine);
+    when(jpaCache.getMachines(IDENTITY)).thenReturn(machines);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    cache.shutdown();
+  }
+
+  @Test
+  public void shouldWriteOnlyLastStatusesInSingleBatch() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, false);
+
+    cache.updateMachineStatus(IDENTITY, MACHINE_NAME, RUNNING);
+    cache.updateMachineStatus(IDENTITY, MACHINE_NAME, FAILED);
+    cache.updateServerStatus(IDENTITY, MACHINE_NAME, SERVER_NAME, ServerStatus.RUNNING);
+    verify(jpaCache, never()).updateStatuses(anyMap(), anyMap());
+
+    cache.flush();
+
+    verify(jpaCache)
+        .updateStatuses(machineStatusesCaptor.capture(), serverStatusesCaptor.capture());
+    assertEquals(
+        machineStatusesCaptor.getValue(),
+        singletonMap(new MachineId(WORKSPACE_ID, MACHINE_NAME), FAILED));
+    assertEquals(
+        serverStatusesCaptor.getValue(),
+        singletonMap(new ServerId(WORKSPACE_ID, MACHINE_NAME, SERVER_NAME), ServerStatus.RUNNING));
+  }
+
+  @Test
+  public void shouldReturnStatusesThatAreNotWrittenYet() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, false);
+
+    cache.updateMachineStatus(IDENTITY, MACHINE_NAME, RUNNING);
+    cache.updateServerStatus(IDENTITY, MACHINE_NAME, SERVER_NAME, ServerStatus.RUNNING);
+
+    assertEquals(cache.getMachines(IDENTITY).get(MACHINE_NAME).getStatus(), RUNNING);
+    assertEquals(
+        cache.getServer(IDENTITY, MACHINE_NAME, SERVER_NAME).getStatus(), ServerStatus.RUNNING);
+    verify(jpaCache, times(1)).getMachines(IDENTITY);
+  }
+
+  @Test
+  public void shouldNotQueueServerStatusThatIsNotChanged() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, false);
+
+    assertFalse(cache.updateServerStatus(IDENTITY, MACHINE_NAME, SERVER_NAME, UNKNOWN));
+    cache.flush();
+
+    verify(jpaCache, never()).updateStatuses(anyMap(), anyMap());
+  }
+
+  @Test
+  public void shouldWriteStatusBeforeReturningWhenUpdatesAreDurable() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, true);
+
+    assertTrue(cache.updateServerStatus(IDENTITY, MACHINE_NAME, SERVER_NAME, ServerStatus.RUNNING));
+
+    verify(jpaCache)
+        .updateStatuses(
+            emptyMap(),
+            singletonMap(
+                new ServerId(WORKSPACE_ID, MACHINE_NAME, SERVER_NAME), ServerStatus.RUNNING));
+  }
+
+  @Test(expectedExceptions = InfrastructureException.class, expectedExceptionsMessageRegExp = "db")
+  public void shouldThrowExceptionWhenDurableUpdateIsNotWritten() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, true);
+    doThrow(new InfrastructureException("db")).when(jpaCache).updateStatuses(anyMap(), anyMap());
+
+    cache.updateMachineStatus(IDENTITY, MACHINE_NAME, RUNNING);
+  }
+
+  @Test
+  public void shouldQueueStatusesAgainWhenTheyAreNotWritten() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, false);
+    doThrow(new InfrastructureException("db"))
+        .doNothing()
+        .when(jpaCache)
+        .updateStatuses(anyMap(), anyMap());
+    cache.updateMachineStatus(IDENTITY, MACHINE_NAME, RUNNING);
+
+    cache.flush();
+    cache.flush();
+
+    verify(jpaCache, times(2))
+        .updateStatuses(machineStatusesCaptor.capture(), serverStatusesCaptor.capture());
+    assertEquals(
+        machineStatusesCaptor.getValue(),
+        singletonMap(new MachineId(WORKSPACE_ID, MACHINE_NAME), RUNNING));
+  }
+
+  @Test
+  public void shouldDiscardQueuedStatusesOfRemovedRuntime() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, false);
+    cache.updateMachineStatus(IDENTITY, MACHINE_NAME, RUNNING);
+
+    cache.remove(IDENTITY);
+    cache.flush();
+
+    verify(jpaCache).remove(IDENTITY);
+    verify(jpaCache, never()).updateStatuses(anyMap(), anyMap());
+  }
+
+  @Test
+  public void shouldWriteMachineImmediatelyWhenItIsPut() throws Exception {
+    cache = new WriteBehindKubernetesMachineCache(jpaCache, 3_600_000, false);
+    cache.getMachines(IDENTITY);
+    KubernetesMachineImpl machine = createMachine(WORKSPACE_ID, "another", STARTING, emptyMap());
+
+    cache.put(IDENTITY, machine);
+
+    verify(jpaCache).put(IDENTITY, machine);
+    assertTrue(cache.getMachines(IDENTITY).containsKey("another"));
+  }
+}
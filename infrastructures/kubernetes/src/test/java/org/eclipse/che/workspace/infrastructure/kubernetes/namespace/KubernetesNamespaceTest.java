@@ -59,6 +59,7 @@ public class KubernetesNamespaceTest {
   @Mock private KubernetesIngresses ingresses;
   @Mock private KubernetesPersistentVolumeClaims pvcs;
   @Mock private KubernetesClientFactory clientFactory;
+  @Mock private KubernetesSharedInformers informers;
   @Mock private KubernetesClient kubernetesClient;
   @Mock private NonNamespaceOperation namespaceOperation;
   @Mock private Resource<ServiceAccount, DoneableServiceAccount> serviceAccountResource;
@@ -88,7 +89,8 @@ public class KubernetesNamespaceTest {
   public void testKubernetesNamespacePreparingWhenNamespaceExists() throws Exception {
     // given
     prepareNamespace(NAMESPACE);
-    KubernetesNamespace namespace = new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID);
+    KubernetesNamespace namespace =
+        new KubernetesNamespace(clientFactory, informers, NAMESPACE, WORKSPACE_ID);
 
     // when
     namespace.prepare();
@@ -101,7 +103,8 @@ public class KubernetesNamespaceTest {
 
     Resource resource = prepareNamespaceResource(NAMESPACE);
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
-    KubernetesNamespace namespace = new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID);
+    KubernetesNamespace namespace =
+        new KubernetesNamespace(clientFactory, informers, NAMESPACE, WORKSPACE_ID);
 
     // when
     namespace.prepare();
@@ -149,7 +152,7 @@ public class KubernetesNamespaceTest {
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
     doThrow(KubernetesClientException.class).when(kubernetesClient).serviceAccounts();
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, informers, NAMESPACE, WORKSPACE_ID).prepare();
   }
 
   @Test(expectedExceptions = InfrastructureException.class)
@@ -160,7 +163,7 @@ public class KubernetesNamespaceTest {
     doThrow(new KubernetesClientException("error", 403, null)).when(resource).get();
     when(serviceAccountResource.get()).thenReturn(null);
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, informers, NAMESPACE, WORKSPACE_ID).prepare();
   }
 
   @Test(expectedExceptions = InfrastructureException.class)
@@ -179,7 +182,7 @@ public class KubernetesNamespaceTest {
         .when(serviceAccountResource)
         .watch(any());
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, informers, NAMESPACE, WORKSPACE_ID).prepare();
   }
 
   @Test
@@ -197,7 +200,7 @@ public class KubernetesNamespaceTest {
         .when(serviceAccountResource)
         .watch(any());
 
-    new KubernetesNamespace(clientFactory, NAMESPACE, WORKSPACE_ID).prepare();
+    new KubernetesNamespace(clientFactory, informers, NAMESPACE, WORKSPACE_ID).prepare();
 
     verify(serviceAccountResource).get();
     verify(serviceAccountResource).watch(any());
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.kubernetes.namespace;
+
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.workspace.infrastructure.kubernetes.Constants.CHE_WORKSPACE_ID_LABEL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.api.model.EventListBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.eclipse.che.workspace.infrastructure.kubernetes.KubernetesClientFactory;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.KubernetesSharedInformers.Subscription;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.ContainerEvent;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.ContainerEventHandler;
+import org.eclipse.che.workspace.infrastructure.kubernetes.namespace.event.PodActionHandler;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link KubernetesSharedInformers} */
+@Listeners(MockitoTestNGListener.class)
+public class KubernetesSharedInformersTest {
+
+  private static final String NAMESPACE = "testNamespace";
+  private static final String WORKSPACE_1 = "workspace1";
+  private static final String WORKSPACE_2 = "workspace2";
+
+  @Mock private KubernetesClientFactory clientFactory;
+  @Mock private KubernetesClient client;
+  @Mock private MixedOperation podsOperation;
+  @Mock private NonNamespaceOperation podsNamespaceOperation;
+  @Mock private FilterWatchListDeletable workspacePods;
+  @Mock private PodResource podResource;
+  @Mock private MixedOperation eventsOperation;
+  @Mock private NonNamespaceOperation eventsNamespaceOperation;
+  @Mock private Watch podsWatch;
+  @Mock private Watch eventsWatch;
+  @Mock private PodActionHandler podHandler1;
+  @Mock private PodActionHandler podHandler2;
+  @Mock private ContainerEventHandler containerHandler1;
+  @Mock private ContainerEventHandler containerHandler2;
+
+  private KubernetesSharedInformers informers;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(clientFactory.create(anyString())).thenReturn(client);
+    doReturn(podsOperation).when(client).pods();
+    when(podsOperation.inNamespace(NAMESPACE)).thenReturn(podsNamespaceOperation);
+    when(podsNamespaceOperation.withLabel(CHE_WORKSPACE_ID_LABEL)).thenReturn(workspacePods);
+    when(podsNamespaceOperation.withName(anyString())).thenReturn(podResource);
+    when(workspacePods.watch(anyString(), any())).thenReturn(podsWatch);
+    doReturn(eventsOperation).when(client).events();
+    when(eventsOperation.inNamespace(NAMESPACE)).thenReturn(eventsNamespaceOperation);
+    when(eventsNamespaceOperation.list())
+        .thenReturn(
+            new EventListBuilder()
+                .withNewMetadata()
+                .withResourceVersion("1")
+                .endMetadata()
+                .build());
+    when(eventsNamespaceOperation.watch(anyString(), any())).thenReturn(eventsWatch);
+    listPods();
+
+    informers = new KubernetesSharedInformers(clientFactory);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    informers.stop();
+  }
+
+  @Test
+  public void shouldUseSingleWatchForAllWorkspacesOfNamespace() throws Exception {
+    informers.watchPods(NAMESPACE, WORKSPACE_1, podHandler1);
+    informers.watchPods(NAMESPACE, WORKSPACE_2, podHandler2);
+
+    verify(workspacePods, times(1)).list();
+    verify(workspacePods, times(1)).watch(eq("1"), any());
+  }
+
+  @Test
+  public void shouldDispatchPodActionsToHandlersOfWorkspace() throws Exception {
+    informers.watchPods(NAMESPACE, WORKSPACE_1, podHandler1);
+    informers.watchPods(NAMESPACE, WORKSPACE_2, podHandler2);
+    Pod pod = pod("pod1", WORKSPACE_1, "Pending");
+
+    podsWatcher().eventReceived(Action.ADDED, pod);
+
+    verify(podHandler1).handle(Action.ADDED, pod);
+    verify(podHandler2, never()).handle(any(), any());
+  }
+
+  @Test
+  public void shouldDispatchActionsFoundByRelistBeforeWatchIsReopened() throws Exception {
+    informers.watchPods(NAMESPACE, WORKSPACE_1, podHandler1);
+    Pod pod = pod("pod1", WORKSPACE_1, "Pending");
+    listPods(pod);
+
+    podsWatcher().onClose(new KubernetesClientException("Connection reset", 500, null));
+
+    verify(workspacePods, timeout(5000).times(2)).watch(eq("1"), any());
+    InOrder inOrder = inOrder(podHandler1, workspacePods);
+    inOrder.verify(podHandler1).handle(Action.ADDED, pod);
+    inOrder.verify(workspacePods).watch(eq("1"), any());
+  }
+
+  @Test
+  public void shouldCompleteWaitingFromCachedPod() throws Exception {
+    listPods(pod("pod1", WORKSPACE_1, "Running"));
+
+    CompletableFuture<Pod> future =
+        informers.waitPod(
+            NAMESPACE, WORKSPACE_1, "pod1", p -> "Running".equals(p.getStatus().getPhase()));
+
+    assertTrue(future.isDone());
+    verify(podResource, never()).get();
+  }
+
+  @Test
+  public void shouldCompleteWaitingWhenPodStateChanges() throws Exception {
+    listPods(pod("pod1", WORKSPACE_1, "Pending"));
+    CompletableFuture<Pod> future =
+        informers.waitPod(
+            NAMESPACE, WORKSPACE_1, "pod1", p -> "Running".equals(p.getStatus().getPhase()));
+    assertFalse(future.isDone());
+
+    podsWatcher().eventReceived(Action.MODIFIED, pod("pod1", WORKSPACE_1, "Running"));
+
+    assertTrue(future.isDone());
+  }
+
+  @Test
+  public void shouldGetPodWhichIsNotCachedYet() throws Exception {
+    when(podResource.get()).thenReturn(pod("pod1", WORKSPACE_1, "Running"));
+
+    CompletableFuture<Pod> future =
+        informers.waitPod(
+            NAMESPACE, WORKSPACE_1, "pod1", p -> "Running".equals(p.getStatus().getPhase()));
+
+    assertTrue(future.isDone());
+  }
+
+  @Test(expectedExceptions = ExecutionException.class)
+  public void shouldFailWaitingIfPodDoesNotExist() throws Exception {
+    informers.waitPod(NAMESPACE, WORKSPACE_1, "pod1", p -> true).get();
+  }
+
+  @Test
+  public void shouldCompleteWaitingForRemovalWhenPodIsDeleted() throws Exception {
+    Pod pod = pod("pod1", WORKSPACE_1, "Running");
+    listPods(pod);
+    CompletableFuture<Pod> future = informers.waitPodRemoved(NAMESPACE, WORKSPACE_1, "pod1");
+    assertFalse(future.isDone());
+
+    podsWatcher().eventReceived(Action.DELETED, pod);
+
+    assertTrue(future.isDone());
+  }
+
+  @Test
+  public void shouldCloseWatchesWhenLastSubscriptionIsCancelled() throws Exception {
+    Subscription pods1 = informers.watchPods(NAMESPACE, WORKSPACE_1, podHandler1);
+    Subscription containers2 = informers.watchContainers(NAMESPACE, WORKSPACE_2, containerHandler2);
+
+    pods1.cancel();
+    verify(podsWatch, never()).close();
+    containers2.cancel();
+
+    verify(podsWatch, timeout(1000)).close();
+    verify(eventsWatch, timeout(1000)).close();
+  }
+
+  @Test
+  public void shouldDispatchContainerEventsToHandlersOfWorkspaceThatOwnsPod() throws Exception {
+    listPods(pod("pod1", WORKSPACE_1, "Pending"), pod("pod2", WORKSPACE_2, "Pending"));
+    informers.watchContainers(NAMESPACE, WORKSPACE_1, containerHandler1);
+    informers.watchContainers(NAMESPACE, WORKSPACE_2, containerHandler2);
+    verify(eventsNamespaceOperation, times(1)).watch(eq("1"), any());
+
+    eventsWatcher().eventReceived(Action.ADDED, containerEvent("pod2", "web", "Pulling"));
+
+    ArgumentCaptor<ContainerEvent> captor = ArgumentCaptor.forClass(ContainerEvent.class);
+    verify(containerHandler2).handle(captor.capture());
+    assertEquals(captor.getValue().getPodName(), "pod2");
+    assertEquals(captor.getValue().getContainerName(), "web");
+    assertEquals(captor.getValue().getReason(), "Pulling");
+    verify(containerHandler1, never()).handle(any());
+  }
+
+  @Test
+  public void shouldDispatchContainerEventsReceivedBeforePodAddition() throws Exception {
+    informers.watchContainers(NAMESPACE, WORKSPACE_1, containerHandler1);
+    eventsWatcher().eventReceived(Action.ADDED, containerEvent("pod1", "web", "Failed"));
+    verify(containerHandler1, never()).handle(any());
+
+    podsWatcher().eventReceived(Action.ADDED, pod("pod1", WORKSPACE_1, "Pending"));
+
+    ArgumentCaptor<ContainerEvent> captor = ArgumentCaptor.forClass(ContainerEvent.class);
+    verify(containerHandler1).handle(captor.capture());
+    assertEquals(captor.getValue().getPodName(), "pod1");
+    assertEquals(captor.getValue().getReason(), "Failed");
+  }
+
+  @Test
+  public void shouldDispatchContainerEventsOfCreatedPod() throws Exception {
+    informers.watchContainers(NAMESPACE, WORKSPACE_1, containerHandler1);
+    eventsWatcher().eventReceived(Action.ADDED, containerEvent("pod1", "web", "Failed"));
+
+    informers.onPodCreated(NAMESPACE, pod("pod1", WORKSPACE_1, "Pending"));
+    eventsWatcher().eventReceived(Action.ADDED, containerEvent("pod1", "web", "BackOff"));
+
+    verify(containerHandler1, times(2)).handle(any());
+  }
+
+  @Test
+  public void shouldNotDispatchEventsOfPodsThatDoNotBelongToWorkspaces() throws Exception {
+    informers.watchContainers(NAMESPACE, WORKSPACE_1, containerHandler1);
+
+    eventsWatcher().eventReceived(Action.ADDED, containerEvent("foreign", "web", "Pulling"));
+    eventsWatcher().eventReceived(Action.ADDED, containerEvent("foreign", "web", "Pulled"));
+
+    verify(containerHandler1, never()).handle(any());
+    verify(podResource, never()).get();
+  }
+
+  @Test
+  public void shouldCloseEventsWatchWhenLastContainerHandlerIsRemoved() throws Exception {
+    informers.watchPods(NAMESPACE, WORKSPACE_1, podHandler1);
+    Subscription containers1 = informers.watchContainers(NAMESPACE, WORKSPACE_1, containerHandler1);
+    Subscription containers2 = informers.watchContainers(NAMESPACE, WORKSPACE_2, containerHandler2);
+
+    containers1.cancel();
+    verify(eventsWatch, never()).close();
+    containers2.cancel();
+
+    verify(eventsWatch).close();
+    verify(podsWatch, never()).close();
+  }
+
+  @Test
+  public void shouldUseClientOfWorkspaceToWatchNamespace() throws Exception {
+    informers.watchPods(NAMESPACE, WORKSPACE_1, podHandler1);
+    informers.watchContainers(NAMESPACE, WORKSPACE_2, containerHandler2);
+
+    verify(clientFactory, never()).create();
+    verify(clientFactory, times(2)).create(WORKSPACE_1);
+    verify(clientFactory, times(2)).create(WORKSPACE_2);
+  }
+
+  private void listPods(Pod... pods) {
+    when(workspacePods.list())
+        .thenReturn(
+            new PodListBuilder()
+                .withNewMetadata()
+                .withResourceVersion("1")
+                .endMetadata()
+                .withItems(pods)
+                .build());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Watcher<Pod> podsWatcher() {
+    ArgumentCaptor<Watcher> captor = ArgumentCaptor.forClass(Watcher.class);
+    verify(workspacePods).watch(anyString(), captor.capture());
+    return captor.getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Watcher<Event> eventsWatcher() {
+    ArgumentCaptor<Watcher> captor = ArgumentCaptor.forClass(Watcher.class);
+    verify(eventsNamespaceOperation).watch(anyString(), captor.capture());
+    return captor.getValue();
+  }
+
+  private static Pod pod(String name, String workspaceId, String phase) {
+    return new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .withResourceVersion("2")
+        .withLabels(singletonMap(CHE_WORKSPACE_ID_LABEL, workspaceId))
+        .endMetadata()
+        .withNewStatus()
+        .withPhase(phase)
+        .endStatus()
+        .build();
+  }
+
+  private static Event containerEvent(String podName, String containerName, String reason) {
+    return new EventBuilder()
+        .withNewMetadata()
+        .withResourceVersion("3")
+        .withCreationTimestamp("2018-01-01T00:00:00Z")
+        .endMetadata()
+        .withNewInvolvedObject()
+        .withKind("Pod")
+        .withName(podName)
+        .withFieldPath("spec.containers{" + containerName + "}")
+        .endInvolvedObject()
+        .withReason(reason)
+        .withMessage(reason)
+        .build();
+  }
+}
@@ -53,7 +53,8 @@ public class OpenShiftProjectFactory extends KubernetesNamespaceFactory {
   public OpenShiftProject create(String workspaceId) throws InfrastructureException {
     final String projectName = isNullOrEmpty(this.projectName) ? workspaceId : this.projectName;
 
-    OpenShiftProject osProject = new OpenShiftProject(clientFactory, projectName, workspaceId);
+    OpenShiftProject osProject =
+        new OpenShiftProject(clientFactory, getInformers(), projectName, workspaceId);
     osProject.prepare();
 
     return osProject;
@@ -68,6 +69,6 @@ public class OpenShiftProjectFactory extends KubernetesNamespaceFactory {
    * @return created namespace
    */
   public OpenShiftProject create(String workspaceId, String projectName) {
-    return new OpenShiftProject(clientFactory, projectName, workspaceId);
+    return new OpenShiftProject(clientFactory, getInformers(), projectName, workspaceId);
   }
 }
@@ -82,7 +82,34 @@ public class ProjectApiUtils {
                 bind(File.class)
                     .annotatedWith(Names.named("vfs.local.fs_index_root_dir"))
                     .toInstance(indexDir);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.search.indexer.threads"))
+                    .toInstance(1);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.search.indexer.queue_capacity"))
+                    .toInstance(100);
+                bind(Double.class)
+                    .annotatedWith(Names.named("che.search.indexer.ram_buffer_mb"))
+                    .toInstance(16.0);
                 bind(String.class).annotatedWith(Names.named("che.api")).toInstance("api-endpoint");
+                bind(Boolean.class)
+                    .annotatedWith(Names.named("che.fs.tree_walker.incremental"))
+                    .toInstance(false);
+                bind(Long.class)
+                    .annotatedWith(Names.named("che.core.jsonrpc.batch.window_ms"))
+                    .toInstance(0L);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.core.jsonrpc.batch.max_size"))
+                    .toInstance(1);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.core.jsonrpc.processor.max_pool_size"))
+                    .toInstance(10);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.core.jsonrpc.processor.queue_capacity"))
+                    .toInstance(100);
+                bind(String.class)
+                    .annotatedWith(Names.named("che.core.jsonrpc.processor.method_groups"))
+                    .toInstance("");
                 bind(String.class)
                     .annotatedWith(Names.named("project.importer.default_importer_id"))
                     .toInstance("git");
@@ -103,12 +103,16 @@ public class TextDocumentService {
 
   private final LanguageServerRegistry languageServerRegistry;
   private final RequestHandlerConfigurator requestHandler;
+  private final TextDocumentSynchronizer synchronizer;
 
   @Inject
   public TextDocumentService(
-      LanguageServerRegistry languageServerRegistry, RequestHandlerConfigurator requestHandler) {
+      LanguageServerRegistry languageServerRegistry,
+      RequestHandlerConfigurator requestHandler,
+      TextDocumentSynchronizer synchronizer) {
     this.languageServerRegistry = languageServerRegistry;
     this.requestHandler = requestHandler;
+    this.synchronizer = synchronizer;
   }
 
   @PostConstruct
@@ -656,15 +660,7 @@ public class TextDocumentService {
       String uri = prefixURI(didChangeTextDocumentParams.getTextDocument().getUri());
       didChangeTextDocumentParams.getTextDocument().setUri(uri);
       didChangeTextDocumentParams.setUri(prefixURI(didChangeTextDocumentParams.getUri()));
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didChange(didChangeTextDocumentParams);
-              });
+      synchronizer.didChange(didChangeTextDocumentParams);
     } catch (LanguageServerException e) {
       LOG.error("Error trying to process textDocument/didChange", e);
     }
@@ -674,15 +670,7 @@ public class TextDocumentService {
     try {
       String uri = prefixURI(openTextDocumentParams.getTextDocument().getUri());
       openTextDocumentParams.getTextDocument().setUri(uri);
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didOpen(openTextDocumentParams);
-              });
+      synchronizer.didOpen(openTextDocumentParams);
     } catch (LanguageServerException e) {
       LOG.error("Error trying to process textDocument/didOpen", e);
     }
@@ -692,15 +680,7 @@ public class TextDocumentService {
     try {
       String uri = prefixURI(didCloseTextDocumentParams.getTextDocument().getUri());
       didCloseTextDocumentParams.getTextDocument().setUri(uri);
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didClose(didCloseTextDocumentParams);
-              });
+      synchronizer.didClose(didCloseTextDocumentParams);
     } catch (LanguageServerException e) {
       LOG.error("Error trying to process textDocument/didOpen", e);
     }
@@ -710,15 +690,7 @@ public class TextDocumentService {
     try {
       String uri = prefixURI(didSaveTextDocumentParams.getTextDocument().getUri());
       didSaveTextDocumentParams.getTextDocument().setUri(uri);
-      languageServerRegistry
-          .getApplicableLanguageServers(uri)
-          .stream()
-          .flatMap(Collection::stream)
-          .map(InitializedLanguageServer::getServer)
-          .forEach(
-              server -> {
-                server.getTextDocumentService().didSave(didSaveTextDocumentParams);
-              });
+      synchronizer.didSave(didSaveTextDocumentParams);
     } catch (LanguageServerException e) {
       LOG.error("Error trying to process textDocument/didSave", e);
     }
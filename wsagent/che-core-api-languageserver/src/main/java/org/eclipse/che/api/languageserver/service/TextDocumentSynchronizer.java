@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.languageserver.exception.LanguageServerException;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.registry.LanguageServerRegistry;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.TextDocumentSyncOptions;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Synchronizes opened text documents with the language servers they are applicable to.
+ *
+ * <p>Language servers of a document are resolved when the document is opened and are reused for all
+ * the notifications about the document until it is closed. Changes of a document are queued
+ * separately for each of its servers and are sent in a single notification after the debounce
+ * window, during which the adjacent incremental edits (e.g. typed characters) are merged and full
+ * content changes override the changes made before them. Servers that don't want to be notified
+ * about changes ({@link TextDocumentSyncKind#None}) don't receive them. Queued changes are sent
+ * before any other notification about the document, so each server receives notifications in the
+ * order of document versions. Notifications are sent by a separate thread of each server, so a slow
+ * server doesn't delay notifications to the others.
+ *
+ * <p>Language servers that are initialized after the document is opened are not notified about it
+ * until it is opened again, as they haven't received its content. Servers are resolved again by the
+ * next change only if none of them was initialized when the document was opened. Changes that
+ * arrive after the document is closed are dropped and don't make it opened again.
+ */
+@Singleton
+public class TextDocumentSynchronizer {
+  private static final Logger LOG = LoggerFactory.getLogger(TextDocumentSynchronizer.class);
+
+  private final LanguageServerRegistry languageServerRegistry;
+  private final long debounceMillis;
+  private final ScheduledExecutorService scheduler;
+  private final ThreadFactory senderThreadFactory;
+  private final Map<String, ExecutorService> senders = new ConcurrentHashMap<>();
+  private final Map<String, List<ServerDocumentSync>> documents = new ConcurrentHashMap<>();
+
+  /** Recently closed documents, late changes of which are dropped. */
+  private final Cache<String, Boolean> closedDocuments =
+      CacheBuilder.newBuilder().expireAfterWrite(1, MINUTES).build();
+
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final AtomicLong receivedChangesCount = new AtomicLong();
+  private final AtomicLong sentChangesCount = new AtomicLong();
+  private final AtomicLong sentNotificationsCount = new AtomicLong();
+
+  @Inject
+  public TextDocumentSynchronizer(
+      LanguageServerRegistry languageServerRegistry,
+      @Named("che.languageserver.did_change.debounce_ms") long debounceMillis) {
+    this.languageServerRegistry = languageServerRegistry;
+    this.debounceMillis = debounceMillis;
+    this.scheduler =
+        newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("TextDocumentSynchronizer-%d")
+                .setDaemon(true)
+                .build());
+    this.senderThreadFactory =
+        new ThreadFactoryBuilder()
+            .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+            .setNameFormat("TextDocumentSynchronizer-sender-%d")
+            .setDaemon(true)
+            .build();
+  }
+
+  /**
+   * Resolves language servers of the opened document and notifies them.
+   *
+   * @param params notification parameters, URI of the document must be prefixed
+   */
+  public void didOpen(DidOpenTextDocumentParams params) throws LanguageServerException {
+    String uri = params.getTextDocument().getUri();
+    List<ServerDocumentSync> syncs = createSyncs(uri);
+    documents.compute(
+        uri,
+        (key, previous) -> {
+          closedDocuments.invalidate(uri);
+          // changes queued before reopening are sent before servers are notified about opening
+          if (previous != null) {
+            previous.forEach(ServerDocumentSync::close);
+          }
+          for (ServerDocumentSync sync : syncs) {
+            sync.send(() -> sync.server.getServer().getTextDocumentService().didOpen(params));
+          }
+          // servers are resolved again while none of them is initialized
+          return syncs.isEmpty() ? null : syncs;
+        });
+  }
+
+  /**
+   * Queues changes of the document for each of its language servers. Changes of the document that
+   * is being closed or was recently closed are dropped.
+   *
+   * @param params notification parameters, URI of the document must be prefixed
+   */
+  public void didChange(DidChangeTextDocumentParams params) throws LanguageServerException {
+    String uri = params.getTextDocument().getUri();
+    receivedChangesCount.addAndGet(params.getContentChanges().size());
+    List<ServerDocumentSync> syncs = documents.get(uri);
+    if (syncs == null) {
+      // the document was opened before its language servers were initialized
+      List<ServerDocumentSync> created = createSyncs(uri);
+      syncs =
+          documents.compute(
+              uri,
+              (key, current) -> {
+                if (current != null) {
+                  return current;
+                }
+                // the change is late, the document is already closed
+                boolean closed = closedDocuments.getIfPresent(uri) != null;
+                return closed || created.isEmpty() ? null : created;
+              });
+      if (syncs == null) {
+        return;
+      }
+    }
+    for (ServerDocumentSync sync : syncs) {
+      sync.offer(params);
+    }
+  }
+
+  /**
+   * Sends queued changes of the document and then notifies its language servers about saving.
+   *
+   * @param params notification parameters, URI of the document must be prefixed
+   */
+  public void didSave(DidSaveTextDocumentParams params) throws LanguageServerException {
+    String uri = params.getTextDocument().getUri();
+    for (ServerDocumentSync sync : getSyncs(uri)) {
+      sync.flush();
+      sync.send(() -> sync.server.getServer().getTextDocumentService().didSave(params));
+    }
+  }
+
+  /**
+   * Sends queued changes of the document, notifies its language servers about closing and forgets
+   * the document.
+   *
+   * @param params notification parameters, URI of the document must be prefixed
+   */
+  public void didClose(DidCloseTextDocumentParams params) throws LanguageServerException {
+    String uri = params.getTextDocument().getUri();
+    // marked before removal, so changes handled concurrently can't open the document again
+    closedDocuments.put(uri, Boolean.TRUE);
+    List<ServerDocumentSync> syncs = documents.remove(uri);
+    if (syncs == null) {
+      syncs = createSyncs(uri);
+    }
+    for (ServerDocumentSync sync : syncs) {
+      sync.close();
+      sync.send(() -> sync.server.getServer().getTextDocumentService().didClose(params));
+    }
+  }
+
+  /** Returns number of changes that are queued to be sent to language servers. */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /** Returns number of changes that are queued to be sent to language servers of the document. */
+  public int getQueueDepth(String uri) {
+    List<ServerDocumentSync> syncs = documents.get(uri);
+    if (syncs == null) {
+      return 0;
+    }
+    int depth = 0;
+    for (ServerDocumentSync sync : syncs) {
+      depth += sync.getDepth();
+    }
+    return depth;
+  }
+
+  /** Returns number of changes received from clients. */
+  public long getReceivedChangesCount() {
+    return receivedChangesCount.get();
+  }
+
+  /** Returns number of changes sent to language servers after merging. */
+  public long getSentChangesCount() {
+    return sentChangesCount.get();
+  }
+
+  /** Returns number of change notifications sent to language servers. */
+  public long getSentNotificationsCount() {
+    return sentNotificationsCount.get();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    senders.values().forEach(ExecutorService::shutdownNow);
+  }
+
+  /**
+   * Merges changes that are applied one after another into the smaller list of changes that has the
+   * same effect. Changes before a full content change are dropped, an insertion or a deletion right
+   * after the text inserted by the previous single line change is merged into that change.
+   */
+  static List<TextDocumentContentChangeEvent> merge(List<TextDocumentContentChangeEvent> changes) {
+    List<TextDocumentContentChangeEvent> merged = new ArrayList<>(changes.size());
+    for (TextDocumentContentChangeEvent change : changes) {
+      if (change.getRange() == null) {
+        merged.clear();
+        merged.add(change);
+        continue;
+      }
+      if (!merged.isEmpty()) {
+        TextDocumentContentChangeEvent adjacent = merge(merged.get(merged.size() - 1), change);
+        if (adjacent != null) {
+          merged.set(merged.size() - 1, adjacent);
+          continue;
+        }
+      }
+      merged.add(change);
+    }
+    return merged;
+  }
+
+  /** Returns single change that has the same effect as the given two or {@code null}. */
+  private static TextDocumentContentChangeEvent merge(
+      TextDocumentContentChangeEvent first, TextDocumentContentChangeEvent second) {
+    String text = first.getText();
+    if (first.getRange() == null || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+      return null;
+    }
+    Position start = first.getRange().getStart();
+    Position end = second.getRange().getEnd();
+    if (end.getLine() != start.getLine()
+        || end.getCharacter() != start.getCharacter() + text.length()) {
+      // the second change doesn't end right after the inserted text
+      return null;
+    }
+
+    Position secondStart = second.getRange().getStart();
+    String mergedText;
+    if (secondStart.getLine() == end.getLine()
+        && secondStart.getCharacter() == end.getCharacter()) {
+      mergedText = text + second.getText();
+    } else if (second.getText().isEmpty()
+        && secondStart.getLine() == start.getLine()
+        && secondStart.getCharacter() >= start.getCharacter()) {
+      mergedText = text.substring(0, secondStart.getCharacter() - start.getCharacter());
+    } else {
+      return null;
+    }
+
+    TextDocumentContentChangeEvent merged = new TextDocumentContentChangeEvent();
+    merged.setRange(new Range(start, first.getRange().getEnd()));
+    merged.setRangeLength(first.getRangeLength());
+    merged.setText(mergedText);
+    return merged;
+  }
+
+  private List<ServerDocumentSync> getSyncs(String uri) throws LanguageServerException {
+    List<ServerDocumentSync> syncs = documents.get(uri);
+    return syncs != null ? syncs : createSyncs(uri);
+  }
+
+  private List<ServerDocumentSync> createSyncs(String uri) throws LanguageServerException {
+    return languageServerRegistry
+        .getApplicableLanguageServers(uri)
+        .stream()
+        .flatMap(Collection::stream)
+        .map(server -> new ServerDocumentSync(uri, server))
+        .collect(Collectors.toList());
+  }
+
+  /** Returns executor that sends notifications to the language server one after another. */
+  private ExecutorService getSender(InitializedLanguageServer server) {
+    return senders.computeIfAbsent(
+        server.getId(),
+        id -> {
+          ThreadPoolExecutor sender =
+              new ThreadPoolExecutor(
+                  1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), senderThreadFactory);
+          sender.allowCoreThreadTimeOut(true);
+          return sender;
+        });
+  }
+
+  private static TextDocumentSyncKind getSyncKind(InitializedLanguageServer server) {
+    Either<TextDocumentSyncKind, TextDocumentSyncOptions> sync =
+        server.getInitializeResult().getCapabilities().getTextDocumentSync();
+    if (sync == null) {
+      return TextDocumentSyncKind.None;
+    }
+    if (sync.isLeft()) {
+      return sync.getLeft();
+    }
+    TextDocumentSyncKind change = sync.getRight().getChange();
+    return change != null ? change : TextDocumentSyncKind.None;
+  }
+
+  /** Changes of a single document queued for a single language server. */
+  private class ServerDocumentSync {
+    private final String uri;
+    private final InitializedLanguageServer server;
+    private final TextDocumentSyncKind syncKind;
+
+    /** Queued changes ordered by versions of the document. */
+    private final List<DidChangeTextDocumentParams> pending = new ArrayList<>();
+
+    private int depth;
+    private boolean scheduled;
+    private boolean closed;
+
+    private ServerDocumentSync(String uri, InitializedLanguageServer server) {
+      this.uri = uri;
+      this.server = server;
+      this.syncKind = getSyncKind(server);
+    }
+
+    private void offer(DidChangeTextDocumentParams params) {
+      if (syncKind == TextDocumentSyncKind.None) {
+        return;
+      }
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        // notifications may be handled concurrently, so they are not always offered in order
+        int index = pending.size();
+        while (index > 0 && getVersion(pending.get(index - 1)) > getVersion(params)) {
+          index--;
+        }
+        pending.add(index, params);
+        depth += params.getContentChanges().size();
+        queueDepth.addAndGet(params.getContentChanges().size());
+
+        if (debounceMillis > 0) {
+          if (!scheduled) {
+            scheduled = true;
+            scheduler.schedule(this::flush, debounceMillis, MILLISECONDS);
+          }
+          return;
+        }
+      }
+      flush();
+    }
+
+    /** Sends queued changes in a single notification. */
+    private synchronized void flush() {
+      scheduled = false;
+      if (pending.isEmpty()) {
+        return;
+      }
+
+      List<TextDocumentContentChangeEvent> changes = new ArrayList<>(depth);
+      for (DidChangeTextDocumentParams params : pending) {
+        changes.addAll(params.getContentChanges());
+      }
+      DidChangeTextDocumentParams last = pending.get(pending.size() - 1);
+      queueDepth.addAndGet(-depth);
+      pending.clear();
+      depth = 0;
+
+      List<TextDocumentContentChangeEvent> merged = merge(changes);
+      VersionedTextDocumentIdentifier document = new VersionedTextDocumentIdentifier();
+      document.setUri(uri);
+      document.setVersion(last.getTextDocument().getVersion());
+      DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+      params.setTextDocument(document);
+      params.setUri(last.getUri());
+      params.setContentChanges(merged);
+
+      sentChangesCount.addAndGet(merged.size());
+      sentNotificationsCount.incrementAndGet();
+      send(() -> server.getServer().getTextDocumentService().didChange(params));
+    }
+
+    /** Sends queued changes and drops the changes offered after that. */
+    private synchronized void close() {
+      flush();
+      closed = true;
+    }
+
+    private synchronized int getDepth() {
+      return depth;
+    }
+
+    /**
+     * Queues the notification to be sent by the thread of the language server, so it is not sent
+     * while the lock is held, but it is sent after the notifications queued before it.
+     */
+    private void send(Runnable notification) {
+      try {
+        getSender(server)
+            .execute(
+                () -> {
+                  try {
+                    notification.run();
+                  } catch (RuntimeException e) {
+                    LOG.error("Error while notifying language server about document '{}'", uri, e);
+                  }
+                });
+      } catch (RejectedExecutionException e) {
+        LOG.warn("Notification about document '{}' is not sent, synchronizer is stopped", uri);
+      }
+    }
+
+    private int getVersion(DidChangeTextDocumentParams params) {
+      Integer version = params.getTextDocument().getVersion();
+      return version != null ? version : Integer.MAX_VALUE;
+    }
+  }
+}
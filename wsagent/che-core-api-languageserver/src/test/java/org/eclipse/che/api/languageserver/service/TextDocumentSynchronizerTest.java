@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import org.eclipse.che.api.languageserver.registry.InitializedLanguageServer;
+import org.eclipse.che.api.languageserver.registry.LanguageServerRegistry;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.eclipse.lsp4j.services.TextDocumentService;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TextDocumentSynchronizer} */
+@Listeners(MockitoTestNGListener.class)
+public class TextDocumentSynchronizerTest {
+  private static final String URI = "file:///projects/p/Main.java";
+  private static final int TIMEOUT_MS = 5_000;
+
+  @Mock private LanguageServerRegistry registry;
+  @Mock private LanguageServer incrementalServer;
+  @Mock private LanguageServer noneServer;
+  @Mock private TextDocumentService incrementalService;
+  @Mock private TextDocumentService noneService;
+
+  private TextDocumentSynchronizer synchronizer;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(incrementalServer.getTextDocumentService()).thenReturn(incrementalService);
+    when(noneServer.getTextDocumentService()).thenReturn(noneService);
+    when(registry.getApplicableLanguageServers(URI))
+        .thenReturn(
+            singletonList(
+                asList(
+                    createServer("1", incrementalServer, TextDocumentSyncKind.Incremental),
+                    createServer("2", noneServer, TextDocumentSyncKind.None))));
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    if (synchronizer != null) {
+      synchronizer.shutdown();
+      synchronizer = null;
+    }
+  }
+
+  @Test
+  public void shouldSendChangesImmediatelyIfDebounceIsDisabled() throws Exception {
+    synchronizer = new TextDocumentSynchronizer(registry, 0);
+
+    synchronizer.didChange(createChange(1, insertion(0, 0, "a")));
+
+    verify(incrementalService, timeout(TIMEOUT_MS))
+        .didChange(any(DidChangeTextDocumentParams.class));
+    verify(noneService, never()).didChange(any(DidChangeTextDocumentParams.class));
+    assertEquals(synchronizer.getQueueDepth(), 0);
+  }
+
+  @Test
+  public void shouldSendQueuedChangesInOneNotificationBeforeSave() throws Exception {
+    synchronizer = new TextDocumentSynchronizer(registry, 60_000);
+    synchronizer.didOpen(
+        new DidOpenTextDocumentParams(new TextDocumentItem(URI, "java", 0, "class A {}")));
+
+    synchronizer.didChange(createChange(2, insertion(0, 1, "b")));
+    synchronizer.didChange(createChange(1, insertion(0, 0, "a")));
+    synchronizer.didChange(createChange(3, insertion(0, 2, "c")));
+
+    assertEquals(synchronizer.getQueueDepth(), 3);
+    assertEquals(synchronizer.getQueueDepth(URI), 3);
+    verify(incrementalService, never()).didChange(any(DidChangeTextDocumentParams.class));
+
+    DidSaveTextDocumentParams save = new DidSaveTextDocumentParams(new TextDocumentIdentifier(URI));
+    synchronizer.didSave(save);
+
+    ArgumentCaptor<DidChangeTextDocumentParams> captor =
+        ArgumentCaptor.forClass(DidChangeTextDocumentParams.class);
+    verify(incrementalService, timeout(TIMEOUT_MS)).didSave(save);
+    InOrder inOrder = inOrder(incrementalService);
+    inOrder.verify(incrementalService).didOpen(any(DidOpenTextDocumentParams.class));
+    inOrder.verify(incrementalService).didChange(captor.capture());
+    inOrder.verify(incrementalService).didSave(save);
+    DidChangeTextDocumentParams sent = captor.getValue();
+    assertEquals(sent.getTextDocument().getVersion(), Integer.valueOf(3));
+    assertEquals(sent.getContentChanges().size(), 1);
+    assertEquals(sent.getContentChanges().get(0).getText(), "abc");
+    assertEquals(synchronizer.getQueueDepth(), 0);
+    assertEquals(synchronizer.getReceivedChangesCount(), 3);
+    assertEquals(synchronizer.getSentChangesCount(), 1);
+    assertEquals(synchronizer.getSentNotificationsCount(), 1);
+  }
+
+  @Test
+  public void shouldNotSendChangesAfterDocumentIsClosed() throws Exception {
+    synchronizer = new TextDocumentSynchronizer(registry, 100);
+    synchronizer.didOpen(
+        new DidOpenTextDocumentParams(new TextDocumentItem(URI, "java", 0, "class A {}")));
+    synchronizer.didChange(createChange(1, insertion(0, 0, "a")));
+
+    DidCloseTextDocumentParams close =
+        new DidCloseTextDocumentParams(new TextDocumentIdentifier(URI));
+    synchronizer.didClose(close);
+
+    // the flush scheduled by the change must not send anything after closing
+    verify(incrementalService, after(500)).didChange(any(DidChangeTextDocumentParams.class));
+    InOrder inOrder = inOrder(incrementalService);
+    inOrder.verify(incrementalService).didOpen(any(DidOpenTextDocumentParams.class));
+    inOrder.verify(incrementalService).didChange(any(DidChangeTextDocumentParams.class));
+    inOrder.verify(incrementalService).didClose(close);
+    inOrder.verifyNoMoreInteractions();
+    assertEquals(synchronizer.getQueueDepth(), 0);
+  }
+
+  @Test
+  public void shouldDropChangesThatArriveAfterDocumentIsClosed() throws Exception {
+    synchronizer = new TextDocumentSynchronizer(registry, 0);
+    DidOpenTextDocumentParams open =
+        new DidOpenTextDocumentParams(new TextDocumentItem(URI, "java", 0, "class A {}"));
+    DidCloseTextDocumentParams close =
+        new DidCloseTextDocumentParams(new TextDocumentIdentifier(URI));
+    synchronizer.didOpen(open);
+    synchronizer.didClose(close);
+
+    synchronizer.didChange(createChange(1, insertion(0, 0, "a")));
+
+    verify(incrementalService, timeout(TIMEOUT_MS)).didClose(close);
+    verify(incrementalService, after(200).never())
+        .didChange(any(DidChangeTextDocumentParams.class));
+
+    synchronizer.didOpen(open);
+    synchronizer.didChange(createChange(1, insertion(0, 0, "a")));
+
+    verify(incrementalService, timeout(TIMEOUT_MS))
+        .didChange(any(DidChangeTextDocumentParams.class));
+  }
+
+  @Test
+  public void shouldSendQueuedChangesBeforeDocumentIsReopened() throws Exception {
+    synchronizer = new TextDocumentSynchronizer(registry, 60_000);
+    DidOpenTextDocumentParams open =
+        new DidOpenTextDocumentParams(new TextDocumentItem(URI, "java", 0, "class A {}"));
+    DidOpenTextDocumentParams reopen =
+        new DidOpenTextDocumentParams(new TextDocumentItem(URI, "java", 2, "class AB {}"));
+    synchronizer.didOpen(open);
+    synchronizer.didChange(createChange(1, insertion(0, 0, "a")));
+
+    synchronizer.didOpen(reopen);
+    synchronizer.didChange(createChange(3, insertion(0, 1, "b")));
+
+    verify(incrementalService, timeout(TIMEOUT_MS)).didOpen(reopen);
+    InOrder inOrder = inOrder(incrementalService);
+    inOrder.verify(incrementalService).didOpen(open);
+    inOrder.verify(incrementalService).didChange(any(DidChangeTextDocumentParams.class));
+    inOrder.verify(incrementalService).didOpen(reopen);
+    inOrder.verifyNoMoreInteractions();
+    assertEquals(synchronizer.getQueueDepth(URI), 1);
+  }
+
+  @Test
+  public void shouldMergeTypedCharacters() {
+    List<TextDocumentContentChangeEvent> merged =
+        TextDocumentSynchronizer.merge(
+            asList(insertion(2, 4, "f"), insertion(2, 5, "o"), insertion(2, 6, "o")));
+
+    assertEquals(merged.size(), 1);
+    assertEquals(merged.get(0).getRange(), range(2, 4, 2, 4));
+    assertEquals(merged.get(0).getText(), "foo");
+  }
+
+  @Test
+  public void shouldMergeDeletionOfInsertedText() {
+    List<TextDocumentContentChangeEvent> merged =
+        TextDocumentSynchronizer.merge(
+            asList(change(range(1, 0, 1, 3), "abcd"), change(range(1, 2, 1, 4), "")));
+
+    assertEquals(merged.size(), 1);
+    assertEquals(merged.get(0).getRange(), range(1, 0, 1, 3));
+    assertEquals(merged.get(0).getText(), "ab");
+  }
+
+  @Test
+  public void shouldNotMergeChangesThatAreNotAdjacent() {
+    List<TextDocumentContentChangeEvent> changes =
+        asList(insertion(0, 0, "a"), insertion(0, 5, "b"), insertion(1, 1, "c"));
+
+    assertEquals(TextDocumentSynchronizer.merge(changes), changes);
+  }
+
+  @Test
+  public void shouldNotMergeChangesAfterInsertedLineBreak() {
+    List<TextDocumentContentChangeEvent> changes =
+        asList(insertion(0, 0, "a\n"), insertion(0, 2, "b"));
+
+    assertEquals(TextDocumentSynchronizer.merge(changes), changes);
+  }
+
+  @Test
+  public void shouldDropChangesBeforeFullContentChange() {
+    TextDocumentContentChangeEvent full = change(null, "class B {}");
+
+    List<TextDocumentContentChangeEvent> merged =
+        TextDocumentSynchronizer.merge(asList(insertion(0, 0, "a"), full, insertion(0, 0, "b")));
+
+    assertEquals(merged.size(), 2);
+    assertEquals(merged.get(0), full);
+    assertNull(merged.get(0).getRange());
+    assertEquals(merged.get(1).getText(), "b");
+  }
+
+  private static InitializedLanguageServer createServer(
+      String id, LanguageServer server, TextDocumentSyncKind syncKind) {
+    ServerCapabilities capabilities = new ServerCapabilities();
+    capabilities.setTextDocumentSync(Either.forLeft(syncKind));
+    return new InitializedLanguageServer(id, server, new InitializeResult(capabilities), null);
+  }
+
+  private static DidChangeTextDocumentParams createChange(
+      int version, TextDocumentContentChangeEvent change) {
+    DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+    VersionedTextDocumentIdentifier document = new VersionedTextDocumentIdentifier();
+    document.setUri(URI);
+    document.setVersion(version);
+    params.setTextDocument(document);
+    params.setUri(URI);
+    params.setContentChanges(singletonList(change));
+    return params;
+  }
+
+  private static TextDocumentContentChangeEvent insertion(int line, int character, String text) {
+    return change(range(line, character, line, character), text);
+  }
+
+  private static TextDocumentContentChangeEvent change(Range range, String text) {
+    TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+    change.setRange(range);
+    change.setText(text);
+    return change;
+  }
+
+  private static Range range(int startLine, int startCharacter, int endLine, int endCharacter) {
+    return new Range(new Position(startLine, startCharacter), new Position(endLine, endCharacter));
+  }
+}
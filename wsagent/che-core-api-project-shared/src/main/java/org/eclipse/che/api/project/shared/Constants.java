@@ -37,6 +37,10 @@ public class Constants {
 
   public static final String EVENT_IMPORT_OUTPUT_PROGRESS = "importProject/progress";
 
+  public static final String EVENT_SEARCH_INDEXING_PROGRESS = "search/indexing/progress";
+  public static final String EVENT_SEARCH_INDEXING_SUBSCRIBE = "search/indexing/subscribe";
+  public static final String EVENT_SEARCH_INDEXING_UNSUBSCRIBE = "search/indexing/unsubscribe";
+
   public static final String WS_PATH_STRICT = "WS_PATH_STRICT";
 
   private Constants() {}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.shared.dto.event;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/** Progress of indexing of a directory by the search engine. */
+@DTO
+public interface SearchIndexingProgressDto {
+  /** Returns workspace path of the directory being indexed. */
+  String getPath();
+
+  SearchIndexingProgressDto withPath(String path);
+
+  /** Returns number of files found so far that should be indexed. */
+  int getDiscovered();
+
+  SearchIndexingProgressDto withDiscovered(int discovered);
+
+  /** Returns number of files that are already indexed. */
+  int getIndexed();
+
+  SearchIndexingProgressDto withIndexed(int indexed);
+
+  /** Returns {@code true} when indexing of the directory is completed. */
+  boolean isCompleted();
+
+  SearchIndexingProgressDto withCompleted(boolean completed);
+}
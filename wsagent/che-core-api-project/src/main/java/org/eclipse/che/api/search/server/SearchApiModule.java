@@ -25,6 +25,7 @@ import org.eclipse.che.api.search.server.consumers.IndexedFileUpdateConsumer;
 import org.eclipse.che.api.search.server.excludes.DotCheExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.DotNumberSignExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.HiddenItemPathMatcher;
+import org.eclipse.che.api.search.server.excludes.IndexDirectoryExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.MediaTypesExcludeMatcher;
 import org.eclipse.che.api.search.server.impl.LuceneSearcher;
 
@@ -50,5 +51,9 @@ public class SearchApiModule extends AbstractModule {
     newSetBinder(binder(), new TypeLiteral<Consumer<Path>>() {}, Names.named("che.fs.file.delete"))
         .addBinding()
         .to(IndexedFileDeleteConsumer.class);
+
+    newSetBinder(binder(), PathMatcher.class, Names.named("che.fs.directory.excludes"))
+        .addBinding()
+        .to(IndexDirectoryExcludeMatcher.class);
   }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.excludes;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Matches the search index directory and its content, so that the index is not walked by the file
+ * tree walker when it is stored in the projects root.
+ */
+@Singleton
+public class IndexDirectoryExcludeMatcher implements PathMatcher {
+
+  private final Path indexDirectory;
+
+  @Inject
+  public IndexDirectoryExcludeMatcher(@Named("vfs.local.fs_index_root_dir") File indexDirectory) {
+    this.indexDirectory = indexDirectory.toPath().toAbsolutePath().normalize();
+  }
+
+  @Override
+  public boolean matches(Path fsPath) {
+    return fsPath.toAbsolutePath().normalize().startsWith(indexDirectory);
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import org.apache.lucene.document.Document;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes files of a directory in several stages running in parallel. The calling thread walks the
+ * directory tree, reader threads read the found files and create documents, created documents are
+ * passed through a bounded queue to writer threads that add them to the index. Both queues are
+ * bounded, so memory used by indexing does not depend on the size of the directory.
+ */
+class IndexingPipeline {
+  private static final Logger LOG = LoggerFactory.getLogger(IndexingPipeline.class);
+
+  private static final Path END_OF_FILES = Paths.get("");
+  private static final Document END_OF_DOCUMENTS = new Document();
+
+  /** Creates a document for a file. */
+  interface DocumentReader {
+    /** Returns document for the file or {@code null} if the file should not be indexed. */
+    Document read(Path file) throws IOException;
+  }
+
+  /** Adds a document to the index, must be safe to call from several threads. */
+  interface DocumentWriter {
+    void write(Document document) throws IOException;
+  }
+
+  /** Receives indexing progress. */
+  interface ProgressListener {
+    void onProgress(int discovered, int indexed, boolean completed);
+  }
+
+  private final DocumentReader reader;
+  private final DocumentWriter writer;
+  private final int threads;
+  private final int queueCapacity;
+  private final long progressIntervalMillis;
+
+  IndexingPipeline(
+      DocumentReader reader,
+      DocumentWriter writer,
+      int threads,
+      int queueCapacity,
+      long progressIntervalMillis) {
+    this.reader = reader;
+    this.writer = writer;
+    this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.queueCapacity = queueCapacity;
+    this.progressIntervalMillis = progressIntervalMillis;
+  }
+
+  /**
+   * Indexes files of the directory, returns when all the files are added to the index.
+   *
+   * @param directory directory to index
+   * @param filter accepts files (and their attributes) that should be indexed
+   * @param listener receives indexing progress
+   * @throws IOException if the directory can't be walked
+   */
+  void index(
+      Path directory, BiPredicate<Path, BasicFileAttributes> filter, ProgressListener listener)
+      throws IOException {
+    Run run = new Run(listener);
+    ExecutorService executor =
+        newFixedThreadPool(
+            threads * 2,
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("LuceneIndexer-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      for (int i = 0; i < threads; i++) {
+        executor.execute(run::readFiles);
+        executor.execute(run::writeDocuments);
+      }
+
+      try {
+        run.walk(directory, filter);
+      } finally {
+        run.finish();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      executor.shutdown();
+    }
+
+    listener.onProgress(run.discovered.get(), run.indexed.get(), true);
+  }
+
+  /** State of a single indexing run. */
+  private class Run {
+    private final BlockingQueue<Path> files = new ArrayBlockingQueue<>(queueCapacity);
+    private final BlockingQueue<Document> documents = new ArrayBlockingQueue<>(queueCapacity);
+    private final CountDownLatch readersDone = new CountDownLatch(threads);
+    private final CountDownLatch writersDone = new CountDownLatch(threads);
+    private final AtomicInteger discovered = new AtomicInteger();
+    private final AtomicInteger indexed = new AtomicInteger();
+    private final AtomicLong lastProgress = new AtomicLong(System.currentTimeMillis());
+    private final ProgressListener listener;
+
+    private Run(ProgressListener listener) {
+      this.listener = listener;
+    }
+
+    private void walk(Path directory, BiPredicate<Path, BasicFileAttributes> filter)
+        throws IOException, InterruptedException {
+      Files.walkFileTree(
+          directory,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              if (!filter.test(file, attrs)) {
+                return FileVisitResult.CONTINUE;
+              }
+              try {
+                files.put(file);
+                discovered.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return FileVisitResult.TERMINATE;
+              }
+            }
+          });
+
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedException();
+      }
+    }
+
+    /** Stops readers and then writers when all the queued files are processed. */
+    private void finish() throws InterruptedException {
+      for (int i = 0; i < threads; i++) {
+        files.put(END_OF_FILES);
+      }
+      readersDone.await();
+      for (int i = 0; i < threads; i++) {
+        documents.put(END_OF_DOCUMENTS);
+      }
+      writersDone.await();
+    }
+
+    private void readFiles() {
+      try {
+        for (Path file = files.take(); file != END_OF_FILES; file = files.take()) {
+          try {
+            Document document = reader.read(file);
+            if (document != null) {
+              documents.put(document);
+            } else {
+              onIndexed();
+            }
+          } catch (IOException | RuntimeException e) {
+            LOG.warn("Can't index file: {} because {}", file, e.getMessage());
+            onIndexed();
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        readersDone.countDown();
+      }
+    }
+
+    private void writeDocuments() {
+      try {
+        for (Document document = documents.take();
+            document != END_OF_DOCUMENTS;
+            document = documents.take()) {
+          try {
+            writer.write(document);
+          } catch (IOException | RuntimeException e) {
+            LOG.warn("Can't add document to index because {}", e.getMessage());
+          }
+          onIndexed();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        writersDone.countDown();
+      }
+    }
+
+    private void onIndexed() {
+      int indexedNow = indexed.incrementAndGet();
+      long now = System.currentTimeMillis();
+      long last = lastProgress.get();
+      if (now - last >= progressIntervalMillis && lastProgress.compareAndSet(last, now)) {
+        try {
+          listener.onProgress(discovered.get(), indexedNow, false);
+        } catch (RuntimeException e) {
+          LOG.warn("Can't report indexing progress because {}", e.getMessage());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of the lines of a text. Offsets are collected in a single pass over the text, after that
+ * the line of any offset is found with a binary search. Lines are separated in the same way as
+ * {@link java.util.Scanner#nextLine()} does.
+ */
+class LineIndex {
+  private final String text;
+  /** Offset of the first character of each line. */
+  private final int[] starts;
+  /** Offset of the line separator (or the end of the text) of each line. */
+  private final int[] ends;
+
+  private final int size;
+
+  LineIndex(String text) {
+    this.text = text;
+
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    int size = 0;
+    int start = 0;
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      if (isLineSeparator(c)) {
+        if (size == starts.length) {
+          starts = Arrays.copyOf(starts, size * 2);
+          ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = i;
+        size++;
+
+        if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+          i++;
+        }
+        start = i + 1;
+      }
+    }
+    if (start < length || size == 0) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size + 1);
+        ends = Arrays.copyOf(ends, size + 1);
+      }
+      starts[size] = start;
+      ends[size] = length;
+      size++;
+    }
+
+    this.starts = starts;
+    this.ends = ends;
+    this.size = size;
+  }
+
+  /**
+   * Returns number of the line that contains the offset.
+   *
+   * @param offset offset in the text
+   * @return 1-based line number
+   */
+  int getLineNumber(int offset) {
+    int index = Arrays.binarySearch(starts, 0, size, offset);
+    // offset that is not a line start belongs to the line that starts before it
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  /**
+   * Returns content of the line without line separator.
+   *
+   * @param lineNumber 1-based line number
+   */
+  String getLine(int lineNumber) {
+    int index = Math.max(0, Math.min(lineNumber, size) - 1);
+    return text.substring(starts[index], ends[index]);
+  }
+
+  private static boolean isLineSeparator(char c) {
+    return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+  }
+}
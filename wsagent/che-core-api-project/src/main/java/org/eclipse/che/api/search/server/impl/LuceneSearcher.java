@@ -11,10 +11,14 @@
 package org.eclipse.che.api.search.server.impl;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.eclipse.che.api.fs.server.WsPathUtils.nameOf;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
@@ -22,38 +26,49 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.MalformedInputException;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.apache.commons.io.FileUtils;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
 import org.apache.lucene.analysis.core.WhitespaceTokenizerFactory;
 import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenizerFactory;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
@@ -71,8 +86,11 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.highlight.QueryScorer;
 import org.apache.lucene.search.highlight.TokenSources;
+import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.store.SingleInstanceLockFactory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.search.server.InvalidQueryException;
@@ -81,6 +99,7 @@ import org.eclipse.che.api.search.server.QueryExecutionException;
 import org.eclipse.che.api.search.server.QueryExpression;
 import org.eclipse.che.api.search.server.SearchResult;
 import org.eclipse.che.api.search.server.Searcher;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -100,15 +119,27 @@ public class LuceneSearcher implements Searcher {
   private static final String PATH_FIELD = "path";
   private static final String NAME_FIELD = "name";
   private static final String TEXT_FIELD = "text";
+  private static final String TRIGRAM_FIELD = "text_trigram";
+  private static final String MODIFIED_FIELD = "modified";
+  private static final String SIZE_FIELD = "size";
+  private static final String INDEX_VERSION_FIELD = "index_version";
+  /** Increased when documents get new indexed fields, so the files are indexed again. */
+  private static final int INDEX_VERSION = 1;
+
+  private static final long INDEXING_PROGRESS_INTERVAL_MILLIS = 1000;
 
   private final Set<PathMatcher> excludePatterns;
   private final File indexDirectory;
   private final PathTransformer pathTransformer;
+  private final SearchIndexingProgressNotifier progressNotifier;
+  private final IndexingPipeline indexingPipeline;
+  private final ExecutorService highlightExecutor;
 
   private final File root;
   private final IndexWriter luceneIndexWriter;
   private final SearcherManager searcherManager;
   private final Analyzer analyzer;
+  private final TrigramQueryPlanner queryPlanner;
   private final CountDownLatch initialIndexingLatch = new CountDownLatch(1);
   private final Sort sort;
 
@@ -117,7 +148,11 @@ public class LuceneSearcher implements Searcher {
       @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
       @Named("vfs.local.fs_index_root_dir") File indexDirectory,
       @Named("che.user.workspaces.storage") File root,
-      PathTransformer pathTransformer)
+      @Named("che.search.indexer.threads") int indexerThreads,
+      @Named("che.search.indexer.queue_capacity") int indexerQueueCapacity,
+      @Named("che.search.indexer.ram_buffer_mb") double ramBufferSizeMB,
+      PathTransformer pathTransformer,
+      SearchIndexingProgressNotifier progressNotifier)
       throws IOException {
 
     if (indexDirectory.exists()) {
@@ -132,18 +167,88 @@ public class LuceneSearcher implements Searcher {
     this.root = root;
     this.excludePatterns = excludePatterns;
     this.pathTransformer = pathTransformer;
+    this.progressNotifier = progressNotifier;
     this.analyzer =
         CustomAnalyzer.builder()
             .withTokenizer(WhitespaceTokenizerFactory.class)
             .addTokenFilter(LowerCaseFilterFactory.class)
             .build();
-    this.luceneIndexWriter =
-        new IndexWriter(
-            FSDirectory.open(indexDirectory.toPath(), new SingleInstanceLockFactory()),
-            new IndexWriterConfig(analyzer));
-    this.searcherManager =
-        new SearcherManager(luceneIndexWriter, true, true, new SearcherFactory());
+    Analyzer trigramAnalyzer =
+        CustomAnalyzer.builder()
+            .withTokenizer(
+                NGramTokenizerFactory.class,
+                "minGramSize",
+                String.valueOf(TrigramQueryPlanner.GRAM_SIZE),
+                "maxGramSize",
+                String.valueOf(TrigramQueryPlanner.GRAM_SIZE))
+            .addTokenFilter(LowerCaseFilterFactory.class)
+            .build();
+    this.queryPlanner =
+        new TrigramQueryPlanner(TEXT_FIELD, TRIGRAM_FIELD, PATH_FIELD, trigramAnalyzer);
+    Analyzer indexAnalyzer =
+        new PerFieldAnalyzerWrapper(analyzer, ImmutableMap.of(TRIGRAM_FIELD, trigramAnalyzer));
+    IndexWriter indexWriter = null;
+    SearcherManager indexSearcherManager;
+    try {
+      indexWriter = openIndexWriter(indexAnalyzer, ramBufferSizeMB);
+      indexSearcherManager = new SearcherManager(indexWriter, true, true, new SearcherFactory());
+    } catch (LockObtainFailedException e) {
+      throw e;
+    } catch (IOException | IllegalArgumentException e) {
+      // the index is left from the previous start, so it may be corrupted by a crash or written
+      // by incompatible version of lucene, then it is removed and all the files are indexed again
+      LOG.warn(
+          "Can't open search index in '{}', it is removed and all the files are indexed again",
+          indexDirectory,
+          e);
+      if (indexWriter != null) {
+        indexWriter.rollback();
+        indexWriter.getDirectory().close();
+      }
+      FileUtils.deleteDirectory(indexDirectory);
+      Files.createDirectories(indexDirectory.toPath());
+      indexWriter = openIndexWriter(indexAnalyzer, ramBufferSizeMB);
+      indexSearcherManager = new SearcherManager(indexWriter, true, true, new SearcherFactory());
+    }
+    this.luceneIndexWriter = indexWriter;
+    this.searcherManager = indexSearcherManager;
     this.sort = new Sort(SortField.FIELD_SCORE, new SortField(PATH_FIELD, SortField.Type.STRING));
+    this.indexingPipeline =
+        new IndexingPipeline(
+            this::createDocument,
+            this::writeDocument,
+            indexerThreads,
+            indexerQueueCapacity,
+            INDEXING_PROGRESS_INTERVAL_MILLIS);
+    this.highlightExecutor =
+        newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("LuceneSearcherHighlighter-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  private IndexWriter openIndexWriter(Analyzer indexAnalyzer, double ramBufferSizeMB)
+      throws IOException {
+    // documents are added from several threads at once while a directory is indexed, so merge
+    // more segments at once to decrease the number of merges of small flushed segments
+    TieredMergePolicy mergePolicy = new TieredMergePolicy();
+    mergePolicy.setSegmentsPerTier(20);
+    mergePolicy.setMaxMergeAtOnce(20);
+    Directory directory =
+        FSDirectory.open(indexDirectory.toPath(), new SingleInstanceLockFactory());
+    try {
+      return new IndexWriter(
+          directory,
+          new IndexWriterConfig(indexAnalyzer)
+              .setRAMBufferSizeMB(ramBufferSizeMB)
+              .setMergePolicy(mergePolicy));
+    } catch (IOException | RuntimeException e) {
+      directory.close();
+      throw e;
+    }
   }
 
   @PostConstruct
@@ -154,7 +259,7 @@ public class LuceneSearcher implements Searcher {
             () -> {
               try {
                 long start = System.currentTimeMillis();
-                add(root.toPath());
+                reconcile(root.toPath());
                 LOG.info(
                     "Initial indexing complete after {} msec ", System.currentTimeMillis() - start);
               } finally {
@@ -166,6 +271,89 @@ public class LuceneSearcher implements Searcher {
     initializer.start();
   }
 
+  @PreDestroy
+  void terminate() {
+    highlightExecutor.shutdownNow();
+    try {
+      luceneIndexWriter.close();
+    } catch (IOException e) {
+      LOG.warn("Can't close index writer because {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Brings the index that is left from the previous start in sync with the files. Modification time
+   * and size of each indexed file are stored in its document, so only the files that are changed
+   * since they were indexed (or were indexed with older version of the index) are indexed again and
+   * documents of removed files are deleted.
+   */
+  private void reconcile(Path fsPath) {
+    // documents of files that are not found (or excluded) by the walk are deleted
+    Map<String, IndexedFile> notFound = readIndexedFiles();
+    LOG.info("Found {} indexed files", notFound.size());
+
+    String wsPath = pathTransformer.transform(fsPath);
+    try {
+      indexingPipeline.index(
+          fsPath,
+          (file, attrs) -> {
+            if (!isNotExcluded(file)) {
+              return false;
+            }
+            IndexedFile indexed = notFound.remove(pathTransformer.transform(file));
+            return indexed == null || indexed.isModified(attrs);
+          },
+          (discovered, indexed, completed) ->
+              progressNotifier.notify(wsPath, discovered, indexed, completed));
+
+      for (String removed : notFound.keySet()) {
+        luceneIndexWriter.deleteDocuments(new Term(PATH_FIELD, removed));
+      }
+      luceneIndexWriter.commit();
+      printStatistic();
+    } catch (IOException e) {
+      LOG.warn("Not able to index {} because {} ", fsPath.toString(), e.getMessage());
+    }
+  }
+
+  private Map<String, IndexedFile> readIndexedFiles() {
+    Map<String, IndexedFile> indexedFiles = new HashMap<>();
+    Set<String> fields =
+        ImmutableSet.of(PATH_FIELD, MODIFIED_FIELD, SIZE_FIELD, INDEX_VERSION_FIELD);
+    IndexSearcher luceneSearcher = null;
+    try {
+      searcherManager.maybeRefresh();
+      luceneSearcher = searcherManager.acquire();
+      IndexReader reader = luceneSearcher.getIndexReader();
+      Bits liveDocs = MultiFields.getLiveDocs(reader);
+      for (int docId = 0; docId < reader.maxDoc(); docId++) {
+        if (liveDocs != null && !liveDocs.get(docId)) {
+          continue;
+        }
+        Document doc = reader.document(docId, fields);
+        IndexableField modified = doc.getField(MODIFIED_FIELD);
+        IndexableField size = doc.getField(SIZE_FIELD);
+        IndexableField version = doc.getField(INDEX_VERSION_FIELD);
+        indexedFiles.put(
+            doc.get(PATH_FIELD),
+            new IndexedFile(
+                modified == null ? -1 : modified.numericValue().longValue(),
+                size == null ? -1 : size.numericValue().longValue(),
+                version == null ? -1 : version.numericValue().intValue()));
+      }
+    } catch (IOException e) {
+      LOG.warn("Can't read index, all the files are indexed again because {}", e.getMessage());
+      indexedFiles.clear();
+    } finally {
+      try {
+        searcherManager.release(luceneSearcher);
+      } catch (IOException e) {
+        LOG.error(e.getMessage());
+      }
+    }
+    return indexedFiles;
+  }
+
   @VisibleForTesting
   CountDownLatch getInitialIndexingLatch() {
     return initialIndexingLatch;
@@ -173,7 +361,9 @@ public class LuceneSearcher implements Searcher {
 
   @ScheduleRate(period = 30, initialDelay = 30)
   private void commitIndex() throws IOException {
-    luceneIndexWriter.commit();
+    if (luceneIndexWriter.isOpen()) {
+      luceneIndexWriter.commit();
+    }
   }
 
   @Override
@@ -186,95 +376,22 @@ public class LuceneSearcher implements Searcher {
       luceneSearcher = searcherManager.acquire();
 
       Query luceneQuery = createLuceneQuery(query);
+      // planned query finds the documents, the original one is used to highlight matched words
+      Query plannedQuery = queryPlanner.plan(luceneQuery, luceneSearcher);
 
       ScoreDoc after = null;
       final int numSkipDocs = Math.max(0, query.getSkipCount());
       if (numSkipDocs > 0) {
-        after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+        after = skipScoreDocs(luceneSearcher, plannedQuery, numSkipDocs);
       }
 
       final int numDocs =
           query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
-      TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs, sort, true, true);
+      TopDocs topDocs = luceneSearcher.searchAfter(after, plannedQuery, numDocs, sort, true, true);
       final long totalHitsNum = topDocs.totalHits;
 
-      List<SearchResultEntry> results = newArrayList();
-      List<OffsetData> offsetData = Collections.emptyList();
-      for (int i = 0; i < topDocs.scoreDocs.length; i++) {
-        ScoreDoc scoreDoc = topDocs.scoreDocs[i];
-        int docId = scoreDoc.doc;
-        Document doc = luceneSearcher.doc(docId);
-        if (query.isIncludePositions()) {
-          offsetData = new ArrayList<>();
-          String txt = doc.get(TEXT_FIELD);
-          if (txt != null) {
-            IndexReader reader = luceneSearcher.getIndexReader();
-
-            TokenStream tokenStream =
-                TokenSources.getTokenStream(
-                    TEXT_FIELD,
-                    reader.getTermVectors(docId),
-                    txt,
-                    luceneIndexWriter.getAnalyzer(),
-                    -1);
-
-            CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
-            OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
-
-            QueryScorer queryScorer = new QueryScorer(luceneQuery);
-            // TODO think about this constant
-            queryScorer.setMaxDocCharsToAnalyze(1_000_000);
-            TokenStream newStream = queryScorer.init(tokenStream);
-            if (newStream != null) {
-              tokenStream = newStream;
-            }
-            queryScorer.startFragment(null);
-
-            tokenStream.reset();
-
-            int startOffset, endOffset;
-            // TODO think about this constant
-            for (boolean next = tokenStream.incrementToken();
-                next && (offsetAtt.startOffset() < 1_000_000);
-                next = tokenStream.incrementToken()) {
-              startOffset = offsetAtt.startOffset();
-              endOffset = offsetAtt.endOffset();
-
-              if ((endOffset > txt.length()) || (startOffset > txt.length())) {
-                throw new QueryExecutionException(
-                    "Token "
-                        + termAtt.toString()
-                        + " exceeds length of provided text size "
-                        + txt.length());
-              }
-
-              float res = queryScorer.getTokenScore();
-              if (res > 0.0F && startOffset <= endOffset) {
-                String tokenText = txt.substring(startOffset, endOffset);
-                Scanner sc = new Scanner(txt);
-                int lineNum = 1;
-                long len = 0;
-                String foundLine = "";
-                while (sc.hasNextLine()) {
-                  foundLine = sc.nextLine();
-
-                  len += foundLine.length();
-                  if (len > startOffset) {
-                    break;
-                  }
-                  lineNum++;
-                }
-                offsetData.add(
-                    new OffsetData(tokenText, startOffset, endOffset, res, lineNum, foundLine));
-              }
-            }
-          }
-        }
-
-        String filePath = doc.getField(PATH_FIELD).stringValue();
-        LOG.debug("Doc {} path {} score {} ", docId, filePath, scoreDoc.score);
-        results.add(new SearchResultEntry(filePath, offsetData));
-      }
+      List<SearchResultEntry> results =
+          createResultEntries(luceneSearcher, luceneQuery, topDocs.scoreDocs, query);
 
       final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
@@ -304,6 +421,119 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
+  /**
+   * Creates result entries of found documents. If positions of matches are requested they are
+   * computed for different documents in parallel.
+   */
+  private List<SearchResultEntry> createResultEntries(
+      IndexSearcher luceneSearcher, Query luceneQuery, ScoreDoc[] scoreDocs, QueryExpression query)
+      throws IOException, QueryExecutionException {
+    if (!query.isIncludePositions() || scoreDocs.length < 2) {
+      List<SearchResultEntry> results = newArrayList();
+      for (ScoreDoc scoreDoc : scoreDocs) {
+        results.add(createResultEntry(luceneSearcher, luceneQuery, scoreDoc, query));
+      }
+      return results;
+    }
+
+    List<Callable<SearchResultEntry>> tasks = new ArrayList<>(scoreDocs.length);
+    for (ScoreDoc scoreDoc : scoreDocs) {
+      tasks.add(() -> createResultEntry(luceneSearcher, luceneQuery, scoreDoc, query));
+    }
+
+    List<SearchResultEntry> results = newArrayList();
+    try {
+      for (Future<SearchResultEntry> future : highlightExecutor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new QueryExecutionException("Search was interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof QueryExecutionException) {
+        throw (QueryExecutionException) cause;
+      } else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new QueryExecutionException(cause.getMessage(), cause);
+    }
+    return results;
+  }
+
+  private SearchResultEntry createResultEntry(
+      IndexSearcher luceneSearcher, Query luceneQuery, ScoreDoc scoreDoc, QueryExpression query)
+      throws IOException, QueryExecutionException {
+    int docId = scoreDoc.doc;
+    Document doc = luceneSearcher.doc(docId);
+    List<OffsetData> offsetData = Collections.emptyList();
+    if (query.isIncludePositions()) {
+      offsetData = new ArrayList<>();
+      String txt = doc.get(TEXT_FIELD);
+      if (txt != null) {
+        IndexReader reader = luceneSearcher.getIndexReader();
+
+        TokenStream tokenStream =
+            TokenSources.getTokenStream(
+                TEXT_FIELD, reader.getTermVectors(docId), txt, luceneIndexWriter.getAnalyzer(), -1);
+
+        CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
+        OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
+
+        QueryScorer queryScorer = new QueryScorer(luceneQuery);
+        // TODO think about this constant
+        queryScorer.setMaxDocCharsToAnalyze(1_000_000);
+        TokenStream newStream = queryScorer.init(tokenStream);
+        if (newStream != null) {
+          tokenStream = newStream;
+        }
+        queryScorer.startFragment(null);
+
+        tokenStream.reset();
+
+        try {
+          // line offsets are computed once per document and only if there is a match
+          LineIndex lineIndex = null;
+          int startOffset, endOffset;
+          // TODO think about this constant
+          for (boolean next = tokenStream.incrementToken();
+              next && (offsetAtt.startOffset() < 1_000_000);
+              next = tokenStream.incrementToken()) {
+            startOffset = offsetAtt.startOffset();
+            endOffset = offsetAtt.endOffset();
+
+            if ((endOffset > txt.length()) || (startOffset > txt.length())) {
+              throw new QueryExecutionException(
+                  "Token "
+                      + termAtt.toString()
+                      + " exceeds length of provided text size "
+                      + txt.length());
+            }
+
+            float res = queryScorer.getTokenScore();
+            if (res > 0.0F && startOffset <= endOffset) {
+              if (lineIndex == null) {
+                lineIndex = new LineIndex(txt);
+              }
+              String tokenText = txt.substring(startOffset, endOffset);
+              int lineNum = lineIndex.getLineNumber(startOffset);
+              offsetData.add(
+                  new OffsetData(
+                      tokenText, startOffset, endOffset, res, lineNum, lineIndex.getLine(lineNum)));
+            }
+          }
+          tokenStream.end();
+        } finally {
+          tokenStream.close();
+        }
+      }
+    }
+
+    String filePath = doc.getField(PATH_FIELD).stringValue();
+    LOG.debug("Doc {} path {} score {} ", docId, filePath, scoreDoc.score);
+    return new SearchResultEntry(filePath, offsetData);
+  }
+
   private Query createLuceneQuery(QueryExpression query) throws ParseException, IOException {
     BooleanQuery.Builder luceneQueryBuilder = new BooleanQuery.Builder();
     final String name = query.getName();
@@ -361,16 +591,13 @@ public class LuceneSearcher implements Searcher {
 
     try {
       if (fsPath.toFile().isDirectory()) {
+        String wsPath = pathTransformer.transform(fsPath);
         try {
-          Files.walkFileTree(
+          indexingPipeline.index(
               fsPath,
-              new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                  addFile(file);
-                  return FileVisitResult.CONTINUE;
-                }
-              });
+              (file, attrs) -> isNotExcluded(file),
+              (discovered, indexed, completed) ->
+                  progressNotifier.notify(wsPath, discovered, indexed, completed));
         } catch (IOException ignore) {
           LOG.warn("Not able to index {} because {} ", fsPath.toString(), ignore.getMessage());
         }
@@ -394,28 +621,62 @@ public class LuceneSearcher implements Searcher {
     if (!isNotExcluded(fsPath)) {
       return;
     }
+
+    try {
+      Document doc = createDocument(fsPath);
+      if (doc != null) {
+        writeDocument(doc);
+      }
+    } catch (IOException e) {
+      LOG.warn("Can't index file: {}", pathTransformer.transform(fsPath));
+    }
+  }
+
+  private Document createDocument(Path fsPath) {
     String wsPath = pathTransformer.transform(fsPath);
     LOG.debug("Adding file {} ", wsPath);
 
+    File file = fsPath.toFile();
+    // attributes are taken before the content is read, so a file that is modified while it is
+    // being indexed is indexed again on the next start. They are read the same way as on start,
+    // as File.lastModified() may drop milliseconds which the attributes keep
+    BasicFileAttributes attrs;
+    try {
+      attrs = Files.readAttributes(fsPath, BasicFileAttributes.class);
+    } catch (IOException e) {
+      LOG.warn("Can't index file: {}", wsPath);
+      return null;
+    }
+    long modified = attrs.lastModifiedTime().toMillis();
+    long size = attrs.size();
     try (Reader reader =
-        new BufferedReader(new InputStreamReader(new FileInputStream(fsPath.toFile()), "utf-8"))) {
+        new BufferedReader(new InputStreamReader(new FileInputStream(file), "utf-8"))) {
       String name = nameOf(wsPath);
       Document doc = new Document();
       doc.add(new StringField(PATH_FIELD, wsPath, Field.Store.YES));
       doc.add(new SortedDocValuesField(PATH_FIELD, new BytesRef(wsPath)));
       doc.add(new TextField(NAME_FIELD, name, Field.Store.YES));
+      doc.add(new StoredField(MODIFIED_FIELD, modified));
+      doc.add(new StoredField(SIZE_FIELD, size));
+      doc.add(new StoredField(INDEX_VERSION_FIELD, INDEX_VERSION));
       try {
-        doc.add(new TextField(TEXT_FIELD, CharStreams.toString(reader), Field.Store.YES));
+        String text = CharStreams.toString(reader);
+        doc.add(new TextField(TEXT_FIELD, text, Field.Store.YES));
+        doc.add(new TextField(TRIGRAM_FIELD, text, Field.Store.NO));
       } catch (MalformedInputException e) {
         LOG.warn("Can't index file: {}", wsPath);
       }
-      luceneIndexWriter.updateDocument(new Term(PATH_FIELD, wsPath), doc);
-
+      return doc;
     } catch (IOException oome) {
       LOG.warn("Can't index file: {}", wsPath);
+      return null;
     }
   }
 
+  private void writeDocument(Document doc) throws IOException {
+    luceneIndexWriter.updateDocument(new Term(PATH_FIELD, doc.get(PATH_FIELD)), doc);
+  }
+
   @Override
   public final void delete(Path fsPath) {
 
@@ -472,4 +733,23 @@ public class LuceneSearcher implements Searcher {
     }
     return true;
   }
+
+  /** Modification time and size of a file at the moment it was indexed. */
+  private static class IndexedFile {
+    private final long modified;
+    private final long size;
+    private final int version;
+
+    private IndexedFile(long modified, long size, int version) {
+      this.modified = modified;
+      this.size = size;
+      this.version = version;
+    }
+
+    private boolean isModified(BasicFileAttributes attrs) {
+      return version != INDEX_VERSION
+          || attrs.lastModifiedTime().toMillis() != modified
+          || attrs.size() != size;
+    }
+  }
 }
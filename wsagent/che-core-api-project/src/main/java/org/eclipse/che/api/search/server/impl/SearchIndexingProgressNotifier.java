@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static org.eclipse.che.api.project.shared.Constants.EVENT_SEARCH_INDEXING_PROGRESS;
+import static org.eclipse.che.api.project.shared.Constants.EVENT_SEARCH_INDEXING_SUBSCRIBE;
+import static org.eclipse.che.api.project.shared.Constants.EVENT_SEARCH_INDEXING_UNSUBSCRIBE;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.project.shared.dto.event.SearchIndexingProgressDto;
+
+/**
+ * Sends progress of search indexing using JSON RPC to the clients that subscribed to it with {@link
+ * org.eclipse.che.api.project.shared.Constants#EVENT_SEARCH_INDEXING_SUBSCRIBE}.
+ */
+@Singleton
+public class SearchIndexingProgressNotifier {
+
+  private final RequestTransmitter transmitter;
+
+  private final Set<String> endpointIds = newConcurrentHashSet();
+
+  @Inject
+  public SearchIndexingProgressNotifier(RequestTransmitter transmitter) {
+    this.transmitter = transmitter;
+  }
+
+  @Inject
+  public void configureHandlers(RequestHandlerConfigurator configurator) {
+    configurator
+        .newConfiguration()
+        .methodName(EVENT_SEARCH_INDEXING_SUBSCRIBE)
+        .noParams()
+        .noResult()
+        .withConsumer(endpointIds::add);
+
+    configurator
+        .newConfiguration()
+        .methodName(EVENT_SEARCH_INDEXING_UNSUBSCRIBE)
+        .noParams()
+        .noResult()
+        .withConsumer(endpointIds::remove);
+  }
+
+  /**
+   * Sends indexing progress.
+   *
+   * @param wsPath workspace path of the directory being indexed
+   * @param discovered number of files found so far that should be indexed
+   * @param indexed number of files that are already indexed
+   * @param completed whether indexing of the directory is completed
+   */
+  void notify(String wsPath, int discovered, int indexed, boolean completed) {
+    if (endpointIds.isEmpty()) {
+      return;
+    }
+    SearchIndexingProgressDto progress =
+        newDto(SearchIndexingProgressDto.class)
+            .withPath(wsPath)
+            .withDiscovered(discovered)
+            .withIndexed(indexed)
+            .withCompleted(completed);
+
+    endpointIds.forEach(
+        it ->
+            transmitter
+                .newRequest()
+                .endpointId(it)
+                .methodName(EVENT_SEARCH_INDEXING_PROGRESS)
+                .paramsAsDto(progress)
+                .sendAndSkipResult());
+  }
+}
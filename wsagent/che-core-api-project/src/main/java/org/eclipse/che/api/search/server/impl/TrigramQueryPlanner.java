@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.QueryBuilder;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.RegExp;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
+
+/**
+ * Rewrites substring and regular expression queries on the text field to queries on the trigram
+ * field, so they don't have to enumerate all the terms of the index.
+ *
+ * <p>A substring query like {@code *foo*} is rewritten to a phrase of trigrams of the substring,
+ * trigrams of the text are indexed at consecutive positions, so the phrase matches exactly the
+ * documents that contain the substring. Literals that must be present in any match of a regular
+ * expression are looked up in the same way to find candidate documents, then the words of each
+ * candidate are checked with the deterministic automaton of the expression, which takes linear time
+ * whatever the expression is. Queries that can't be planned, or that have too many candidates to
+ * check, are left as is.
+ */
+class TrigramQueryPlanner {
+  static final int GRAM_SIZE = 3;
+
+  /** Maximal number of candidate documents checked by the automaton of a regular expression. */
+  static final int MAX_REGEXP_CANDIDATES = 1000;
+
+  /** Operators of Lucene regular expressions that are not understood by literals extraction. */
+  private static final String UNSUPPORTED_REGEXP_CHARS = "&~<>@#\"";
+
+  private final String textField;
+  private final String trigramField;
+  private final String pathField;
+  private final QueryBuilder trigramQueryBuilder;
+
+  /**
+   * @param textField field that contains the text analyzed into lower-cased words
+   * @param trigramField field that contains the text analyzed into lower-cased trigrams
+   * @param pathField field that uniquely identifies a document
+   * @param trigramAnalyzer analyzer of the trigram field
+   */
+  TrigramQueryPlanner(
+      String textField, String trigramField, String pathField, Analyzer trigramAnalyzer) {
+    this.textField = textField;
+    this.trigramField = trigramField;
+    this.pathField = pathField;
+    this.trigramQueryBuilder = new QueryBuilder(trigramAnalyzer);
+  }
+
+  /**
+   * Returns query that finds the same documents as the given one.
+   *
+   * @param query query to plan
+   * @param searcher searcher that will execute the query, regular expressions are verified with it
+   */
+  Query plan(Query query, IndexSearcher searcher) throws IOException {
+    if (query instanceof BooleanQuery) {
+      BooleanQuery booleanQuery = (BooleanQuery) query;
+      BooleanQuery.Builder builder =
+          new BooleanQuery.Builder()
+              .setMinimumNumberShouldMatch(booleanQuery.getMinimumNumberShouldMatch());
+      for (BooleanClause clause : booleanQuery.clauses()) {
+        builder.add(plan(clause.getQuery(), searcher), clause.getOccur());
+      }
+      return builder.build();
+    }
+    if (query instanceof WildcardQuery) {
+      WildcardQuery wildcardQuery = (WildcardQuery) query;
+      if (textField.equals(wildcardQuery.getField())) {
+        String substring = getSubstring(wildcardQuery.getTerm().text());
+        if (substring != null) {
+          // multi-term queries are constant score, keep the order of results the same
+          return new ConstantScoreQuery(createSubstringQuery(substring));
+        }
+      }
+    } else if (query instanceof RegexpQuery) {
+      RegexpQuery regexpQuery = (RegexpQuery) query;
+      if (textField.equals(regexpQuery.getField())) {
+        Query verified = verifyRegexp(regexpQuery.getRegexp().text(), searcher);
+        if (verified != null) {
+          return verified;
+        }
+      }
+    }
+    return query;
+  }
+
+  /**
+   * Returns substring searched by wildcard pattern {@code *substring*} or {@code null} if the
+   * pattern has another form or the substring is too short to be looked up by trigrams.
+   */
+  static String getSubstring(String pattern) {
+    if (pattern.length() < GRAM_SIZE + 2
+        || pattern.charAt(0) != WildcardQuery.WILDCARD_STRING
+        || pattern.charAt(pattern.length() - 1) != WildcardQuery.WILDCARD_STRING) {
+      return null;
+    }
+    String substring = pattern.substring(1, pattern.length() - 1);
+    for (int i = 0; i < substring.length(); i++) {
+      char c = substring.charAt(i);
+      if (c == WildcardQuery.WILDCARD_STRING
+          || c == WildcardQuery.WILDCARD_CHAR
+          || c == WildcardQuery.WILDCARD_ESCAPE
+          || Character.isWhitespace(c)) {
+        return null;
+      }
+    }
+    return substring;
+  }
+
+  /**
+   * Returns literals that are present in any string that matches the regular expression. Literals
+   * shorter than trigram are not returned, empty list is returned if the expression contains
+   * alternation.
+   */
+  static List<String> getRequiredLiterals(String regexp) {
+    List<String> literals = new ArrayList<>();
+    if (regexp.indexOf('|') >= 0) {
+      return literals;
+    }
+    StringBuilder literal = new StringBuilder();
+    for (int i = 0; i < regexp.length(); i++) {
+      char c = regexp.charAt(i);
+      switch (c) {
+        case '*':
+        case '?':
+        case '{':
+          // the previous character is optional
+          if (literal.length() > 0) {
+            literal.setLength(literal.length() - 1);
+          }
+          addLiteral(literals, literal);
+          if (c == '{') {
+            i = skipTo(regexp, i, '}');
+          }
+          break;
+        case '+':
+          addLiteral(literals, literal);
+          break;
+        case '[':
+          addLiteral(literals, literal);
+          i = skipTo(regexp, i + 1, ']');
+          break;
+        case '(':
+          // group may be optional, so none of its literals is required
+          addLiteral(literals, literal);
+          i = skipGroup(regexp, i);
+          break;
+        case '.':
+          addLiteral(literals, literal);
+          break;
+        case '\\':
+          if (i + 1 < regexp.length()) {
+            literal.append(regexp.charAt(++i));
+          }
+          break;
+        default:
+          literal.append(c);
+      }
+    }
+    addLiteral(literals, literal);
+    return literals;
+  }
+
+  /**
+   * Returns {@code true} if the Lucene regular expression uses only operators that are understood
+   * by {@link #getRequiredLiterals(String)}.
+   */
+  static boolean isSupported(String regexp) {
+    for (int i = 0; i < regexp.length(); i++) {
+      char c = regexp.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (UNSUPPORTED_REGEXP_CHARS.indexOf(c) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Query createSubstringQuery(String substring) {
+    return trigramQueryBuilder.createPhraseQuery(trigramField, substring);
+  }
+
+  /**
+   * Finds documents that contain all the required literals of the regular expression and checks the
+   * expression against words of each of them. Returns query that matches the documents that passed
+   * the check or {@code null} if the expression can't be planned or has too many candidates.
+   */
+  private Query verifyRegexp(String regexp, IndexSearcher searcher) throws IOException {
+    if (!isSupported(regexp)) {
+      return null;
+    }
+    List<String> literals = getRequiredLiterals(regexp);
+    if (literals.isEmpty()) {
+      return null;
+    }
+    CharacterRunAutomaton automaton;
+    try {
+      // the same syntax and complexity limit as in RegexpQuery
+      automaton = new CharacterRunAutomaton(new RegExp(regexp).toAutomaton());
+    } catch (IllegalArgumentException | TooComplexToDeterminizeException e) {
+      return null;
+    }
+
+    BooleanQuery.Builder candidates = new BooleanQuery.Builder();
+    for (String literal : literals) {
+      candidates.add(createSubstringQuery(literal), Occur.FILTER);
+    }
+    List<Integer> candidateDocs = collectDocs(searcher, candidates.build());
+    if (candidateDocs.size() > MAX_REGEXP_CANDIDATES) {
+      // loading text of that many documents costs more than enumerating terms of the index
+      return null;
+    }
+
+    Set<String> fields = ImmutableSet.of(pathField, textField);
+    List<BytesRef> matched = new ArrayList<>();
+    for (int docId : candidateDocs) {
+      Document doc = searcher.doc(docId, fields);
+      String text = doc.get(textField);
+      if (text != null && containsMatchingWord(text, automaton)) {
+        matched.add(new BytesRef(doc.get(pathField)));
+      }
+    }
+    if (matched.isEmpty()) {
+      return new MatchNoDocsQuery();
+    }
+    return new ConstantScoreQuery(new TermInSetQuery(pathField, matched));
+  }
+
+  private static List<Integer> collectDocs(IndexSearcher searcher, Query query) throws IOException {
+    List<Integer> docs = new ArrayList<>();
+    searcher.search(
+        query,
+        new SimpleCollector() {
+          private int docBase;
+
+          @Override
+          protected void doSetNextReader(LeafReaderContext context) {
+            docBase = context.docBase;
+          }
+
+          @Override
+          public void collect(int doc) {
+            docs.add(docBase + doc);
+          }
+
+          @Override
+          public boolean needsScores() {
+            return false;
+          }
+        });
+    return docs;
+  }
+
+  /**
+   * Checks the automaton against words of the text in the same way as the text field is analyzed.
+   */
+  private static boolean containsMatchingWord(String text, CharacterRunAutomaton automaton) {
+    char[] lowerCased = text.toLowerCase(Locale.ROOT).toCharArray();
+    int length = lowerCased.length;
+    int start = -1;
+    for (int i = 0; i <= length; i++) {
+      if (i == length || Character.isWhitespace(lowerCased[i])) {
+        if (start >= 0 && automaton.run(lowerCased, start, i - start)) {
+          return true;
+        }
+        start = -1;
+      } else if (start < 0) {
+        start = i;
+      }
+    }
+    return false;
+  }
+
+  private static void addLiteral(List<String> literals, StringBuilder literal) {
+    if (literal.length() >= GRAM_SIZE) {
+      literals.add(literal.toString());
+    }
+    literal.setLength(0);
+  }
+
+  /** Returns index of the closing character or the last index if there is no such character. */
+  private static int skipTo(String regexp, int from, char closing) {
+    for (int i = from; i < regexp.length(); i++) {
+      char c = regexp.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == closing) {
+        return i;
+      }
+    }
+    return regexp.length() - 1;
+  }
+
+  private static int skipGroup(String regexp, int open) {
+    int depth = 0;
+    for (int i = open; i < regexp.length(); i++) {
+      char c = regexp.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        i = skipTo(regexp, i + 1, ']');
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return regexp.length() - 1;
+  }
+}
@@ -32,7 +32,7 @@ import java.util.function.Predicate;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
-import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.jsonrpc.impl.BatchingNotificationTransmitter;
 import org.eclipse.che.api.project.shared.dto.event.ProjectTreeStateUpdateDto;
 import org.eclipse.che.api.project.shared.dto.event.ProjectTreeTrackingOperationDto;
 import org.eclipse.che.api.project.shared.dto.event.ProjectTreeTrackingOperationDto.Type;
@@ -51,13 +51,13 @@ public class ProjectTreeTracker {
   private final Map<String, Integer> watchIdRegistry = new HashMap<>();
   private final List<String> timers = new CopyOnWriteArrayList<>();
 
-  private final RequestTransmitter transmitter;
+  private final BatchingNotificationTransmitter transmitter;
   private final FileWatcherManager fileWatcherManager;
   private final HiddenItemPathMatcher hiddenItemPathMatcher;
 
   @Inject
   public ProjectTreeTracker(
-      RequestTransmitter transmitter,
+      BatchingNotificationTransmitter transmitter,
       FileWatcherManager fileWatcherManager,
       HiddenItemPathMatcher hiddenItemPathMatcher) {
     this.transmitter = transmitter;
@@ -147,12 +147,8 @@ public class ProjectTreeTracker {
       } else {
         ProjectTreeStateUpdateDto params =
             newDto(ProjectTreeStateUpdateDto.class).withPath(it).withType(CREATED);
-        transmitter
-            .newRequest()
-            .endpointId(endpointId)
-            .methodName(OUTGOING_METHOD)
-            .paramsAsDto(params)
-            .sendAndSkipResult();
+        // not coalesced, as the client tree depends on the order of updates of different paths
+        transmitter.transmit(endpointId, OUTGOING_METHOD, params);
       }
     };
   }
@@ -177,12 +173,7 @@ public class ProjectTreeTracker {
                     timers.remove(it);
                     ProjectTreeStateUpdateDto params =
                         newDto(ProjectTreeStateUpdateDto.class).withPath(it).withType(DELETED);
-                    transmitter
-                        .newRequest()
-                        .endpointId(endpointId)
-                        .methodName(OUTGOING_METHOD)
-                        .paramsAsDto(params)
-                        .sendAndSkipResult();
+                    transmitter.transmit(endpointId, OUTGOING_METHOD, params);
                   }
                 }
               },
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.watcher.server.impl;
+
+import static java.util.Collections.emptyList;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compact in-memory representation of a file system tree used by {@link FileTreeWalker} in
+ * incremental mode. Instead of keeping a {@link Path} instance for each item the tree is stored as
+ * a trie of interned name segments, last modification time of each item is kept as a primitive.
+ *
+ * <p>The class is not thread safe and is expected to be used from a single thread.
+ */
+class FileTreeIndex {
+  private static final Interner<String> NAMES = Interners.newWeakInterner();
+
+  private final Path rootPath;
+  private final Node root;
+
+  private int size;
+
+  FileTreeIndex(Path rootPath, long lastModified) {
+    this.rootPath = rootPath;
+    this.root = new Node(null, "", true, lastModified);
+    this.size = 1;
+  }
+
+  Node getRoot() {
+    return root;
+  }
+
+  /** Returns number of items (including root) that are present in the index. */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Looks for a node that corresponds to the path.
+   *
+   * @param path absolute path
+   * @return node or {@code null} if there is no such node or path is out of root
+   */
+  Node find(Path path) {
+    if (!path.startsWith(rootPath)) {
+      return null;
+    }
+
+    Node current = root;
+    for (Path segment : rootPath.relativize(path)) {
+      String name = segment.toString();
+      if (name.isEmpty()) {
+        continue;
+      }
+      current = current.getChild(name);
+      if (current == null) {
+        return null;
+      }
+    }
+
+    return current;
+  }
+
+  /**
+   * Looks for a node that corresponds to the path or to the closest ancestor of the path.
+   *
+   * @param path absolute path
+   * @return node or {@code null} if path is out of root
+   */
+  Node findClosest(Path path) {
+    if (!path.startsWith(rootPath)) {
+      return null;
+    }
+
+    Node current = root;
+    for (Path segment : rootPath.relativize(path)) {
+      String name = segment.toString();
+      if (name.isEmpty()) {
+        continue;
+      }
+      Node child = current.getChild(name);
+      if (child == null) {
+        return current;
+      }
+      current = child;
+    }
+
+    return current;
+  }
+
+  /**
+   * Adds a child node to a directory node, if there is a node with the same name it is replaced.
+   *
+   * @param parent parent directory node
+   * @param name name of item
+   * @param directory whether the item is a directory
+   * @param lastModified last modification time of item in milliseconds
+   * @return added node
+   */
+  Node add(Node parent, String name, boolean directory, long lastModified) {
+    Node node = new Node(parent, NAMES.intern(name), directory, lastModified);
+    if (parent.children == null) {
+      parent.children = new HashMap<>(4);
+    }
+    Node previous = parent.children.put(node.name, node);
+    if (previous != null) {
+      size -= count(previous);
+    }
+    size++;
+    return node;
+  }
+
+  /**
+   * Removes the node and all its descendants from the index.
+   *
+   * @param node node to remove, root can't be removed
+   */
+  void remove(Node node) {
+    if (node.parent == null || node.parent.children == null) {
+      return;
+    }
+
+    if (node.parent.children.remove(node.name) != null) {
+      size -= count(node);
+    }
+
+    if (node.parent.children.isEmpty()) {
+      node.parent.children = null;
+    }
+  }
+
+  /**
+   * Restores absolute path of a node.
+   *
+   * @param node node
+   * @return absolute path
+   */
+  Path toPath(Node node) {
+    Deque<String> names = new ArrayDeque<>();
+    for (Node current = node; current.parent != null; current = current.parent) {
+      names.push(current.name);
+    }
+
+    Path path = rootPath;
+    for (String name : names) {
+      path = path.resolve(name);
+    }
+    return path;
+  }
+
+  /**
+   * Passes the node and all its descendants to the consumer, children are passed before parents.
+   *
+   * @param node starting node
+   * @param consumer nodes consumer
+   */
+  void forEachDepthFirst(Node node, Consumer<Node> consumer) {
+    for (Node child : node.getChildren()) {
+      forEachDepthFirst(child, consumer);
+    }
+    consumer.accept(node);
+  }
+
+  private int count(Node node) {
+    int count = 1;
+    for (Node child : node.getChildren()) {
+      count += count(child);
+    }
+    return count;
+  }
+
+  /** Single item of the index. */
+  static class Node {
+    private final Node parent;
+    private final String name;
+    private final boolean directory;
+
+    private long lastModified;
+    private Map<String, Node> children;
+
+    private Node(Node parent, String name, boolean directory, long lastModified) {
+      this.parent = parent;
+      this.name = name;
+      this.directory = directory;
+      this.lastModified = lastModified;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    boolean isDirectory() {
+      return directory;
+    }
+
+    long getLastModified() {
+      return lastModified;
+    }
+
+    void setLastModified(long lastModified) {
+      this.lastModified = lastModified;
+    }
+
+    Node getParent() {
+      return parent;
+    }
+
+    Node getChild(String name) {
+      return children == null ? null : children.get(name);
+    }
+
+    /** Returns a snapshot of children nodes, so the index can be modified while iterating. */
+    List<Node> getChildren() {
+      Collection<Node> values = children == null ? emptyList() : children.values();
+      return new ArrayList<>(values);
+    }
+  }
+}
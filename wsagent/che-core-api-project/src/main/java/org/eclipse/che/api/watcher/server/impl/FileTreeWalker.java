@@ -13,25 +13,33 @@ package org.eclipse.che.api.watcher.server.impl;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.walkFileTree;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.util.stream.Collectors.toSet;
 
 import com.google.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.eclipse.che.api.watcher.server.impl.FileTreeIndex.Node;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +47,13 @@ import org.slf4j.LoggerFactory;
 /**
  * Walks a file system tree, register addition, update and removal of file system items. On events
  * runs corresponding consumers that can be registered in DI configuration modules.
+ *
+ * <p>By default each walk checks existence of every known item and visits the whole tree. When
+ * incremental mode is enabled ({@code che.fs.tree_walker.incremental}) the tree is kept in a
+ * compact {@link FileTreeIndex} and a walk only checks modification time of known directories,
+ * re-listing those that are changed or that contain items reported by {@link FileWatcherService}
+ * (see {@link FileWatcherEventJournal}). Modifications of file content are therefore tracked only
+ * for files located in directories watched by {@link FileWatcherService}.
  */
 @Singleton
 public class FileTreeWalker {
@@ -59,6 +74,10 @@ public class FileTreeWalker {
   private final Map<Path, Long> files = new HashMap<>();
   private final Map<Path, Long> directories = new HashMap<>();
 
+  private final boolean incremental;
+  private final FileWatcherEventJournal journal;
+
+  private FileTreeIndex index;
   private boolean initialized;
 
   @Inject
@@ -71,7 +90,9 @@ public class FileTreeWalker {
       @Named("che.fs.file.update") Set<Consumer<Path>> fileUpdateConsumers,
       @Named("che.fs.file.create") Set<Consumer<Path>> fileCreateConsumers,
       @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
-      @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
+      @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes,
+      @Named("che.fs.tree_walker.incremental") boolean incremental,
+      FileWatcherEventJournal journal) {
     this.root = root;
 
     this.directoryUpdateConsumers = directoryUpdateConsumers;
@@ -84,10 +105,18 @@ public class FileTreeWalker {
 
     this.directoryExcludes = directoryExcludes;
     this.fileExcludes = fileExcludes;
+
+    this.incremental = incremental;
+    this.journal = journal;
   }
 
   @PostConstruct
   void initialize() {
+    if (incremental) {
+      initializeIndex();
+      return;
+    }
+
     try {
       walkFileTree(
           root.toPath(),
@@ -131,6 +160,11 @@ public class FileTreeWalker {
       return;
     }
 
+    if (incremental) {
+      walkIndex();
+      return;
+    }
+
     try {
       LOG.debug("Tree walk started");
 
@@ -204,4 +238,198 @@ public class FileTreeWalker {
       createConsumer.forEach(it -> it.accept(path));
     }
   }
+
+  private void initializeIndex() {
+    Path rootPath = root.toPath();
+    BasicFileAttributes attrs = readAttributesOrNull(rootPath);
+    if (attrs == null) {
+      LOG.error("Error while walking file tree, root '{}' is not available", rootPath);
+      initialized = true;
+      return;
+    }
+
+    journal.enable();
+
+    index = new FileTreeIndex(rootPath, attrs.lastModifiedTime().toMillis());
+    addChildren(index.getRoot(), rootPath, false);
+    LOG.debug("File tree index initialized with {} items", index.size());
+
+    initialized = true;
+  }
+
+  private void walkIndex() {
+    if (index == null) {
+      initializeIndex();
+      return;
+    }
+
+    try {
+      LOG.debug("Incremental tree walk started");
+
+      Set<Node> dirtyDirectories = new HashSet<>();
+      Set<Node> dirtyFiles = new HashSet<>();
+      journal.drain(
+          path -> {
+            Node node = index.find(path);
+            if (node == null) {
+              node = index.findClosest(path);
+              if (node != null) {
+                dirtyDirectories.add(node.isDirectory() ? node : node.getParent());
+              }
+            } else if (node.isDirectory()) {
+              dirtyDirectories.add(node);
+            } else {
+              dirtyFiles.add(node);
+            }
+          });
+
+      for (Node file : dirtyFiles) {
+        Path path = index.toPath(file);
+        BasicFileAttributes attrs = readAttributesOrNull(path);
+        if (attrs == null || attrs.isDirectory()) {
+          dirtyDirectories.add(file.getParent());
+        } else {
+          updateFile(file, path, attrs);
+        }
+      }
+
+      Deque<Node> nodes = new ArrayDeque<>();
+      Deque<Path> paths = new ArrayDeque<>();
+      nodes.push(index.getRoot());
+      paths.push(root.toPath());
+      while (!nodes.isEmpty()) {
+        Node node = nodes.pop();
+        Path path = paths.pop();
+
+        BasicFileAttributes attrs = readAttributesOrNull(path);
+        if (attrs == null || !attrs.isDirectory()) {
+          // removal is handled when parent directory is listed
+          continue;
+        }
+
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        boolean modified = lastModified != node.getLastModified();
+        if (modified || dirtyDirectories.contains(node)) {
+          rescanDirectory(node, path);
+        }
+        if (modified) {
+          node.setLastModified(lastModified);
+          directoryUpdateConsumers.forEach(it -> it.accept(path));
+        }
+
+        for (Node child : node.getChildren()) {
+          if (child.isDirectory()) {
+            nodes.push(child);
+            paths.push(path.resolve(child.getName()));
+          }
+        }
+      }
+
+      LOG.debug("Incremental tree walk finished");
+    } catch (Exception e) {
+      LOG.error("Error while walking file tree", e);
+    }
+  }
+
+  private void rescanDirectory(Node node, Path dir) {
+    Set<String> present = new HashSet<>();
+    try (DirectoryStream<Path> entries = newDirectoryStream(dir)) {
+      for (Path entry : entries) {
+        BasicFileAttributes attrs = readAttributesOrNull(entry);
+        if (attrs == null) {
+          continue;
+        }
+
+        String name = entry.getFileName().toString();
+        present.add(name);
+
+        Node child = node.getChild(name);
+        if (child != null && child.isDirectory() != attrs.isDirectory()) {
+          removeItem(child);
+          child = null;
+        }
+
+        if (child == null) {
+          addItem(node, entry, attrs, true);
+        } else if (!child.isDirectory()) {
+          updateFile(child, entry, attrs);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      LOG.debug(
+          "Trying to process a directory, however seems like it is already not present: {}",
+          e.getMessage());
+      return;
+    } catch (IOException e) {
+      LOG.error("Error while listing directory '{}'", dir, e);
+      return;
+    }
+
+    for (Node child : node.getChildren()) {
+      if (!present.contains(child.getName())) {
+        removeItem(child);
+      }
+    }
+  }
+
+  private void addChildren(Node node, Path dir, boolean notify) {
+    try (DirectoryStream<Path> entries = newDirectoryStream(dir)) {
+      for (Path entry : entries) {
+        BasicFileAttributes attrs = readAttributesOrNull(entry);
+        if (attrs != null) {
+          addItem(node, entry, attrs, notify);
+        }
+      }
+    } catch (IOException e) {
+      LOG.debug("Can't list directory '{}': {}", dir, e.getMessage());
+    }
+  }
+
+  private void addItem(Node parent, Path path, BasicFileAttributes attrs, boolean notify) {
+    boolean directory = attrs.isDirectory();
+    for (PathMatcher matcher : directory ? directoryExcludes : fileExcludes) {
+      if (matcher.matches(path)) {
+        return;
+      }
+    }
+
+    String name = path.getFileName().toString();
+    Node node = index.add(parent, name, directory, attrs.lastModifiedTime().toMillis());
+    if (directory) {
+      if (notify) {
+        directoryCreateConsumers.forEach(it -> it.accept(path));
+      }
+      addChildren(node, path, notify);
+    } else if (notify) {
+      fileCreateConsumers.forEach(it -> it.accept(path));
+    }
+  }
+
+  private void updateFile(Node node, Path path, BasicFileAttributes attrs) {
+    long lastModified = attrs.lastModifiedTime().toMillis();
+    if (lastModified != node.getLastModified()) {
+      node.setLastModified(lastModified);
+      fileUpdateConsumers.forEach(it -> it.accept(path));
+    }
+  }
+
+  private void removeItem(Node node) {
+    index.forEachDepthFirst(
+        node,
+        it -> {
+          Path path = index.toPath(it);
+          Set<Consumer<Path>> consumers =
+              it.isDirectory() ? directoryDeleteConsumers : fileDeleteConsumers;
+          consumers.forEach(consumer -> consumer.accept(path));
+        });
+    index.remove(node);
+  }
+
+  private BasicFileAttributes readAttributesOrNull(Path path) {
+    try {
+      return readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+    } catch (IOException e) {
+      return null;
+    }
+  }
 }
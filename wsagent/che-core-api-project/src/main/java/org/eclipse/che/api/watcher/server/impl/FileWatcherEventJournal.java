@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.watcher.server.impl;
+
+import static com.google.common.collect.Sets.newConcurrentHashSet;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.inject.Singleton;
+
+/**
+ * Journal of file system items reported by {@link FileWatcherService}. Paths are recorded only
+ * after the journal is enabled by {@link FileTreeWalker} running in incremental mode so that no
+ * entries accumulate when nobody drains them. Recorded paths are deduplicated until they are
+ * drained.
+ */
+@Singleton
+public class FileWatcherEventJournal {
+  private final Set<Path> paths = newConcurrentHashSet();
+
+  private volatile boolean enabled;
+
+  /** Starts recording of reported paths. */
+  void enable() {
+    enabled = true;
+  }
+
+  /**
+   * Records a path of a file system item that is reported to be created, modified or deleted. If
+   * the journal is disabled nothing happens.
+   *
+   * @param path absolute path of file system item
+   */
+  void record(Path path) {
+    if (enabled) {
+      paths.add(path);
+    }
+  }
+
+  /**
+   * Passes all recorded paths to the consumer and removes them from the journal.
+   *
+   * @param consumer paths consumer
+   */
+  void drain(Consumer<Path> consumer) {
+    for (Path path : paths) {
+      if (paths.remove(path)) {
+        consumer.accept(path);
+      }
+    }
+  }
+}
@@ -66,6 +66,7 @@ public class FileWatcherService {
 
   private final FileWatcherExcludePatternsRegistry excludePatternsRegistry;
   private final FileWatcherEventHandler handler;
+  private final FileWatcherEventJournal journal;
   private final WatchService service;
   private final Modifier[] eventModifiers;
   private final Kind<?>[] eventKinds;
@@ -76,9 +77,11 @@ public class FileWatcherService {
   public FileWatcherService(
       FileWatcherExcludePatternsRegistry excludePatternsRegistry,
       FileWatcherEventHandler handler,
+      FileWatcherEventJournal journal,
       WatchService service) {
     this.excludePatternsRegistry = excludePatternsRegistry;
     this.handler = handler;
+    this.journal = journal;
     this.service = service;
 
     this.eventModifiers = getWatchEventModifiers();
@@ -282,12 +285,14 @@ public class FileWatcherService {
 
           if (kind == OVERFLOW) {
             LOG.warn("Detected file system events overflowing");
+            journal.record(dir.toAbsolutePath());
             continue;
           }
 
           WatchEvent<Path> ev = cast(event);
           Path item = ev.context();
           Path path = dir.resolve(item).toAbsolutePath();
+          journal.record(path);
 
           if (excludePatternsRegistry.isExcluded(path)) {
             LOG.debug("Path is within exclude list, skipping...");
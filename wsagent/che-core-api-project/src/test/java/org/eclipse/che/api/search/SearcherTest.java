@@ -20,10 +20,12 @@ package org.eclipse.che.api.search;
  *   Red Hat, Inc. - initial API and implementation
  */
 
+import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Files;
 import java.io.File;
@@ -43,6 +45,7 @@ import org.eclipse.che.api.search.server.QueryExpression;
 import org.eclipse.che.api.search.server.SearchResult;
 import org.eclipse.che.api.search.server.Searcher;
 import org.eclipse.che.api.search.server.impl.LuceneSearcher;
+import org.eclipse.che.api.search.server.impl.SearchIndexingProgressNotifier;
 import org.eclipse.che.api.search.server.impl.SearchResultEntry;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
@@ -76,7 +79,15 @@ public class SearcherTest {
     excludePatterns = Collections.emptySet();
     pathTransformer = new RootAwarePathTransformer(workspaceStorage);
     searcher =
-        new LuceneSearcher(excludePatterns, indexDirectory, workspaceStorage, pathTransformer);
+        new LuceneSearcher(
+            excludePatterns,
+            indexDirectory,
+            workspaceStorage,
+            2,
+            10,
+            16,
+            pathTransformer,
+            mock(SearchIndexingProgressNotifier.class));
     contentBuilder = new ContentBuilder(workspaceStorage.toPath());
   }
 
@@ -220,6 +231,74 @@ public class SearcherTest {
     assertFind("*stone*", "/folder/xxx.txt");
   }
 
+  @Test
+  public void shouldBeAbleToSearchBySubstringOfWord()
+      throws InvalidQueryException, QueryExecutionException, IOException {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", TEST_CONTENT[0])
+        .createFile("yyy.txt", TEST_CONTENT[1])
+        .createFile("zzz.txt", TEST_CONTENT[2]);
+    searcher.add(contentBuilder.getCurrentFolder());
+    // when
+    // then
+    assertFind("*bigword_to_cont*", "/folder/zzz.txt");
+    assertFind("*TWIC*", "/folder/yyy.txt");
+    assertFind("*ee*", "/folder/zzz.txt");
+    assertEmptyResult("*ice*th*");
+    assertEmptyResult("*twice*think*");
+  }
+
+  @Test
+  public void shouldBeAbleToSearchByRegularExpression()
+      throws InvalidQueryException, QueryExecutionException, IOException {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", TEST_CONTENT[0])
+        .createFile("yyy.txt", TEST_CONTENT[2])
+        .createFile("zzz.txt", TEST_CONTENT[3]);
+    searcher.add(contentBuilder.getCurrentFolder());
+    // when
+    // then
+    assertFind("/lamb[a-z]+e+ne/", "/folder/yyy.txt");
+    assertFind("/.*light.*/", "/folder/xxx.txt");
+    assertFind("/[0-9]+,/", "/folder/zzz.txt");
+    assertEmptyResult("/light.*/");
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldSearchByRegularExpressionWithNestedQuantifiersInLinearTime()
+      throws InvalidQueryException, QueryExecutionException, IOException {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", "lamb" + Strings.repeat("a", 100) + "c")
+        .createFile("yyy.txt", "lamb" + Strings.repeat("a", 100) + "b");
+    searcher.add(contentBuilder.getCurrentFolder());
+    // when
+    // then
+    assertFind("/lamb(a+)+b/", "/folder/yyy.txt");
+  }
+
+  @Test
+  public void shouldBeAbleToSearchBySubstringWithPositions()
+      throws InvalidQueryException, QueryExecutionException, IOException {
+    // given
+    contentBuilder.createFolder("folder").createFile("xxx.txt", TEST_CONTENT[2]);
+    searcher.add(contentBuilder.getCurrentFolder());
+    // when
+    // then
+    String[] lines = TEST_CONTENT[2].split("\\r?\\n");
+    assertFind(
+        new QueryExpression().setText("*bigword*").setIncludePositions(true),
+        new SearchResultEntry(
+            "/folder/xxx.txt",
+            ImmutableList.of(
+                new OffsetData("insidebigword_to_continuebigword", 65, 97, 1.0f, 3, lines[2]))));
+  }
+
   @Test
   public void shouldBeAbleToSearchByTextTermAndFileName()
       throws InvalidQueryException, QueryExecutionException, IOException {
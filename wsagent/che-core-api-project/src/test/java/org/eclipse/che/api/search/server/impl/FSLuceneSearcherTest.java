@@ -21,7 +21,10 @@ package org.eclipse.che.api.search.server.impl;
  */
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.api.search.SearcherTest.TEST_CONTENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 
 import com.google.common.io.Files;
@@ -47,6 +50,7 @@ public class FSLuceneSearcherTest {
   LuceneSearcher searcher;
   RootAwarePathTransformer pathTransformer;
   ContentBuilder contentBuilder;
+  SearchIndexingProgressNotifier progressNotifier;
 
   @BeforeMethod
   public void setUp() throws Exception {
@@ -54,13 +58,14 @@ public class FSLuceneSearcherTest {
     workspaceStorage = Files.createTempDir();
     excludePatterns = new HashSet<>();
     pathTransformer = new RootAwarePathTransformer(workspaceStorage);
-    searcher =
-        new LuceneSearcher(excludePatterns, indexDirectory, workspaceStorage, pathTransformer);
+    progressNotifier = mock(SearchIndexingProgressNotifier.class);
+    searcher = newSearcher();
     contentBuilder = new ContentBuilder(workspaceStorage.toPath());
   }
 
   @AfterMethod
   public void tearDown() throws Exception {
+    searcher.terminate();
     IoUtil.deleteRecursive(indexDirectory);
     IoUtil.deleteRecursive(workspaceStorage);
   }
@@ -82,6 +87,25 @@ public class FSLuceneSearcherTest {
     assertEquals(newArrayList("/folder/zzz.txt"), paths);
   }
 
+  @Test
+  public void shouldIndexAllFilesAgainWhenIndexLeftFromPreviousStartIsCorrupted() throws Exception {
+    // given
+    contentBuilder.createFolder("folder").createFile("zzz.txt", TEST_CONTENT[1]);
+    searcher.terminate();
+    IoUtil.deleteRecursive(indexDirectory);
+    indexDirectory.mkdirs();
+    Files.write("garbage".getBytes(UTF_8), new File(indexDirectory, "segments_1"));
+    searcher = newSearcher();
+
+    // when
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+
+    // then
+    List<String> paths = searcher.search(new QueryExpression().setText("think")).getFilePaths();
+    assertEquals(newArrayList("/folder/zzz.txt"), paths);
+  }
+
   @Test
   public void shouldBeAbleToExcludesFilesFromIndexWithFilter() throws Exception {
     // given
@@ -99,4 +123,51 @@ public class FSLuceneSearcherTest {
     // then
     assertEquals(newArrayList("/folder/xxx.txt", "/folder/zzz.txt"), paths);
   }
+
+  @Test
+  public void shouldIndexOnlyChangedFilesWhenIndexIsLeftFromPreviousStart() throws Exception {
+    // given
+    contentBuilder
+        .createFolder("folder")
+        .createFile("xxx.txt", TEST_CONTENT[2])
+        .createFile("yyy.txt", TEST_CONTENT[2])
+        .createFile("zzz.txt", TEST_CONTENT[2]);
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+    searcher.terminate();
+
+    contentBuilder
+        .createFile("xxx.txt", TEST_CONTENT[1])
+        .deleteFileInCurrentFolder("yyy.txt")
+        .createFile("new.txt", TEST_CONTENT[1]);
+    File modified = workspaceStorage.toPath().resolve("folder/xxx.txt").toFile();
+    modified.setLastModified(modified.lastModified() - 10_000);
+    progressNotifier = mock(SearchIndexingProgressNotifier.class);
+    searcher = newSearcher();
+
+    // when
+    searcher.initialize();
+    searcher.getInitialIndexingLatch().await();
+
+    // then
+    verify(progressNotifier).notify("/", 2, 2, true);
+    assertEquals(
+        searcher.search(new QueryExpression().setText("think")).getFilePaths(),
+        newArrayList("/folder/new.txt", "/folder/xxx.txt"));
+    assertEquals(
+        searcher.search(new QueryExpression().setText("be")).getFilePaths(),
+        newArrayList("/folder/zzz.txt"));
+  }
+
+  private LuceneSearcher newSearcher() throws Exception {
+    return new LuceneSearcher(
+        excludePatterns,
+        indexDirectory,
+        workspaceStorage,
+        2,
+        10,
+        16,
+        pathTransformer,
+        progressNotifier);
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.util.stream.Collectors.toSet;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.eclipse.che.api.search.server.impl.IndexingPipeline.ProgressListener;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link IndexingPipeline} */
+public class IndexingPipelineTest {
+  private File directory;
+  private Set<String> written;
+  private ProgressListener listener;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("indexing").toFile();
+    written = ConcurrentHashMap.newKeySet();
+    listener = mock(ProgressListener.class);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    IoUtil.deleteRecursive(directory);
+  }
+
+  @Test
+  public void shouldIndexAllFilesOfDirectory() throws Exception {
+    Set<String> files = createFiles(100);
+    IndexingPipeline pipeline = new IndexingPipeline(this::read, this::write, 4, 5, 0);
+
+    pipeline.index(directory.toPath(), (file, attrs) -> true, listener);
+
+    assertEquals(written, files);
+    verify(listener).onProgress(100, 100, true);
+  }
+
+  @Test
+  public void shouldNotIndexFilteredOutFiles() throws Exception {
+    createFiles(3);
+    IndexingPipeline pipeline = new IndexingPipeline(this::read, this::write, 2, 1, 0);
+
+    pipeline.index(
+        directory.toPath(),
+        (file, attrs) -> !file.getFileName().toString().equals("file-1"),
+        listener);
+
+    assertEquals(written, ImmutableSet.of("file-0", "file-2"));
+    verify(listener).onProgress(2, 2, true);
+  }
+
+  @Test
+  public void shouldContinueIndexingWhenFileCanNotBeIndexed() throws Exception {
+    createFiles(3);
+    IndexingPipeline pipeline =
+        new IndexingPipeline(
+            file -> {
+              if (file.getFileName().toString().equals("file-1")) {
+                throw new IOException("Can't read file");
+              }
+              return read(file);
+            },
+            this::write,
+            2,
+            1,
+            0);
+
+    pipeline.index(directory.toPath(), (file, attrs) -> true, listener);
+
+    assertEquals(written, ImmutableSet.of("file-0", "file-2"));
+    verify(listener).onProgress(3, 3, true);
+  }
+
+  @Test
+  public void shouldNotReportProgressMoreOftenThanConfigured() throws Exception {
+    createFiles(10);
+    IndexingPipeline pipeline = new IndexingPipeline(this::read, this::write, 2, 1, 60_000);
+
+    pipeline.index(directory.toPath(), (file, attrs) -> true, listener);
+
+    verify(listener, never()).onProgress(anyInt(), anyInt(), eq(false));
+    verify(listener).onProgress(10, 10, true);
+  }
+
+  private Set<String> createFiles(int number) throws IOException {
+    Set<String> names = IntStream.range(0, number).mapToObj(i -> "file-" + i).collect(toSet());
+    for (String name : names) {
+      Files.write(directory.toPath().resolve(name), name.getBytes());
+    }
+    return names;
+  }
+
+  private Document read(Path file) {
+    Document document = new Document();
+    document.add(new StringField("name", file.getFileName().toString(), Field.Store.YES));
+    return document;
+  }
+
+  private void write(Document document) {
+    written.add(document.get("name"));
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests for {@link LineIndex} */
+public class LineIndexTest {
+
+  @Test(dataProvider = "offsets")
+  public void shouldFindLineOfOffset(String text, int offset, int lineNumber, String line) {
+    LineIndex lineIndex = new LineIndex(text);
+
+    assertEquals(lineIndex.getLineNumber(offset), lineNumber);
+    assertEquals(lineIndex.getLine(lineNumber), line);
+  }
+
+  @DataProvider
+  public static Object[][] offsets() {
+    return new Object[][] {
+      {"", 0, 1, ""},
+      {"single line", 7, 1, "single line"},
+      {"first\nsecond\nthird", 0, 1, "first"},
+      {"first\nsecond\nthird", 5, 1, "first"},
+      {"first\nsecond\nthird", 6, 2, "second"},
+      {"first\nsecond\nthird", 17, 3, "third"},
+      {"first\r\nsecond\r\nthird", 6, 1, "first"},
+      {"first\r\nsecond\r\nthird", 7, 2, "second"},
+      {"first\r\nsecond\r\nthird", 15, 3, "third"},
+      {"first\rsecond", 6, 2, "second"},
+      {"first\n\nthird", 6, 2, ""},
+      {"first\n\nthird", 7, 3, "third"},
+      {"first\n", 3, 1, "first"}
+    };
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.api.fs.server.impl.RootAwarePathTransformer;
+import org.eclipse.che.api.search.server.QueryExpression;
+import org.eclipse.che.api.search.server.SearchResult;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of search with match positions, which includes highlighting of matches and computing of
+ * their line numbers, and of search by substring of words. Run it with {@link #main(String[])} from
+ * test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LuceneSearcherBenchmark {
+
+  /** Number of lines in each indexed file. */
+  @Param({"1000", "20000"})
+  public int lines;
+
+  /** Number of indexed files. */
+  @Param({"1", "20"})
+  public int files;
+
+  private File indexDirectory;
+  private File workspaceStorage;
+  private LuceneSearcher searcher;
+  private QueryExpression query;
+  private QueryExpression substringQuery;
+
+  @Setup
+  public void setUp() throws Exception {
+    indexDirectory = Files.createTempDirectory("index").toFile();
+    workspaceStorage = Files.createTempDirectory("workspace").toFile();
+
+    Path folder = Files.createDirectories(workspaceStorage.toPath().resolve("folder"));
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      content.append("  private final String identifier").append(i).append(" = value;\n");
+    }
+    for (int i = 0; i < files; i++) {
+      Files.write(folder.resolve("Generated" + i + ".java"), content.toString().getBytes(UTF_8));
+    }
+
+    searcher =
+        new LuceneSearcher(
+            Collections.emptySet(),
+            indexDirectory,
+            workspaceStorage,
+            0,
+            256,
+            64,
+            new RootAwarePathTransformer(workspaceStorage),
+            mock(SearchIndexingProgressNotifier.class));
+    searcher.add(workspaceStorage.toPath());
+    query = new QueryExpression().setText("value;").setIncludePositions(true);
+    substringQuery = new QueryExpression().setText("*dentifier99*");
+  }
+
+  @TearDown
+  public void tearDown() {
+    searcher.terminate();
+    IoUtil.deleteRecursive(indexDirectory);
+    IoUtil.deleteRecursive(workspaceStorage);
+  }
+
+  @Benchmark
+  public SearchResult searchWithPositions() throws Exception {
+    return searcher.search(query);
+  }
+
+  @Benchmark
+  public SearchResult searchBySubstring() throws Exception {
+    return searcher.search(substringQuery);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(LuceneSearcherBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
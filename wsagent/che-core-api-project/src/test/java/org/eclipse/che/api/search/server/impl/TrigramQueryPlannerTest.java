@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests for {@link TrigramQueryPlanner} */
+public class TrigramQueryPlannerTest {
+
+  @DataProvider
+  public Object[][] wildcardPatterns() {
+    return new Object[][] {
+      {"*abc*", "abc"},
+      {"*some_word*", "some_word"},
+      {"*ab*", null},
+      {"abc*", null},
+      {"*abc", null},
+      {"*a?c*", null},
+      {"*ab*cd*", null},
+      {"*a\\*c*", null}
+    };
+  }
+
+  @Test(dataProvider = "wildcardPatterns")
+  public void shouldFindSubstringOfWildcardPattern(String pattern, String substring) {
+    assertEquals(TrigramQueryPlanner.getSubstring(pattern), substring);
+  }
+
+  @DataProvider
+  public Object[][] regexps() {
+    return new Object[][] {
+      {"abc", asList("abc")},
+      {"foo.*bar", asList("foo", "bar")},
+      {"abcd?ef", asList("abc")},
+      {"abcd*efgh", asList("abc", "efgh")},
+      {"abcd+efgh", asList("abcd", "efgh")},
+      {"abc{1,2}def", asList("def")},
+      {"ab[cd]efg", asList("efg")},
+      {"abc(def)?ghi", asList("abc", "ghi")},
+      {"a\\.bc", asList("a.bc")},
+      {"abc|def", emptyList()},
+      {".*ab.*", emptyList()}
+    };
+  }
+
+  @Test(dataProvider = "regexps")
+  public void shouldFindRequiredLiteralsOfRegexp(String regexp, List<String> literals) {
+    assertEquals(TrigramQueryPlanner.getRequiredLiterals(regexp), literals);
+  }
+
+  @DataProvider
+  public Object[][] supportedRegexps() {
+    return new Object[][] {
+      {"foo.*bar", true},
+      {"[^a-z]+foo", true},
+      {"foo\\.bar", true},
+      {"foo\\dbar", true},
+      {"^foo$", true},
+      {"foo\\&bar", true},
+      {"foo<1-5>", false},
+      {"foo&bar", false},
+      {"~foo", false},
+      {"foo@", false},
+      {"\"foo\"", false}
+    };
+  }
+
+  @Test(dataProvider = "supportedRegexps")
+  public void shouldCheckWhetherRegexpIsSupported(String regexp, boolean supported) {
+    assertEquals(TrigramQueryPlanner.isSupported(regexp), supported);
+  }
+}
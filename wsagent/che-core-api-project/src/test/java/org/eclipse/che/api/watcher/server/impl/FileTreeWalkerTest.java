@@ -62,6 +62,8 @@ public class FileTreeWalkerTest {
 
   @Mock Consumer<Path> directoryDeleteConsumerMock;
 
+  FileWatcherEventJournal journal = new FileWatcherEventJournal();
+
   @Before
   public void setUp() throws Exception {
     fileTreeWalker =
@@ -74,7 +76,25 @@ public class FileTreeWalkerTest {
             fileUpdateConsumers,
             fileCreateConsumers,
             fileDeleteConsumers,
-            fileExcludes);
+            fileExcludes,
+            false,
+            journal);
+  }
+
+  private void enableIncrementalMode() {
+    fileTreeWalker =
+        new FileTreeWalker(
+            rootFolder.getRoot(),
+            directoryUpdateConsumers,
+            directoryCreateConsumers,
+            directoryDeleteConsumers,
+            directoryExcludes,
+            fileUpdateConsumers,
+            fileCreateConsumers,
+            fileDeleteConsumers,
+            fileExcludes,
+            true,
+            journal);
   }
 
   @After
@@ -220,4 +240,69 @@ public class FileTreeWalkerTest {
     fileTreeWalker.walk();
     verify(fileCreatedConsumerMock, never()).accept(file.toPath());
   }
+
+  @Test
+  public void shouldRunFileCreatedConsumerInIncrementalMode() throws Exception {
+    enableIncrementalMode();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.initialize();
+    sleep(FS_LATENCY_DELAY);
+
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldRunDirectoryAndFileDeleteConsumersInIncrementalMode() throws Exception {
+    enableIncrementalMode();
+    directoryDeleteConsumers.add(directoryDeleteConsumerMock);
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker.initialize();
+    sleep(FS_LATENCY_DELAY);
+
+    file.delete();
+    folder.delete();
+
+    fileTreeWalker.walk();
+    verify(fileDeleteConsumerMock).accept(file.toPath());
+    verify(directoryDeleteConsumerMock).accept(folder.toPath());
+  }
+
+  @Test
+  public void shouldRunFileUpdateConsumerForJournaledFileInIncrementalMode() throws Exception {
+    enableIncrementalMode();
+    fileUpdateConsumers.add(fileUpdateConsumerMock);
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    fileTreeWalker.initialize();
+    sleep(FS_LATENCY_DELAY);
+
+    write(file, TEST_FILE_CONTENT);
+    journal.record(file.toPath());
+
+    fileTreeWalker.walk();
+    verify(fileUpdateConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldNotRunConsumersForUnchangedTreeInIncrementalMode() throws Exception {
+    enableIncrementalMode();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    fileUpdateConsumers.add(fileUpdateConsumerMock);
+    directoryUpdateConsumers.add(directoryUpdateConsumerMock);
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.initialize();
+
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+    verify(fileUpdateConsumerMock, never()).accept(file.toPath());
+    verify(directoryUpdateConsumerMock, never()).accept(folder.toPath());
+  }
 }
@@ -37,7 +37,8 @@ public class InstallerLogJsonRpcMessenger {
 
   @PostConstruct
   private void postConstruct() {
-    subscriptionManager.register(INSTALLER_LOG_METHOD, InstallerLogEvent.class, this::predicate);
+    subscriptionManager.registerBatched(
+        INSTALLER_LOG_METHOD, InstallerLogEvent.class, this::predicate);
   }
 
   private boolean predicate(InstallerLogEvent event, Map<String, String> scope) {
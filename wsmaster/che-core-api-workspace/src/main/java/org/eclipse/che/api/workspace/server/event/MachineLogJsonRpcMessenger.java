@@ -37,7 +37,7 @@ public class MachineLogJsonRpcMessenger {
 
   @PostConstruct
   private void postConstruct() {
-    subscriptionManager.register(MACHINE_LOG_METHOD, MachineLogEvent.class, this::predicate);
+    subscriptionManager.registerBatched(MACHINE_LOG_METHOD, MachineLogEvent.class, this::predicate);
   }
 
   private boolean predicate(MachineLogEvent event, Map<String, String> scope) {
@@ -29,6 +29,7 @@ public class HttpProbe extends Probe {
   private final URL url;
   private final int timeout;
   private final Map<String, String> headers;
+  private final Map<String, String> requestHeaders;
 
   private HttpURLConnection httpURLConnection;
 
@@ -41,13 +42,32 @@ public class HttpProbe extends Probe {
   public HttpProbe(URL url, int timeout, Map<String, String> headers) {
     this.url = url;
     this.timeout = timeout;
-    this.headers = new HashMap<>();
+    this.requestHeaders = new HashMap<>();
     if (headers != null) {
-      this.headers.putAll(headers);
+      this.requestHeaders.putAll(headers);
     }
+    this.headers = new HashMap<>(requestHeaders);
     this.headers.put(CONNECTION_HEADER, CONNECTION_CLOSE);
   }
 
+  /** Returns HTTP endpoint to probe. */
+  URL getUrl() {
+    return url;
+  }
+
+  /**
+   * Returns headers of the probe request except the header that closes connection, so connection
+   * can be reused by the client that keeps connections alive.
+   */
+  Map<String, String> getRequestHeaders() {
+    return requestHeaders;
+  }
+
+  /** Returns {@code true} if the response code means that the probe succeeded. */
+  static boolean isSuccessful(int responseCode) {
+    return responseCode >= 200 && responseCode < 400;
+  }
+
   @Override
   public boolean doProbe() {
     try {
@@ -72,13 +92,14 @@ public class HttpProbe extends Probe {
    */
   @Override
   public void cancel() {
-    httpURLConnection.disconnect();
+    if (httpURLConnection != null) {
+      httpURLConnection.disconnect();
+    }
   }
 
   private boolean isConnectionSuccessful(HttpURLConnection conn) {
     try {
-      int responseCode = conn.getResponseCode();
-      return responseCode >= 200 && responseCode < 400;
+      return isSuccessful(conn.getResponseCode());
     } catch (IOException e) {
       return false;
     }
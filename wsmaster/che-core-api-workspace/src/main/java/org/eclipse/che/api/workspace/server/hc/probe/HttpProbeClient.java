@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking HTTP client that is used by {@link ProbeScheduler} to check HTTP probes. Requests
+ * are sent over {@link AsynchronousSocketChannel asynchronous channels}, so a small amount of
+ * threads serves any amount of probes. Connections are kept alive and reused by next requests to
+ * the same host and port, idle connections are closed by {@link #closeIdleConnections(long)}.
+ *
+ * <p>Only plain HTTP is supported, see {@link #supports(URL)}.
+ */
+class HttpProbeClient {
+  private static final int BUFFER_SIZE = 4096;
+
+  private final AsynchronousChannelGroup channelGroup;
+  private final Executor resolveExecutor;
+  private final int maxIdleConnectionsPerHost;
+  private final ConcurrentMap<String, Queue<Connection>> idleConnections;
+
+  /**
+   * @param channelGroup group whose threads handle I/O of connections
+   * @param resolveExecutor executor for blocking host name resolution
+   * @param maxIdleConnectionsPerHost maximum amount of idle connections kept for a host and port
+   */
+  HttpProbeClient(
+      AsynchronousChannelGroup channelGroup,
+      Executor resolveExecutor,
+      int maxIdleConnectionsPerHost) {
+    this.channelGroup = channelGroup;
+    this.resolveExecutor = resolveExecutor;
+    this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+    this.idleConnections = new ConcurrentHashMap<>();
+  }
+
+  /** Returns {@code true} if the URL can be requested by this client. */
+  static boolean supports(URL url) {
+    return "http".equals(url.getProtocol());
+  }
+
+  /**
+   * Sends GET request to the URL.
+   *
+   * @param url URL to request
+   * @param headers headers of the request
+   * @return future that is completed with the status code of the response or exceptionally if the
+   *     request fails, cancellation of the future closes the connection used by the request
+   */
+  CompletableFuture<Integer> get(URL url, Map<String, String> headers) {
+    Exchange exchange = new Exchange(url, createRequest(url, headers));
+    exchange.start();
+    return exchange.response;
+  }
+
+  /** Closes connections that are idle longer than the specified time. */
+  void closeIdleConnections(long maxIdleMillis) {
+    long now = System.currentTimeMillis();
+    for (Iterator<Queue<Connection>> queues = idleConnections.values().iterator();
+        queues.hasNext(); ) {
+      Queue<Connection> queue = queues.next();
+      queue.removeIf(
+          connection -> {
+            if (now - connection.idleSince >= maxIdleMillis) {
+              connection.close();
+              return true;
+            }
+            return false;
+          });
+      if (queue.isEmpty()) {
+        queues.remove();
+      }
+    }
+  }
+
+  /** Returns amount of idle connections to all the hosts. */
+  int getIdleConnectionsCount() {
+    return idleConnections.values().stream().mapToInt(Queue::size).sum();
+  }
+
+  private static ByteBuffer createRequest(URL url, Map<String, String> headers) {
+    String path = url.getFile().isEmpty() ? "/" : url.getFile();
+    StringBuilder request = new StringBuilder(128);
+    request.append("GET ").append(path).append(" HTTP/1.1\r\n");
+    request.append("Host: ").append(url.getHost());
+    if (url.getPort() != -1) {
+      request.append(':').append(url.getPort());
+    }
+    request.append("\r\n");
+    headers.forEach(
+        (name, value) -> request.append(name).append(": ").append(value).append("\r\n"));
+    request.append("\r\n");
+    return ByteBuffer.wrap(request.toString().getBytes(ISO_8859_1));
+  }
+
+  private static String getHostKey(URL url) {
+    return url.getHost() + ':' + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+  }
+
+  private Connection pollIdle(String hostKey) {
+    Queue<Connection> queue = idleConnections.get(hostKey);
+    return queue == null ? null : queue.poll();
+  }
+
+  private void release(Connection connection) {
+    Queue<Connection> queue =
+        idleConnections.computeIfAbsent(connection.hostKey, k -> new ConcurrentLinkedQueue<>());
+    if (queue.size() >= maxIdleConnectionsPerHost) {
+      connection.close();
+      return;
+    }
+    connection.idleSince = System.currentTimeMillis();
+    queue.add(connection);
+  }
+
+  /** Single request-response exchange. */
+  private class Exchange {
+    private final URL url;
+    private final String hostKey;
+    private final ByteBuffer request;
+    private final CompletableFuture<Integer> response;
+
+    private volatile Connection connection;
+    private volatile boolean reusedConnection;
+
+    private Exchange(URL url, ByteBuffer request) {
+      this.url = url;
+      this.hostKey = getHostKey(url);
+      this.request = request;
+      this.response = new CompletableFuture<>();
+      // cancelled or failed exchange leaves connection in unknown state
+      response.whenComplete(
+          (code, error) -> {
+            Connection current = connection;
+            if (error != null && current != null) {
+              current.close();
+            }
+          });
+    }
+
+    private void start() {
+      Connection idle = pollIdle(hostKey);
+      if (idle != null) {
+        reusedConnection = true;
+        send(idle);
+      } else {
+        connect();
+      }
+    }
+
+    private void connect() {
+      reusedConnection = false;
+      int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+      CompletableFuture.supplyAsync(
+              () -> new InetSocketAddress(url.getHost(), port), resolveExecutor)
+          .whenComplete(
+              (address, error) -> {
+                if (error != null) {
+                  response.completeExceptionally(error);
+                  return;
+                }
+                if (address.isUnresolved()) {
+                  response.completeExceptionally(
+                      new IOException("Host '" + url.getHost() + "' can't be resolved"));
+                  return;
+                }
+                connect(address);
+              });
+    }
+
+    private void connect(InetSocketAddress address) {
+      Connection newConnection;
+      try {
+        newConnection = new Connection(hostKey, AsynchronousSocketChannel.open(channelGroup));
+      } catch (IOException | RuntimeException e) {
+        response.completeExceptionally(e);
+        return;
+      }
+      connection = newConnection;
+      if (response.isDone()) {
+        newConnection.close();
+        return;
+      }
+      newConnection.channel.connect(
+          address,
+          null,
+          new Handler<Void>() {
+            @Override
+            void onCompleted(Void result) {
+              send(newConnection);
+            }
+          });
+    }
+
+    private void send(Connection conn) {
+      connection = conn;
+      if (response.isDone()) {
+        conn.close();
+        return;
+      }
+      request.rewind();
+      conn.parser.reset();
+      write(conn);
+    }
+
+    private void write(Connection conn) {
+      conn.channel.write(
+          request,
+          null,
+          new Handler<Integer>() {
+            @Override
+            void onCompleted(Integer written) {
+              if (request.hasRemaining()) {
+                write(conn);
+              } else {
+                conn.buffer.clear();
+                read(conn);
+              }
+            }
+          });
+    }
+
+    private void read(Connection conn) {
+      conn.channel.read(
+          conn.buffer,
+          null,
+          new Handler<Integer>() {
+            @Override
+            void onCompleted(Integer read) throws IOException {
+              if (read < 0) {
+                onEndOfStream(conn);
+                return;
+              }
+              conn.buffer.flip();
+              boolean done = conn.parser.feed(conn.buffer);
+              conn.buffer.clear();
+              if (!done) {
+                read(conn);
+                return;
+              }
+              // connection is released before the response is completed, so it can be reused by a
+              // request that is sent right after this one. It is detached from the exchange first,
+              // so cancellation of the response that happens meanwhile doesn't close it in the pool
+              connection = null;
+              if (conn.parser.isKeepAlive() && !response.isDone()) {
+                release(conn);
+              } else {
+                conn.close();
+              }
+              response.complete(conn.parser.getStatusCode());
+            }
+          });
+    }
+
+    private void onEndOfStream(Connection conn) throws IOException {
+      conn.close();
+      if (reusedConnection && !conn.parser.hasReceivedData()) {
+        // server closed idle connection, try a new one
+        connect();
+      } else if (conn.parser.getStatusCode() != 0) {
+        response.complete(conn.parser.getStatusCode());
+      } else {
+        throw new IOException("Connection closed before response is received");
+      }
+    }
+
+    /** Completes the exchange exceptionally when any step of it fails. */
+    private abstract class Handler<T> implements CompletionHandler<T, Void> {
+      @Override
+      public void completed(T result, Void attachment) {
+        try {
+          onCompleted(result);
+        } catch (IOException | RuntimeException e) {
+          failed(e, attachment);
+        }
+      }
+
+      @Override
+      public void failed(Throwable error, Void attachment) {
+        if (response.isDone()) {
+          return;
+        }
+        Connection current = connection;
+        if (reusedConnection && current != null && !current.parser.hasReceivedData()) {
+          // reused connection might be closed by server while it was idle
+          current.close();
+          connect();
+        } else {
+          response.completeExceptionally(error);
+        }
+      }
+
+      abstract void onCompleted(T result) throws IOException;
+    }
+  }
+
+  private static class Connection {
+    private final String hostKey;
+    private final AsynchronousSocketChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final HttpResponseParser parser = new HttpResponseParser();
+
+    private volatile long idleSince;
+
+    private Connection(String hostKey, AsynchronousSocketChannel channel) {
+      this.hostKey = hostKey;
+      this.channel = channel;
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // nothing to do
+      }
+    }
+  }
+}
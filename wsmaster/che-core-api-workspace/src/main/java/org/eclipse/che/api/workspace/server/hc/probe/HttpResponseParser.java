@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Incrementally parses HTTP/1.x response to a GET request. Only the status and the headers that are
+ * needed to find the end of the response are interpreted, the body is skipped, so the connection
+ * can be reused for the next request if the server keeps it alive.
+ */
+class HttpResponseParser {
+  private static final int MAX_LINE_LENGTH = 8192;
+
+  private enum State {
+    STATUS_LINE,
+    HEADERS,
+    BODY,
+    CHUNK_SIZE,
+    CHUNK_DATA,
+    CHUNK_END,
+    TRAILERS,
+    DONE
+  }
+
+  private final StringBuilder line = new StringBuilder();
+
+  private State state = State.STATUS_LINE;
+  private boolean receivedData;
+  private int statusCode;
+  private boolean keepAlive;
+  private boolean chunked;
+  private long contentLength;
+  private long remaining;
+
+  /**
+   * Consumes available bytes of the response. Bytes that follow the end of the response are not
+   * consumed.
+   *
+   * @return {@code true} if the response is completely read
+   * @throws ProtocolException if the response is malformed
+   */
+  boolean feed(ByteBuffer buffer) throws ProtocolException {
+    receivedData |= buffer.hasRemaining();
+    while (buffer.hasRemaining() && state != State.DONE) {
+      switch (state) {
+        case BODY:
+        case CHUNK_DATA:
+          int skipped = (int) Math.min(remaining, buffer.remaining());
+          buffer.position(buffer.position() + skipped);
+          remaining -= skipped;
+          if (remaining == 0) {
+            state = state == State.BODY ? State.DONE : State.CHUNK_END;
+          }
+          break;
+        default:
+          if (readLine(buffer)) {
+            onLine(line.toString());
+            line.setLength(0);
+          }
+      }
+    }
+    return state == State.DONE;
+  }
+
+  /** Returns {@code true} if any byte of the response is received. */
+  boolean hasReceivedData() {
+    return receivedData;
+  }
+
+  /** Returns status code of the response, available when the status line is read. */
+  int getStatusCode() {
+    return statusCode;
+  }
+
+  /** Returns {@code true} if the connection can be used for the next request. */
+  boolean isKeepAlive() {
+    return keepAlive && state == State.DONE;
+  }
+
+  /** Prepares the parser for the next response on the same connection. */
+  void reset() {
+    line.setLength(0);
+    state = State.STATUS_LINE;
+    receivedData = false;
+    statusCode = 0;
+  }
+
+  private boolean readLine(ByteBuffer buffer) throws ProtocolException {
+    while (buffer.hasRemaining()) {
+      char c = (char) (buffer.get() & 0xFF);
+      if (c == '\n') {
+        int last = line.length() - 1;
+        if (last >= 0 && line.charAt(last) == '\r') {
+          line.setLength(last);
+        }
+        return true;
+      }
+      if (line.length() == MAX_LINE_LENGTH) {
+        throw new ProtocolException("Response line is too long");
+      }
+      line.append(c);
+    }
+    return false;
+  }
+
+  private void onLine(String value) throws ProtocolException {
+    switch (state) {
+      case STATUS_LINE:
+        parseStatusLine(value);
+        break;
+      case HEADERS:
+        if (value.isEmpty()) {
+          onHeadersEnd();
+        } else {
+          parseHeader(value);
+        }
+        break;
+      case CHUNK_SIZE:
+        remaining = parseChunkSize(value);
+        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+        break;
+      case CHUNK_END:
+        if (!value.isEmpty()) {
+          throw new ProtocolException("Chunk is longer than its size");
+        }
+        state = State.CHUNK_SIZE;
+        break;
+      case TRAILERS:
+        if (value.isEmpty()) {
+          state = State.DONE;
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unexpected line in state " + state);
+    }
+  }
+
+  private void parseStatusLine(String value) throws ProtocolException {
+    if (value.isEmpty() && statusCode == 0) {
+      // tolerate empty lines before the status line
+      return;
+    }
+    String[] parts = value.split(" ", 3);
+    if (parts.length < 2 || !parts[0].startsWith("HTTP/1.")) {
+      throw new ProtocolException("Malformed status line '" + value + "'");
+    }
+    try {
+      statusCode = Integer.parseInt(parts[1]);
+    } catch (NumberFormatException e) {
+      throw new ProtocolException("Malformed status code '" + parts[1] + "'");
+    }
+    keepAlive = !"HTTP/1.0".equals(parts[0]);
+    chunked = false;
+    contentLength = -1;
+    state = State.HEADERS;
+  }
+
+  private void parseHeader(String value) throws ProtocolException {
+    int colon = value.indexOf(':');
+    if (colon <= 0) {
+      throw new ProtocolException("Malformed header '" + value + "'");
+    }
+    String name = value.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+    String headerValue = value.substring(colon + 1).trim().toLowerCase(Locale.ROOT);
+    switch (name) {
+      case "content-length":
+        try {
+          contentLength = Long.parseLong(headerValue);
+        } catch (NumberFormatException e) {
+          throw new ProtocolException("Malformed content length '" + headerValue + "'");
+        }
+        break;
+      case "transfer-encoding":
+        chunked = headerValue.contains("chunked");
+        break;
+      case "connection":
+        if (headerValue.contains("close")) {
+          keepAlive = false;
+        } else if (headerValue.contains("keep-alive")) {
+          keepAlive = true;
+        }
+        break;
+      default:
+        // not needed
+    }
+  }
+
+  private void onHeadersEnd() {
+    if (statusCode >= 100 && statusCode < 200 && statusCode != 101) {
+      // interim response, the final one follows
+      state = State.STATUS_LINE;
+      statusCode = 0;
+    } else if (statusCode == 101) {
+      // connection is switched to another protocol
+      keepAlive = false;
+      state = State.DONE;
+    } else if (statusCode == 204 || statusCode == 304) {
+      state = State.DONE;
+    } else if (chunked) {
+      state = State.CHUNK_SIZE;
+    } else if (contentLength >= 0) {
+      remaining = contentLength;
+      state = remaining == 0 ? State.DONE : State.BODY;
+    } else {
+      // body is terminated by the end of the stream, status is all that is needed
+      keepAlive = false;
+      state = State.DONE;
+    }
+  }
+
+  private static long parseChunkSize(String value) throws ProtocolException {
+    int end = value.indexOf(';');
+    String size = (end < 0 ? value : value.substring(0, end)).trim();
+    try {
+      long parsed = Long.parseLong(size, 16);
+      if (parsed < 0) {
+        throw new ProtocolException("Negative chunk size '" + size + "'");
+      }
+      return parsed;
+    } catch (NumberFormatException e) {
+      throw new ProtocolException("Malformed chunk size '" + size + "'");
+    }
+  }
+}
@@ -10,49 +10,84 @@
  */
 package org.eclipse.che.api.workspace.server.hc.probe;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.nio.channels.AsynchronousChannelGroup;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.workspace.server.hc.probe.ProbeResult.ProbeStatus;
+import org.eclipse.che.commons.lang.concurrent.HashedWheelTimer;
+import org.eclipse.che.commons.lang.concurrent.HashedWheelTimer.Timeout;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Schedules workspace servers probes checks asynchronously.
  *
+ * <p>Probes are scheduled in a {@link HashedWheelTimer}, so scheduling of thousands of probes
+ * doesn't need a thread per probe. HTTP probes are checked by the non-blocking {@link
+ * HttpProbeClient} that keeps connections to servers alive between checks, other probes are checked
+ * in a thread pool. Periods of probes are jittered, so probes of servers started at the same time
+ * don't keep running at the same time. Statistics of probes are collected per server name, see
+ * {@link #getStatistics()}.
+ *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class ProbeScheduler {
-  private final ScheduledThreadPoolExecutor probesExecutor;
-  /**
-   * Use single thread for a scheduling of tasks interruption by timeout. Single thread can be used
-   * since it is supposed that interruption is a very quick call. Separate thread is needed to
-   * prevent a situation when executor is full of jobs and current ones are hanging but we need to
-   * time them out.
-   */
-  private final Timer timeouts;
-  /** Mapping of workspaceId to a list of futures with probes of a workspace. */
-  private final Map<String, List<ScheduledFuture>> probesFutures;
+  private static final Logger LOG = LoggerFactory.getLogger(ProbeScheduler.class);
+
+  /** Maximum deviation of a probe period, as a fraction of the period. */
+  private static final double PERIOD_JITTER = 0.1;
+
+  private static final int IO_THREADS = 2;
+  private static final int MAX_IDLE_CONNECTIONS_PER_HOST = 4;
+  private static final long MAX_CONNECTION_IDLE_MILLIS = SECONDS.toMillis(30);
+
+  /** Runs blocking probes and passes probes results to consumers. */
+  private final ExecutorService probesExecutor;
+  /** Schedules probes and their timeouts, scheduled tasks must be quick. */
+  private final HashedWheelTimer timer;
+
+  private final AsynchronousChannelGroup channelGroup;
+  private final HttpProbeClient httpClient;
+  /** Mapping of workspaceId to a list of probes tasks of a workspace. */
+  private final Map<String, List<Task>> probesTasks;
+  /** Mapping of server name to statistics of probes of servers with this name. */
+  private final Map<String, ProbeStatistics> statistics;
 
   @Inject
   public ProbeScheduler(@Named("che.workspace.probe_pool_size") int probeSchedulerPoolSize) {
     probesExecutor =
-        new ScheduledThreadPoolExecutor(
-            probeSchedulerPoolSize,
-            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ServerProbes-%s").build());
-    timeouts = new Timer("ServerProbesTimeouts", true);
-    probesFutures = new ConcurrentHashMap<>();
+        Executors.newFixedThreadPool(probeSchedulerPoolSize, threadFactory("ServerProbes-%s"));
+    timer = new HashedWheelTimer("ServerProbesTimer", 100, MILLISECONDS, 512);
+    try {
+      channelGroup =
+          AsynchronousChannelGroup.withFixedThreadPool(
+              IO_THREADS, threadFactory("ServerProbesIO-%s"));
+    } catch (IOException e) {
+      throw new IllegalStateException("Can't create channel group for server probes", e);
+    }
+    httpClient = new HttpProbeClient(channelGroup, probesExecutor, MAX_IDLE_CONNECTIONS_PER_HOST);
+    probesTasks = new ConcurrentHashMap<>();
+    statistics = new ConcurrentHashMap<>();
+    scheduleIdleConnectionsCleanup();
   }
 
   /**
@@ -66,7 +101,7 @@ public class ProbeScheduler {
    *     probe execution results
    */
   public void schedule(WorkspaceProbes probes, Consumer<ProbeResult> probeResultConsumer) {
-    probesFutures.putIfAbsent(probes.getWorkspaceId(), new ArrayList<>());
+    probesTasks.putIfAbsent(probes.getWorkspaceId(), new ArrayList<>());
     probes
         .getProbes()
         .forEach(
@@ -78,126 +113,252 @@ public class ProbeScheduler {
    * specified ID.
    */
   public void cancel(String workspaceId) {
-    List<ScheduledFuture> tasks = probesFutures.remove(workspaceId);
+    List<Task> tasks = probesTasks.remove(workspaceId);
     if (tasks == null) {
       return;
     }
 
-    tasks.forEach(task -> task.cancel(true));
+    tasks.forEach(Task::cancel);
+  }
+
+  /** Returns statistics of probes, mapped by names of servers they check. */
+  public Map<String, ProbeStatistics> getStatistics() {
+    return statistics;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    timer.close();
+    probesExecutor.shutdownNow();
+    try {
+      channelGroup.shutdownNow();
+    } catch (IOException e) {
+      LOG.warn("Failed to close connections of server probes. Cause: {}", e.getMessage());
+    }
   }
 
   private void schedule(
       String workspaceId, ProbeFactory probeFactory, Consumer<ProbeResult> probeResultConsumer) {
-    ProbeConfig probeConfig = probeFactory.getProbeConfig();
-    Task task = new Task(probeFactory, probeResultConsumer);
-    // scheduleWithFixedDelay is used in favor of scheduleAtFixedRate because in case of big amount
-    // of scheduled probes start time of tasks may shift and this may lead to a situation when
-    // another probeConfig is needed immediately after the previous one is finished which doesn't
-    // seem a good thing
-    ScheduledFuture scheduledFuture =
-        probesExecutor.scheduleWithFixedDelay(
-            task,
-            probeConfig.getInitialDelaySeconds(),
-            probeConfig.getPeriodSeconds(),
-            TimeUnit.SECONDS);
-
-    List<ScheduledFuture> workspaceProbes =
-        probesFutures.computeIfPresent(
+    Task task =
+        new Task(
+            probeFactory,
+            probeResultConsumer,
+            statistics.computeIfAbsent(
+                probeFactory.getServerName(), serverName -> new ProbeStatistics()));
+
+    List<Task> workspaceProbes =
+        probesTasks.computeIfPresent(
             workspaceId,
-            (OldKey, scheduledFutures) -> {
-              if (scheduledFutures == null) {
-                scheduledFutures = new ArrayList<>();
-              }
-              scheduledFutures.add(scheduledFuture);
-              return scheduledFutures;
+            (OldKey, tasks) -> {
+              tasks.add(task);
+              return tasks;
             });
     // check whether workspace probes were cancelled concurrently which led to removal of the value
     // in the map
     if (workspaceProbes == null) {
-      scheduledFuture.cancel(true);
       task.cancel();
+      return;
     }
+    task.schedule(SECONDS.toMillis(probeFactory.getProbeConfig().getInitialDelaySeconds()));
+  }
+
+  private void scheduleIdleConnectionsCleanup() {
+    timer.schedule(
+        () -> {
+          httpClient.closeIdleConnections(MAX_CONNECTION_IDLE_MILLIS);
+          scheduleIdleConnectionsCleanup();
+        },
+        MAX_CONNECTION_IDLE_MILLIS,
+        MILLISECONDS);
+  }
+
+  private static ThreadFactory threadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder()
+        .setNameFormat(nameFormat)
+        .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+        .setDaemon(true)
+        .build();
   }
 
-  private class Task implements Runnable {
+  /**
+   * Periodical check of a probe. Next check is scheduled when the previous one is finished, so
+   * checks of a probe never overlap and a slow server doesn't accumulate pending checks.
+   */
+  private class Task {
     private final ProbeFactory probeFactory;
     private final Consumer<ProbeResult> probeResultConsumer;
     private final ProbeConfig probeConfig;
+    private final ProbeStatistics probeStatistics;
 
+    // accessed by one check at a time
     private int failures = 0;
     private int successes = 0;
-    private AtomicBoolean cancelled = new AtomicBoolean(false);
+    private long plannedStart;
+
+    private volatile boolean cancelled;
+    private volatile Timeout nextCheck;
+    private volatile CompletableFuture<Boolean> currentCheck;
+    private volatile Probe currentProbe;
 
-    public Task(ProbeFactory probeFactory, Consumer<ProbeResult> probeResultConsumer) {
+    private Task(
+        ProbeFactory probeFactory,
+        Consumer<ProbeResult> probeResultConsumer,
+        ProbeStatistics probeStatistics) {
       this.probeFactory = probeFactory;
       this.probeConfig = probeFactory.getProbeConfig();
       this.probeResultConsumer = probeResultConsumer;
+      this.probeStatistics = probeStatistics;
     }
 
-    @Override
-    public void run() {
-      if (cancelled.get()) {
+    private void schedule(long delayMillis) {
+      plannedStart = System.currentTimeMillis() + delayMillis;
+      try {
+        nextCheck = timer.schedule(this::check, delayMillis, MILLISECONDS);
+      } catch (IllegalStateException e) {
+        // scheduler is shut down
         return;
       }
+      if (cancelled) {
+        nextCheck.cancel();
+      }
+    }
+
+    /** Starts the check, called by the timer so must not block. */
+    private void check() {
+      if (cancelled) {
+        return;
+      }
+      long started = System.currentTimeMillis();
+      probeStatistics.recordStartDelay(started - plannedStart);
+
       Probe probe = probeFactory.get();
-      timeouts.schedule(
-          new TimeoutProbeTask(probe), TimeUnit.SECONDS.toMillis(probeConfig.getTimeoutSeconds()));
-      boolean success = probe.probe();
+      CompletableFuture<Boolean> result = start(probe);
+      currentProbe = probe;
+      currentCheck = result;
+      Timeout timeout =
+          timer.schedule(
+              () -> {
+                if (result.complete(false)) {
+                  cancelProbe(probe);
+                }
+              },
+              probeConfig.getTimeoutSeconds(),
+              SECONDS);
+
+      result.whenComplete(
+          (success, error) -> {
+            boolean timedOut = !timeout.cancel();
+            probeStatistics.recordResult(
+                System.currentTimeMillis() - started,
+                error == null && success,
+                timedOut && error == null);
+            if (cancelled) {
+              return;
+            }
+            try {
+              probesExecutor.execute(() -> onResult(error == null && success));
+            } catch (RuntimeException e) {
+              // executor is shut down
+            }
+          });
+    }
+
+    private CompletableFuture<Boolean> start(Probe probe) {
+      if (probe instanceof HttpProbe && HttpProbeClient.supports(((HttpProbe) probe).getUrl())) {
+        HttpProbe httpProbe = (HttpProbe) probe;
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        CompletableFuture<Integer> response =
+            httpClient.get(httpProbe.getUrl(), httpProbe.getRequestHeaders());
+        response.whenComplete(
+            (code, error) -> result.complete(error == null && HttpProbe.isSuccessful(code)));
+        // closes connection of the request when the check is timed out or cancelled
+        result.whenComplete((success, error) -> response.cancel(false));
+        return result;
+      }
+      CompletableFuture<Boolean> result = new CompletableFuture<>();
+      try {
+        probesExecutor.execute(
+            () -> {
+              if (!result.isDone()) {
+                result.complete(probe.probe());
+              }
+            });
+      } catch (RuntimeException e) {
+        result.complete(false);
+      }
+      return result;
+    }
+
+    private void onResult(boolean success) {
       if (success) {
         // current success increases successes count and clears failures count
         successes++;
         failures = 0;
 
-        if (successes >= probeConfig.getSuccessThreshold()) {
-          // TODO make them completable futures? Then we should ensure that
-          // consecutive calls won't use executors thread time but rather use common thread
-          // pool to perform processing of passed probe result
-          if (cancelled.get()) {
-            return;
-          }
+        if (successes >= probeConfig.getSuccessThreshold() && !cancelled) {
           // Health check satisfies probeConfig health conditions
-          probeResultConsumer.accept(
-              new ProbeResult(
-                  probeFactory.getWorkspaceId(),
-                  probeFactory.getMachineName(),
-                  probeFactory.getServerName(),
-                  ProbeStatus.PASSED));
+          accept(ProbeStatus.PASSED);
         }
       } else {
         // current failure increases failures count and clears successes count
         failures++;
         successes = 0;
 
-        if (failures >= probeConfig.getFailureThreshold()) {
-          if (cancelled.get()) {
-            return;
-          }
+        if (failures >= probeConfig.getFailureThreshold() && !cancelled) {
           // Health check satisfies probeConfig failure conditions
-          probeResultConsumer.accept(
-              new ProbeResult(
-                  probeFactory.getWorkspaceId(),
-                  probeFactory.getMachineName(),
-                  probeFactory.getServerName(),
-                  ProbeStatus.FAILED));
+          accept(ProbeStatus.FAILED);
         }
       }
+      if (!cancelled) {
+        schedule(jitter(SECONDS.toMillis(probeConfig.getPeriodSeconds())));
+      }
     }
 
-    public void cancel() {
-      cancelled.set(true);
+    private void accept(ProbeStatus status) {
+      try {
+        probeResultConsumer.accept(
+            new ProbeResult(
+                probeFactory.getWorkspaceId(),
+                probeFactory.getMachineName(),
+                probeFactory.getServerName(),
+                status));
+      } catch (RuntimeException e) {
+        LOG.error(
+            "Failed to process result of probe of server '{}' in workspace '{}'. Cause: {}",
+            probeFactory.getServerName(),
+            probeFactory.getWorkspaceId(),
+            e.getMessage());
+      }
     }
-  }
 
-  private class TimeoutProbeTask extends TimerTask {
-    private final Probe probe;
+    private void cancel() {
+      cancelled = true;
+      Timeout next = nextCheck;
+      if (next != null) {
+        next.cancel();
+      }
+      CompletableFuture<Boolean> current = currentCheck;
+      if (current != null && current.complete(false)) {
+        cancelProbe(currentProbe);
+      }
+    }
 
-    public TimeoutProbeTask(Probe probe) {
-      this.probe = probe;
+    private void cancelProbe(Probe probe) {
+      if (probe instanceof HttpProbe && HttpProbeClient.supports(((HttpProbe) probe).getUrl())) {
+        // request is cancelled along with the check
+        return;
+      }
+      try {
+        probe.cancel();
+      } catch (RuntimeException e) {
+        // probe is not started yet
+      }
     }
 
-    @Override
-    public void run() {
-      probe.cancel();
+    /** Returns period that randomly deviates from the specified one by up to the jitter. */
+    private long jitter(long periodMillis) {
+      long deviation = (long) (periodMillis * PERIOD_JITTER);
+      return periodMillis + ThreadLocalRandom.current().nextLong(-deviation, deviation + 1);
     }
   }
 }
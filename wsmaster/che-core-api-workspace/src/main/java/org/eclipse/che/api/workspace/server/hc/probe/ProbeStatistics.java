@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of probes of servers of the same type, i.e. servers with the same name in different
+ * workspaces. Keeps histograms of probe latencies and of start delays, the time by which a probe
+ * start missed its schedule because of the load of the probe engine.
+ *
+ * <p>Histograms have the same buckets, bucket {@code i} counts values not greater than {@link
+ * #BUCKET_BOUNDS_MS}{@code [i]} and greater than the previous bound, the last bucket counts values
+ * greater than the last bound.
+ */
+public class ProbeStatistics {
+
+  /** Upper bounds of histogram buckets in milliseconds. */
+  public static final long[] BUCKET_BOUNDS_MS = {
+    5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000
+  };
+
+  private final LongAdder[] latencies = newHistogram();
+  private final LongAdder[] startDelays = newHistogram();
+  private final LongAdder successes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+
+  /** Returns histogram of time between start of probes and receiving of their results. */
+  public long[] getLatencies() {
+    return snapshot(latencies);
+  }
+
+  /** Returns histogram of time by which probes started later than they were scheduled. */
+  public long[] getStartDelays() {
+    return snapshot(startDelays);
+  }
+
+  /** Returns amount of successful probes. */
+  public long getSuccesses() {
+    return successes.sum();
+  }
+
+  /** Returns amount of failed probes, including timed out ones. */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /** Returns amount of probes that didn't finish in time. */
+  public long getTimeouts() {
+    return timeouts.sum();
+  }
+
+  void recordStartDelay(long delayMillis) {
+    record(startDelays, delayMillis);
+  }
+
+  void recordResult(long latencyMillis, boolean success, boolean timedOut) {
+    record(latencies, latencyMillis);
+    if (success) {
+      successes.increment();
+    } else {
+      failures.increment();
+    }
+    if (timedOut) {
+      timeouts.increment();
+    }
+  }
+
+  private static void record(LongAdder[] histogram, long valueMillis) {
+    int i = 0;
+    while (i < BUCKET_BOUNDS_MS.length && valueMillis > BUCKET_BOUNDS_MS[i]) {
+      i++;
+    }
+    histogram[i].increment();
+  }
+
+  private static LongAdder[] newHistogram() {
+    LongAdder[] histogram = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = new LongAdder();
+    }
+    return histogram;
+  }
+
+  private static long[] snapshot(LongAdder[] histogram) {
+    long[] counts = new long[histogram.length];
+    for (int i = 0; i < histogram.length; i++) {
+      counts[i] = histogram[i].sum();
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link HttpProbeClient}. */
+public class HttpProbeClientTest {
+
+  private HttpServer server;
+  private Set<Integer> clientPorts;
+  private ExecutorService executor;
+  private AsynchronousChannelGroup channelGroup;
+  private HttpProbeClient client;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    clientPorts = ConcurrentHashMap.newKeySet();
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          clientPorts.add(exchange.getRemoteAddress().getPort());
+          String path = exchange.getRequestURI().getPath();
+          int code = "/missing".equals(path) ? 404 : 200;
+          String header = exchange.getRequestHeaders().getFirst("X-Test");
+          byte[] body = (header == null ? "ok" : header).getBytes();
+          exchange.sendResponseHeaders(code, body.length);
+          exchange.getResponseBody().write(body);
+          exchange.close();
+        });
+    server.start();
+
+    executor = Executors.newCachedThreadPool();
+    channelGroup = AsynchronousChannelGroup.withThreadPool(executor);
+    client = new HttpProbeClient(channelGroup, executor, 2);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    server.stop(0);
+    channelGroup.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldReturnStatusCodeOfResponse() throws Exception {
+    assertEquals(get("/path?query=1").intValue(), 200);
+    assertEquals(get("/missing").intValue(), 404);
+  }
+
+  @Test
+  public void shouldReuseConnectionForNextRequests() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      assertEquals(get("/").intValue(), 200);
+    }
+
+    assertEquals(clientPorts.size(), 1);
+    assertEquals(client.getIdleConnectionsCount(), 1);
+  }
+
+  @Test
+  public void shouldSendHeaders() throws Exception {
+    URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+
+    assertEquals(client.get(url, singletonMap("X-Test", "value")).get(10, SECONDS).intValue(), 200);
+  }
+
+  @Test
+  public void shouldCloseIdleConnections() throws Exception {
+    get("/");
+
+    client.closeIdleConnections(0);
+
+    assertEquals(client.getIdleConnectionsCount(), 0);
+    assertEquals(get("/").intValue(), 200);
+    assertEquals(clientPorts.size(), 2);
+  }
+
+  @Test
+  public void shouldOpenNewConnectionWhenIdleConnectionIsClosedByServer() throws Exception {
+    get("/");
+    int port = server.getAddress().getPort();
+    server.stop(0);
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          exchange.sendResponseHeaders(204, -1);
+          exchange.close();
+        });
+    server.start();
+
+    assertEquals(get("/").intValue(), 204);
+  }
+
+  @Test(expectedExceptions = ExecutionException.class)
+  public void shouldFailWhenServerIsNotAvailable() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+
+    client.get(new URL("http://127.0.0.1:" + port + "/"), emptyMap()).get(10, SECONDS);
+  }
+
+  @Test
+  public void shouldSupportOnlyPlainHttp() throws Exception {
+    assertTrue(HttpProbeClient.supports(new URL("http://localhost/")));
+    assertFalse(HttpProbeClient.supports(new URL("https://localhost/")));
+  }
+
+  private Integer get(String path) throws Exception {
+    URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    return client.get(url, emptyMap()).get(10, SECONDS);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests {@link HttpResponseParser}. */
+public class HttpResponseParserTest {
+
+  private HttpResponseParser parser;
+
+  @BeforeMethod
+  public void setUp() {
+    parser = new HttpResponseParser();
+  }
+
+  @DataProvider
+  public Object[][] responses() {
+    return new Object[][] {
+      {"HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhello", 200, true},
+      {"HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n", 404, true},
+      {"HTTP/1.1 204 No Content\r\n\r\n", 204, true},
+      {"HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\nok", 200, false},
+      {"HTTP/1.0 200 OK\r\nContent-Length: 2\r\n\r\nok", 200, false},
+      {"HTTP/1.0 200 OK\r\nConnection: Keep-Alive\r\nContent-Length: 2\r\n\r\nok", 200, true},
+      {"HTTP/1.1 200 OK\r\n\r\nbody until the end of stream", 200, false},
+      {"HTTP/1.1 100 Continue\r\n\r\nHTTP/1.1 302 Found\r\nContent-Length: 0\r\n\r\n", 302, true},
+      {
+        "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+            + "5\r\nhello\r\n6;ext=1\r\n world\r\n0\r\nTrailer: value\r\n\r\n",
+        200,
+        true
+      },
+      {"HTTP/1.1 200 OK\nContent-Length: 1\n\nx", 200, true}
+    };
+  }
+
+  @Test(dataProvider = "responses")
+  public void shouldParseResponse(String response, int statusCode, boolean keepAlive)
+      throws Exception {
+    assertTrue(parser.feed(buffer(response)));
+
+    assertEquals(parser.getStatusCode(), statusCode);
+    assertEquals(parser.isKeepAlive(), keepAlive);
+  }
+
+  @Test(dataProvider = "responses")
+  public void shouldParseResponseThatIsReceivedByteByByte(
+      String response, int statusCode, boolean keepAlive) throws Exception {
+    ByteBuffer buffer = buffer(response);
+    boolean done = false;
+    while (buffer.hasRemaining() && !done) {
+      done = parser.feed(ByteBuffer.wrap(new byte[] {buffer.get()}));
+    }
+
+    assertTrue(done);
+    assertEquals(parser.getStatusCode(), statusCode);
+    assertEquals(parser.isKeepAlive(), keepAlive);
+  }
+
+  @Test
+  public void shouldNotConsumeBytesOfNextResponse() throws Exception {
+    ByteBuffer buffer =
+        buffer(
+            "HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok"
+                + "HTTP/1.1 500 Error\r\nContent-Length: 0\r\n\r\n");
+
+    assertTrue(parser.feed(buffer));
+    assertEquals(parser.getStatusCode(), 200);
+
+    parser.reset();
+    assertTrue(parser.feed(buffer));
+    assertEquals(parser.getStatusCode(), 500);
+  }
+
+  @Test
+  public void shouldNotCompleteResponseUntilBodyIsRead() throws Exception {
+    assertFalse(parser.feed(buffer("HTTP/1.1 200 OK\r\nContent-Length: 10\r\n\r\n12345")));
+    assertFalse(parser.isKeepAlive());
+
+    assertTrue(parser.feed(buffer("67890")));
+    assertTrue(parser.isKeepAlive());
+  }
+
+  @Test(expectedExceptions = ProtocolException.class)
+  public void shouldFailOnMalformedStatusLine() throws Exception {
+    parser.feed(buffer("SSH-2.0-OpenSSH_7.4\r\n"));
+  }
+
+  @Test(expectedExceptions = ProtocolException.class)
+  public void shouldFailOnMalformedChunkSize() throws Exception {
+    parser.feed(buffer("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\nxyz\r\n"));
+  }
+
+  private static ByteBuffer buffer(String value) {
+    return ByteBuffer.wrap(value.getBytes(ISO_8859_1));
+  }
+}
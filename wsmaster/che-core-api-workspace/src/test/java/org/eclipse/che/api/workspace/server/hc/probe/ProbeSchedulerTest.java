@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.api.workspace.server.hc.probe.ProbeResult.ProbeStatus;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link ProbeScheduler}. */
+public class ProbeSchedulerTest {
+
+  private static final String WORKSPACE_ID = "workspace123";
+
+  private HttpServer server;
+  private AtomicInteger requests;
+  private volatile int responseCode;
+  private ProbeScheduler probeScheduler;
+  private BlockingQueue<ProbeResult> results;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    requests = new AtomicInteger();
+    responseCode = 200;
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          requests.incrementAndGet();
+          exchange.sendResponseHeaders(responseCode, -1);
+          exchange.close();
+        });
+    server.start();
+    probeScheduler = new ProbeScheduler(2);
+    results = new LinkedBlockingQueue<>();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    probeScheduler.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void shouldPassResultWhenSuccessThresholdIsReached() throws Exception {
+    probeScheduler.schedule(probes(httpProbe("http", 2, 1)), results::add);
+
+    ProbeResult result = results.poll(10, SECONDS);
+
+    assertEquals(result.getStatus(), ProbeStatus.PASSED);
+    assertEquals(result.getWorkspaceId(), WORKSPACE_ID);
+    assertEquals(result.getServerName(), "server");
+    assertEquals(requests.get(), 2);
+    ProbeStatistics statistics = probeScheduler.getStatistics().get("server");
+    assertEquals(statistics.getSuccesses(), 2);
+    assertEquals(sum(statistics.getLatencies()), 2);
+  }
+
+  @Test
+  public void shouldFailProbeWhenFailureThresholdIsReached() throws Exception {
+    responseCode = 500;
+    probeScheduler.schedule(probes(httpProbe("http", 1, 2)), results::add);
+
+    ProbeResult result = results.poll(10, SECONDS);
+
+    assertEquals(result.getStatus(), ProbeStatus.FAILED);
+    assertEquals(requests.get(), 2);
+  }
+
+  @Test
+  public void shouldCheckProbesThatAreNotSupportedByNonBlockingClient() throws Exception {
+    CountDownLatch checked = new CountDownLatch(1);
+    ProbeFactory factory =
+        new ProbeFactory(WORKSPACE_ID, "machine", "custom", new TestProbeConfig()) {
+          @Override
+          public Probe get() {
+            return new Probe() {
+              @Override
+              protected boolean doProbe() {
+                checked.countDown();
+                return true;
+              }
+            };
+          }
+        };
+
+    probeScheduler.schedule(
+        new WorkspaceProbes(WORKSPACE_ID, singletonList(factory)), results::add);
+
+    assertTrue(checked.await(10, SECONDS));
+    assertEquals(results.poll(10, SECONDS).getStatus(), ProbeStatus.PASSED);
+  }
+
+  @Test
+  public void shouldNotCheckProbesOfCancelledWorkspace() throws Exception {
+    probeScheduler.schedule(probes(httpProbe("http", 1, 1)), results::add);
+    assertEquals(results.poll(10, SECONDS).getStatus(), ProbeStatus.PASSED);
+
+    probeScheduler.cancel(WORKSPACE_ID);
+    int requestsAfterCancel = requests.get();
+    Thread.sleep(1500);
+
+    assertEquals(requests.get(), requestsAfterCancel);
+  }
+
+  private WorkspaceProbes probes(ProbeFactory factory) {
+    return new WorkspaceProbes(WORKSPACE_ID, singletonList(factory));
+  }
+
+  private HttpProbeFactory httpProbe(String scheme, int successThreshold, int failureThreshold)
+      throws Exception {
+    return new HttpProbeFactory(
+        WORKSPACE_ID,
+        "machine",
+        "server",
+        new HttpProbeConfig(
+            server.getAddress().getPort(),
+            "127.0.0.1",
+            scheme,
+            "/liveness",
+            null,
+            successThreshold,
+            failureThreshold,
+            1,
+            1,
+            0));
+  }
+
+  private static long sum(long[] histogram) {
+    long sum = 0;
+    for (long count : histogram) {
+      sum += count;
+    }
+    return sum;
+  }
+
+  private static class TestProbeConfig extends ProbeConfig {
+    private TestProbeConfig() {
+      super(1, 1, 1, 1, 0);
+    }
+  }
+}